@@ -0,0 +1,127 @@
+package raccoonback;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.decorators.Decorators;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import static java.util.Arrays.asList;
+
+/**
+ * {@link Introduce#sample()} 의 비동기 데코레이터 체인을 한 단계씩 쌓아가며 계층별 비용을 측정한다.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AsyncDecoratorChainBenchmark {
+
+    private final BackendService backendService = new BackendService();
+
+    private ThreadPoolBulkhead threadPoolBulkhead;
+
+    private ScheduledExecutorService scheduledExecutorService;
+
+    private Supplier<CompletionStage<String>> threadPoolBulkheadSupplier;
+
+    private Supplier<CompletionStage<String>> timeLimiterSupplier;
+
+    private Supplier<CompletionStage<String>> circuitBreakerSupplier;
+
+    private Supplier<CompletionStage<String>> fullChainSupplier;
+
+    @Setup
+    public void setUp() {
+        CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("backendService");
+
+        threadPoolBulkhead = ThreadPoolBulkhead.ofDefaults("backendService");
+
+        scheduledExecutorService = Executors.newScheduledThreadPool(3);
+        TimeLimiter timeLimiter = TimeLimiter.of(Duration.ofSeconds(1));
+
+        Supplier<String> supplier = () -> backendService.doSomething("param1", "param2");
+
+        threadPoolBulkheadSupplier = Decorators.ofSupplier(supplier)
+                .withThreadPoolBulkhead(threadPoolBulkhead)
+                .decorate();
+
+        timeLimiterSupplier = Decorators.ofSupplier(supplier)
+                .withThreadPoolBulkhead(threadPoolBulkhead)
+                .withTimeLimiter(timeLimiter, scheduledExecutorService)
+                .decorate();
+
+        circuitBreakerSupplier = Decorators.ofSupplier(supplier)
+                .withThreadPoolBulkhead(threadPoolBulkhead)
+                .withTimeLimiter(timeLimiter, scheduledExecutorService)
+                .withCircuitBreaker(circuitBreaker)
+                .decorate();
+
+        fullChainSupplier = Decorators.ofSupplier(supplier)
+                .withThreadPoolBulkhead(threadPoolBulkhead)
+                .withTimeLimiter(timeLimiter, scheduledExecutorService)
+                .withCircuitBreaker(circuitBreaker)
+                .withFallback(
+                        asList(
+                                TimeoutException.class,
+                                CallNotPermittedException.class,
+                                BulkheadFullException.class
+                        ),
+                        throwable -> "Hello from Recovery"
+                )
+                .decorate();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        scheduledExecutorService.shutdownNow();
+        threadPoolBulkhead.close();
+    }
+
+    @Benchmark
+    public String threadPoolBulkhead() {
+        return threadPoolBulkheadSupplier.get()
+                .toCompletableFuture()
+                .join();
+    }
+
+    @Benchmark
+    public String timeLimiter() {
+        return timeLimiterSupplier.get()
+                .toCompletableFuture()
+                .join();
+    }
+
+    @Benchmark
+    public String circuitBreaker() {
+        return circuitBreakerSupplier.get()
+                .toCompletableFuture()
+                .join();
+    }
+
+    @Benchmark
+    public String fullChain() {
+        return fullChainSupplier.get()
+                .toCompletableFuture()
+                .join();
+    }
+}
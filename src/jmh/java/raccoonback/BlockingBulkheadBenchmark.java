@@ -0,0 +1,99 @@
+package raccoonback;
+
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import raccoonback.bulkhead.VirtualThreadBulkhead;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 10ms 동안 blocking 되는 backend 호출 {@code fanOut} 건을 한 번에 제출하고 모두 끝날 때까지의 처리량을
+ * platform thread 기반 {@link ThreadPoolBulkhead} 와 {@link VirtualThreadBulkhead} 로 비교한다.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BlockingBulkheadBenchmark {
+
+    @Param({"1000", "10000"})
+    private int fanOut;
+
+    private ThreadPoolBulkhead threadPoolBulkhead;
+
+    private ThreadPoolBulkhead virtualThreadBulkhead;
+
+    private Supplier<CompletionStage<String>> threadPoolSupplier;
+
+    private Supplier<CompletionStage<String>> virtualThreadSupplier;
+
+    @Setup
+    public void setUp() {
+        Supplier<String> blockingCall = () -> {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            return "ok";
+        };
+
+        threadPoolBulkhead = ThreadPoolBulkhead.of(
+                "backendService",
+                ThreadPoolBulkheadConfig.custom()
+                        .coreThreadPoolSize(200)
+                        .maxThreadPoolSize(200)
+                        .queueCapacity(fanOut * 64)
+                        .build()
+        );
+        virtualThreadBulkhead = VirtualThreadBulkhead.of(
+                "backendService",
+                ThreadPoolBulkheadConfig.custom()
+                        .coreThreadPoolSize(1)
+                        .maxThreadPoolSize(fanOut * 64)
+                        .queueCapacity(0)
+                        .build()
+        );
+
+        threadPoolSupplier = ThreadPoolBulkhead.decorateSupplier(threadPoolBulkhead, blockingCall);
+        virtualThreadSupplier = ThreadPoolBulkhead.decorateSupplier(virtualThreadBulkhead, blockingCall);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        threadPoolBulkhead.close();
+        virtualThreadBulkhead.close();
+    }
+
+    @Benchmark
+    public void threadPoolBulkhead() {
+        fanOut(threadPoolSupplier);
+    }
+
+    @Benchmark
+    public void virtualThreadBulkhead() {
+        fanOut(virtualThreadSupplier);
+    }
+
+    private void fanOut(Supplier<CompletionStage<String>> supplier) {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[fanOut];
+        for (int i = 0; i < fanOut; i++) {
+            futures[i] = supplier.get().toCompletableFuture();
+        }
+        CompletableFuture.allOf(futures).join();
+    }
+}
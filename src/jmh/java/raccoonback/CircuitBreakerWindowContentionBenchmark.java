@@ -0,0 +1,83 @@
+package raccoonback;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import raccoonback.circuitbreaker.StripedSlidingWindow;
+import raccoonback.circuitbreaker.WindowedCircuitBreaker;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 같은 COUNT_BASED window 에 여러 스레드가 동시에 기록할 때 기본 window 와 {@link StripedSlidingWindow} 의 처리량을 비교한다.
+ * 64 스레드 결과는 {@code ./gradlew jmh -Pjmh.include=CircuitBreakerWindowContention -Pjmh.threads=64} 로 측정한다.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CircuitBreakerWindowContentionBenchmark {
+
+    private static final IOException FAILURE = new IOException();
+
+    private CircuitBreaker stockCircuitBreaker;
+
+    private CircuitBreaker stripedCircuitBreaker;
+
+    @Setup
+    public void setUp() {
+        // 100 건 중 한 건만 실패하므로 circuit 은 계속 CLOSED 로 남는다
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(
+                CircuitBreakerConfig.custom()
+                        .slidingWindowSize(100)
+                        .minimumNumberOfCalls(100)
+                        .failureRateThreshold(50)
+                        .build()
+        );
+
+        stockCircuitBreaker = registry.circuitBreaker("stock");
+        stripedCircuitBreaker = WindowedCircuitBreaker.of(
+                registry.circuitBreaker("striped"),
+                StripedSlidingWindow.of(100)
+        );
+    }
+
+    @State(Scope.Thread)
+    public static class CallCounter {
+
+        private int count;
+
+        boolean nextFails() {
+            return ++count % 100 == 0;
+        }
+    }
+
+    @Benchmark
+    public void stockWindow(CallCounter counter) {
+        call(stockCircuitBreaker, counter);
+    }
+
+    @Benchmark
+    public void stripedWindow(CallCounter counter) {
+        call(stripedCircuitBreaker, counter);
+    }
+
+    private void call(CircuitBreaker circuitBreaker, CallCounter counter) {
+        circuitBreaker.acquirePermission();
+        if (counter.nextFails()) {
+            circuitBreaker.onError(1_000, TimeUnit.NANOSECONDS, FAILURE);
+        } else {
+            circuitBreaker.onSuccess(1_000, TimeUnit.NANOSECONDS);
+        }
+    }
+}
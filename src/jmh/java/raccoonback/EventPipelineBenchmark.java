@@ -0,0 +1,124 @@
+package raccoonback;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.event.RateLimiterEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import raccoonback.event.AsyncEventPipeline;
+import raccoonback.event.AsyncEventPipelineConfig;
+import raccoonback.event.AsyncEventPipelineConfig.OverflowPolicy;
+
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 호출마다 이벤트가 발행될 때, 이벤트를 호출한 스레드에서 바로 기록하는 경우와 {@link AsyncEventPipeline} 에 넘기는 경우의
+ * 호출 latency 를 비교한다. sink 는 하나의 lock 을 두고 메시지를 format 해 쓰는 log appender 를 흉내낸다.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EventPipelineBenchmark {
+
+    private final Object sinkLock = new Object();
+
+    private StringWriter sink;
+
+    private BackendService backendService;
+
+    private AsyncEventPipeline<RateLimiterEvent> pipeline;
+
+    private Supplier<String> noConsumerSupplier;
+
+    private Supplier<String> synchronousSupplier;
+
+    private Supplier<String> asyncPipelineSupplier;
+
+    @Setup
+    public void setUp() {
+        sink = new StringWriter();
+        backendService = new BackendService();
+        pipeline = AsyncEventPipeline.of(
+                "benchmark",
+                AsyncEventPipelineConfig.custom()
+                        .overflowPolicy(OverflowPolicy.SAMPLE)
+                        .build(),
+                batch -> batch.forEach(this::write)
+        );
+
+        noConsumerSupplier = RateLimiter.decorateSupplier(
+                rateLimiter("noConsumer"),
+                () -> backendService.doSomething("param1", "param2")
+        );
+
+        RateLimiter synchronousRateLimiter = rateLimiter("synchronous");
+        synchronousRateLimiter.getEventPublisher()
+                .onSuccess(this::write)
+                .onFailure(this::write);
+        synchronousSupplier = RateLimiter.decorateSupplier(
+                synchronousRateLimiter,
+                () -> backendService.doSomething("param1", "param2")
+        );
+
+        RateLimiter asyncRateLimiter = rateLimiter("async");
+        asyncRateLimiter.getEventPublisher()
+                .onSuccess(pipeline::publish)
+                .onFailure(pipeline::publish);
+        asyncPipelineSupplier = RateLimiter.decorateSupplier(
+                asyncRateLimiter,
+                () -> backendService.doSomething("param1", "param2")
+        );
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        pipeline.close();
+    }
+
+    private static RateLimiter rateLimiter(String name) {
+        return RateLimiter.of(
+                name,
+                RateLimiterConfig.custom()
+                        .limitForPeriod(Integer.MAX_VALUE)
+                        .limitRefreshPeriod(Duration.ofSeconds(1))
+                        .timeoutDuration(Duration.ZERO)
+                        .build()
+        );
+    }
+
+    private void write(RateLimiterEvent event) {
+        synchronized (sinkLock) {
+            sink.write(String.format("%s %s %s%n", event.getCreationTime(), event.getRateLimiterName(), event.getEventType()));
+            if (sink.getBuffer().length() > 1 << 20) {
+                sink.getBuffer().setLength(0);
+            }
+        }
+    }
+
+    @Benchmark
+    public String noConsumer() {
+        return noConsumerSupplier.get();
+    }
+
+    @Benchmark
+    public String synchronousConsumer() {
+        return synchronousSupplier.get();
+    }
+
+    @Benchmark
+    public String asyncPipeline() {
+        return asyncPipelineSupplier.get();
+    }
+}
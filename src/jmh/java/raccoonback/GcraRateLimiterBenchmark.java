@@ -0,0 +1,64 @@
+package raccoonback;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import raccoonback.ratelimiter.GcraRateLimiter;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 기다리지 않을 만큼 넉넉한 limit 에서 기본 rate limiter 와 {@link GcraRateLimiter} 의 permit 획득 비용을 비교한다.
+ * 경합을 보려면 {@code -Pjmh.threads=32} 로 실행한다.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GcraRateLimiterBenchmark {
+
+    private RateLimiter stockRateLimiter;
+
+    private RateLimiter gcraRateLimiter;
+
+    @Setup
+    public void setUp() {
+        RateLimiterConfig config = RateLimiterConfig.custom()
+                .limitForPeriod(1_000_000_000)
+                .limitRefreshPeriod(Duration.ofSeconds(1))
+                .timeoutDuration(Duration.ZERO)
+                .build();
+
+        stockRateLimiter = RateLimiter.of("stock", config);
+        gcraRateLimiter = GcraRateLimiter.of("gcra", config);
+    }
+
+    @Benchmark
+    public boolean stockAcquirePermission() {
+        return stockRateLimiter.acquirePermission();
+    }
+
+    @Benchmark
+    public boolean gcraAcquirePermission() {
+        return gcraRateLimiter.acquirePermission();
+    }
+
+    @Benchmark
+    public long stockReservePermission() {
+        return stockRateLimiter.reservePermission();
+    }
+
+    @Benchmark
+    public long gcraReservePermission() {
+        return gcraRateLimiter.reservePermission();
+    }
+}
@@ -0,0 +1,93 @@
+package raccoonback;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import raccoonback.metrics.LatencyHistogram;
+import raccoonback.metrics.LayerLatencies;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * {@link LatencyHistogram} 기록 비용과, 층별 시간 측정을 붙였을 때 호출 한 번에 더해지는 비용을 잰다.
+ * 층 하나의 측정 비용({@code timedBackend - backend})은 {@code record} 한 번과 {@code nanoTime} 두 번이다.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LatencyHistogramBenchmark {
+
+    private LatencyHistogram histogram;
+
+    private BackendService backendService;
+
+    private Supplier<String> backendSupplier;
+
+    private Supplier<String> timedBackendSupplier;
+
+    private Supplier<String> bulkheadSupplier;
+
+    private Supplier<String> timedBulkheadSupplier;
+
+    @Setup
+    public void setUp() {
+        histogram = LatencyHistogram.create();
+        backendService = new BackendService();
+
+        backendSupplier = () -> backendService.doSomething("param1", "param2");
+        timedBackendSupplier = LayerLatencies.create().timeBackend(backendSupplier);
+
+        Bulkhead bulkhead = Bulkhead.of("bulkhead", BulkheadConfig.custom().maxConcurrentCalls(256).build());
+        bulkheadSupplier = Bulkhead.decorateSupplier(
+                bulkhead,
+                () -> backendService.doSomething("param1", "param2")
+        );
+
+        LayerLatencies latencies = LayerLatencies.create();
+        timedBulkheadSupplier = Bulkhead.decorateSupplier(
+                latencies.timed(Bulkhead.of("timed", BulkheadConfig.custom().maxConcurrentCalls(256).build())),
+                latencies.timeBackend(() -> backendService.doSomething("param1", "param2"))
+        );
+    }
+
+    @Benchmark
+    public void record() {
+        histogram.record(ThreadLocalRandom.current().nextLong(1_000, 10_000_000));
+    }
+
+    @Benchmark
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
+    @Benchmark
+    public String backend() {
+        return backendSupplier.get();
+    }
+
+    @Benchmark
+    public String timedBackend() {
+        return timedBackendSupplier.get();
+    }
+
+    @Benchmark
+    public String bulkhead() {
+        return bulkheadSupplier.get();
+    }
+
+    @Benchmark
+    public String timedBulkhead() {
+        return timedBulkheadSupplier.get();
+    }
+}
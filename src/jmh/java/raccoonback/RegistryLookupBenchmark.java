@@ -0,0 +1,86 @@
+package raccoonback;
+
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.retry.RetryRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import raccoonback.registry.ResilienceHandle;
+import raccoonback.registry.ResilienceRegistry;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 호출마다 이름으로 registry 를 찾는 비용과 {@link ResilienceHandle} 을 쓰는 비용을 비교한다.
+ * 경합을 보려면 {@code -Pjmh.threads=32} 로 실행한다.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RegistryLookupBenchmark {
+
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    private BulkheadRegistry bulkheadRegistry;
+
+    private RateLimiterRegistry rateLimiterRegistry;
+
+    private RetryRegistry retryRegistry;
+
+    private ResilienceRegistry resilienceRegistry;
+
+    private ResilienceHandle handle;
+
+    private int index;
+
+    @Setup
+    public void setUp() {
+        resilienceRegistry = ResilienceRegistry.ofDefaults();
+        circuitBreakerRegistry = resilienceRegistry.getCircuitBreakerRegistry();
+        bulkheadRegistry = resilienceRegistry.getBulkheadRegistry();
+        rateLimiterRegistry = resilienceRegistry.getRateLimiterRegistry();
+        retryRegistry = resilienceRegistry.getRetryRegistry();
+
+        // 실제 서비스처럼 다른 backend 도 등록해 map 에 여러 항목이 있게 한다
+        for (int i = 0; i < 64; i++) {
+            resilienceRegistry.resolve("backend-" + i);
+        }
+        handle = resilienceRegistry.resolve("backendService");
+        index = handle.getIndex();
+    }
+
+    @Benchmark
+    public void registryLookup(Blackhole blackhole) {
+        blackhole.consume(circuitBreakerRegistry.circuitBreaker("backendService"));
+        blackhole.consume(bulkheadRegistry.bulkhead("backendService"));
+        blackhole.consume(rateLimiterRegistry.rateLimiter("backendService"));
+        blackhole.consume(retryRegistry.retry("backendService"));
+    }
+
+    @Benchmark
+    public void handleIndexLookup(Blackhole blackhole) {
+        ResilienceHandle resolved = resilienceRegistry.handle(index);
+        blackhole.consume(resolved.getCircuitBreaker());
+        blackhole.consume(resolved.getBulkhead());
+        blackhole.consume(resolved.getRateLimiter());
+        blackhole.consume(resolved.getRetry());
+    }
+
+    @Benchmark
+    public void handleFieldLoad(Blackhole blackhole) {
+        blackhole.consume(handle.getCircuitBreaker());
+        blackhole.consume(handle.getBulkhead());
+        blackhole.consume(handle.getRateLimiter());
+        blackhole.consume(handle.getRetry());
+    }
+}
@@ -0,0 +1,179 @@
+package raccoonback;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.core.IntervalFunction;
+import raccoonback.retry.Backoff;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 장애 구간에서 재시도 간격 전략마다 backend 가 받는 최대 QPS 를 가상 시간으로 시뮬레이션한다.
+ * <p>
+ * client 는 1ms 마다 호출을 하나씩(1000 QPS) 보낸다. backend 는 {@value #STALL_START}ms 부터 멈춰 호출을 붙잡고 있다가
+ * {@value #FAILURE_START}ms 에 붙잡고 있던 호출을 한꺼번에 실패시키고, {@value #FAILURE_END}ms 까지 모든 호출에 바로 실패한다.
+ * 그 밖에는 {@value #SUCCESS_LATENCY}ms 만에 성공한다. 호출은 최대 {@value #MAX_ATTEMPTS} 번까지 시도한다.
+ * <pre>{@code
+ * ./gradlew simulateRetryStorm
+ * }</pre>
+ */
+public class RetryStormSimulation {
+
+    static final int DURATION = 4_000;
+
+    static final int STALL_START = 1_000;
+
+    static final int FAILURE_START = 1_500;
+
+    static final int FAILURE_END = 2_000;
+
+    static final int SUCCESS_LATENCY = 5;
+
+    static final int MAX_ATTEMPTS = 4;
+
+    static final int BUCKET_MILLIS = 10;
+
+    public static void main(String[] args) {
+        Duration base = Duration.ofMillis(100);
+        Duration cap = Duration.ofSeconds(2);
+
+        Map<String, Function<CircuitBreaker, IntervalFunction>> strategies = new LinkedHashMap<>();
+        strategies.put("fixed 500ms", (circuitBreaker) -> IntervalFunction.of(Duration.ofMillis(500)));
+        strategies.put("exponential", (circuitBreaker) -> IntervalFunction.ofExponentialBackoff(base, 2, cap));
+        strategies.put("full jitter", (circuitBreaker) -> Backoff.fullJitter(base, cap));
+        strategies.put("decorrelated jitter", (circuitBreaker) -> Backoff.decorrelatedJitter(base, cap));
+        strategies.put("latency-aware", (circuitBreaker) -> Backoff.latencyAware(Backoff.fullJitter(base, cap), circuitBreaker, 4));
+
+        System.out.printf("%-20s %10s %12s %12s %10s%n", "strategy", "peak QPS", "backend calls", "succeeded", "gave up");
+        strategies.forEach((name, strategy) -> {
+            CircuitBreaker circuitBreaker = CircuitBreaker.of(
+                    name,
+                    CircuitBreakerConfig.custom()
+                            .slidingWindowSize(100)
+                            .minimumNumberOfCalls(10)
+                            .slowCallDurationThreshold(Duration.ofMillis(100))
+                            .build()
+            );
+            // 상태는 바꾸지 않고 slow call 비율만 쓴다
+            circuitBreaker.transitionToMetricsOnlyState();
+
+            Result result = simulate(strategy.apply(circuitBreaker), circuitBreaker);
+            System.out.printf(
+                    "%-20s %10d %12d %12d %10d%n",
+                    name,
+                    result.peakQps,
+                    result.backendCalls,
+                    result.succeeded,
+                    result.gaveUp
+            );
+        });
+    }
+
+    static Result simulate(IntervalFunction intervalFunction, CircuitBreaker circuitBreaker) {
+        PriorityQueue<Event> events = new PriorityQueue<>();
+        for (int time = 0; time < DURATION; time++) {
+            events.add(Event.arrival(time, 1));
+        }
+
+        int[] arrivals = new int[DURATION / BUCKET_MILLIS * 4];
+        Result result = new Result();
+        while (!events.isEmpty()) {
+            Event event = events.poll();
+            if (event.arrival) {
+                int bucket = (int) (event.time / BUCKET_MILLIS);
+                if (bucket < arrivals.length) {
+                    arrivals[bucket]++;
+                }
+                result.backendCalls++;
+                events.add(complete(event));
+                continue;
+            }
+
+            long durationInMillis = event.time - event.startTime;
+            if (event.succeeded) {
+                circuitBreaker.onSuccess(durationInMillis, TimeUnit.MILLISECONDS);
+                result.succeeded++;
+            } else {
+                circuitBreaker.onError(durationInMillis, TimeUnit.MILLISECONDS, new RetryableException());
+                if (event.attempt < MAX_ATTEMPTS) {
+                    events.add(Event.arrival(event.time + intervalFunction.apply(event.attempt), event.attempt + 1));
+                } else {
+                    result.gaveUp++;
+                }
+            }
+        }
+
+        int peak = 0;
+        for (int count : arrivals) {
+            peak = Math.max(peak, count);
+        }
+        result.peakQps = peak * (1_000 / BUCKET_MILLIS);
+        return result;
+    }
+
+    private static Event complete(Event arrival) {
+        long time = arrival.time;
+        if (time >= STALL_START && time < FAILURE_START) {
+            return Event.completion(arrival, FAILURE_START, false);
+        }
+        if (time >= FAILURE_START && time < FAILURE_END) {
+            return Event.completion(arrival, time + 1, false);
+        }
+        return Event.completion(arrival, time + SUCCESS_LATENCY, true);
+    }
+
+    static class Result {
+
+        long peakQps;
+
+        long backendCalls;
+
+        long succeeded;
+
+        long gaveUp;
+    }
+
+    private static class Event implements Comparable<Event> {
+
+        private static long sequence;
+
+        private final long time;
+
+        private final long order = sequence++;
+
+        private final boolean arrival;
+
+        private final long startTime;
+
+        private final int attempt;
+
+        private final boolean succeeded;
+
+        private Event(long time, boolean arrival, long startTime, int attempt, boolean succeeded) {
+            this.time = time;
+            this.arrival = arrival;
+            this.startTime = startTime;
+            this.attempt = attempt;
+            this.succeeded = succeeded;
+        }
+
+        static Event arrival(long time, int attempt) {
+            return new Event(time, true, time, attempt, false);
+        }
+
+        static Event completion(Event arrival, long time, boolean succeeded) {
+            return new Event(time, false, arrival.time, arrival.attempt, succeeded);
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            int compared = Long.compare(time, other.time);
+            return compared != 0 ? compared : Long.compare(order, other.order);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package raccoonback;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.decorators.Decorators;
+import io.github.resilience4j.retry.Retry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * {@link Introduce#sample()} 의 동기 데코레이터 체인을 계층별로 나누어 비용을 측정한다.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SyncDecoratorChainBenchmark {
+
+    private final BackendService backendService = new BackendService();
+
+    private Supplier<String> supplier;
+
+    private Supplier<String> circuitBreakerSupplier;
+
+    private Supplier<String> bulkheadSupplier;
+
+    private Supplier<String> retrySupplier;
+
+    private Supplier<String> fullChainSupplier;
+
+    private ResilientCall resilientCall;
+
+    @Setup
+    public void setUp() {
+        CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("backendService");
+
+        Retry retry = Retry.ofDefaults("backendService");
+
+        // 64 스레드 측정에서 거절이 아닌 permit 획득 비용을 재기 위해 동시 호출 수만 늘린다
+        Bulkhead bulkhead = Bulkhead.of(
+                "backendService",
+                BulkheadConfig.custom()
+                        .maxConcurrentCalls(256)
+                        .build()
+        );
+
+        supplier = () -> backendService.doSomething("param1", "param2");
+
+        circuitBreakerSupplier = Decorators.ofSupplier(supplier)
+                .withCircuitBreaker(circuitBreaker)
+                .decorate();
+
+        bulkheadSupplier = Decorators.ofSupplier(supplier)
+                .withBulkhead(bulkhead)
+                .decorate();
+
+        retrySupplier = Decorators.ofSupplier(supplier)
+                .withRetry(retry)
+                .decorate();
+
+        fullChainSupplier = Decorators.ofSupplier(supplier)
+                .withCircuitBreaker(circuitBreaker)
+                .withBulkhead(bulkhead)
+                .withRetry(retry)
+                .decorate();
+
+        resilientCall = ResilientCall.of(backendService, circuitBreaker, bulkhead, retry);
+    }
+
+    @Benchmark
+    public String undecorated() {
+        return supplier.get();
+    }
+
+    @Benchmark
+    public String circuitBreaker() {
+        return circuitBreakerSupplier.get();
+    }
+
+    @Benchmark
+    public String bulkhead() {
+        return bulkheadSupplier.get();
+    }
+
+    @Benchmark
+    public String retry() {
+        return retrySupplier.get();
+    }
+
+    @Benchmark
+    public String fullChain() {
+        return fullChainSupplier.get();
+    }
+
+    @Benchmark
+    public String resilientCall() {
+        return resilientCall.call("param1", "param2");
+    }
+}
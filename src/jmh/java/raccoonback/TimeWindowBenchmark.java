@@ -0,0 +1,63 @@
+package raccoonback;
+
+import io.github.resilience4j.core.metrics.Metrics;
+import io.github.resilience4j.core.metrics.SlidingTimeWindowMetrics;
+import io.github.resilience4j.core.metrics.Snapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import raccoonback.circuitbreaker.RingBufferTimeWindow;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * window 길이별로 기본 {@link SlidingTimeWindowMetrics} 와 {@link RingBufferTimeWindow} 의 기록, 조회 비용을 비교한다.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TimeWindowBenchmark {
+
+    @Param({"10", "60", "300"})
+    private int windowSeconds;
+
+    private SlidingTimeWindowMetrics stockWindow;
+
+    private RingBufferTimeWindow ringBufferWindow;
+
+    @Setup
+    public void setUp() {
+        stockWindow = new SlidingTimeWindowMetrics(windowSeconds, Clock.systemUTC());
+        ringBufferWindow = RingBufferTimeWindow.of(Duration.ofSeconds(windowSeconds));
+    }
+
+    @Benchmark
+    public Snapshot stockRecord() {
+        return stockWindow.record(1_000, TimeUnit.NANOSECONDS, Metrics.Outcome.SUCCESS);
+    }
+
+    @Benchmark
+    public void ringBufferRecord() {
+        ringBufferWindow.record(1_000, Metrics.Outcome.SUCCESS);
+    }
+
+    @Benchmark
+    public Snapshot stockSnapshot() {
+        return stockWindow.getSnapshot();
+    }
+
+    @Benchmark
+    public int ringBufferFailedCalls() {
+        return ringBufferWindow.getNumberOfFailedCalls();
+    }
+}
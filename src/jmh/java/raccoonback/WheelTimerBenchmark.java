@@ -0,0 +1,69 @@
+package raccoonback;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import raccoonback.retry.HashedWheelTimer;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 재시도 대기 중인 작업이 {@code pendingRetries} 개 쌓여 있을 때 작업 하나를 예약하고 취소하는 비용을
+ * {@link ScheduledExecutorService} 와 {@link HashedWheelTimer} 로 비교한다.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WheelTimerBenchmark {
+
+    private static final Runnable NOOP = () -> {
+    };
+
+    @Param({"1000", "100000"})
+    private int pendingRetries;
+
+    private ScheduledExecutorService scheduler;
+
+    private HashedWheelTimer timer;
+
+    @Setup
+    public void setUp() {
+        scheduler = Executors.newScheduledThreadPool(1);
+        timer = HashedWheelTimer.of("benchmark", Duration.ofMillis(10), 512);
+        for (int i = 0; i < pendingRetries; i++) {
+            scheduler.schedule(NOOP, 1, TimeUnit.HOURS);
+            timer.schedule(NOOP, 1, TimeUnit.HOURS);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        scheduler.shutdownNow();
+        timer.close();
+    }
+
+    @Benchmark
+    public boolean scheduledExecutorScheduleAndCancel() {
+        ScheduledFuture<?> future = scheduler.schedule(NOOP, 500, TimeUnit.MILLISECONDS);
+        return future.cancel(false);
+    }
+
+    @Benchmark
+    public boolean wheelTimerScheduleAndCancel() {
+        HashedWheelTimer.Timeout timeout = timer.schedule(NOOP, 500, TimeUnit.MILLISECONDS);
+        return timeout.cancel();
+    }
+}
@@ -0,0 +1,4 @@
+package raccoonback;
+
+public record BackendRequest(String param1, String param2) {
+}
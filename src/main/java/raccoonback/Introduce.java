@@ -5,15 +5,36 @@ import io.github.resilience4j.bulkhead.BulkheadFullException;
 import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
 import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.core.IntervalFunction;
 import io.github.resilience4j.decorators.Decorators;
 import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
 import io.github.resilience4j.timelimiter.TimeLimiter;
+import raccoonback.bulkhead.AdmissionController;
+import raccoonback.bulkhead.PriorityBulkhead;
+import raccoonback.circuitbreaker.CircuitBreakerGossip;
+import raccoonback.circuitbreaker.CircuitBreakerSnapshotStore;
+import raccoonback.circuitbreaker.KeyedCircuitBreaker;
+import raccoonback.circuitbreaker.LoopbackGossipTransport;
+import raccoonback.deadline.Deadline;
+import raccoonback.deadline.Deadlines;
+import raccoonback.flow.FlowDecorators;
+import raccoonback.hedging.Hedging;
+import raccoonback.registry.ResilienceHandle;
+import raccoonback.registry.ResilienceRegistry;
+import raccoonback.retry.AsyncRetry;
+import raccoonback.timelimiter.CancellableTimeLimiter;
 
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 import static java.util.Arrays.asList;
@@ -37,6 +58,79 @@ public class Introduce {
                 .withRetry(retry)
                 .decorate();
 
+        CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+
+        CircuitBreakerSnapshotStore snapshotStore = CircuitBreakerSnapshotStore.ofDefaults(
+                circuitBreakerRegistry,
+                Path.of("circuit-breaker.snapshot")
+        );
+        snapshotStore.restore();
+        snapshotStore.start();
+
+        CircuitBreakerGossip gossip = CircuitBreakerGossip.ofDefaults(
+                "node-a",
+                circuitBreakerRegistry,
+                LoopbackGossipTransport.network().join()
+        );
+        gossip.start();
+
+        ResilienceHandle backendHandle = ResilienceRegistry.ofDefaults().resolve("backendService");
+
+        Supplier<String> handleSupplier = backendHandle.decorateSupplier(supplier);
+
+        KeyedCircuitBreaker<String> tenantCircuitBreaker = KeyedCircuitBreaker.ofDefaults("backendService");
+
+        BackendRequest tenantRequest = new BackendRequest("tenant-a", "param2");
+        Supplier<String> tenantSupplier = KeyedCircuitBreaker.decorateSupplier(
+                tenantCircuitBreaker,
+                tenantRequest.param1(),
+                () -> backendService.doSomething(tenantRequest.param1(), tenantRequest.param2())
+        );
+
+        PriorityBulkhead priorityBulkhead = PriorityBulkhead.ofDefaults("backendService");
+
+        Supplier<String> interactiveSupplier = Decorators.ofSupplier(supplier)
+                .withCircuitBreaker(circuitBreaker)
+                .withBulkhead(priorityBulkhead.critical())
+                .decorate();
+
+        Supplier<String> batchSupplier = Decorators.ofSupplier(supplier)
+                .withCircuitBreaker(circuitBreaker)
+                .withBulkhead(priorityBulkhead.bestEffort())
+                .decorate();
+
+        AdmissionController admissionController = AdmissionController.ofDefaults("backendService");
+
+        Supplier<String> admittedSupplier = Decorators.ofSupplier(supplier)
+                .withCircuitBreaker(circuitBreaker)
+                .withBulkhead(AdmissionController.decorateBulkhead(admissionController, bulkhead))
+                .withBulkhead(admissionController)
+                .decorate();
+
+        Retry deadlineRetry = Retry.of(
+                "backendService",
+                RetryConfig.custom()
+                        .intervalFunction(Deadlines.bounded(IntervalFunction.of(Duration.ofMillis(500))))
+                        .build()
+        );
+
+        Supplier<String> deadlineSupplier = Deadline.decorateSupplier(
+                Duration.ofSeconds(1),
+                Decorators.ofSupplier(Deadlines.decorateSupplier(supplier))
+                        .withCircuitBreaker(circuitBreaker)
+                        .withBulkhead(Deadlines.bounded(bulkhead))
+                        .withRetry(deadlineRetry)
+                        .decorate()
+        );
+
+        ExecutorService flowExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        Function<Flow.Publisher<BackendRequest>, Flow.Publisher<String>> flowOperator = FlowDecorators
+                .ofFunction((BackendRequest request) -> backendService.doSomething(request.param1(), request.param2()), flowExecutor)
+                .withCircuitBreaker(circuitBreaker)
+                .withRetry(retry)
+                .withBulkhead(bulkhead)
+                .decorate();
+
         String result = circuitBreaker.executeSupplier(() -> backendService.doSomething("param1", "param2"));
 
         ThreadPoolBulkhead threadPoolBulkhead = ThreadPoolBulkhead.ofDefaults("backendService");
@@ -58,5 +152,42 @@ public class Introduce {
                 )
                 .get()
                 .toCompletableFuture();
+
+        CancellableTimeLimiter cancellableTimeLimiter = CancellableTimeLimiter.of(timeLimiter, scheduledExecutorService);
+
+        CompletableFuture<String> cancellableFuture = Decorators.ofCompletionStage(
+                        CancellableTimeLimiter.decorateSupplier(cancellableTimeLimiter, threadPoolBulkhead, supplier)
+                )
+                .withCircuitBreaker(circuitBreaker)
+                .get()
+                .toCompletableFuture();
+
+        Hedging hedging = Hedging.ofDefaults("backendService");
+
+        CompletableFuture<String> hedgedFuture = Decorators.ofCompletionStage(
+                        Hedging.decorateCompletionStage(
+                                hedging,
+                                scheduledExecutorService,
+                                Decorators.ofSupplier(supplier)
+                                        .withThreadPoolBulkhead(threadPoolBulkhead)
+                                        .decorate()
+                        )
+                )
+                .withTimeLimiter(timeLimiter, scheduledExecutorService)
+                .withCircuitBreaker(circuitBreaker)
+                .get()
+                .toCompletableFuture();
+
+        CompletableFuture<String> retriedFuture = Decorators.ofCompletionStage(
+                        AsyncRetry.decorateCompletionStage(
+                                retry,
+                                Decorators.ofSupplier(supplier)
+                                        .withThreadPoolBulkhead(threadPoolBulkhead)
+                                        .decorate()
+                        )
+                )
+                .withCircuitBreaker(circuitBreaker)
+                .get()
+                .toCompletableFuture();
     }
 }
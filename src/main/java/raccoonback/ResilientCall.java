@@ -0,0 +1,93 @@
+package raccoonback;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.retry.Retry;
+
+import java.util.function.Predicate;
+
+/**
+ * {@code Decorators.ofSupplier(...).withCircuitBreaker(...).withBulkhead(...).withRetry(...)} 체인과 같은 순서로
+ * 동작하지만, 한 번 조립한 뒤 재사용하며 성공 경로에서는 람다, {@code Retry.Context}, 이벤트 객체를 만들지 않는다.
+ * <p>
+ * 첫 시도가 성공하면 {@code Retry.Context} 를 생성하지 않으므로 retry 의 "재시도 없이 성공" 지표는 집계되지 않는다.
+ */
+public class ResilientCall {
+
+    private final BackendService backendService;
+
+    private final CircuitBreaker circuitBreaker;
+
+    private final Bulkhead bulkhead;
+
+    private final Retry retry;
+
+    private final Predicate<String> retryResultPredicate;
+
+    private ResilientCall(BackendService backendService, CircuitBreaker circuitBreaker, Bulkhead bulkhead, Retry retry) {
+        this.backendService = backendService;
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+        this.retry = retry;
+        this.retryResultPredicate = retry.getRetryConfig().getResultPredicate();
+    }
+
+    public static ResilientCall of(BackendService backendService, CircuitBreaker circuitBreaker, Bulkhead bulkhead, Retry retry) {
+        return new ResilientCall(backendService, circuitBreaker, bulkhead, retry);
+    }
+
+    public String call(String param1, String param2) {
+        String result;
+        try {
+            result = attempt(param1, param2);
+        } catch (RuntimeException exception) {
+            return retry(param1, param2, null, exception);
+        }
+
+        if (retryResultPredicate == null || !retryResultPredicate.test(result)) {
+            return result;
+        }
+
+        return retry(param1, param2, result, null);
+    }
+
+    private String retry(String param1, String param2, String result, RuntimeException exception) {
+        Retry.Context<String> context = retry.context();
+        while (true) {
+            if (exception == null) {
+                if (!context.onResult(result)) {
+                    context.onComplete();
+                    return result;
+                }
+            } else {
+                context.onRuntimeError(exception);
+            }
+
+            try {
+                result = attempt(param1, param2);
+                exception = null;
+            } catch (RuntimeException retryException) {
+                result = null;
+                exception = retryException;
+            }
+        }
+    }
+
+    private String attempt(String param1, String param2) {
+        bulkhead.acquirePermission();
+        try {
+            circuitBreaker.acquirePermission();
+            long start = circuitBreaker.getCurrentTimestamp();
+            try {
+                String result = backendService.doSomething(param1, param2);
+                circuitBreaker.onResult(circuitBreaker.getCurrentTimestamp() - start, circuitBreaker.getTimestampUnit(), result);
+                return result;
+            } catch (RuntimeException exception) {
+                circuitBreaker.onError(circuitBreaker.getCurrentTimestamp() - start, circuitBreaker.getTimestampUnit(), exception);
+                throw exception;
+            }
+        } finally {
+            bulkhead.onComplete();
+        }
+    }
+}
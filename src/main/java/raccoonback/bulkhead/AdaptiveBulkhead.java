@@ -0,0 +1,406 @@
+package raccoonback.bulkhead;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.event.BulkheadEvent;
+import io.github.resilience4j.bulkhead.event.BulkheadOnCallFinishedEvent;
+import io.github.resilience4j.bulkhead.event.BulkheadOnCallPermittedEvent;
+import io.github.resilience4j.bulkhead.event.BulkheadOnCallRejectedEvent;
+import io.github.resilience4j.core.EventConsumer;
+import io.github.resilience4j.core.EventProcessor;
+import io.github.resilience4j.core.exception.AcquirePermissionCancelledException;
+import raccoonback.core.CoarseClock;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 끝난 호출의 latency 와 실패로 동시 호출 limit 을 스스로 조정하는 {@link Bulkhead}.
+ * <p>
+ * limit 을 넘는 호출은 기본으로는 기다리지 않고 바로 {@link BulkheadFullException} 으로 거절한다. limit 은
+ * {@link AdaptiveBulkheadConfig#getLimitAlgorithm()} 에 따라 backend 의 처리량이 더 늘지 않고 latency 만 늘어나는 지점 근처로 수렴한다.
+ * {@link #changeConfig(BulkheadConfig)} 로 {@code maxConcurrentCalls} 를 주면 limit 의 상한이 되고, {@code maxWaitDuration} 을 주면
+ * limit 이 찬 동안 그만큼 permit 을 기다린다.
+ * <p>
+ * limit 조정에는 호출 시간이 필요하므로 {@link #decorateSupplier(AdaptiveBulkhead, Supplier)} 등 이 클래스의 decorator 를 쓰거나
+ * {@link #onSuccess(long, TimeUnit)}, {@link #onError(long, TimeUnit, Throwable)} 로 결과를 알려야 한다.
+ * {@link Bulkhead#decorateSupplier(Bulkhead, Supplier)} 처럼 {@link #onComplete()} 만 부르는 decorator 로 감싸면
+ * permit 은 반납되지만 limit 은 바뀌지 않는다.
+ */
+public class AdaptiveBulkhead implements Bulkhead {
+
+    private final String name;
+
+    private final AdaptiveBulkheadConfig config;
+
+    private final Map<String, String> tags;
+
+    private final CoarseClock clock;
+
+    private final AdaptiveLimit adaptiveLimit;
+
+    private final AtomicInteger inFlightCalls = new AtomicInteger();
+
+    private volatile int limit;
+
+    private volatile Duration maxWaitDuration = Duration.ZERO;
+
+    // permit 을 기다리는 호출이 있을 때만 반납하는 쪽이 lock 을 잡는다
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition permitReleased = lock.newCondition();
+
+    private final AtomicInteger waitingCalls = new AtomicInteger();
+
+    private long windowRttInNanos;
+
+    private int windowCalls;
+
+    private int windowMaxInFlightCalls;
+
+    private boolean windowDropped;
+
+    private final AdaptiveBulkheadMetrics metrics = new AdaptiveBulkheadMetrics();
+
+    private final AdaptiveBulkheadEventProcessor eventProcessor = new AdaptiveBulkheadEventProcessor();
+
+    private AdaptiveBulkhead(String name, AdaptiveBulkheadConfig config, Map<String, String> tags) {
+        this.name = name;
+        this.config = config;
+        this.tags = tags;
+        this.clock = config.getClock();
+        this.adaptiveLimit = AdaptiveLimit.of(config);
+        this.limit = config.getInitialLimit();
+    }
+
+    public static AdaptiveBulkhead ofDefaults(String name) {
+        return of(name, AdaptiveBulkheadConfig.ofDefaults());
+    }
+
+    public static AdaptiveBulkhead of(String name, AdaptiveBulkheadConfig config) {
+        return of(name, config, Collections.emptyMap());
+    }
+
+    public static AdaptiveBulkhead of(String name, AdaptiveBulkheadConfig config, Map<String, String> tags) {
+        return new AdaptiveBulkhead(name, config, tags);
+    }
+
+    public static <T> Supplier<T> decorateSupplier(AdaptiveBulkhead bulkhead, Supplier<T> supplier) {
+        return () -> {
+            bulkhead.acquirePermission();
+            long start = bulkhead.clock.nanoTime();
+            try {
+                T result = supplier.get();
+                bulkhead.onSuccess(bulkhead.clock.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return result;
+            } catch (Throwable throwable) {
+                bulkhead.onError(bulkhead.clock.nanoTime() - start, TimeUnit.NANOSECONDS, throwable);
+                throw throwable;
+            }
+        };
+    }
+
+    public static <T> Callable<T> decorateCallable(AdaptiveBulkhead bulkhead, Callable<T> callable) {
+        return () -> {
+            bulkhead.acquirePermission();
+            long start = bulkhead.clock.nanoTime();
+            try {
+                T result = callable.call();
+                bulkhead.onSuccess(bulkhead.clock.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return result;
+            } catch (Throwable throwable) {
+                bulkhead.onError(bulkhead.clock.nanoTime() - start, TimeUnit.NANOSECONDS, throwable);
+                throw throwable;
+            }
+        };
+    }
+
+    public static Runnable decorateRunnable(AdaptiveBulkhead bulkhead, Runnable runnable) {
+        Supplier<Void> supplier = decorateSupplier(bulkhead, () -> {
+            runnable.run();
+            return null;
+        });
+        return supplier::get;
+    }
+
+    public static <T> Supplier<CompletionStage<T>> decorateCompletionStage(AdaptiveBulkhead bulkhead, Supplier<CompletionStage<T>> supplier) {
+        return () -> {
+            if (!bulkhead.tryAcquirePermission()) {
+                return CompletableFuture.failedFuture(BulkheadFullException.createBulkheadFullException(bulkhead));
+            }
+
+            long start = bulkhead.clock.nanoTime();
+            CompletionStage<T> stage;
+            try {
+                stage = supplier.get();
+            } catch (Throwable throwable) {
+                bulkhead.onError(bulkhead.clock.nanoTime() - start, TimeUnit.NANOSECONDS, throwable);
+                return CompletableFuture.failedFuture(throwable);
+            }
+
+            return stage.whenComplete((result, throwable) -> {
+                if (throwable != null) {
+                    bulkhead.onError(bulkhead.clock.nanoTime() - start, TimeUnit.NANOSECONDS, throwable);
+                } else {
+                    bulkhead.onSuccess(bulkhead.clock.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            });
+        };
+    }
+
+    @Override
+    public boolean tryAcquirePermission() {
+        boolean permitted = tryEnter() || waitForPermission();
+        publishBulkheadEvent(permitted ? new BulkheadOnCallPermittedEvent(name) : new BulkheadOnCallRejectedEvent(name));
+        return permitted;
+    }
+
+    @Override
+    public void acquirePermission() {
+        if (tryAcquirePermission()) {
+            return;
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            throw new AcquirePermissionCancelledException();
+        }
+        throw BulkheadFullException.createBulkheadFullException(this);
+    }
+
+    @Override
+    public void releasePermission() {
+        inFlightCalls.decrementAndGet();
+        signalWaitingCall();
+    }
+
+    private boolean tryEnter() {
+        while (true) {
+            int current = inFlightCalls.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlightCalls.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private boolean waitForPermission() {
+        long remainingInNanos = maxWaitDuration.toNanos();
+        if (remainingInNanos <= 0) {
+            return false;
+        }
+
+        lock.lock();
+        try {
+            // 반납하는 쪽은 inFlightCalls 를 줄인 뒤 waitingCalls 를 보므로, 먼저 등록하고 다시 시도해야 signal 을 놓치지 않는다
+            waitingCalls.incrementAndGet();
+            try {
+                while (!tryEnter()) {
+                    if (remainingInNanos <= 0) {
+                        return false;
+                    }
+                    remainingInNanos = permitReleased.awaitNanos(remainingInNanos);
+                }
+                return true;
+            } finally {
+                waitingCalls.decrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void signalWaitingCall() {
+        if (waitingCalls.get() == 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            permitReleased.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void signalAllWaitingCalls() {
+        if (waitingCalls.get() == 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * limit 을 조정하지 않고 permit 만 반납한다.
+     */
+    @Override
+    public void onComplete() {
+        inFlightCalls.decrementAndGet();
+        signalWaitingCall();
+        publishBulkheadEvent(new BulkheadOnCallFinishedEvent(name));
+    }
+
+    public void onSuccess(long duration, TimeUnit durationUnit) {
+        onComplete(durationUnit.toNanos(duration), false);
+    }
+
+    public void onError(long duration, TimeUnit durationUnit, Throwable throwable) {
+        if ((throwable instanceof CompletionException || throwable instanceof ExecutionException) && throwable.getCause() != null) {
+            onError(duration, durationUnit, throwable.getCause());
+            return;
+        }
+        onComplete(durationUnit.toNanos(duration), config.getRecordExceptionPredicate().test(throwable));
+    }
+
+    private void onComplete(long rttInNanos, boolean dropped) {
+        // 방금 끝난 호출까지 포함해야 limit 을 얼마나 채운 상태에서 측정한 latency 인지 알 수 있다
+        int inFlight = inFlightCalls.getAndDecrement();
+        int previousLimit = limit;
+        synchronized (adaptiveLimit) {
+            windowRttInNanos += rttInNanos;
+            windowCalls++;
+            windowMaxInFlightCalls = Math.max(windowMaxInFlightCalls, inFlight);
+            windowDropped |= dropped;
+
+            // 호출마다 limit 을 바꾸면 아직 이전 limit 에서 시작한 호출의 latency 로 다시 limit 을 바꾸게 되어 크게 출렁인다.
+            // limit 만큼의 호출이 끝나 새 limit 에서 시작한 호출이 반영된 뒤에 한 번씩만 조정한다.
+            if (windowCalls >= limit) {
+                limit = adaptiveLimit.update(windowRttInNanos / windowCalls, windowMaxInFlightCalls, windowDropped);
+                windowRttInNanos = 0;
+                windowCalls = 0;
+                windowMaxInFlightCalls = 0;
+                windowDropped = false;
+            }
+        }
+        if (limit > previousLimit) {
+            signalAllWaitingCalls();
+        } else {
+            signalWaitingCall();
+        }
+        publishBulkheadEvent(new BulkheadOnCallFinishedEvent(name));
+    }
+
+    private void publishBulkheadEvent(BulkheadEvent event) {
+        if (eventProcessor.hasConsumers()) {
+            eventProcessor.consumeEvent(event);
+        }
+    }
+
+    /**
+     * {@code maxConcurrentCalls} 를 limit 의 상한으로, {@code maxWaitDuration} 을 limit 이 찬 동안 기다리는 시간으로 쓴다.
+     * 현재 limit 이 새 상한보다 크면 바로 낮추고, 이미 받은 permit 은 반납될 때까지 그대로 둔다.
+     *
+     * @throws IllegalArgumentException {@code maxConcurrentCalls} 가 {@link AdaptiveBulkheadConfig#getMinLimit()} 보다 작다면
+     */
+    @Override
+    public void changeConfig(BulkheadConfig newConfig) {
+        int newMaxLimit = newConfig.getMaxConcurrentCalls();
+        if (newMaxLimit < config.getMinLimit()) {
+            throw new IllegalArgumentException("maxConcurrentCalls must be greater than or equal to minLimit");
+        }
+
+        int previousLimit;
+        synchronized (adaptiveLimit) {
+            previousLimit = limit;
+            limit = adaptiveLimit.changeMaxLimit(newMaxLimit);
+        }
+        maxWaitDuration = newConfig.getMaxWaitDuration();
+        if (limit > previousLimit) {
+            signalAllWaitingCalls();
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 현재 limit 을 {@code maxConcurrentCalls} 로 나타낸 설정.
+     */
+    @Override
+    public BulkheadConfig getBulkheadConfig() {
+        return BulkheadConfig.custom()
+                .maxConcurrentCalls(limit)
+                .maxWaitDuration(maxWaitDuration)
+                .build();
+    }
+
+    public AdaptiveBulkheadConfig getAdaptiveBulkheadConfig() {
+        return config;
+    }
+
+    @Override
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public Map<String, String> getTags() {
+        return tags;
+    }
+
+    @Override
+    public EventPublisher getEventPublisher() {
+        return eventProcessor;
+    }
+
+    private class AdaptiveBulkheadMetrics implements Metrics {
+
+        @Override
+        public int getAvailableConcurrentCalls() {
+            return Math.max(0, limit - inFlightCalls.get());
+        }
+
+        @Override
+        public int getMaxAllowedConcurrentCalls() {
+            return limit;
+        }
+    }
+
+    private class AdaptiveBulkheadEventProcessor extends EventProcessor<BulkheadEvent>
+            implements EventPublisher, EventConsumer<BulkheadEvent> {
+
+        @Override
+        public EventPublisher onCallPermitted(EventConsumer<BulkheadOnCallPermittedEvent> onCallPermittedEventConsumer) {
+            registerConsumer(BulkheadOnCallPermittedEvent.class.getName(), onCallPermittedEventConsumer);
+            return this;
+        }
+
+        @Override
+        public EventPublisher onCallRejected(EventConsumer<BulkheadOnCallRejectedEvent> onCallRejectedEventConsumer) {
+            registerConsumer(BulkheadOnCallRejectedEvent.class.getName(), onCallRejectedEventConsumer);
+            return this;
+        }
+
+        @Override
+        public EventPublisher onCallFinished(EventConsumer<BulkheadOnCallFinishedEvent> onCallFinishedEventConsumer) {
+            registerConsumer(BulkheadOnCallFinishedEvent.class.getName(), onCallFinishedEventConsumer);
+            return this;
+        }
+
+        @Override
+        public void consumeEvent(BulkheadEvent event) {
+            super.processEvent(event);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package raccoonback.bulkhead;
+
+import raccoonback.core.CoarseClock;
+
+import java.time.Duration;
+import java.util.function.Predicate;
+
+public class AdaptiveBulkheadConfig {
+
+    public enum LimitAlgorithm {
+        /**
+         * window 안에 실패가 있거나 평균 latency 가 slow call 기준을 넘으면 limit 을 {@code backoffRatio} 배로 줄이고,
+         * limit 을 절반 이상 쓰는 동안 성공하면 window 마다 1 씩 늘린다.
+         */
+        AIMD,
+        /**
+         * 부하가 없을 때의 최소 latency 와 window 평균 latency 의 비율(gradient)로 limit 을 조정한다.
+         * latency 가 늘지 않는 동안은 {@code sqrt(limit)} 만큼씩 늘리고, 늘어나면 그 비율만큼 줄인다.
+         */
+        GRADIENT
+    }
+
+    private final LimitAlgorithm limitAlgorithm;
+
+    private final int initialLimit;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double backoffRatio;
+
+    private final Duration slowCallDurationThreshold;
+
+    private final double rttTolerance;
+
+    private final double smoothing;
+
+    private final int probeInterval;
+
+    private final Predicate<Throwable> recordExceptionPredicate;
+
+    private final CoarseClock clock;
+
+    private AdaptiveBulkheadConfig(Builder builder) {
+        this.limitAlgorithm = builder.limitAlgorithm;
+        this.initialLimit = builder.initialLimit;
+        this.minLimit = builder.minLimit;
+        this.maxLimit = builder.maxLimit;
+        this.backoffRatio = builder.backoffRatio;
+        this.slowCallDurationThreshold = builder.slowCallDurationThreshold;
+        this.rttTolerance = builder.rttTolerance;
+        this.smoothing = builder.smoothing;
+        this.probeInterval = builder.probeInterval;
+        this.recordExceptionPredicate = builder.recordExceptionPredicate;
+        this.clock = builder.clock;
+    }
+
+    public static AdaptiveBulkheadConfig ofDefaults() {
+        return custom().build();
+    }
+
+    public static Builder custom() {
+        return new Builder();
+    }
+
+    public LimitAlgorithm getLimitAlgorithm() {
+        return limitAlgorithm;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public double getBackoffRatio() {
+        return backoffRatio;
+    }
+
+    public Duration getSlowCallDurationThreshold() {
+        return slowCallDurationThreshold;
+    }
+
+    public double getRttTolerance() {
+        return rttTolerance;
+    }
+
+    public double getSmoothing() {
+        return smoothing;
+    }
+
+    public int getProbeInterval() {
+        return probeInterval;
+    }
+
+    public Predicate<Throwable> getRecordExceptionPredicate() {
+        return recordExceptionPredicate;
+    }
+
+    public CoarseClock getClock() {
+        return clock;
+    }
+
+    public static class Builder {
+
+        private LimitAlgorithm limitAlgorithm = LimitAlgorithm.GRADIENT;
+
+        private int initialLimit = 20;
+
+        private int minLimit = 1;
+
+        private int maxLimit = 1_000;
+
+        private double backoffRatio = 0.9;
+
+        private Duration slowCallDurationThreshold = Duration.ofSeconds(1);
+
+        private double rttTolerance = 1.5;
+
+        private double smoothing = 0.2;
+
+        private int probeInterval = 100;
+
+        private Predicate<Throwable> recordExceptionPredicate = (throwable) -> true;
+
+        private CoarseClock clock = System::nanoTime;
+
+        public Builder limitAlgorithm(LimitAlgorithm limitAlgorithm) {
+            this.limitAlgorithm = limitAlgorithm;
+            return this;
+        }
+
+        public Builder initialLimit(int initialLimit) {
+            if (initialLimit < 1) {
+                throw new IllegalArgumentException("initialLimit must be greater than 0");
+            }
+            this.initialLimit = initialLimit;
+            return this;
+        }
+
+        public Builder minLimit(int minLimit) {
+            if (minLimit < 1) {
+                throw new IllegalArgumentException("minLimit must be greater than 0");
+            }
+            this.minLimit = minLimit;
+            return this;
+        }
+
+        public Builder maxLimit(int maxLimit) {
+            if (maxLimit < 1) {
+                throw new IllegalArgumentException("maxLimit must be greater than 0");
+            }
+            this.maxLimit = maxLimit;
+            return this;
+        }
+
+        /**
+         * 실패(또는 AIMD 에서 slow call)가 기록되었을 때 limit 에 곱하는 비율.
+         */
+        public Builder backoffRatio(double backoffRatio) {
+            if (backoffRatio <= 0 || backoffRatio >= 1) {
+                throw new IllegalArgumentException("backoffRatio must be between 0 and 1");
+            }
+            this.backoffRatio = backoffRatio;
+            return this;
+        }
+
+        /**
+         * AIMD 에서 window 평균 latency 가 이 시간을 넘으면 실패와 같이 limit 을 줄인다.
+         */
+        public Builder slowCallDurationThreshold(Duration slowCallDurationThreshold) {
+            if (slowCallDurationThreshold.isNegative() || slowCallDurationThreshold.isZero()) {
+                throw new IllegalArgumentException("slowCallDurationThreshold must be positive");
+            }
+            this.slowCallDurationThreshold = slowCallDurationThreshold;
+            return this;
+        }
+
+        /**
+         * GRADIENT 에서 최소 latency 대비 몇 배까지의 latency 를 queueing 이 없는 것으로 볼지.
+         */
+        public Builder rttTolerance(double rttTolerance) {
+            if (rttTolerance < 1) {
+                throw new IllegalArgumentException("rttTolerance must be greater than or equal to 1");
+            }
+            this.rttTolerance = rttTolerance;
+            return this;
+        }
+
+        /**
+         * GRADIENT 에서 새로 계산한 limit 을 반영하는 비율. 1 이면 계산한 값을 그대로 쓴다.
+         */
+        public Builder smoothing(double smoothing) {
+            if (smoothing <= 0 || smoothing > 1) {
+                throw new IllegalArgumentException("smoothing must be between 0 and 1");
+            }
+            this.smoothing = smoothing;
+            return this;
+        }
+
+        /**
+         * GRADIENT 에서 최소 latency 를 다시 측정하는 주기(limit 조정 횟수). 측정할 때는 limit 을 잠시 낮춰 queue 를 비운다.
+         */
+        public Builder probeInterval(int probeInterval) {
+            if (probeInterval < 1) {
+                throw new IllegalArgumentException("probeInterval must be greater than 0");
+            }
+            this.probeInterval = probeInterval;
+            return this;
+        }
+
+        /**
+         * limit 을 줄일 실패로 볼 예외. 기본값은 모든 예외이다.
+         */
+        public Builder recordException(Predicate<Throwable> recordExceptionPredicate) {
+            this.recordExceptionPredicate = recordExceptionPredicate;
+            return this;
+        }
+
+        /**
+         * 호출 시간을 잴 시계. latency 를 비교해야 하므로 기본값은 {@link System#nanoTime()} 이다.
+         */
+        public Builder clock(CoarseClock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public AdaptiveBulkheadConfig build() {
+            if (minLimit > maxLimit) {
+                throw new IllegalArgumentException("minLimit must be less than or equal to maxLimit");
+            }
+            if (initialLimit < minLimit || initialLimit > maxLimit) {
+                throw new IllegalArgumentException("initialLimit must be between minLimit and maxLimit");
+            }
+            return new AdaptiveBulkheadConfig(this);
+        }
+    }
+}
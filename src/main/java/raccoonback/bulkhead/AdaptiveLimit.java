@@ -0,0 +1,22 @@
+package raccoonback.bulkhead;
+
+/**
+ * 한 window(limit 만큼의 호출이 끝나는 동안, 대략 한 RTT)의 평균 latency 와 실패 여부로 다음 동시 호출 limit 을 계산한다.
+ * 구현은 thread-safe 하지 않아도 된다.
+ */
+interface AdaptiveLimit {
+
+    int update(long meanRttInNanos, int maxInFlightCalls, boolean dropped);
+
+    /**
+     * limit 의 상한을 바꾸고, 현재 limit 이 새 상한보다 크면 바로 낮춘 limit 을 돌려준다.
+     */
+    int changeMaxLimit(int maxLimit);
+
+    static AdaptiveLimit of(AdaptiveBulkheadConfig config) {
+        return switch (config.getLimitAlgorithm()) {
+            case AIMD -> new AimdLimit(config);
+            case GRADIENT -> new GradientLimit(config);
+        };
+    }
+}
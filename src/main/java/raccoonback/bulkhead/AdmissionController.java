@@ -0,0 +1,365 @@
+package raccoonback.bulkhead;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.event.BulkheadEvent;
+import io.github.resilience4j.bulkhead.event.BulkheadOnCallFinishedEvent;
+import io.github.resilience4j.bulkhead.event.BulkheadOnCallPermittedEvent;
+import io.github.resilience4j.bulkhead.event.BulkheadOnCallRejectedEvent;
+import io.github.resilience4j.core.EventConsumer;
+import io.github.resilience4j.core.EventProcessor;
+import raccoonback.core.CoarseClock;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 과부하일 때 호출을 기다리게 하지 않고 들어오는 즉시 {@link BulkheadFullException} 으로 거절하는 {@link Bulkhead}.
+ * <p>
+ * {@code ThreadPoolBulkhead} 는 queue 가 다 차야, {@code Bulkhead} 는 {@code maxWaitDuration} 만큼 기다린 뒤에야 거절하므로
+ * 과부하에서는 거절되기 전까지 latency 가 먼저 무너진다. 이 클래스는 동시 호출 수를 제한하지 않고 세 가지 지표로 일부 호출을 미리 거절한다.
+ * <ul>
+ *     <li>queue 대기 시간: CoDel 처럼 {@code queueingDelayInterval} 동안 가장 짧은 대기 시간도 {@code targetQueueingDelay} 를 넘으면
+ *     줄어들지 않는 queue 가 생긴 것으로 본다. 그런 interval 이 n 번 이어지면 {@code 1 - 1/sqrt(n + 1)} 의 비율로 거절하고,
+ *     target 보다 짧게 기다린 호출이 하나라도 나오면 바로 거절을 멈춘다.</li>
+ *     <li>GC pause 비율, CPU 사용률: 기준을 넘은 만큼의 비율로 거절한다. 예를 들어 기준 0.9 에서 0.95 이면 절반을 거절한다.</li>
+ * </ul>
+ * 대기 시간은 {@link #decorateThreadPoolBulkhead(AdmissionController, ThreadPoolBulkhead)},
+ * {@link #decorateBulkhead(AdmissionController, Bulkhead)} 로 감싼 bulkhead 가 알려 주거나 {@link #recordQueueingDelay(long, TimeUnit)} 로 직접 알린다.
+ * 기다리기 전에 거절해야 하므로 decorator chain 의 가장 바깥에 둔다.
+ * <pre>{@code
+ * Decorators.ofSupplier(supplier)
+ *         .withThreadPoolBulkhead(AdmissionController.decorateThreadPoolBulkhead(admissionController, threadPoolBulkhead))
+ *         .withBulkhead(admissionController)
+ *         .decorate();
+ * }</pre>
+ */
+public class AdmissionController implements Bulkhead {
+
+    private final String name;
+
+    private final AdmissionControllerConfig config;
+
+    private final Map<String, String> tags;
+
+    private final CoarseClock clock;
+
+    private final BulkheadConfig bulkheadConfig = BulkheadConfig.custom()
+            .maxConcurrentCalls(Integer.MAX_VALUE)
+            .maxWaitDuration(Duration.ZERO)
+            .writableStackTraceEnabled(false)
+            .build();
+
+    private final long targetQueueingDelayInNanos;
+
+    private final long queueingDelayIntervalInNanos;
+
+    private final long loadSampleIntervalInNanos;
+
+    private final AtomicLong nextLoadSampleAt;
+
+    private volatile double gcPauseFraction;
+
+    private volatile double cpuLoad;
+
+    private final Object queueingDelayLock = new Object();
+
+    // 첫 interval 은 만들 때가 아니라 대기 시간을 처음 받을 때 시작한다
+    private boolean intervalStarted;
+
+    private long intervalEndsAt;
+
+    private long intervalMinQueueingDelay = Long.MAX_VALUE;
+
+    private int standingQueueIntervals;
+
+    private volatile long lastQueueingDelayAt;
+
+    private volatile double queueingDelayShedProbability;
+
+    private final AdmissionControllerMetrics metrics = new AdmissionControllerMetrics();
+
+    private final AdmissionControllerEventProcessor eventProcessor = new AdmissionControllerEventProcessor();
+
+    private AdmissionController(String name, AdmissionControllerConfig config, Map<String, String> tags) {
+        this.name = name;
+        this.config = config;
+        this.tags = tags;
+        this.clock = config.getClock();
+        this.targetQueueingDelayInNanos = config.getTargetQueueingDelay().toNanos();
+        this.queueingDelayIntervalInNanos = config.getQueueingDelayInterval().toNanos();
+        this.loadSampleIntervalInNanos = config.getLoadSampleInterval().toNanos();
+
+        long now = clock.nanoTime();
+        this.nextLoadSampleAt = new AtomicLong(now);
+        this.lastQueueingDelayAt = now;
+    }
+
+    public static AdmissionController ofDefaults(String name) {
+        return of(name, AdmissionControllerConfig.ofDefaults());
+    }
+
+    public static AdmissionController of(String name, AdmissionControllerConfig config) {
+        return of(name, config, Collections.emptyMap());
+    }
+
+    public static AdmissionController of(String name, AdmissionControllerConfig config, Map<String, String> tags) {
+        return new AdmissionController(name, config, tags);
+    }
+
+    /**
+     * 제출한 작업이 thread pool 의 queue 에서 기다린 시간을 {@code admissionController} 에 알리는 {@link ThreadPoolBulkhead}.
+     */
+    public static ThreadPoolBulkhead decorateThreadPoolBulkhead(AdmissionController admissionController, ThreadPoolBulkhead bulkhead) {
+        return new QueueingDelayThreadPoolBulkhead(bulkhead, admissionController);
+    }
+
+    /**
+     * permit 을 받기까지 기다린 시간을 {@code admissionController} 에 알리는 {@link Bulkhead}.
+     */
+    public static Bulkhead decorateBulkhead(AdmissionController admissionController, Bulkhead bulkhead) {
+        return new QueueingDelayBulkhead(bulkhead, admissionController);
+    }
+
+    /**
+     * 호출 하나가 queue 에서 기다린 시간을 알린다.
+     */
+    public void recordQueueingDelay(long duration, TimeUnit durationUnit) {
+        long queueingDelay = durationUnit.toNanos(duration);
+        long now = clock.nanoTime();
+        synchronized (queueingDelayLock) {
+            if (!intervalStarted) {
+                // 대기 시간을 알려 준 호출이 없던 구간은 queue 가 서 있었는지 알 수 없으므로 interval 에 넣지 않는다
+                intervalStarted = true;
+                intervalMinQueueingDelay = Long.MAX_VALUE;
+                intervalEndsAt = now + queueingDelayIntervalInNanos;
+            }
+            lastQueueingDelayAt = now;
+            intervalMinQueueingDelay = Math.min(intervalMinQueueingDelay, queueingDelay);
+            if (queueingDelay < targetQueueingDelayInNanos) {
+                // queue 가 한 번이라도 target 아래로 비워졌으면 잠깐 몰린 burst 였던 것이다
+                standingQueueIntervals = 0;
+                queueingDelayShedProbability = 0;
+            }
+            if (now - intervalEndsAt < 0) {
+                return;
+            }
+
+            if (intervalMinQueueingDelay >= targetQueueingDelayInNanos) {
+                standingQueueIntervals++;
+                queueingDelayShedProbability = 1 - 1 / Math.sqrt(standingQueueIntervals + 1);
+            }
+            intervalMinQueueingDelay = Long.MAX_VALUE;
+            intervalEndsAt = now + queueingDelayIntervalInNanos;
+        }
+    }
+
+    @Override
+    public boolean tryAcquirePermission() {
+        long now = clock.nanoTime();
+        sampleLoadIfDue(now);
+
+        if (shed(gcPauseFraction, config.getMaxGcPauseFraction())) {
+            metrics.numberOfRejectedByGcPause.increment();
+            return reject();
+        }
+        if (shed(cpuLoad, config.getMaxCpuLoad())) {
+            metrics.numberOfRejectedByCpuLoad.increment();
+            return reject();
+        }
+        if (shedByQueueingDelay(now)) {
+            metrics.numberOfRejectedByQueueingDelay.increment();
+            return reject();
+        }
+
+        publishBulkheadEvent(new BulkheadOnCallPermittedEvent(name));
+        return true;
+    }
+
+    @Override
+    public void acquirePermission() {
+        if (!tryAcquirePermission()) {
+            throw BulkheadFullException.createBulkheadFullException(this);
+        }
+    }
+
+    /**
+     * 동시 호출 수를 세지 않으므로 반납할 permit 이 없다.
+     */
+    @Override
+    public void releasePermission() {
+    }
+
+    @Override
+    public void onComplete() {
+        publishBulkheadEvent(new BulkheadOnCallFinishedEvent(name));
+    }
+
+    private void sampleLoadIfDue(long now) {
+        long nextSampleAt = nextLoadSampleAt.get();
+        if (now - nextSampleAt < 0 || !nextLoadSampleAt.compareAndSet(nextSampleAt, now + loadSampleIntervalInNanos)) {
+            return;
+        }
+        gcPauseFraction = config.getGcPauseFraction().getAsDouble();
+        cpuLoad = config.getCpuLoad().getAsDouble();
+    }
+
+    private boolean shed(double load, double maxLoad) {
+        return load > maxLoad && ThreadLocalRandom.current().nextDouble() < (load - maxLoad) / (1 - maxLoad);
+    }
+
+    private boolean shedByQueueingDelay(long now) {
+        double probability = queueingDelayShedProbability;
+        if (probability == 0) {
+            return false;
+        }
+        // 대기 시간을 알려 줄 호출이 끊겼으면 queue 도 비었을 것이므로 오래된 판단으로 거절하지 않는다
+        if (now - lastQueueingDelayAt > queueingDelayIntervalInNanos) {
+            synchronized (queueingDelayLock) {
+                if (now - lastQueueingDelayAt > queueingDelayIntervalInNanos) {
+                    standingQueueIntervals = 0;
+                    queueingDelayShedProbability = 0;
+                }
+            }
+            return false;
+        }
+        return ThreadLocalRandom.current().nextDouble() < probability;
+    }
+
+    private boolean reject() {
+        publishBulkheadEvent(new BulkheadOnCallRejectedEvent(name));
+        return false;
+    }
+
+    private void publishBulkheadEvent(BulkheadEvent event) {
+        if (eventProcessor.hasConsumers()) {
+            eventProcessor.consumeEvent(event);
+        }
+    }
+
+    /**
+     * 동시 호출 수를 제한하지 않고 permit 을 기다리지도 않으므로 바꿀 설정이 없다. 아무 일도 하지 않으며 {@link #getBulkheadConfig()} 도 그대로다.
+     */
+    @Override
+    public void changeConfig(BulkheadConfig newConfig) {
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 동시 호출 수를 제한하지 않으므로 {@code maxConcurrentCalls} 는 {@link Integer#MAX_VALUE} 이다.
+     * 거절이 잦은 만큼 stack trace 를 만들지 않는다.
+     */
+    @Override
+    public BulkheadConfig getBulkheadConfig() {
+        return bulkheadConfig;
+    }
+
+    public AdmissionControllerConfig getAdmissionControllerConfig() {
+        return config;
+    }
+
+    @Override
+    public AdmissionControllerMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public Map<String, String> getTags() {
+        return tags;
+    }
+
+    @Override
+    public EventPublisher getEventPublisher() {
+        return eventProcessor;
+    }
+
+    public class AdmissionControllerMetrics implements Metrics {
+
+        private final LongAdder numberOfRejectedByQueueingDelay = new LongAdder();
+
+        private final LongAdder numberOfRejectedByGcPause = new LongAdder();
+
+        private final LongAdder numberOfRejectedByCpuLoad = new LongAdder();
+
+        @Override
+        public int getAvailableConcurrentCalls() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public int getMaxAllowedConcurrentCalls() {
+            return Integer.MAX_VALUE;
+        }
+
+        /**
+         * queue 대기 시간 때문에 지금 거절하는 비율.
+         */
+        public double getQueueingDelayShedProbability() {
+            return queueingDelayShedProbability;
+        }
+
+        /**
+         * 마지막으로 읽은 GC pause 비율.
+         */
+        public double getGcPauseFraction() {
+            return gcPauseFraction;
+        }
+
+        /**
+         * 마지막으로 읽은 CPU 사용률.
+         */
+        public double getCpuLoad() {
+            return cpuLoad;
+        }
+
+        public long getNumberOfRejectedByQueueingDelay() {
+            return numberOfRejectedByQueueingDelay.sum();
+        }
+
+        public long getNumberOfRejectedByGcPause() {
+            return numberOfRejectedByGcPause.sum();
+        }
+
+        public long getNumberOfRejectedByCpuLoad() {
+            return numberOfRejectedByCpuLoad.sum();
+        }
+    }
+
+    private class AdmissionControllerEventProcessor extends EventProcessor<BulkheadEvent>
+            implements EventPublisher, EventConsumer<BulkheadEvent> {
+
+        @Override
+        public EventPublisher onCallPermitted(EventConsumer<BulkheadOnCallPermittedEvent> onCallPermittedEventConsumer) {
+            registerConsumer(BulkheadOnCallPermittedEvent.class.getName(), onCallPermittedEventConsumer);
+            return this;
+        }
+
+        @Override
+        public EventPublisher onCallRejected(EventConsumer<BulkheadOnCallRejectedEvent> onCallRejectedEventConsumer) {
+            registerConsumer(BulkheadOnCallRejectedEvent.class.getName(), onCallRejectedEventConsumer);
+            return this;
+        }
+
+        @Override
+        public EventPublisher onCallFinished(EventConsumer<BulkheadOnCallFinishedEvent> onCallFinishedEventConsumer) {
+            registerConsumer(BulkheadOnCallFinishedEvent.class.getName(), onCallFinishedEventConsumer);
+            return this;
+        }
+
+        @Override
+        public void consumeEvent(BulkheadEvent event) {
+            super.processEvent(event);
+        }
+    }
+}
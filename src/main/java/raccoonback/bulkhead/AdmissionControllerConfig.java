@@ -0,0 +1,178 @@
+package raccoonback.bulkhead;
+
+import raccoonback.core.CoarseClock;
+
+import java.time.Duration;
+import java.util.function.DoubleSupplier;
+
+public class AdmissionControllerConfig {
+
+    private final Duration targetQueueingDelay;
+
+    private final Duration queueingDelayInterval;
+
+    private final double maxGcPauseFraction;
+
+    private final double maxCpuLoad;
+
+    private final Duration loadSampleInterval;
+
+    private final DoubleSupplier gcPauseFraction;
+
+    private final DoubleSupplier cpuLoad;
+
+    private final CoarseClock clock;
+
+    private AdmissionControllerConfig(Builder builder) {
+        this.targetQueueingDelay = builder.targetQueueingDelay;
+        this.queueingDelayInterval = builder.queueingDelayInterval;
+        this.maxGcPauseFraction = builder.maxGcPauseFraction;
+        this.maxCpuLoad = builder.maxCpuLoad;
+        this.loadSampleInterval = builder.loadSampleInterval;
+        this.gcPauseFraction = builder.gcPauseFraction;
+        this.cpuLoad = builder.cpuLoad;
+        this.clock = builder.clock;
+    }
+
+    public static AdmissionControllerConfig ofDefaults() {
+        return custom().build();
+    }
+
+    public static Builder custom() {
+        return new Builder();
+    }
+
+    public Duration getTargetQueueingDelay() {
+        return targetQueueingDelay;
+    }
+
+    public Duration getQueueingDelayInterval() {
+        return queueingDelayInterval;
+    }
+
+    public double getMaxGcPauseFraction() {
+        return maxGcPauseFraction;
+    }
+
+    public double getMaxCpuLoad() {
+        return maxCpuLoad;
+    }
+
+    public Duration getLoadSampleInterval() {
+        return loadSampleInterval;
+    }
+
+    public DoubleSupplier getGcPauseFraction() {
+        return gcPauseFraction;
+    }
+
+    public DoubleSupplier getCpuLoad() {
+        return cpuLoad;
+    }
+
+    public CoarseClock getClock() {
+        return clock;
+    }
+
+    public static class Builder {
+
+        private Duration targetQueueingDelay = Duration.ofMillis(5);
+
+        private Duration queueingDelayInterval = Duration.ofMillis(100);
+
+        private double maxGcPauseFraction = 0.2;
+
+        private double maxCpuLoad = 0.95;
+
+        private Duration loadSampleInterval = Duration.ofMillis(100);
+
+        private DoubleSupplier gcPauseFraction = JvmLoad.gcPauseFraction();
+
+        private DoubleSupplier cpuLoad = JvmLoad.cpuLoad();
+
+        private CoarseClock clock = System::nanoTime;
+
+        /**
+         * queue 에서 기다려도 괜찮은 시간. {@code queueingDelayInterval} 내내 이보다 짧게 기다린 호출이 없으면 거절을 시작한다.
+         */
+        public Builder targetQueueingDelay(Duration targetQueueingDelay) {
+            if (targetQueueingDelay.isNegative() || targetQueueingDelay.isZero()) {
+                throw new IllegalArgumentException("targetQueueingDelay must be positive");
+            }
+            this.targetQueueingDelay = targetQueueingDelay;
+            return this;
+        }
+
+        /**
+         * 잠깐 몰린 burst 와 줄어들지 않는 queue 를 구분하는 시간. 거절을 시작한 뒤에는 이 간격을 {@code sqrt(거절 수)} 로 나눈 간격마다 거절한다.
+         */
+        public Builder queueingDelayInterval(Duration queueingDelayInterval) {
+            if (queueingDelayInterval.isNegative() || queueingDelayInterval.isZero()) {
+                throw new IllegalArgumentException("queueingDelayInterval must be positive");
+            }
+            this.queueingDelayInterval = queueingDelayInterval;
+            return this;
+        }
+
+        /**
+         * 최근 {@code loadSampleInterval} 중 GC pause 가 차지한 비율이 이 값을 넘으면 넘은 만큼의 비율로 거절한다. 1 이면 보지 않는다.
+         */
+        public Builder maxGcPauseFraction(double maxGcPauseFraction) {
+            if (maxGcPauseFraction <= 0 || maxGcPauseFraction > 1) {
+                throw new IllegalArgumentException("maxGcPauseFraction must be between 0 and 1");
+            }
+            this.maxGcPauseFraction = maxGcPauseFraction;
+            return this;
+        }
+
+        /**
+         * CPU 사용률이 이 값을 넘으면 넘은 만큼의 비율로 거절한다. 1 이면 보지 않는다.
+         */
+        public Builder maxCpuLoad(double maxCpuLoad) {
+            if (maxCpuLoad <= 0 || maxCpuLoad > 1) {
+                throw new IllegalArgumentException("maxCpuLoad must be between 0 and 1");
+            }
+            this.maxCpuLoad = maxCpuLoad;
+            return this;
+        }
+
+        /**
+         * GC pause 비율과 CPU 사용률을 다시 읽는 주기. 호출마다 MXBean 을 읽지 않고 이 주기가 지난 뒤 처음 들어온 호출이 읽는다.
+         */
+        public Builder loadSampleInterval(Duration loadSampleInterval) {
+            if (loadSampleInterval.isNegative() || loadSampleInterval.isZero()) {
+                throw new IllegalArgumentException("loadSampleInterval must be positive");
+            }
+            this.loadSampleInterval = loadSampleInterval;
+            return this;
+        }
+
+        /**
+         * 이전에 읽은 뒤로 GC pause 가 차지한 비율(0 ~ 1). 기본값은 GC MXBean 의 pause 시간으로 계산한다.
+         */
+        public Builder gcPauseFraction(DoubleSupplier gcPauseFraction) {
+            this.gcPauseFraction = gcPauseFraction;
+            return this;
+        }
+
+        /**
+         * CPU 사용률(0 ~ 1). 기본값은 OS MXBean 의 시스템 전체 CPU 사용률이다.
+         */
+        public Builder cpuLoad(DoubleSupplier cpuLoad) {
+            this.cpuLoad = cpuLoad;
+            return this;
+        }
+
+        /**
+         * queue 대기 시간을 비교해야 하므로 기본값은 {@link System#nanoTime()} 이다.
+         */
+        public Builder clock(CoarseClock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public AdmissionControllerConfig build() {
+            return new AdmissionControllerConfig(this);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package raccoonback.bulkhead;
+
+class AimdLimit implements AdaptiveLimit {
+
+    private final int minLimit;
+
+    private int maxLimit;
+
+    private final double backoffRatio;
+
+    private final long slowCallDurationThresholdInNanos;
+
+    private int limit;
+
+    AimdLimit(AdaptiveBulkheadConfig config) {
+        this.minLimit = config.getMinLimit();
+        this.maxLimit = config.getMaxLimit();
+        this.backoffRatio = config.getBackoffRatio();
+        this.slowCallDurationThresholdInNanos = config.getSlowCallDurationThreshold().toNanos();
+        this.limit = config.getInitialLimit();
+    }
+
+    @Override
+    public int update(long meanRttInNanos, int maxInFlightCalls, boolean dropped) {
+        if (dropped || meanRttInNanos > slowCallDurationThresholdInNanos) {
+            limit = Math.max(minLimit, (int) (limit * backoffRatio));
+        } else if (maxInFlightCalls * 2 >= limit) {
+            // limit 을 절반도 쓰지 않는 동안의 성공은 limit 이 충분하다는 근거가 되지 못한다
+            limit = Math.min(maxLimit, limit + 1);
+        }
+        return limit;
+    }
+
+    @Override
+    public int changeMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+        limit = Math.min(maxLimit, limit);
+        return limit;
+    }
+}
@@ -0,0 +1,77 @@
+package raccoonback.bulkhead;
+
+class GradientLimit implements AdaptiveLimit {
+
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final int minLimit;
+
+    private int maxLimit;
+
+    private final double backoffRatio;
+
+    private final double rttTolerance;
+
+    private final double smoothing;
+
+    private final int probeInterval;
+
+    private double limit;
+
+    private long minRttInNanos = Long.MAX_VALUE;
+
+    private int samplesUntilProbe;
+
+    GradientLimit(AdaptiveBulkheadConfig config) {
+        this.minLimit = config.getMinLimit();
+        this.maxLimit = config.getMaxLimit();
+        this.backoffRatio = config.getBackoffRatio();
+        this.rttTolerance = config.getRttTolerance();
+        this.smoothing = config.getSmoothing();
+        this.probeInterval = config.getProbeInterval();
+        this.limit = config.getInitialLimit();
+        this.samplesUntilProbe = probeInterval;
+    }
+
+    @Override
+    public int update(long meanRttInNanos, int maxInFlightCalls, boolean dropped) {
+        if (--samplesUntilProbe <= 0) {
+            // 부하가 걸린 채로 측정한 최소 latency 는 실제보다 크므로, limit 을 낮춰 queue 를 비운 뒤 다시 측정한다
+            samplesUntilProbe = probeInterval;
+            minRttInNanos = Long.MAX_VALUE;
+            limit = clamp(queueSize(limit));
+            return (int) limit;
+        }
+
+        minRttInNanos = Math.min(minRttInNanos, Math.max(1, meanRttInNanos));
+
+        if (dropped) {
+            limit = clamp(limit * backoffRatio);
+            return (int) limit;
+        }
+
+        if (maxInFlightCalls * 2 < limit) {
+            return (int) limit;
+        }
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, rttTolerance * minRttInNanos / meanRttInNanos));
+        double newLimit = limit * gradient + queueSize(limit);
+        limit = clamp(limit * (1 - smoothing) + newLimit * smoothing);
+        return (int) limit;
+    }
+
+    @Override
+    public int changeMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+        limit = clamp(limit);
+        return (int) limit;
+    }
+
+    private double clamp(double limit) {
+        return Math.max(minLimit, Math.min(maxLimit, limit));
+    }
+
+    private static double queueSize(double limit) {
+        return Math.max(1, Math.sqrt(limit));
+    }
+}
@@ -0,0 +1,68 @@
+package raccoonback.bulkhead;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.List;
+import java.util.function.DoubleSupplier;
+
+/**
+ * {@link AdmissionController} 가 기본으로 읽는 JVM 부하 지표.
+ */
+final class JvmLoad {
+
+    private JvmLoad() {
+    }
+
+    /**
+     * 이전에 읽은 뒤로 흐른 시간 중 GC pause 가 차지한 비율.
+     * <p>
+     * G1 의 {@code G1 Concurrent GC}, ZGC 의 {@code ZGC Cycles} 처럼 애플리케이션 스레드와 함께 도는 수집기의 시간은 pause 가 아니므로 뺀다.
+     */
+    static DoubleSupplier gcPauseFraction() {
+        List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .filter(collector -> !collector.getName().contains("Concurrent") && !collector.getName().contains("Cycles"))
+                .toList();
+
+        return new DoubleSupplier() {
+
+            private long lastCollectionTimeInMillis = collectionTimeInMillis();
+
+            private long lastSampledAt = System.nanoTime();
+
+            @Override
+            public synchronized double getAsDouble() {
+                long collectionTimeInMillis = collectionTimeInMillis();
+                long now = System.nanoTime();
+                long elapsedInMillis = (now - lastSampledAt) / 1_000_000;
+                if (elapsedInMillis <= 0) {
+                    return 0;
+                }
+
+                double fraction = (double) (collectionTimeInMillis - lastCollectionTimeInMillis) / elapsedInMillis;
+                lastCollectionTimeInMillis = collectionTimeInMillis;
+                lastSampledAt = now;
+                return Math.min(1, Math.max(0, fraction));
+            }
+
+            private long collectionTimeInMillis() {
+                long sum = 0;
+                for (GarbageCollectorMXBean collector : collectors) {
+                    sum += Math.max(0, collector.getCollectionTime());
+                }
+                return sum;
+            }
+        };
+    }
+
+    /**
+     * 시스템 전체 CPU 사용률. 읽을 수 없는 JVM 에서는 항상 0 이다.
+     */
+    static DoubleSupplier cpuLoad() {
+        OperatingSystemMXBean operatingSystem = ManagementFactory.getOperatingSystemMXBean();
+        if (operatingSystem instanceof com.sun.management.OperatingSystemMXBean platform) {
+            return () -> Math.max(0, platform.getCpuLoad());
+        }
+        return () -> 0;
+    }
+}
@@ -0,0 +1,416 @@
+package raccoonback.bulkhead;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.event.BulkheadEvent;
+import io.github.resilience4j.bulkhead.event.BulkheadOnCallFinishedEvent;
+import io.github.resilience4j.bulkhead.event.BulkheadOnCallPermittedEvent;
+import io.github.resilience4j.bulkhead.event.BulkheadOnCallRejectedEvent;
+import io.github.resilience4j.core.EventConsumer;
+import io.github.resilience4j.core.EventProcessor;
+import io.github.resilience4j.core.exception.AcquirePermissionCancelledException;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 호출을 우선순위별로 받아들이는 bulkhead. 우선순위마다 {@link Bulkhead} 를 하나씩 돌려주고, 모두 같은 permit 을 나눠 쓴다.
+ * <pre>{@code
+ * PriorityBulkhead priorityBulkhead = PriorityBulkhead.of("backendService", config);
+ * Supplier<String> interactive = Bulkhead.decorateSupplier(priorityBulkhead.critical(), supplier);
+ * Supplier<String> batch = Bulkhead.decorateSupplier(priorityBulkhead.bestEffort(), supplier);
+ * }</pre>
+ * best-effort 호출은 {@link PriorityBulkheadConfig#getReservedCriticalCalls()} 를 뺀 permit 만 쓸 수 있어,
+ * best-effort 호출이 몰려도 critical 호출은 남겨 둔 permit 으로 바로 들어간다.
+ * permit 이 모두 차서 critical 호출이 기다리기 시작하면 기다리던 best-effort 호출은 바로 거절하고, 반납된 permit 은 critical 호출이 먼저 받는다.
+ */
+public class PriorityBulkhead {
+
+    public enum Priority {
+        CRITICAL,
+        BEST_EFFORT
+    }
+
+    private final String name;
+
+    // lock 을 잡고 바꾸고, lane 은 lock 없이 읽는다
+    private volatile PriorityBulkheadConfig config;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition criticalTurn = lock.newCondition();
+
+    private final Condition bestEffortTurn = lock.newCondition();
+
+    // 아래 두 값은 lock 을 잡고 바꾸고, metrics 는 lock 없이 읽는다
+    private volatile int inFlightCalls;
+
+    private volatile int waitingCriticalCalls;
+
+    private final Lane critical;
+
+    private final Lane bestEffort;
+
+    private PriorityBulkhead(String name, PriorityBulkheadConfig config, Map<String, String> tags) {
+        this.name = name;
+        this.config = config;
+        this.critical = new Lane(Priority.CRITICAL, tags);
+        this.bestEffort = new Lane(Priority.BEST_EFFORT, tags);
+    }
+
+    public static PriorityBulkhead ofDefaults(String name) {
+        return of(name, PriorityBulkheadConfig.ofDefaults());
+    }
+
+    public static PriorityBulkhead of(String name, PriorityBulkheadConfig config) {
+        return of(name, config, Collections.emptyMap());
+    }
+
+    public static PriorityBulkhead of(String name, PriorityBulkheadConfig config, Map<String, String> tags) {
+        return new PriorityBulkhead(name, config, tags);
+    }
+
+    public Bulkhead critical() {
+        return critical;
+    }
+
+    public Bulkhead bestEffort() {
+        return bestEffort;
+    }
+
+    public Bulkhead lane(Priority priority) {
+        return priority == Priority.CRITICAL ? critical : bestEffort;
+    }
+
+    public PriorityBulkheadMetrics getMetrics(Priority priority) {
+        return priority == Priority.CRITICAL ? critical.metrics : bestEffort.metrics;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public PriorityBulkheadConfig getPriorityBulkheadConfig() {
+        return config;
+    }
+
+    private boolean acquireCritical(long maxWaitInNanos) throws InterruptedException {
+        lock.lock();
+        try {
+            if (inFlightCalls < criticalLimit()) {
+                inFlightCalls++;
+                return true;
+            }
+            if (maxWaitInNanos <= 0) {
+                return false;
+            }
+
+            waitingCriticalCalls++;
+            // 기다리던 best-effort 호출을 깨워 거절되게 한다
+            bestEffortTurn.signalAll();
+            boolean acquired = false;
+            try {
+                long remainingInNanos = maxWaitInNanos;
+                while (inFlightCalls >= criticalLimit() && remainingInNanos > 0) {
+                    remainingInNanos = criticalTurn.awaitNanos(remainingInNanos);
+                }
+                if (inFlightCalls < criticalLimit()) {
+                    inFlightCalls++;
+                    acquired = true;
+                }
+                return acquired;
+            } finally {
+                waitingCriticalCalls--;
+                if (!acquired) {
+                    // 받은 signal 을 쓰지 못하고 나가면 다음 호출에 넘긴다
+                    signalNext();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean acquireBestEffort(long maxWaitInNanos) throws InterruptedException {
+        lock.lock();
+        try {
+            if (waitingCriticalCalls == 0 && inFlightCalls < bestEffortLimit()) {
+                inFlightCalls++;
+                return true;
+            }
+
+            long remainingInNanos = maxWaitInNanos;
+            while (waitingCriticalCalls == 0 && inFlightCalls >= bestEffortLimit() && remainingInNanos > 0) {
+                remainingInNanos = bestEffortTurn.awaitNanos(remainingInNanos);
+            }
+            if (waitingCriticalCalls == 0 && inFlightCalls < bestEffortLimit()) {
+                inFlightCalls++;
+                return true;
+            }
+            signalNext();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release() {
+        lock.lock();
+        try {
+            inFlightCalls--;
+            signalNext();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int criticalLimit() {
+        return config.getMaxConcurrentCalls();
+    }
+
+    private int bestEffortLimit() {
+        PriorityBulkheadConfig current = config;
+        return current.getMaxConcurrentCalls() - current.getReservedCriticalCalls();
+    }
+
+    /**
+     * critical 의 {@code maxConcurrentCalls} 는 전체 permit 수를 바꾸고 critical 몫은 그대로 둔다.
+     * best-effort 의 {@code maxConcurrentCalls} 는 전체 permit 수를 그대로 두고 critical 몫을 나머지로 바꾼다.
+     */
+    private void changeConfig(Priority priority, BulkheadConfig newConfig) {
+        lock.lock();
+        try {
+            PriorityBulkheadConfig current = config;
+            PriorityBulkheadConfig.Builder builder = PriorityBulkheadConfig.custom()
+                    .criticalMaxWaitDuration(current.getCriticalMaxWaitDuration())
+                    .bestEffortMaxWaitDuration(current.getBestEffortMaxWaitDuration());
+            if (priority == Priority.CRITICAL) {
+                builder.maxConcurrentCalls(newConfig.getMaxConcurrentCalls())
+                        .reservedCriticalCalls(current.getReservedCriticalCalls())
+                        .criticalMaxWaitDuration(newConfig.getMaxWaitDuration());
+            } else {
+                if (newConfig.getMaxConcurrentCalls() > current.getMaxConcurrentCalls()) {
+                    throw new IllegalArgumentException("best-effort maxConcurrentCalls must not exceed " + current.getMaxConcurrentCalls());
+                }
+                builder.maxConcurrentCalls(current.getMaxConcurrentCalls())
+                        .reservedCriticalCalls(current.getMaxConcurrentCalls() - newConfig.getMaxConcurrentCalls())
+                        .bestEffortMaxWaitDuration(newConfig.getMaxWaitDuration());
+            }
+            config = builder.build();
+
+            // 늘어난 permit 이나 바뀐 대기 조건을 기다리던 호출이 다시 확인하게 한다
+            criticalTurn.signalAll();
+            bestEffortTurn.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void signalNext() {
+        if (waitingCriticalCalls > 0) {
+            criticalTurn.signal();
+        } else {
+            bestEffortTurn.signal();
+        }
+    }
+
+    private class Lane implements Bulkhead {
+
+        private final Priority priority;
+
+        private final Map<String, String> tags;
+
+        private final LongAdder inFlightCalls = new LongAdder();
+
+        private final LaneMetrics metrics = new LaneMetrics();
+
+        private final LaneEventProcessor eventProcessor = new LaneEventProcessor();
+
+        Lane(Priority priority, Map<String, String> tags) {
+            this.priority = priority;
+            Map<String, String> laneTags = new HashMap<>(tags);
+            laneTags.put("priority", priority.name().toLowerCase());
+            this.tags = Collections.unmodifiableMap(laneTags);
+        }
+
+        @Override
+        public boolean tryAcquirePermission() {
+            boolean permitted;
+            try {
+                permitted = priority == Priority.CRITICAL
+                        ? acquireCritical(maxWaitDuration().toNanos())
+                        : acquireBestEffort(maxWaitDuration().toNanos());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                permitted = false;
+            }
+
+            if (permitted) {
+                inFlightCalls.increment();
+                publishBulkheadEvent(new BulkheadOnCallPermittedEvent(name));
+            } else {
+                metrics.numberOfRejectedCalls.increment();
+                publishBulkheadEvent(new BulkheadOnCallRejectedEvent(name));
+            }
+            return permitted;
+        }
+
+        @Override
+        public void acquirePermission() {
+            if (tryAcquirePermission()) {
+                return;
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                throw new AcquirePermissionCancelledException();
+            }
+            throw BulkheadFullException.createBulkheadFullException(this);
+        }
+
+        @Override
+        public void releasePermission() {
+            inFlightCalls.decrement();
+            release();
+        }
+
+        @Override
+        public void onComplete() {
+            inFlightCalls.decrement();
+            release();
+            publishBulkheadEvent(new BulkheadOnCallFinishedEvent(name));
+        }
+
+        private void publishBulkheadEvent(BulkheadEvent event) {
+            if (eventProcessor.hasConsumers()) {
+                eventProcessor.consumeEvent(event);
+            }
+        }
+
+        /**
+         * 이 우선순위가 쓸 수 있는 permit 수와 기다리는 시간을 바꾼다. 다른 우선순위의 몫도 함께 바뀔 수 있다.
+         *
+         * @throws IllegalArgumentException 바꾼 뒤의 설정이 {@link PriorityBulkheadConfig} 의 조건을 어긴다면
+         */
+        @Override
+        public void changeConfig(BulkheadConfig newConfig) {
+            PriorityBulkhead.this.changeConfig(priority, newConfig);
+        }
+
+        private int maxConcurrentCalls() {
+            return priority == Priority.CRITICAL ? criticalLimit() : bestEffortLimit();
+        }
+
+        private Duration maxWaitDuration() {
+            return priority == Priority.CRITICAL
+                    ? config.getCriticalMaxWaitDuration()
+                    : config.getBestEffortMaxWaitDuration();
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * 이 우선순위가 쓸 수 있는 permit 수를 {@code maxConcurrentCalls} 로 나타낸 설정.
+         */
+        @Override
+        public BulkheadConfig getBulkheadConfig() {
+            return BulkheadConfig.custom()
+                    .maxConcurrentCalls(maxConcurrentCalls())
+                    .maxWaitDuration(maxWaitDuration())
+                    .build();
+        }
+
+        @Override
+        public Metrics getMetrics() {
+            return metrics;
+        }
+
+        @Override
+        public Map<String, String> getTags() {
+            return tags;
+        }
+
+        @Override
+        public EventPublisher getEventPublisher() {
+            return eventProcessor;
+        }
+
+        private class LaneMetrics implements PriorityBulkheadMetrics {
+
+            private final LongAdder numberOfRejectedCalls = new LongAdder();
+
+            @Override
+            public int getAvailableConcurrentCalls() {
+                if (priority == Priority.BEST_EFFORT && waitingCriticalCalls > 0) {
+                    return 0;
+                }
+                return Math.max(0, maxConcurrentCalls() - PriorityBulkhead.this.inFlightCalls);
+            }
+
+            @Override
+            public int getMaxAllowedConcurrentCalls() {
+                return maxConcurrentCalls();
+            }
+
+            @Override
+            public int getNumberOfInFlightCalls() {
+                return inFlightCalls.intValue();
+            }
+
+            @Override
+            public long getNumberOfRejectedCalls() {
+                return numberOfRejectedCalls.sum();
+            }
+        }
+
+        private class LaneEventProcessor extends EventProcessor<BulkheadEvent>
+                implements EventPublisher, EventConsumer<BulkheadEvent> {
+
+            @Override
+            public EventPublisher onCallPermitted(EventConsumer<BulkheadOnCallPermittedEvent> onCallPermittedEventConsumer) {
+                registerConsumer(BulkheadOnCallPermittedEvent.class.getName(), onCallPermittedEventConsumer);
+                return this;
+            }
+
+            @Override
+            public EventPublisher onCallRejected(EventConsumer<BulkheadOnCallRejectedEvent> onCallRejectedEventConsumer) {
+                registerConsumer(BulkheadOnCallRejectedEvent.class.getName(), onCallRejectedEventConsumer);
+                return this;
+            }
+
+            @Override
+            public EventPublisher onCallFinished(EventConsumer<BulkheadOnCallFinishedEvent> onCallFinishedEventConsumer) {
+                registerConsumer(BulkheadOnCallFinishedEvent.class.getName(), onCallFinishedEventConsumer);
+                return this;
+            }
+
+            @Override
+            public void consumeEvent(BulkheadEvent event) {
+                super.processEvent(event);
+            }
+        }
+    }
+
+    /**
+     * 우선순위 하나의 {@link Bulkhead.Metrics}.
+     */
+    public interface PriorityBulkheadMetrics extends Bulkhead.Metrics {
+
+        /**
+         * 이 우선순위로 받아들여 아직 끝나지 않은 호출 수.
+         */
+        int getNumberOfInFlightCalls();
+
+        /**
+         * 이 우선순위에서 거절한 호출 수. best-effort 는 critical 호출에 밀려 거절된 호출도 센다.
+         */
+        long getNumberOfRejectedCalls();
+    }
+}
@@ -0,0 +1,104 @@
+package raccoonback.bulkhead;
+
+import java.time.Duration;
+
+public class PriorityBulkheadConfig {
+
+    private final int maxConcurrentCalls;
+
+    private final int reservedCriticalCalls;
+
+    private final Duration criticalMaxWaitDuration;
+
+    private final Duration bestEffortMaxWaitDuration;
+
+    private PriorityBulkheadConfig(Builder builder) {
+        this.maxConcurrentCalls = builder.maxConcurrentCalls;
+        this.reservedCriticalCalls = builder.reservedCriticalCalls;
+        this.criticalMaxWaitDuration = builder.criticalMaxWaitDuration;
+        this.bestEffortMaxWaitDuration = builder.bestEffortMaxWaitDuration;
+    }
+
+    public static PriorityBulkheadConfig ofDefaults() {
+        return custom().build();
+    }
+
+    public static Builder custom() {
+        return new Builder();
+    }
+
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    public int getReservedCriticalCalls() {
+        return reservedCriticalCalls;
+    }
+
+    public Duration getCriticalMaxWaitDuration() {
+        return criticalMaxWaitDuration;
+    }
+
+    public Duration getBestEffortMaxWaitDuration() {
+        return bestEffortMaxWaitDuration;
+    }
+
+    public static class Builder {
+
+        private int maxConcurrentCalls = 25;
+
+        private int reservedCriticalCalls = 5;
+
+        private Duration criticalMaxWaitDuration = Duration.ZERO;
+
+        private Duration bestEffortMaxWaitDuration = Duration.ZERO;
+
+        /**
+         * 두 우선순위를 합쳐 동시에 호출할 수 있는 수.
+         */
+        public Builder maxConcurrentCalls(int maxConcurrentCalls) {
+            if (maxConcurrentCalls < 1) {
+                throw new IllegalArgumentException("maxConcurrentCalls must be greater than 0");
+            }
+            this.maxConcurrentCalls = maxConcurrentCalls;
+            return this;
+        }
+
+        /**
+         * critical 호출만 쓸 수 있는 permit 수. best-effort 호출은 나머지만 쓴다.
+         */
+        public Builder reservedCriticalCalls(int reservedCriticalCalls) {
+            if (reservedCriticalCalls < 0) {
+                throw new IllegalArgumentException("reservedCriticalCalls must be greater than or equal to 0");
+            }
+            this.reservedCriticalCalls = reservedCriticalCalls;
+            return this;
+        }
+
+        public Builder criticalMaxWaitDuration(Duration criticalMaxWaitDuration) {
+            if (criticalMaxWaitDuration.isNegative()) {
+                throw new IllegalArgumentException("criticalMaxWaitDuration must not be negative");
+            }
+            this.criticalMaxWaitDuration = criticalMaxWaitDuration;
+            return this;
+        }
+
+        /**
+         * 기다리는 중이라도 critical 호출이 기다리기 시작하면 바로 거절된다.
+         */
+        public Builder bestEffortMaxWaitDuration(Duration bestEffortMaxWaitDuration) {
+            if (bestEffortMaxWaitDuration.isNegative()) {
+                throw new IllegalArgumentException("bestEffortMaxWaitDuration must not be negative");
+            }
+            this.bestEffortMaxWaitDuration = bestEffortMaxWaitDuration;
+            return this;
+        }
+
+        public PriorityBulkheadConfig build() {
+            if (reservedCriticalCalls >= maxConcurrentCalls) {
+                throw new IllegalArgumentException("reservedCriticalCalls must be less than maxConcurrentCalls");
+            }
+            return new PriorityBulkheadConfig(this);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package raccoonback.bulkhead;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * permit 을 받기까지 기다린 시간을 {@link AdmissionController} 에 알리는 {@link Bulkhead}.
+ * <p>
+ * 남은 permit 이 있으면 기다리지 않을 것이므로 시계를 읽지 않고 0 을 알린다.
+ */
+class QueueingDelayBulkhead implements Bulkhead {
+
+    private final Bulkhead delegate;
+
+    private final AdmissionController admissionController;
+
+    QueueingDelayBulkhead(Bulkhead delegate, AdmissionController admissionController) {
+        this.delegate = delegate;
+        this.admissionController = admissionController;
+    }
+
+    @Override
+    public void acquirePermission() {
+        if (delegate.getMetrics().getAvailableConcurrentCalls() > 0) {
+            delegate.acquirePermission();
+            admissionController.recordQueueingDelay(0, TimeUnit.NANOSECONDS);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            delegate.acquirePermission();
+        } finally {
+            admissionController.recordQueueingDelay(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public boolean tryAcquirePermission() {
+        return delegate.tryAcquirePermission();
+    }
+
+    @Override
+    public void releasePermission() {
+        delegate.releasePermission();
+    }
+
+    @Override
+    public void onComplete() {
+        delegate.onComplete();
+    }
+
+    @Override
+    public void changeConfig(BulkheadConfig newConfig) {
+        delegate.changeConfig(newConfig);
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public BulkheadConfig getBulkheadConfig() {
+        return delegate.getBulkheadConfig();
+    }
+
+    @Override
+    public Metrics getMetrics() {
+        return delegate.getMetrics();
+    }
+
+    @Override
+    public Map<String, String> getTags() {
+        return delegate.getTags();
+    }
+
+    @Override
+    public EventPublisher getEventPublisher() {
+        return delegate.getEventPublisher();
+    }
+}
@@ -0,0 +1,72 @@
+package raccoonback.bulkhead;
+
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 제출한 작업이 실행되기까지 queue 에서 기다린 시간을 {@link AdmissionController} 에 알리는 {@link ThreadPoolBulkhead}.
+ */
+class QueueingDelayThreadPoolBulkhead implements ThreadPoolBulkhead {
+
+    private final ThreadPoolBulkhead delegate;
+
+    private final AdmissionController admissionController;
+
+    QueueingDelayThreadPoolBulkhead(ThreadPoolBulkhead delegate, AdmissionController admissionController) {
+        this.delegate = delegate;
+        this.admissionController = admissionController;
+    }
+
+    @Override
+    public <T> CompletionStage<T> submit(Callable<T> callable) {
+        long submittedAt = System.nanoTime();
+        return delegate.submit(() -> {
+            admissionController.recordQueueingDelay(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+            return callable.call();
+        });
+    }
+
+    @Override
+    public CompletionStage<Void> submit(Runnable runnable) {
+        long submittedAt = System.nanoTime();
+        return delegate.submit(() -> {
+            admissionController.recordQueueingDelay(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+            runnable.run();
+        });
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public ThreadPoolBulkheadConfig getBulkheadConfig() {
+        return delegate.getBulkheadConfig();
+    }
+
+    @Override
+    public Metrics getMetrics() {
+        return delegate.getMetrics();
+    }
+
+    @Override
+    public Map<String, String> getTags() {
+        return delegate.getTags();
+    }
+
+    @Override
+    public ThreadPoolBulkheadEventPublisher getEventPublisher() {
+        return delegate.getEventPublisher();
+    }
+
+    @Override
+    public void close() throws Exception {
+        delegate.close();
+    }
+}
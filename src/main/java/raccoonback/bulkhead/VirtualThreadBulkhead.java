@@ -0,0 +1,254 @@
+package raccoonback.bulkhead;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
+import io.github.resilience4j.bulkhead.event.BulkheadEvent;
+import io.github.resilience4j.bulkhead.event.BulkheadOnCallFinishedEvent;
+import io.github.resilience4j.bulkhead.event.BulkheadOnCallPermittedEvent;
+import io.github.resilience4j.bulkhead.event.BulkheadOnCallRejectedEvent;
+import io.github.resilience4j.core.EventConsumer;
+import io.github.resilience4j.core.EventProcessor;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 호출마다 virtual thread 를 하나씩 띄워 실행하는 {@link ThreadPoolBulkhead}.
+ * <p>
+ * {@code maxThreadPoolSize} 는 동시에 실행되는 호출 수, {@code queueCapacity} 는 permit 을 기다리는 호출 수의 상한이다.
+ * 대기 중인 호출은 platform thread 가 아닌 virtual thread 위에서 park 되므로, blocking backend 호출을 수만 건 동시에
+ * 진행해도 platform thread 는 carrier 수만큼만 사용한다. {@code coreThreadPoolSize}, {@code keepAliveDuration} 은 사용하지 않는다.
+ */
+public class VirtualThreadBulkhead implements ThreadPoolBulkhead {
+
+    private final String name;
+
+    private final ThreadPoolBulkheadConfig config;
+
+    private final Map<String, String> tags;
+
+    private final ExecutorService executorService;
+
+    private final Semaphore permits;
+
+    private final AtomicInteger admittedCalls = new AtomicInteger();
+
+    private final AtomicInteger runningCalls = new AtomicInteger();
+
+    private final VirtualThreadBulkheadMetrics metrics = new VirtualThreadBulkheadMetrics();
+
+    private final VirtualThreadBulkheadEventProcessor eventProcessor = new VirtualThreadBulkheadEventProcessor();
+
+    private VirtualThreadBulkhead(String name, ThreadPoolBulkheadConfig config, Map<String, String> tags) {
+        this.name = name;
+        this.config = config;
+        this.tags = tags;
+        this.executorService = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual()
+                        .name("bulkhead-" + name + "-", 0)
+                        .factory()
+        );
+        this.permits = new Semaphore(config.getMaxThreadPoolSize(), true);
+    }
+
+    public static VirtualThreadBulkhead ofDefaults(String name) {
+        return of(name, ThreadPoolBulkheadConfig.ofDefaults());
+    }
+
+    public static VirtualThreadBulkhead of(String name, ThreadPoolBulkheadConfig config) {
+        return of(name, config, Collections.emptyMap());
+    }
+
+    public static VirtualThreadBulkhead of(String name, ThreadPoolBulkheadConfig config, Map<String, String> tags) {
+        return new VirtualThreadBulkhead(name, config, tags);
+    }
+
+    @Override
+    public <T> CompletionStage<T> submit(Callable<T> callable) {
+        if (!tryEnter()) {
+            publishBulkheadEvent(new BulkheadOnCallRejectedEvent(name));
+            throw BulkheadFullException.createBulkheadFullException(this);
+        }
+
+        publishBulkheadEvent(new BulkheadOnCallPermittedEvent(name));
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executorService.execute(() -> run(callable, future));
+        } catch (RuntimeException exception) {
+            admittedCalls.decrementAndGet();
+            throw exception;
+        }
+        return future;
+    }
+
+    @Override
+    public CompletionStage<Void> submit(Runnable runnable) {
+        return submit(() -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    private boolean tryEnter() {
+        int limit = config.getMaxThreadPoolSize() + config.getQueueCapacity();
+        while (true) {
+            int current = admittedCalls.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (admittedCalls.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private <T> void run(Callable<T> callable, CompletableFuture<T> future) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException exception) {
+            admittedCalls.decrementAndGet();
+            future.completeExceptionally(exception);
+            return;
+        }
+
+        runningCalls.incrementAndGet();
+        T result = null;
+        Throwable failure = null;
+        try {
+            result = callable.call();
+        } catch (Throwable throwable) {
+            failure = throwable;
+        } finally {
+            runningCalls.decrementAndGet();
+            permits.release();
+            admittedCalls.decrementAndGet();
+            publishBulkheadEvent(new BulkheadOnCallFinishedEvent(name));
+        }
+
+        // future 에 이어진 작업이 permit 과 metrics 를 반납한 뒤의 상태를 보도록 마지막에 완료한다
+        if (failure != null) {
+            future.completeExceptionally(failure);
+        } else {
+            future.complete(result);
+        }
+    }
+
+    private void publishBulkheadEvent(BulkheadEvent event) {
+        if (eventProcessor.hasConsumers()) {
+            eventProcessor.consumeEvent(event);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public ThreadPoolBulkheadConfig getBulkheadConfig() {
+        return config;
+    }
+
+    @Override
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public Map<String, String> getTags() {
+        return tags;
+    }
+
+    @Override
+    public ThreadPoolBulkheadEventPublisher getEventPublisher() {
+        return eventProcessor;
+    }
+
+    @Override
+    public void close() throws Exception {
+        executorService.shutdown();
+        if (!executorService.awaitTermination(5, TimeUnit.SECONDS)) {
+            executorService.shutdownNow();
+        }
+    }
+
+    private class VirtualThreadBulkheadMetrics implements Metrics {
+
+        @Override
+        public int getCoreThreadPoolSize() {
+            return config.getMaxThreadPoolSize();
+        }
+
+        @Override
+        public int getThreadPoolSize() {
+            return runningCalls.get();
+        }
+
+        @Override
+        public int getMaximumThreadPoolSize() {
+            return config.getMaxThreadPoolSize();
+        }
+
+        @Override
+        public int getQueueDepth() {
+            return Math.max(0, admittedCalls.get() - runningCalls.get());
+        }
+
+        @Override
+        public int getRemainingQueueCapacity() {
+            return Math.max(0, config.getQueueCapacity() - getQueueDepth());
+        }
+
+        @Override
+        public int getQueueCapacity() {
+            return config.getQueueCapacity();
+        }
+
+        @Override
+        public int getActiveThreadCount() {
+            return runningCalls.get();
+        }
+
+        @Override
+        public int getAvailableThreadCount() {
+            return config.getMaxThreadPoolSize() - runningCalls.get();
+        }
+    }
+
+    private class VirtualThreadBulkheadEventProcessor extends EventProcessor<BulkheadEvent>
+            implements ThreadPoolBulkheadEventPublisher, EventConsumer<BulkheadEvent> {
+
+        @Override
+        public ThreadPoolBulkheadEventPublisher onCallPermitted(EventConsumer<BulkheadOnCallPermittedEvent> onCallPermittedEventConsumer) {
+            registerConsumer(BulkheadOnCallPermittedEvent.class.getName(), onCallPermittedEventConsumer);
+            return this;
+        }
+
+        @Override
+        public ThreadPoolBulkheadEventPublisher onCallRejected(EventConsumer<BulkheadOnCallRejectedEvent> onCallRejectedEventConsumer) {
+            registerConsumer(BulkheadOnCallRejectedEvent.class.getName(), onCallRejectedEventConsumer);
+            return this;
+        }
+
+        @Override
+        public ThreadPoolBulkheadEventPublisher onCallFinished(EventConsumer<BulkheadOnCallFinishedEvent> onCallFinishedEventConsumer) {
+            registerConsumer(BulkheadOnCallFinishedEvent.class.getName(), onCallFinishedEventConsumer);
+            return this;
+        }
+
+        @Override
+        public void consumeEvent(BulkheadEvent event) {
+            super.processEvent(event);
+        }
+    }
+}
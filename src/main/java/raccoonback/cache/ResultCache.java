@@ -0,0 +1,170 @@
+package raccoonback.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 호출 인자를 key 로 backend 결과를 캐시한다.
+ * <p>
+ * 저장 공간은 Caffeine 의 W-TinyLFU 로 {@code maximumSize} 를 넘지 않게 유지한다. TTL 이 지난 값은 바로 버리지 않고
+ * <ul>
+ *     <li>{@code staleWhileRevalidate} 동안은 이전 값을 바로 돌려주고 백그라운드에서 한 번만 다시 호출하며</li>
+ *     <li>{@code staleIfError} 동안은 호출이 circuit open({@code CallNotPermittedException})이나 bulkhead 포화처럼
+ *     지정한 예외로 실패하면 이전 값을 fallback 으로 돌려준다.</li>
+ * </ul>
+ * supplier 에 circuit breaker, bulkhead 를 감싼 뒤 이 캐시로 한 번 더 감싸서 쓴다.
+ */
+public class ResultCache<K, V> {
+
+    private final ResultCacheConfig config;
+
+    private final Cache<K, Entry<V>> cache;
+
+    private final Set<K> revalidatingKeys = ConcurrentHashMap.newKeySet();
+
+    private final long timeToLiveInNanos;
+
+    private final long staleWhileRevalidateInNanos;
+
+    private final long staleIfErrorInNanos;
+
+    private final Metrics metrics = new Metrics();
+
+    private ResultCache(ResultCacheConfig config) {
+        this.config = config;
+        this.timeToLiveInNanos = config.getTimeToLive().toNanos();
+        this.staleWhileRevalidateInNanos = config.getStaleWhileRevalidate().toNanos();
+        this.staleIfErrorInNanos = config.getStaleIfError().toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(timeToLiveInNanos + Math.max(staleWhileRevalidateInNanos, staleIfErrorInNanos), TimeUnit.NANOSECONDS)
+                .ticker(config.getClock()::nanoTime)
+                .executor(Runnable::run)
+                .build();
+    }
+
+    public static <K, V> ResultCache<K, V> of(ResultCacheConfig config) {
+        return new ResultCache<>(config);
+    }
+
+    public static <K, V> Supplier<V> decorateSupplier(ResultCache<K, V> cache, K key, Supplier<V> supplier) {
+        return () -> cache.execute(key, supplier);
+    }
+
+    public V execute(K key, Supplier<V> supplier) {
+        Entry<V> entry = cache.getIfPresent(key);
+        if (entry == null) {
+            metrics.misses.increment();
+            return load(key, supplier);
+        }
+
+        long age = config.getClock().nanoTime() - entry.writtenAt;
+        if (age <= timeToLiveInNanos) {
+            metrics.hits.increment();
+            return entry.value;
+        }
+
+        if (age <= timeToLiveInNanos + staleWhileRevalidateInNanos) {
+            metrics.staleHits.increment();
+            revalidate(key, supplier);
+            return entry.value;
+        }
+
+        metrics.misses.increment();
+        try {
+            return load(key, supplier);
+        } catch (RuntimeException exception) {
+            if (age <= timeToLiveInNanos + staleIfErrorInNanos && isStaleIfErrorException(exception)) {
+                metrics.staleIfErrorHits.increment();
+                return entry.value;
+            }
+            throw exception;
+        }
+    }
+
+    public void invalidate(K key) {
+        cache.invalidate(key);
+    }
+
+    public long estimatedSize() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    private V load(K key, Supplier<V> supplier) {
+        V value = supplier.get();
+        cache.put(key, new Entry<>(value, config.getClock().nanoTime()));
+        return value;
+    }
+
+    private void revalidate(K key, Supplier<V> supplier) {
+        if (!revalidatingKeys.add(key)) {
+            return;
+        }
+
+        config.getRevalidationExecutor().execute(() -> {
+            try {
+                load(key, supplier);
+            } catch (RuntimeException ignored) {
+                // 실패하면 이전 값을 계속 쓰다가 다음 요청에서 다시 시도한다
+            } finally {
+                revalidatingKeys.remove(key);
+            }
+        });
+    }
+
+    private boolean isStaleIfErrorException(Throwable throwable) {
+        return config.getStaleIfErrorExceptions()
+                .stream()
+                .anyMatch(exceptionType -> exceptionType.isInstance(throwable));
+    }
+
+    private static class Entry<V> {
+
+        private final V value;
+
+        private final long writtenAt;
+
+        private Entry(V value, long writtenAt) {
+            this.value = value;
+            this.writtenAt = writtenAt;
+        }
+    }
+
+    public static class Metrics {
+
+        private final LongAdder hits = new LongAdder();
+
+        private final LongAdder staleHits = new LongAdder();
+
+        private final LongAdder staleIfErrorHits = new LongAdder();
+
+        private final LongAdder misses = new LongAdder();
+
+        public long getNumberOfHits() {
+            return hits.sum();
+        }
+
+        public long getNumberOfStaleHits() {
+            return staleHits.sum();
+        }
+
+        public long getNumberOfStaleIfErrorHits() {
+            return staleIfErrorHits.sum();
+        }
+
+        public long getNumberOfMisses() {
+            return misses.sum();
+        }
+    }
+}
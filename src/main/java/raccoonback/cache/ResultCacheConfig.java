@@ -0,0 +1,151 @@
+package raccoonback.cache;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import raccoonback.core.CoarseClock;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+public class ResultCacheConfig {
+
+    private final long maximumSize;
+
+    private final Duration timeToLive;
+
+    private final Duration staleWhileRevalidate;
+
+    private final Duration staleIfError;
+
+    private final List<Class<? extends Throwable>> staleIfErrorExceptions;
+
+    private final CoarseClock clock;
+
+    private final Executor revalidationExecutor;
+
+    private ResultCacheConfig(Builder builder) {
+        this.maximumSize = builder.maximumSize;
+        this.timeToLive = builder.timeToLive;
+        this.staleWhileRevalidate = builder.staleWhileRevalidate;
+        this.staleIfError = builder.staleIfError;
+        this.staleIfErrorExceptions = builder.staleIfErrorExceptions;
+        this.clock = builder.clock;
+        this.revalidationExecutor = builder.revalidationExecutor != null
+                ? builder.revalidationExecutor
+                : Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    public static ResultCacheConfig ofDefaults() {
+        return custom().build();
+    }
+
+    public static Builder custom() {
+        return new Builder();
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public Duration getTimeToLive() {
+        return timeToLive;
+    }
+
+    public Duration getStaleWhileRevalidate() {
+        return staleWhileRevalidate;
+    }
+
+    public Duration getStaleIfError() {
+        return staleIfError;
+    }
+
+    public List<Class<? extends Throwable>> getStaleIfErrorExceptions() {
+        return staleIfErrorExceptions;
+    }
+
+    public CoarseClock getClock() {
+        return clock;
+    }
+
+    public Executor getRevalidationExecutor() {
+        return revalidationExecutor;
+    }
+
+    public static class Builder {
+
+        private long maximumSize = 10_000;
+
+        private Duration timeToLive = Duration.ofSeconds(10);
+
+        private Duration staleWhileRevalidate = Duration.ZERO;
+
+        private Duration staleIfError = Duration.ofMinutes(5);
+
+        private List<Class<? extends Throwable>> staleIfErrorExceptions = List.of(
+                CallNotPermittedException.class,
+                BulkheadFullException.class
+        );
+
+        private CoarseClock clock = CoarseClock.system();
+
+        private Executor revalidationExecutor;
+
+        public Builder maximumSize(long maximumSize) {
+            if (maximumSize < 1) {
+                throw new IllegalArgumentException("maximumSize must be greater than 0");
+            }
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        public Builder timeToLive(Duration timeToLive) {
+            this.timeToLive = requireNotNegative(timeToLive, "timeToLive");
+            return this;
+        }
+
+        /**
+         * TTL 이 지난 뒤 이 시간 동안은 이전 값을 바로 돌려주고 backend 호출은 백그라운드에서 한다.
+         */
+        public Builder staleWhileRevalidate(Duration staleWhileRevalidate) {
+            this.staleWhileRevalidate = requireNotNegative(staleWhileRevalidate, "staleWhileRevalidate");
+            return this;
+        }
+
+        /**
+         * TTL 이 지난 뒤 이 시간 동안은 호출이 {@link #staleIfErrorExceptions(Class[])} 로 실패하면 이전 값을 돌려준다.
+         */
+        public Builder staleIfError(Duration staleIfError) {
+            this.staleIfError = requireNotNegative(staleIfError, "staleIfError");
+            return this;
+        }
+
+        @SafeVarargs
+        public final Builder staleIfErrorExceptions(Class<? extends Throwable>... exceptions) {
+            this.staleIfErrorExceptions = List.of(exceptions);
+            return this;
+        }
+
+        public Builder clock(CoarseClock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public Builder revalidationExecutor(Executor revalidationExecutor) {
+            this.revalidationExecutor = revalidationExecutor;
+            return this;
+        }
+
+        public ResultCacheConfig build() {
+            return new ResultCacheConfig(this);
+        }
+
+        private static Duration requireNotNegative(Duration duration, String name) {
+            if (duration.isNegative()) {
+                throw new IllegalArgumentException(name + " must not be negative");
+            }
+            return duration;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package raccoonback.circuitbreaker;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import raccoonback.core.CoarseClock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 노드마다 따로 세는 circuit breaker 의 호출 수를 다른 노드와 주고받아, 클러스터 전체로 기준을 넘으면 일찍 연다.
+ * <p>
+ * 각 노드는 {@code gossipInterval} 마다 breaker 의 window 호출 수를 {@link FailureRateSummary} 로 보낸다.
+ * summary 를 받거나 이 노드에서 실패가 기록될 때, 자기 window 와 {@code summaryTimeToLive} 안에 받은 다른 노드의 window 를 합쳐
+ * breaker 설정의 {@code minimumNumberOfCalls}, 실패율, slow call 비율로 판단한다. 노드가 N 개면 각 노드는 혼자 셀 때보다
+ * 대략 1/N 의 호출만 보고 열리므로, 죽은 backend 로 보내는 호출이 그만큼 줄어든다.
+ * <p>
+ * 여는 것만 클러스터 기준으로 하고, HALF_OPEN 에서 다시 닫는 판단은 각 노드의 breaker 가 그대로 한다.
+ * 다른 노드의 summary 는 일찍 여는 데에만 쓰므로 이 노드의 breaker 상태나 window 는 바뀌지 않는다.
+ * 이 노드의 breaker 가 시험 호출을 통과해 닫힌 뒤에는, 그 전부터 OPEN 이던 노드의 summary 는 열리기 직전의 오래된 window 이므로 합치지 않는다.
+ * <p>
+ * {@link #close()} 뒤에는 summary 를 주고받지 않고 breaker 를 열지도 않는다. registry 와 breaker 의 event consumer 는 뺄 수 없으므로
+ * 등록된 채로 남지만 아무 일도 하지 않는다.
+ */
+public class CircuitBreakerGossip implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CircuitBreakerGossip.class);
+
+    private final String nodeId;
+
+    private final CircuitBreakerRegistry registry;
+
+    private final GossipTransport transport;
+
+    private final CircuitBreakerGossipConfig config;
+
+    private final CoarseClock clock;
+
+    private final long summaryTimeToLiveInNanos;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final Consumer<List<FailureRateSummary>> receiver = this::receive;
+
+    private volatile boolean closed;
+
+    // circuit breaker 이름 -> 노드 -> 마지막으로 받은 summary
+    private final Map<String, Map<String, ReceivedSummary>> remoteSummaries = new ConcurrentHashMap<>();
+
+    // circuit breaker 이름 -> 이 노드의 breaker 가 마지막으로 닫힌 시각
+    private final Map<String, Long> closedAt = new ConcurrentHashMap<>();
+
+    private final GossipMetrics metrics = new GossipMetrics();
+
+    private CircuitBreakerGossip(
+            String nodeId,
+            CircuitBreakerRegistry registry,
+            GossipTransport transport,
+            CircuitBreakerGossipConfig config
+    ) {
+        this.nodeId = nodeId;
+        this.registry = registry;
+        this.transport = transport;
+        this.config = config;
+        this.clock = config.getClock();
+        this.summaryTimeToLiveInNanos = config.getSummaryTimeToLive().toNanos();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "circuit-breaker-gossip");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        registry.getEventPublisher().onEntryAdded(event -> attach(event.getAddedEntry()));
+        registry.getAllCircuitBreakers().forEach(this::attach);
+        transport.subscribe(receiver);
+    }
+
+    public static CircuitBreakerGossip ofDefaults(String nodeId, CircuitBreakerRegistry registry, GossipTransport transport) {
+        return of(nodeId, registry, transport, CircuitBreakerGossipConfig.ofDefaults());
+    }
+
+    public static CircuitBreakerGossip of(
+            String nodeId,
+            CircuitBreakerRegistry registry,
+            GossipTransport transport,
+            CircuitBreakerGossipConfig config
+    ) {
+        return new CircuitBreakerGossip(nodeId, registry, transport, config);
+    }
+
+    /**
+     * {@code gossipInterval} 마다 {@link #gossip()} 을 부른다.
+     */
+    public void start() {
+        long intervalInNanos = config.getGossipInterval().toNanos();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                gossip();
+            } catch (Throwable throwable) {
+                LOGGER.warn("circuit breaker gossip '{}' failed", nodeId, throwable);
+            }
+        }, intervalInNanos, intervalInNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * CLOSED 와 OPEN 인 breaker 의 window 호출 수를 다른 노드에 보낸다. OPEN 인 breaker 는 열리기 직전의 window 를 들고 있으므로,
+     * 먼저 열린 노드가 아직 닫혀 있는 노드를 계속 열리게 한다. 받는 쪽은 자기 breaker 가 다시 닫힌 뒤로는 그 window 를 합치지 않는다.
+     * HALF_OPEN 의 window 는 시험 호출뿐이라 보내지 않는다.
+     */
+    public void gossip() {
+        if (closed) {
+            return;
+        }
+        List<FailureRateSummary> summaries = new ArrayList<>();
+        for (CircuitBreaker circuitBreaker : registry.getAllCircuitBreakers()) {
+            CircuitBreaker.State state = circuitBreaker.getState();
+            if (state != CircuitBreaker.State.CLOSED && state != CircuitBreaker.State.OPEN) {
+                continue;
+            }
+            CircuitBreaker.Metrics circuitBreakerMetrics = circuitBreaker.getMetrics();
+            summaries.add(new FailureRateSummary(
+                    nodeId,
+                    circuitBreaker.getName(),
+                    state,
+                    circuitBreakerMetrics.getNumberOfBufferedCalls(),
+                    circuitBreakerMetrics.getNumberOfFailedCalls(),
+                    circuitBreakerMetrics.getNumberOfSlowCalls()
+            ));
+        }
+        if (summaries.isEmpty()) {
+            return;
+        }
+        transport.send(summaries);
+        metrics.numberOfSentSummaries.add(summaries.size());
+    }
+
+    public GossipMetrics getMetrics() {
+        return metrics;
+    }
+
+    private void attach(CircuitBreaker circuitBreaker) {
+        if (closed) {
+            return;
+        }
+        // error event 는 window 에 기록되기 전에 발행되므로 이번 호출을 더해서 판단한다
+        long slowCallDurationInNanos = circuitBreaker.getCircuitBreakerConfig().getSlowCallDurationThreshold().toNanos();
+        circuitBreaker.getEventPublisher().onError(event -> evaluate(
+                circuitBreaker,
+                1,
+                event.getElapsedDuration().toNanos() > slowCallDurationInNanos ? 1 : 0
+        ));
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            if (!closed && event.getStateTransition().getToState() == CircuitBreaker.State.CLOSED) {
+                closedAt.put(circuitBreaker.getName(), clock.nanoTime());
+            }
+        });
+    }
+
+    private void receive(List<FailureRateSummary> summaries) {
+        if (closed) {
+            return;
+        }
+        long now = clock.nanoTime();
+        for (FailureRateSummary summary : summaries) {
+            if (nodeId.equals(summary.nodeId())) {
+                continue;
+            }
+            metrics.numberOfReceivedSummaries.increment();
+            Map<String, ReceivedSummary> received = remoteSummaries.computeIfAbsent(
+                    summary.circuitBreakerName(),
+                    (unUsed) -> new ConcurrentHashMap<>()
+            );
+            // OPEN 이 이어지는 동안에는 처음 OPEN 을 받은 시각을 유지한다
+            ReceivedSummary previous = received.get(summary.nodeId());
+            long openSince = previous != null && previous.summary().state() == CircuitBreaker.State.OPEN
+                    ? previous.openSince()
+                    : now;
+            received.put(summary.nodeId(), new ReceivedSummary(summary, now, openSince));
+            registry.find(summary.circuitBreakerName()).ifPresent(circuitBreaker -> evaluate(circuitBreaker, 0, 0));
+        }
+    }
+
+    private void evaluate(CircuitBreaker circuitBreaker, int pendingFailedCalls, int pendingSlowCalls) {
+        if (closed) {
+            return;
+        }
+        Map<String, ReceivedSummary> summaries = remoteSummaries.get(circuitBreaker.getName());
+        if (summaries == null || summaries.isEmpty() || circuitBreaker.getState() != CircuitBreaker.State.CLOSED) {
+            return;
+        }
+
+        Long localClosedAt = closedAt.get(circuitBreaker.getName());
+        CircuitBreaker.Metrics localMetrics = circuitBreaker.getMetrics();
+        long bufferedCalls = localMetrics.getNumberOfBufferedCalls() + pendingFailedCalls;
+        long failedCalls = localMetrics.getNumberOfFailedCalls() + pendingFailedCalls;
+        long slowCalls = localMetrics.getNumberOfSlowCalls() + pendingSlowCalls;
+
+        long now = clock.nanoTime();
+        for (Map.Entry<String, ReceivedSummary> entry : summaries.entrySet()) {
+            ReceivedSummary received = entry.getValue();
+            if (now - received.receivedAt() > summaryTimeToLiveInNanos) {
+                summaries.remove(entry.getKey(), received);
+                continue;
+            }
+            if (received.summary().state() == CircuitBreaker.State.OPEN
+                    && localClosedAt != null
+                    && received.openSince() - localClosedAt <= 0) {
+                continue;
+            }
+            bufferedCalls += received.summary().bufferedCalls();
+            failedCalls += received.summary().failedCalls();
+            slowCalls += received.summary().slowCalls();
+        }
+
+        CircuitBreakerConfig circuitBreakerConfig = circuitBreaker.getCircuitBreakerConfig();
+        if (bufferedCalls < circuitBreakerConfig.getMinimumNumberOfCalls()) {
+            return;
+        }
+        if (failedCalls * 100 >= circuitBreakerConfig.getFailureRateThreshold() * bufferedCalls
+                || slowCalls * 100 >= circuitBreakerConfig.getSlowCallRateThreshold() * bufferedCalls) {
+            circuitBreaker.transitionToOpenState();
+            metrics.numberOfClusterOpenedBreakers.increment();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        transport.unsubscribe(receiver);
+        scheduler.shutdownNow();
+        remoteSummaries.clear();
+        closedAt.clear();
+    }
+
+    private record ReceivedSummary(FailureRateSummary summary, long receivedAt, long openSince) {
+    }
+
+    public class GossipMetrics {
+
+        private final LongAdder numberOfSentSummaries = new LongAdder();
+
+        private final LongAdder numberOfReceivedSummaries = new LongAdder();
+
+        private final LongAdder numberOfClusterOpenedBreakers = new LongAdder();
+
+        public long getNumberOfSentSummaries() {
+            return numberOfSentSummaries.sum();
+        }
+
+        public long getNumberOfReceivedSummaries() {
+            return numberOfReceivedSummaries.sum();
+        }
+
+        /**
+         * 이 노드 혼자서는 기준을 넘지 않았지만 클러스터 합계로 연 횟수.
+         */
+        public long getNumberOfClusterOpenedBreakers() {
+            return numberOfClusterOpenedBreakers.sum();
+        }
+
+        /**
+         * {@code summaryTimeToLive} 안에 summary 를 보낸 다른 노드 수.
+         */
+        public long getNumberOfLiveNodes() {
+            long now = clock.nanoTime();
+            return remoteSummaries.values().stream()
+                    .flatMap(summaries -> summaries.entrySet().stream())
+                    .filter(entry -> now - entry.getValue().receivedAt() <= summaryTimeToLiveInNanos)
+                    .map(Map.Entry::getKey)
+                    .distinct()
+                    .count();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package raccoonback.circuitbreaker;
+
+import raccoonback.core.CoarseClock;
+
+import java.time.Duration;
+
+public class CircuitBreakerGossipConfig {
+
+    private final Duration gossipInterval;
+
+    private final Duration summaryTimeToLive;
+
+    private final CoarseClock clock;
+
+    private CircuitBreakerGossipConfig(Builder builder) {
+        this.gossipInterval = builder.gossipInterval;
+        this.summaryTimeToLive = builder.summaryTimeToLive;
+        this.clock = builder.clock;
+    }
+
+    public static CircuitBreakerGossipConfig ofDefaults() {
+        return custom().build();
+    }
+
+    public static Builder custom() {
+        return new Builder();
+    }
+
+    public Duration getGossipInterval() {
+        return gossipInterval;
+    }
+
+    public Duration getSummaryTimeToLive() {
+        return summaryTimeToLive;
+    }
+
+    public CoarseClock getClock() {
+        return clock;
+    }
+
+    public static class Builder {
+
+        private Duration gossipInterval = Duration.ofSeconds(1);
+
+        private Duration summaryTimeToLive = Duration.ofSeconds(10);
+
+        private CoarseClock clock = CoarseClock.system();
+
+        /**
+         * 이 노드의 summary 를 다른 노드에 보내는 주기. 짧을수록 다른 노드가 빨리 열리지만 보내는 양이 늘어난다.
+         */
+        public Builder gossipInterval(Duration gossipInterval) {
+            if (gossipInterval.isNegative() || gossipInterval.isZero()) {
+                throw new IllegalArgumentException("gossipInterval must be positive");
+            }
+            this.gossipInterval = gossipInterval;
+            return this;
+        }
+
+        /**
+         * 이 시간 동안 새 summary 를 보내지 않은 노드의 호출 수는 합치지 않는다. 죽은 노드의 오래된 실패로 열리지 않게 한다.
+         */
+        public Builder summaryTimeToLive(Duration summaryTimeToLive) {
+            if (summaryTimeToLive.isNegative() || summaryTimeToLive.isZero()) {
+                throw new IllegalArgumentException("summaryTimeToLive must be positive");
+            }
+            this.summaryTimeToLive = summaryTimeToLive;
+            return this;
+        }
+
+        public Builder clock(CoarseClock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public CircuitBreakerGossipConfig build() {
+            if (summaryTimeToLive.compareTo(gossipInterval) <= 0) {
+                throw new IllegalArgumentException("summaryTimeToLive must be greater than gossipInterval");
+            }
+            return new CircuitBreakerGossipConfig(this);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package raccoonback.circuitbreaker;
+
+import java.time.Clock;
+import java.time.Duration;
+
+public class CircuitBreakerSnapshotConfig {
+
+    private final Duration snapshotInterval;
+
+    private final Duration maxStaleness;
+
+    private final int initialFileSize;
+
+    private final Clock clock;
+
+    private CircuitBreakerSnapshotConfig(Builder builder) {
+        this.snapshotInterval = builder.snapshotInterval;
+        this.maxStaleness = builder.maxStaleness;
+        this.initialFileSize = builder.initialFileSize;
+        this.clock = builder.clock;
+    }
+
+    public static CircuitBreakerSnapshotConfig ofDefaults() {
+        return custom().build();
+    }
+
+    public static Builder custom() {
+        return new Builder();
+    }
+
+    public Duration getSnapshotInterval() {
+        return snapshotInterval;
+    }
+
+    public Duration getMaxStaleness() {
+        return maxStaleness;
+    }
+
+    public int getInitialFileSize() {
+        return initialFileSize;
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    public static class Builder {
+
+        private Duration snapshotInterval = Duration.ofSeconds(10);
+
+        private Duration maxStaleness = Duration.ofMinutes(2);
+
+        private int initialFileSize = 1024 * 1024;
+
+        private Clock clock = Clock.systemUTC();
+
+        /**
+         * registry 의 모든 circuit breaker 상태를 파일에 덧붙이는 주기.
+         */
+        public Builder snapshotInterval(Duration snapshotInterval) {
+            if (snapshotInterval.isNegative() || snapshotInterval.isZero()) {
+                throw new IllegalArgumentException("snapshotInterval must be positive");
+            }
+            this.snapshotInterval = snapshotInterval;
+            return this;
+        }
+
+        /**
+         * 이 시간보다 오래된 snapshot 은 복원하지 않는다. 배포처럼 잠깐 내려갔다 올라오는 경우만 이어받도록 짧게 둔다.
+         */
+        public Builder maxStaleness(Duration maxStaleness) {
+            if (maxStaleness.isNegative() || maxStaleness.isZero()) {
+                throw new IllegalArgumentException("maxStaleness must be positive");
+            }
+            this.maxStaleness = maxStaleness;
+            return this;
+        }
+
+        /**
+         * 처음 mapping 할 파일 크기. 다 차면 마지막 snapshot 만 남기고 compaction 하며, snapshot 하나가 넘치면 두 배씩 늘린다.
+         */
+        public Builder initialFileSize(int initialFileSize) {
+            if (initialFileSize < 1024) {
+                throw new IllegalArgumentException("initialFileSize must be greater than or equal to 1024");
+            }
+            this.initialFileSize = initialFileSize;
+            return this;
+        }
+
+        /**
+         * snapshot 시각을 기록할 시계. 재시작을 넘어 비교해야 하므로 {@link System#nanoTime()} 이 아닌 wall clock 이다.
+         */
+        public Builder clock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public CircuitBreakerSnapshotConfig build() {
+            return new CircuitBreakerSnapshotConfig(this);
+        }
+    }
+}
@@ -0,0 +1,520 @@
+package raccoonback.circuitbreaker;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * {@link CircuitBreakerRegistry} 의 circuit breaker 상태와 window 의 호출 수를 파일에 남겨 두었다가 재시작할 때 이어받는다.
+ * <p>
+ * 배포 직후에는 모든 breaker 가 빈 window 의 CLOSED 로 시작하므로, 다른 노드는 모두 열어 둔 backend 로 호출을 한꺼번에 보낸다.
+ * {@link #restore()} 를 트래픽을 받기 전에 부르면 {@code maxStaleness} 안의 snapshot 으로 breaker 를 되돌린다.
+ * 특정 설정이 필요한 breaker 는 {@link #restore()} 전에 registry 에 만들어 둔다. 없는 이름은 registry 의 기본 설정으로 만든다.
+ * <p>
+ * 파일은 memory-mapped 로 열고 snapshot 마다 끝에 record 를 덧붙인다. 파일이 차면 마지막 snapshot 만 새 파일에 쓰고
+ * 원래 파일과 바꿔치기해 compaction 한다. record 마다 CRC32 를 붙이므로, 쓰는 도중에 죽어 잘린 record 부터는 읽지 않는다.
+ * <pre>
+ * header : int magic
+ * record : int length | long epochMillis | byte state | int buffered | int failed | int slow | int slowFailed
+ *          | int nameLength | name (UTF-8) | int crc32
+ * </pre>
+ */
+public class CircuitBreakerSnapshotStore implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CircuitBreakerSnapshotStore.class);
+
+    private static final int MAGIC = 0x43425331;
+
+    private static final int HEADER_SIZE = Integer.BYTES;
+
+    private static final int FIXED_BODY_SIZE = Long.BYTES + Byte.BYTES + 5 * Integer.BYTES;
+
+    private static final RuntimeException RESTORED_FAILURE = new RestoredFailureException();
+
+    private final CircuitBreakerRegistry registry;
+
+    private final Path path;
+
+    private final CircuitBreakerSnapshotConfig config;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final SnapshotMetrics metrics = new SnapshotMetrics();
+
+    private final Object lock = new Object();
+
+    private FileChannel channel;
+
+    private MappedByteBuffer buffer;
+
+    // 다음 record 를 쓸 위치. 그 자리에는 항상 length 0 이 있어 읽기가 멈춘다
+    private int position;
+
+    private boolean closed;
+
+    private CircuitBreakerSnapshotStore(CircuitBreakerRegistry registry, Path path, CircuitBreakerSnapshotConfig config) throws IOException {
+        this.registry = registry;
+        this.path = path;
+        this.config = config;
+
+        FileChannel fileChannel = FileChannel.open(path, CREATE, READ, WRITE);
+        boolean empty = fileChannel.size() == 0;
+        map(fileChannel);
+        if (buffer.getInt(0) != MAGIC) {
+            if (!empty) {
+                LOGGER.warn("circuit breaker snapshot '{}' has an unknown format and will be overwritten", path);
+            }
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(HEADER_SIZE, 0);
+        }
+        readRecords();
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "circuit-breaker-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static CircuitBreakerSnapshotStore ofDefaults(CircuitBreakerRegistry registry, Path path) {
+        return of(registry, path, CircuitBreakerSnapshotConfig.ofDefaults());
+    }
+
+    public static CircuitBreakerSnapshotStore of(CircuitBreakerRegistry registry, Path path, CircuitBreakerSnapshotConfig config) {
+        try {
+            return new CircuitBreakerSnapshotStore(registry, path, config);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 이름마다 마지막 record 로 breaker 를 되돌리고 되돌린 breaker 수를 돌려준다.
+     * 이미 호출을 기록했거나 CLOSED 가 아닌 breaker 는 지금 상태가 더 정확하므로 건드리지 않는다.
+     */
+    public int restore() {
+        Map<String, SnapshotRecord> records;
+        synchronized (lock) {
+            records = readRecords();
+        }
+
+        long now = config.getClock().millis();
+        long maxStalenessInMillis = config.getMaxStaleness().toMillis();
+        int restored = 0;
+        for (SnapshotRecord record : records.values()) {
+            if (now - record.epochMillis() > maxStalenessInMillis) {
+                metrics.numberOfStaleRecords.increment();
+                continue;
+            }
+
+            CircuitBreaker circuitBreaker = registry.circuitBreaker(record.name());
+            if (circuitBreaker.getState() != CircuitBreaker.State.CLOSED
+                    || circuitBreaker.getMetrics().getNumberOfBufferedCalls() > 0) {
+                continue;
+            }
+            apply(circuitBreaker, record);
+            restored++;
+        }
+        metrics.numberOfRestoredBreakers.add(restored);
+        return restored;
+    }
+
+    /**
+     * registry 의 모든 breaker 상태를 파일 끝에 덧붙이고 디스크로 내린다.
+     */
+    public void snapshot() {
+        ByteBuffer batch = encode(registry.getAllCircuitBreakers().stream().toList(), config.getClock().millis());
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            try {
+                if (position + batch.remaining() + Integer.BYTES > buffer.capacity()) {
+                    compact(batch);
+                } else {
+                    buffer.put(position, batch, 0, batch.remaining());
+                    position += batch.remaining();
+                    buffer.putInt(position, 0);
+                }
+                buffer.force();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        metrics.numberOfSnapshots.increment();
+    }
+
+    /**
+     * {@code snapshotInterval} 마다 {@link #snapshot()} 을 부른다.
+     */
+    public void start() {
+        long intervalInNanos = config.getSnapshotInterval().toNanos();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                snapshot();
+            } catch (Throwable throwable) {
+                LOGGER.warn("circuit breaker snapshot '{}' failed", path, throwable);
+            }
+        }, intervalInNanos, intervalInNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public SnapshotMetrics getMetrics() {
+        return metrics;
+    }
+
+    private void apply(CircuitBreaker circuitBreaker, SnapshotRecord record) {
+        switch (record.state()) {
+            case CLOSED -> replay(circuitBreaker, record);
+            // 정확히 언제 열렸는지는 모르므로 snapshot 시각부터 다시 기다린다. 이미 지났으면 다음 호출에서 HALF_OPEN 으로 옮긴다
+            case OPEN -> circuitBreaker.transitionToOpenStateUntil(
+                    Instant.ofEpochMilli(record.epochMillis()).plus(waitDurationInOpenState(circuitBreaker))
+            );
+            case HALF_OPEN -> {
+                circuitBreaker.transitionToOpenState();
+                circuitBreaker.transitionToHalfOpenState();
+            }
+            case FORCED_OPEN -> circuitBreaker.transitionToForcedOpenState();
+            case DISABLED -> circuitBreaker.transitionToDisabledState();
+            case METRICS_ONLY -> circuitBreaker.transitionToMetricsOnlyState();
+        }
+    }
+
+    /**
+     * window 에 같은 수의 호출을 다시 기록한다. 기록하는 도중에 실패율이나 slow call 비율이 기준을 넘어 열리지 않도록 순서를 정한다.
+     * 실패를 기록할 예외를 설정에서 좁혀 두었으면 실패가 성공으로 기록되므로 호출 수는 되돌리지 않는다.
+     */
+    private void replay(CircuitBreaker circuitBreaker, SnapshotRecord record) {
+        CircuitBreakerConfig circuitBreakerConfig = circuitBreaker.getCircuitBreakerConfig();
+        if (!circuitBreakerConfig.getRecordExceptionPredicate().test(RESTORED_FAILURE)
+                || circuitBreakerConfig.getIgnoreExceptionPredicate().test(RESTORED_FAILURE)) {
+            return;
+        }
+
+        // breaker 는 기준보다 길어야 느린 호출로 센다
+        long slowCallDurationInNanos = circuitBreakerConfig.getSlowCallDurationThreshold().toNanos() + 1;
+        for (ReplayedCall call : replayOrder(circuitBreakerConfig, record)) {
+            long durationInNanos = call.slow ? slowCallDurationInNanos : 0;
+            if (call.failed) {
+                circuitBreaker.onError(durationInNanos, TimeUnit.NANOSECONDS, RESTORED_FAILURE);
+            } else {
+                circuitBreaker.onSuccess(durationInNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * 기록할 순서를 뒤에서부터 정한다. 남은 호출에서 하나를 빼도 기준 아래에 머무는 호출을 맨 뒤로 보내므로, 앞에서부터 기록할 때
+     * 지나는 모든 중간 상태가 기준 아래에 있다. 두 비율을 모두 낮추는 느린 실패를 먼저 빼고, 빠른 성공은 두 비율을 모두 높이므로 마지막에 뺀다.
+     * snapshot 은 닫혀 있던 breaker 의 window 이므로 모든 호출을 기록한 상태는 기준 아래에 있다.
+     */
+    private static ReplayedCall[] replayOrder(CircuitBreakerConfig circuitBreakerConfig, SnapshotRecord record) {
+        int minimumNumberOfCalls = circuitBreakerConfig.getSlidingWindowType() == CircuitBreakerConfig.SlidingWindowType.COUNT_BASED
+                ? Math.min(circuitBreakerConfig.getMinimumNumberOfCalls(), circuitBreakerConfig.getSlidingWindowSize())
+                : circuitBreakerConfig.getMinimumNumberOfCalls();
+        float failureRateThreshold = circuitBreakerConfig.getFailureRateThreshold();
+        float slowCallRateThreshold = circuitBreakerConfig.getSlowCallRateThreshold();
+
+        int[] remaining = new int[ReplayedCall.values().length];
+        remaining[ReplayedCall.SLOW_FAILED.ordinal()] = record.slowFailedCalls();
+        remaining[ReplayedCall.FAST_FAILED.ordinal()] = record.failedCalls() - record.slowFailedCalls();
+        remaining[ReplayedCall.SLOW_SUCCESSFUL.ordinal()] = record.slowCalls() - record.slowFailedCalls();
+        remaining[ReplayedCall.FAST_SUCCESSFUL.ordinal()] = record.bufferedCalls() - record.failedCalls()
+                - remaining[ReplayedCall.SLOW_SUCCESSFUL.ordinal()];
+
+        int calls = 0;
+        int failedCalls = record.failedCalls();
+        int slowCalls = record.slowCalls();
+        for (int count : remaining) {
+            calls += Math.max(0, count);
+        }
+
+        ReplayedCall[] order = new ReplayedCall[calls];
+        for (int position = calls - 1; position >= 0; position--) {
+            ReplayedCall last = null;
+            for (ReplayedCall candidate : ReplayedCall.values()) {
+                if (remaining[candidate.ordinal()] <= 0) {
+                    continue;
+                }
+                if (last == null) {
+                    last = candidate;
+                }
+                int failedAfter = failedCalls - (candidate.failed ? 1 : 0);
+                int slowAfter = slowCalls - (candidate.slow ? 1 : 0);
+                if (position < minimumNumberOfCalls
+                        || (failedAfter * 100f / position < failureRateThreshold && slowAfter * 100f / position < slowCallRateThreshold)) {
+                    last = candidate;
+                    break;
+                }
+            }
+
+            order[position] = last;
+            remaining[last.ordinal()]--;
+            failedCalls -= last.failed ? 1 : 0;
+            slowCalls -= last.slow ? 1 : 0;
+        }
+        return order;
+    }
+
+    private Duration waitDurationInOpenState(CircuitBreaker circuitBreaker) {
+        return Duration.ofMillis(circuitBreaker.getCircuitBreakerConfig().getWaitIntervalFunctionInOpenState().apply(1));
+    }
+
+    private ByteBuffer encode(List<CircuitBreaker> circuitBreakers, long epochMillis) {
+        List<byte[]> names = new ArrayList<>(circuitBreakers.size());
+        int size = 0;
+        for (CircuitBreaker circuitBreaker : circuitBreakers) {
+            byte[] name = circuitBreaker.getName().getBytes(StandardCharsets.UTF_8);
+            names.add(name);
+            size += 2 * Integer.BYTES + FIXED_BODY_SIZE + name.length;
+        }
+
+        ByteBuffer batch = ByteBuffer.allocate(size);
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < circuitBreakers.size(); i++) {
+            CircuitBreaker circuitBreaker = circuitBreakers.get(i);
+            CircuitBreaker.Metrics circuitBreakerMetrics = circuitBreaker.getMetrics();
+            byte[] name = names.get(i);
+
+            int length = FIXED_BODY_SIZE + name.length;
+            int bodyOffset = batch.position() + Integer.BYTES;
+            batch.putInt(length)
+                    .putLong(epochMillis)
+                    .put((byte) circuitBreaker.getState().getOrder())
+                    .putInt(circuitBreakerMetrics.getNumberOfBufferedCalls())
+                    .putInt(circuitBreakerMetrics.getNumberOfFailedCalls())
+                    .putInt(circuitBreakerMetrics.getNumberOfSlowCalls())
+                    .putInt(circuitBreakerMetrics.getNumberOfSlowFailedCalls())
+                    .putInt(name.length)
+                    .put(name);
+
+            crc.reset();
+            crc.update(batch.slice(bodyOffset, length));
+            batch.putInt((int) crc.getValue());
+        }
+        return batch.flip();
+    }
+
+    /**
+     * 처음부터 읽을 수 있는 데까지 읽어 이름마다 마지막 record 를 돌려주고, 그 다음 위치를 {@link #position} 으로 둔다.
+     */
+    private Map<String, SnapshotRecord> readRecords() {
+        Map<String, SnapshotRecord> records = new LinkedHashMap<>();
+        CRC32 crc = new CRC32();
+        int offset = HEADER_SIZE;
+        while (offset + Integer.BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(offset);
+            if (length < FIXED_BODY_SIZE || length > buffer.capacity() - offset - 2 * Integer.BYTES) {
+                break;
+            }
+
+            ByteBuffer body = buffer.slice(offset + Integer.BYTES, length);
+            crc.reset();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != buffer.getInt(offset + Integer.BYTES + length)) {
+                break;
+            }
+
+            SnapshotRecord record = decode(body);
+            if (record == null) {
+                break;
+            }
+            records.put(record.name(), record);
+            offset += 2 * Integer.BYTES + length;
+        }
+        position = offset;
+        return records;
+    }
+
+    private SnapshotRecord decode(ByteBuffer body) {
+        long epochMillis = body.getLong();
+        CircuitBreaker.State state = stateOf(body.get());
+        int bufferedCalls = body.getInt();
+        int failedCalls = body.getInt();
+        int slowCalls = body.getInt();
+        int slowFailedCalls = body.getInt();
+        int nameLength = body.getInt();
+        if (state == null || nameLength != body.remaining()) {
+            return null;
+        }
+
+        byte[] name = new byte[nameLength];
+        body.get(name);
+        return new SnapshotRecord(
+                new String(name, StandardCharsets.UTF_8),
+                epochMillis,
+                state,
+                bufferedCalls,
+                failedCalls,
+                slowCalls,
+                slowFailedCalls
+        );
+    }
+
+    private static CircuitBreaker.State stateOf(int order) {
+        for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+            if (state.getOrder() == order) {
+                return state;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 마지막 snapshot 만 담은 새 파일을 옆에 만들고 원래 파일과 바꾼다. 바꾸기 전에 죽어도 원래 파일은 그대로 남는다.
+     */
+    private void compact(ByteBuffer batch) throws IOException {
+        long capacity = buffer.capacity();
+        while (HEADER_SIZE + batch.remaining() + Integer.BYTES > capacity) {
+            capacity *= 2;
+        }
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IllegalStateException("circuit breaker snapshot exceeds " + Integer.MAX_VALUE + " bytes");
+        }
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.deleteIfExists(temporary);
+        try (FileChannel temporaryChannel = FileChannel.open(temporary, CREATE_NEW, READ, WRITE)) {
+            MappedByteBuffer temporaryBuffer = temporaryChannel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            temporaryBuffer.putInt(0, MAGIC);
+            temporaryBuffer.put(HEADER_SIZE, batch, 0, batch.remaining());
+            temporaryBuffer.putInt(HEADER_SIZE + batch.remaining(), 0);
+            temporaryBuffer.force();
+        }
+        Files.move(temporary, path, ATOMIC_MOVE, REPLACE_EXISTING);
+
+        channel.close();
+        map(FileChannel.open(path, READ, WRITE));
+        position = HEADER_SIZE + batch.remaining();
+        metrics.numberOfCompactions.increment();
+    }
+
+    private void map(FileChannel fileChannel) throws IOException {
+        long size = Math.max(fileChannel.size(), config.getInitialFileSize());
+        if (size > Integer.MAX_VALUE) {
+            fileChannel.close();
+            throw new IOException("circuit breaker snapshot '" + path + "' is larger than " + Integer.MAX_VALUE + " bytes");
+        }
+        this.channel = fileChannel;
+        this.buffer = fileChannel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    /**
+     * 주기 snapshot 을 멈추고 마지막으로 한 번 더 남긴다.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        snapshot();
+        synchronized (lock) {
+            closed = true;
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private record SnapshotRecord(
+            String name,
+            long epochMillis,
+            CircuitBreaker.State state,
+            int bufferedCalls,
+            int failedCalls,
+            int slowCalls,
+            int slowFailedCalls
+    ) {
+    }
+
+    /**
+     * snapshot 의 실패를 window 에 다시 기록할 때 쓰는 예외.
+     */
+    private static class RestoredFailureException extends RuntimeException {
+
+        RestoredFailureException() {
+            super("restored from circuit breaker snapshot", null, false, false);
+        }
+    }
+
+    /**
+     * 빼는 순서대로 둔다.
+     */
+    private enum ReplayedCall {
+        SLOW_FAILED(true, true),
+        FAST_FAILED(true, false),
+        SLOW_SUCCESSFUL(false, true),
+        FAST_SUCCESSFUL(false, false);
+
+        private final boolean failed;
+
+        private final boolean slow;
+
+        ReplayedCall(boolean failed, boolean slow) {
+            this.failed = failed;
+            this.slow = slow;
+        }
+    }
+
+    public static class SnapshotMetrics {
+
+        private final LongAdder numberOfSnapshots = new LongAdder();
+
+        private final LongAdder numberOfCompactions = new LongAdder();
+
+        private final LongAdder numberOfRestoredBreakers = new LongAdder();
+
+        private final LongAdder numberOfStaleRecords = new LongAdder();
+
+        public long getNumberOfSnapshots() {
+            return numberOfSnapshots.sum();
+        }
+
+        /**
+         * 파일이 차서 마지막 snapshot 만 남기고 다시 쓴 횟수.
+         */
+        public long getNumberOfCompactions() {
+            return numberOfCompactions.sum();
+        }
+
+        public long getNumberOfRestoredBreakers() {
+            return numberOfRestoredBreakers.sum();
+        }
+
+        /**
+         * {@code maxStaleness} 보다 오래돼 복원하지 않은 record 수.
+         */
+        public long getNumberOfStaleRecords() {
+            return numberOfStaleRecords.sum();
+        }
+    }
+
+}
@@ -0,0 +1,16 @@
+package raccoonback.circuitbreaker;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+/**
+ * 한 노드의 circuit breaker 가 지금 window 에 들고 있는 호출 수와 상태. 노드끼리 주고받는 gossip 의 단위이다.
+ */
+public record FailureRateSummary(
+        String nodeId,
+        String circuitBreakerName,
+        CircuitBreaker.State state,
+        int bufferedCalls,
+        int failedCalls,
+        int slowCalls
+) {
+}
@@ -0,0 +1,27 @@
+package raccoonback.circuitbreaker;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * {@link CircuitBreakerGossip} 이 다른 노드와 {@link FailureRateSummary} 를 주고받는 통로.
+ * <p>
+ * 전달을 보장하지 않아도 된다. 잃어버린 summary 는 다음 gossip 주기에 다시 보내고, 오래 못 받은 노드의 summary 는 버린다.
+ */
+public interface GossipTransport {
+
+    /**
+     * 자기 자신을 뺀 다른 노드에 보낸다.
+     */
+    void send(List<FailureRateSummary> summaries);
+
+    /**
+     * 다른 노드가 보낸 summary 를 받을 consumer 를 등록한다.
+     */
+    void subscribe(Consumer<List<FailureRateSummary>> receiver);
+
+    /**
+     * {@link #subscribe(Consumer)} 로 등록한 consumer 를 뺀다.
+     */
+    void unsubscribe(Consumer<List<FailureRateSummary>> receiver);
+}
@@ -0,0 +1,260 @@
+package raccoonback.circuitbreaker;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import raccoonback.core.CoarseClock;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * key(tenant, endpoint 등)마다 따로 열리고 닫히는 circuit breaker.
+ * <p>
+ * CLOSED 인 key 는 {@link CircuitBreaker} 를 만들지 않고 호출 수, 실패 수, slow call 수를 {@code long} 하나에 묶어 센다.
+ * window 가 차면 세 값을 절반으로 줄여 오래된 호출의 비중을 낮추므로, sliding window 를 count 기반으로 근사한 것과 같다.
+ * 실패율이나 slow call 비율이 기준을 넘으면 그 key 의 {@link CircuitBreaker} 를 만들어 OPEN 으로 옮기고, 이후 호출은 그 breaker 가 맡는다.
+ * breaker 가 HALF_OPEN 을 거쳐 CLOSED 로 돌아오면 breaker 를 버리고 다시 {@code long} 하나로 센다.
+ * <p>
+ * key 의 상태와 breaker 는 각각 Caffeine 으로 최대 수와 idle 시간을 넘지 않게 유지한다. 버려진 key 는 다음 호출에서 CLOSED 로 다시 시작한다.
+ */
+public class KeyedCircuitBreaker<K> {
+
+    private static final int COUNT_BITS = 21;
+
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final String name;
+
+    private final KeyedCircuitBreakerConfig config;
+
+    private final CircuitBreakerConfig circuitBreakerConfig;
+
+    private final CoarseClock clock;
+
+    private final Cache<K, AtomicLong> counts;
+
+    private final Cache<K, CircuitBreaker> breakers;
+
+    private final long windowSize;
+
+    private final long minimumNumberOfCalls;
+
+    private final long slowCallDurationThresholdInNanos;
+
+    private final KeyedCircuitBreakerMetrics metrics = new KeyedCircuitBreakerMetrics();
+
+    private KeyedCircuitBreaker(String name, KeyedCircuitBreakerConfig config) {
+        this.name = name;
+        this.config = config;
+        this.circuitBreakerConfig = config.getCircuitBreakerConfig();
+        this.clock = config.getClock();
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumKeys())
+                .expireAfterAccess(config.getExpireAfterIdle().toNanos(), TimeUnit.NANOSECONDS)
+                .ticker(clock::nanoTime)
+                .executor(Runnable::run)
+                .build();
+        this.breakers = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumMaterializedBreakers())
+                .expireAfterAccess(config.getExpireAfterIdle().toNanos(), TimeUnit.NANOSECONDS)
+                .ticker(clock::nanoTime)
+                .executor(Runnable::run)
+                .build();
+        this.windowSize = Math.min(circuitBreakerConfig.getSlidingWindowSize(), COUNT_MASK);
+        this.minimumNumberOfCalls = Math.min(circuitBreakerConfig.getMinimumNumberOfCalls(), windowSize);
+        this.slowCallDurationThresholdInNanos = circuitBreakerConfig.getSlowCallDurationThreshold().toNanos();
+    }
+
+    public static <K> KeyedCircuitBreaker<K> ofDefaults(String name) {
+        return of(name, KeyedCircuitBreakerConfig.ofDefaults());
+    }
+
+    public static <K> KeyedCircuitBreaker<K> of(String name, KeyedCircuitBreakerConfig config) {
+        return new KeyedCircuitBreaker<>(name, config);
+    }
+
+    public static <K, T> Supplier<T> decorateSupplier(KeyedCircuitBreaker<K> circuitBreaker, K key, Supplier<T> supplier) {
+        return () -> circuitBreaker.executeSupplier(key, supplier);
+    }
+
+    public static <K, T> Supplier<CompletionStage<T>> decorateCompletionStage(
+            KeyedCircuitBreaker<K> circuitBreaker,
+            K key,
+            Supplier<CompletionStage<T>> supplier
+    ) {
+        return () -> circuitBreaker.executeCompletionStage(key, supplier);
+    }
+
+    public <T> T executeSupplier(K key, Supplier<T> supplier) {
+        CircuitBreaker breaker = breakers.getIfPresent(key);
+        if (breaker != null) {
+            return breaker.executeSupplier(supplier);
+        }
+
+        AtomicLong keyCounts = counts.get(key, (unUsed) -> new AtomicLong());
+        long start = clock.nanoTime();
+        try {
+            T result = supplier.get();
+            record(key, keyCounts, clock.nanoTime() - start, null);
+            return result;
+        } catch (Throwable throwable) {
+            record(key, keyCounts, clock.nanoTime() - start, throwable);
+            throw throwable;
+        }
+    }
+
+    public <T> CompletionStage<T> executeCompletionStage(K key, Supplier<CompletionStage<T>> supplier) {
+        CircuitBreaker breaker = breakers.getIfPresent(key);
+        if (breaker != null) {
+            return breaker.executeCompletionStage(supplier);
+        }
+
+        AtomicLong keyCounts = counts.get(key, (unUsed) -> new AtomicLong());
+        long start = clock.nanoTime();
+        CompletionStage<T> stage;
+        try {
+            stage = supplier.get();
+        } catch (Throwable throwable) {
+            record(key, keyCounts, clock.nanoTime() - start, throwable);
+            return CompletableFuture.failedFuture(throwable);
+        }
+        return stage.whenComplete((result, throwable) -> record(key, keyCounts, clock.nanoTime() - start, throwable));
+    }
+
+    private void record(K key, AtomicLong keyCounts, long durationInNanos, Throwable throwable) {
+        throwable = unwrap(throwable);
+        if (throwable != null && circuitBreakerConfig.getIgnoreExceptionPredicate().test(throwable)) {
+            return;
+        }
+
+        boolean failure = throwable != null && circuitBreakerConfig.getRecordExceptionPredicate().test(throwable);
+        boolean slow = durationInNanos >= slowCallDurationThresholdInNanos;
+        if (recordAndCheckThreshold(keyCounts, failure, slow)) {
+            open(key);
+        }
+    }
+
+    /**
+     * 기준을 넘었으면 센 값을 비우고 {@code true} 를 돌려준다.
+     */
+    private boolean recordAndCheckThreshold(AtomicLong keyCounts, boolean failure, boolean slow) {
+        while (true) {
+            long current = keyCounts.get();
+            long calls = (current & COUNT_MASK) + 1;
+            long failures = ((current >>> COUNT_BITS) & COUNT_MASK) + (failure ? 1 : 0);
+            long slowCalls = (current >>> (2 * COUNT_BITS)) + (slow ? 1 : 0);
+
+            if (calls >= minimumNumberOfCalls && exceedsThreshold(calls, failures, slowCalls)) {
+                if (keyCounts.compareAndSet(current, 0)) {
+                    return true;
+                }
+                continue;
+            }
+
+            if (calls >= windowSize) {
+                calls >>>= 1;
+                failures >>>= 1;
+                slowCalls >>>= 1;
+            }
+            long next = calls | (failures << COUNT_BITS) | (slowCalls << (2 * COUNT_BITS));
+            if (keyCounts.compareAndSet(current, next)) {
+                return false;
+            }
+        }
+    }
+
+    private boolean exceedsThreshold(long calls, long failures, long slowCalls) {
+        return failures * 100 >= circuitBreakerConfig.getFailureRateThreshold() * calls
+                || slowCalls * 100 >= circuitBreakerConfig.getSlowCallRateThreshold() * calls;
+    }
+
+    private void open(K key) {
+        breakers.get(key, (unUsed) -> {
+            CircuitBreaker breaker = CircuitBreaker.of(
+                    name + "[" + key + "]",
+                    circuitBreakerConfig,
+                    Map.of("key", String.valueOf(key))
+            );
+            breaker.transitionToOpenState();
+            breaker.getEventPublisher().onStateTransition(event -> {
+                if (event.getStateTransition().getToState() == CircuitBreaker.State.CLOSED) {
+                    breakers.asMap().remove(key, breaker);
+                }
+            });
+            metrics.numberOfOpenedKeys.increment();
+            return breaker;
+        });
+    }
+
+    private Throwable unwrap(Throwable throwable) {
+        if ((throwable instanceof CompletionException || throwable instanceof ExecutionException) && throwable.getCause() != null) {
+            return throwable.getCause();
+        }
+        return throwable;
+    }
+
+    /**
+     * breaker 를 만들지 않은 key 는 CLOSED 이다.
+     */
+    public CircuitBreaker.State getState(K key) {
+        CircuitBreaker breaker = breakers.getIfPresent(key);
+        return breaker == null ? CircuitBreaker.State.CLOSED : breaker.getState();
+    }
+
+    /**
+     * CLOSED 가 아닌 key 의 {@link CircuitBreaker}. CLOSED 로 돌아오면 버려지므로 들고 있지 않는다.
+     */
+    public Optional<CircuitBreaker> findCircuitBreaker(K key) {
+        return Optional.ofNullable(breakers.getIfPresent(key));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public KeyedCircuitBreakerConfig getKeyedCircuitBreakerConfig() {
+        return config;
+    }
+
+    public KeyedCircuitBreakerMetrics getMetrics() {
+        return metrics;
+    }
+
+    public class KeyedCircuitBreakerMetrics {
+
+        private final LongAdder numberOfOpenedKeys = new LongAdder();
+
+        /**
+         * 상태를 들고 있는 key 수.
+         */
+        public long getNumberOfKeys() {
+            counts.cleanUp();
+            return counts.estimatedSize();
+        }
+
+        /**
+         * 지금 {@link CircuitBreaker} 를 만들어 둔 key 수.
+         */
+        public long getNumberOfMaterializedBreakers() {
+            breakers.cleanUp();
+            return breakers.estimatedSize();
+        }
+
+        /**
+         * 기준을 넘어 OPEN 으로 옮긴 횟수.
+         */
+        public long getNumberOfOpenedKeys() {
+            return numberOfOpenedKeys.sum();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package raccoonback.circuitbreaker;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import raccoonback.core.CoarseClock;
+
+import java.time.Duration;
+
+public class KeyedCircuitBreakerConfig {
+
+    private final CircuitBreakerConfig circuitBreakerConfig;
+
+    private final long maximumKeys;
+
+    private final long maximumMaterializedBreakers;
+
+    private final Duration expireAfterIdle;
+
+    private final CoarseClock clock;
+
+    private KeyedCircuitBreakerConfig(Builder builder) {
+        this.circuitBreakerConfig = builder.circuitBreakerConfig;
+        this.maximumKeys = builder.maximumKeys;
+        this.maximumMaterializedBreakers = builder.maximumMaterializedBreakers;
+        this.expireAfterIdle = builder.expireAfterIdle;
+        this.clock = builder.clock;
+    }
+
+    public static KeyedCircuitBreakerConfig ofDefaults() {
+        return custom().build();
+    }
+
+    public static Builder custom() {
+        return new Builder();
+    }
+
+    public CircuitBreakerConfig getCircuitBreakerConfig() {
+        return circuitBreakerConfig;
+    }
+
+    public long getMaximumKeys() {
+        return maximumKeys;
+    }
+
+    public long getMaximumMaterializedBreakers() {
+        return maximumMaterializedBreakers;
+    }
+
+    public Duration getExpireAfterIdle() {
+        return expireAfterIdle;
+    }
+
+    public CoarseClock getClock() {
+        return clock;
+    }
+
+    public static class Builder {
+
+        private CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.ofDefaults();
+
+        private long maximumKeys = 1_000_000;
+
+        private long maximumMaterializedBreakers = 10_000;
+
+        private Duration expireAfterIdle = Duration.ofMinutes(10);
+
+        private CoarseClock clock = System::nanoTime;
+
+        /**
+         * key 마다 적용할 설정. CLOSED 인 key 는 이 설정의 실패율, slow call 비율, 최소 호출 수로 열지 판단한다.
+         */
+        public Builder circuitBreakerConfig(CircuitBreakerConfig circuitBreakerConfig) {
+            this.circuitBreakerConfig = circuitBreakerConfig;
+            return this;
+        }
+
+        /**
+         * 상태를 들고 있을 key 의 최대 수. 넘으면 오래 쓰지 않은 key 부터 버린다.
+         */
+        public Builder maximumKeys(long maximumKeys) {
+            if (maximumKeys < 1) {
+                throw new IllegalArgumentException("maximumKeys must be greater than 0");
+            }
+            this.maximumKeys = maximumKeys;
+            return this;
+        }
+
+        /**
+         * 동시에 만들어 둘 {@code CircuitBreaker} 의 최대 수. 넘으면 오래 쓰지 않은 breaker 부터 버리고 그 key 는 CLOSED 로 돌아간다.
+         */
+        public Builder maximumMaterializedBreakers(long maximumMaterializedBreakers) {
+            if (maximumMaterializedBreakers < 1) {
+                throw new IllegalArgumentException("maximumMaterializedBreakers must be greater than 0");
+            }
+            this.maximumMaterializedBreakers = maximumMaterializedBreakers;
+            return this;
+        }
+
+        /**
+         * 이 시간 동안 호출이 없던 key 의 상태를 버린다.
+         */
+        public Builder expireAfterIdle(Duration expireAfterIdle) {
+            if (expireAfterIdle.isNegative() || expireAfterIdle.isZero()) {
+                throw new IllegalArgumentException("expireAfterIdle must be positive");
+            }
+            this.expireAfterIdle = expireAfterIdle;
+            return this;
+        }
+
+        /**
+         * 호출 시간과 idle 시간을 잴 시계. slow call 을 재야 하므로 기본값은 {@link System#nanoTime()} 이다.
+         */
+        public Builder clock(CoarseClock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public KeyedCircuitBreakerConfig build() {
+            if (maximumMaterializedBreakers > maximumKeys) {
+                throw new IllegalArgumentException("maximumMaterializedBreakers must be less than or equal to maximumKeys");
+            }
+            return new KeyedCircuitBreakerConfig(this);
+        }
+    }
+}
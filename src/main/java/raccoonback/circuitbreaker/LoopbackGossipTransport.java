@@ -0,0 +1,64 @@
+package raccoonback.circuitbreaker;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 같은 JVM 안에서 여러 노드를 흉내 내는 {@link GossipTransport}. 보내는 스레드에서 같은 {@link Network} 의 다른 노드로 바로 전달한다.
+ * <pre>{@code
+ * LoopbackGossipTransport.Network network = LoopbackGossipTransport.network();
+ * CircuitBreakerGossip nodeA = CircuitBreakerGossip.ofDefaults("node-a", registryA, network.join());
+ * CircuitBreakerGossip nodeB = CircuitBreakerGossip.ofDefaults("node-b", registryB, network.join());
+ * }</pre>
+ */
+public class LoopbackGossipTransport implements GossipTransport {
+
+    private final Network network;
+
+    private final List<Consumer<List<FailureRateSummary>>> receivers = new CopyOnWriteArrayList<>();
+
+    private LoopbackGossipTransport(Network network) {
+        this.network = network;
+    }
+
+    public static Network network() {
+        return new Network();
+    }
+
+    @Override
+    public void send(List<FailureRateSummary> summaries) {
+        for (LoopbackGossipTransport member : network.members) {
+            if (member != this) {
+                member.receivers.forEach(receiver -> receiver.accept(summaries));
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<List<FailureRateSummary>> receiver) {
+        receivers.add(receiver);
+    }
+
+    @Override
+    public void unsubscribe(Consumer<List<FailureRateSummary>> receiver) {
+        receivers.remove(receiver);
+    }
+
+    /**
+     * 서로 summary 를 주고받는 transport 의 묶음.
+     */
+    public static class Network {
+
+        private final List<LoopbackGossipTransport> members = new CopyOnWriteArrayList<>();
+
+        private Network() {
+        }
+
+        public LoopbackGossipTransport join() {
+            LoopbackGossipTransport member = new LoopbackGossipTransport(this);
+            members.add(member);
+            return member;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package raccoonback.circuitbreaker;
+
+import io.github.resilience4j.core.metrics.Metrics;
+import io.github.resilience4j.core.metrics.Snapshot;
+import raccoonback.core.CoarseClock;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 시간 bucket 을 primitive 배열의 ring buffer 로 돌려 쓰는 TIME_BASED window.
+ * <p>
+ * bucket 은 최대 {@value #MAX_BUCKETS} 개이고, window 길이를 bucket 수로 나눈 만큼씩 맡는다. 61초처럼 나누어떨어지지 않는
+ * 길이도 bucket 길이를 nanosecond 단위로 정하므로 bucket 들이 덮는 시간은 설정한 window 길이와 같다. 전체 합계를 따로
+ * 유지하므로 기록과 조회 모두 window 길이와 관계없이 O(1) 이며, 지나간 bucket 은 시간이 흐른 만큼만 비운다.
+ * 현재 bucket 은 {@link CoarseClock} 으로 정하므로 호출마다 {@link System#nanoTime()} 을 부르지 않는다.
+ */
+public class RingBufferTimeWindow implements SlidingWindow {
+
+    static final int MAX_BUCKETS = 60;
+
+    private final CoarseClock clock;
+
+    private final int bucketCount;
+
+    private final long bucketSpanInNanos;
+
+    private final long[] calls;
+
+    private final long[] failedCalls;
+
+    private final long[] slowCalls;
+
+    private final long[] slowFailedCalls;
+
+    private final long[] durationInNanos;
+
+    private long totalCalls;
+
+    private long totalFailedCalls;
+
+    private long totalSlowCalls;
+
+    private long totalSlowFailedCalls;
+
+    private long totalDurationInNanos;
+
+    private long headEpoch;
+
+    private RingBufferTimeWindow(Duration windowLength, CoarseClock clock) {
+        if (windowLength.compareTo(Duration.ofSeconds(1)) < 0) {
+            throw new IllegalArgumentException("windowLength must be at least 1 second");
+        }
+
+        // bucket 수를 먼저 정하고 길이를 나누므로 bucketCount * bucketSpan 은 window 길이와 bucketCount ns 이내로 같다
+        long windowLengthInNanos = windowLength.toNanos();
+        this.clock = clock;
+        this.bucketCount = (int) Math.min(Math.ceilDiv(windowLengthInNanos, TimeUnit.SECONDS.toNanos(1)), MAX_BUCKETS);
+        this.bucketSpanInNanos = Math.ceilDiv(windowLengthInNanos, bucketCount);
+        this.calls = new long[bucketCount];
+        this.failedCalls = new long[bucketCount];
+        this.slowCalls = new long[bucketCount];
+        this.slowFailedCalls = new long[bucketCount];
+        this.durationInNanos = new long[bucketCount];
+        this.headEpoch = currentEpoch();
+    }
+
+    public static RingBufferTimeWindow of(Duration windowLength) {
+        return of(windowLength, CoarseClock.system());
+    }
+
+    public static RingBufferTimeWindow of(Duration windowLength, CoarseClock clock) {
+        return new RingBufferTimeWindow(windowLength, clock);
+    }
+
+    @Override
+    public synchronized void record(long durationInNanos, Metrics.Outcome outcome) {
+        int index = advance();
+        boolean failed = outcome == Metrics.Outcome.ERROR || outcome == Metrics.Outcome.SLOW_ERROR;
+        boolean slow = outcome == Metrics.Outcome.SLOW_SUCCESS || outcome == Metrics.Outcome.SLOW_ERROR;
+
+        calls[index]++;
+        totalCalls++;
+        this.durationInNanos[index] += durationInNanos;
+        totalDurationInNanos += durationInNanos;
+        if (failed) {
+            failedCalls[index]++;
+            totalFailedCalls++;
+        }
+        if (slow) {
+            slowCalls[index]++;
+            totalSlowCalls++;
+            if (failed) {
+                slowFailedCalls[index]++;
+                totalSlowFailedCalls++;
+            }
+        }
+    }
+
+    @Override
+    public synchronized int getNumberOfBufferedCalls() {
+        advance();
+        return (int) totalCalls;
+    }
+
+    @Override
+    public synchronized int getNumberOfFailedCalls() {
+        advance();
+        return (int) totalFailedCalls;
+    }
+
+    @Override
+    public synchronized int getNumberOfSlowCalls() {
+        advance();
+        return (int) totalSlowCalls;
+    }
+
+    @Override
+    public synchronized Snapshot getSnapshot() {
+        advance();
+        return new WindowSnapshot(
+                (int) totalCalls,
+                (int) totalFailedCalls,
+                (int) totalSlowCalls,
+                (int) totalSlowFailedCalls,
+                totalDurationInNanos
+        );
+    }
+
+    @Override
+    public synchronized void reset() {
+        Arrays.fill(calls, 0);
+        Arrays.fill(failedCalls, 0);
+        Arrays.fill(slowCalls, 0);
+        Arrays.fill(slowFailedCalls, 0);
+        Arrays.fill(durationInNanos, 0);
+        totalCalls = 0;
+        totalFailedCalls = 0;
+        totalSlowCalls = 0;
+        totalSlowFailedCalls = 0;
+        totalDurationInNanos = 0;
+        headEpoch = currentEpoch();
+    }
+
+    private int advance() {
+        long epoch = currentEpoch();
+        if (epoch > headEpoch) {
+            long steps = Math.min(epoch - headEpoch, bucketCount);
+            for (long step = 1; step <= steps; step++) {
+                evict(indexOf(headEpoch + step));
+            }
+            headEpoch = epoch;
+        }
+        return indexOf(headEpoch);
+    }
+
+    private void evict(int index) {
+        totalCalls -= calls[index];
+        totalFailedCalls -= failedCalls[index];
+        totalSlowCalls -= slowCalls[index];
+        totalSlowFailedCalls -= slowFailedCalls[index];
+        totalDurationInNanos -= durationInNanos[index];
+        calls[index] = 0;
+        failedCalls[index] = 0;
+        slowCalls[index] = 0;
+        slowFailedCalls[index] = 0;
+        durationInNanos[index] = 0;
+    }
+
+    private long currentEpoch() {
+        return Math.floorDiv(clock.nanoTime(), bucketSpanInNanos);
+    }
+
+    private int indexOf(long epoch) {
+        return (int) Math.floorMod(epoch, (long) bucketCount);
+    }
+}
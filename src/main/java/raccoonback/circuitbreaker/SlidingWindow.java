@@ -0,0 +1,25 @@
+package raccoonback.circuitbreaker;
+
+import io.github.resilience4j.core.metrics.Metrics;
+import io.github.resilience4j.core.metrics.Snapshot;
+
+/**
+ * {@link WindowedCircuitBreaker} 가 CLOSED 상태에서 호출 결과를 집계하는 window.
+ * <p>
+ * {@link #record(long, Metrics.Outcome)} 는 매 호출마다 불리므로 가볍게 유지한다. 임계치 판단에는 객체를 만들지 않는
+ * 카운트 조회를 쓰고, {@link #getSnapshot()} 은 지표를 노출할 때만 쓴다.
+ */
+public interface SlidingWindow {
+
+    void record(long durationInNanos, Metrics.Outcome outcome);
+
+    int getNumberOfBufferedCalls();
+
+    int getNumberOfFailedCalls();
+
+    int getNumberOfSlowCalls();
+
+    Snapshot getSnapshot();
+
+    void reset();
+}
@@ -0,0 +1,144 @@
+package raccoonback.circuitbreaker;
+
+import io.github.resilience4j.core.metrics.Metrics;
+import io.github.resilience4j.core.metrics.Snapshot;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 최근 {@code windowSize} 건의 호출을 lock 없이 집계하는 COUNT_BASED window.
+ * <p>
+ * 호출마다 순번을 하나 받아 해당 slot 의 이전 결과를 교체하고, 빠지는 결과와 들어오는 결과의 차이만큼
+ * {@link LongAdder} 카운터를 갱신한다. slot 은 cache line 단위로 떨어뜨려 인접 순번을 받은 스레드끼리 false sharing 이
+ * 생기지 않게 하고, 카운터는 읽을 때만 합산한다. 동시에 기록 중일 때 읽은 snapshot 은 근사값이며, 기록이 멈추면 정확해진다.
+ */
+public class StripedSlidingWindow implements SlidingWindow {
+
+    private static final int LONGS_PER_CACHE_LINE = 8;
+
+    private static final long RECORDED = 1L;
+
+    private static final long FAILED = 1L << 1;
+
+    private static final long SLOW = 1L << 2;
+
+    private static final int DURATION_SHIFT = 3;
+
+    private final int windowSize;
+
+    // reset 은 새 window 로 교체한다. 교체 중에 기록된 호출은 버려지는 이전 window 에만 반영되므로 카운터가 어긋나지 않는다
+    private volatile Window window;
+
+    private StripedSlidingWindow(int windowSize) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("windowSize must be greater than 0");
+        }
+        this.windowSize = windowSize;
+        this.window = new Window(windowSize);
+    }
+
+    public static StripedSlidingWindow of(int windowSize) {
+        return new StripedSlidingWindow(windowSize);
+    }
+
+    @Override
+    public void record(long durationInNanos, Metrics.Outcome outcome) {
+        window.record(durationInNanos, outcome);
+    }
+
+    @Override
+    public int getNumberOfBufferedCalls() {
+        return window.getNumberOfBufferedCalls();
+    }
+
+    @Override
+    public int getNumberOfFailedCalls() {
+        return (int) window.failedCalls.sum();
+    }
+
+    @Override
+    public int getNumberOfSlowCalls() {
+        return (int) window.slowCalls.sum();
+    }
+
+    @Override
+    public Snapshot getSnapshot() {
+        Window current = window;
+        return new WindowSnapshot(
+                current.getNumberOfBufferedCalls(),
+                (int) current.failedCalls.sum(),
+                (int) current.slowCalls.sum(),
+                (int) current.slowFailedCalls.sum(),
+                current.totalDurationInNanos.sum()
+        );
+    }
+
+    @Override
+    public void reset() {
+        window = new Window(windowSize);
+    }
+
+    private static void accumulate(LongAdder counter, long delta) {
+        if (delta != 0) {
+            counter.add(delta);
+        }
+    }
+
+    private static long flag(long slot, long mask) {
+        return (slot & mask) == mask ? 1 : 0;
+    }
+
+    private static long encode(long durationInNanos, Metrics.Outcome outcome) {
+        long slot = RECORDED | (Math.max(0, durationInNanos) << DURATION_SHIFT);
+        switch (outcome) {
+            case ERROR:
+                return slot | FAILED;
+            case SLOW_SUCCESS:
+                return slot | SLOW;
+            case SLOW_ERROR:
+                return slot | FAILED | SLOW;
+            default:
+                return slot;
+        }
+    }
+
+    private static final class Window {
+
+        private final int windowSize;
+
+        private final AtomicLongArray slots;
+
+        private final AtomicLong sequence = new AtomicLong();
+
+        private final LongAdder failedCalls = new LongAdder();
+
+        private final LongAdder slowCalls = new LongAdder();
+
+        private final LongAdder slowFailedCalls = new LongAdder();
+
+        private final LongAdder totalDurationInNanos = new LongAdder();
+
+        private Window(int windowSize) {
+            this.windowSize = windowSize;
+            this.slots = new AtomicLongArray(windowSize * LONGS_PER_CACHE_LINE);
+        }
+
+        private void record(long durationInNanos, Metrics.Outcome outcome) {
+            long current = encode(durationInNanos, outcome);
+            int index = (int) (sequence.getAndIncrement() % windowSize) * LONGS_PER_CACHE_LINE;
+            long previous = slots.getAndSet(index, current);
+
+            // 같은 결과끼리 교체되는 대부분의 호출은 duration 카운터 하나만 갱신한다
+            accumulate(failedCalls, flag(current, FAILED) - flag(previous, FAILED));
+            accumulate(slowCalls, flag(current, SLOW) - flag(previous, SLOW));
+            accumulate(slowFailedCalls, flag(current, FAILED | SLOW) - flag(previous, FAILED | SLOW));
+            accumulate(totalDurationInNanos, (current >>> DURATION_SHIFT) - (previous >>> DURATION_SHIFT));
+        }
+
+        private int getNumberOfBufferedCalls() {
+            return (int) Math.min(sequence.get(), windowSize);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package raccoonback.circuitbreaker;
+
+import io.github.resilience4j.core.metrics.Snapshot;
+
+import java.time.Duration;
+
+class WindowSnapshot implements Snapshot {
+
+    private final int totalNumberOfCalls;
+
+    private final int numberOfFailedCalls;
+
+    private final int totalNumberOfSlowCalls;
+
+    private final int numberOfSlowFailedCalls;
+
+    private final long totalDurationInNanos;
+
+    WindowSnapshot(int totalNumberOfCalls, int numberOfFailedCalls, int totalNumberOfSlowCalls, int numberOfSlowFailedCalls, long totalDurationInNanos) {
+        this.totalNumberOfCalls = totalNumberOfCalls;
+        this.numberOfFailedCalls = numberOfFailedCalls;
+        this.totalNumberOfSlowCalls = totalNumberOfSlowCalls;
+        this.numberOfSlowFailedCalls = numberOfSlowFailedCalls;
+        this.totalDurationInNanos = totalDurationInNanos;
+    }
+
+    @Override
+    public Duration getTotalDuration() {
+        return Duration.ofNanos(totalDurationInNanos);
+    }
+
+    @Override
+    public Duration getAverageDuration() {
+        if (totalNumberOfCalls == 0) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos(totalDurationInNanos / totalNumberOfCalls);
+    }
+
+    @Override
+    public int getTotalNumberOfSlowCalls() {
+        return totalNumberOfSlowCalls;
+    }
+
+    @Override
+    public int getNumberOfSlowSuccessfulCalls() {
+        return totalNumberOfSlowCalls - numberOfSlowFailedCalls;
+    }
+
+    @Override
+    public int getNumberOfSlowFailedCalls() {
+        return numberOfSlowFailedCalls;
+    }
+
+    @Override
+    public float getSlowCallRate() {
+        if (totalNumberOfCalls == 0) {
+            return 0;
+        }
+        return totalNumberOfSlowCalls * 100.0f / totalNumberOfCalls;
+    }
+
+    @Override
+    public int getNumberOfSuccessfulCalls() {
+        return totalNumberOfCalls - numberOfFailedCalls;
+    }
+
+    @Override
+    public int getNumberOfFailedCalls() {
+        return numberOfFailedCalls;
+    }
+
+    @Override
+    public int getTotalNumberOfCalls() {
+        return totalNumberOfCalls;
+    }
+
+    @Override
+    public float getFailureRate() {
+        if (totalNumberOfCalls == 0) {
+            return 0;
+        }
+        return numberOfFailedCalls * 100.0f / totalNumberOfCalls;
+    }
+}
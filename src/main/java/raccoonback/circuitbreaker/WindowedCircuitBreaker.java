@@ -0,0 +1,303 @@
+package raccoonback.circuitbreaker;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.IllegalStateTransitionException;
+import io.github.resilience4j.circuitbreaker.ResultRecordedAsFailureException;
+import io.github.resilience4j.core.metrics.Metrics.Outcome;
+import io.github.resilience4j.core.metrics.Snapshot;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.resilience4j.circuitbreaker.CircuitBreaker.State.CLOSED;
+import static io.github.resilience4j.circuitbreaker.CircuitBreakerConfig.SlidingWindowType.COUNT_BASED;
+
+/**
+ * {@link io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry} 등으로 만든 circuit breaker 의 CLOSED 상태 집계를
+ * 주어진 {@link SlidingWindow} 로 대신하는 circuit breaker.
+ * <p>
+ * CLOSED 상태의 호출 결과는 delegate 가 아닌 window 에 기록하고, 실패율 또는 slow call 비율이 delegate 설정의 임계치를
+ * 넘으면 delegate 를 OPEN 으로 전이시킨다. 그 밖의 상태와 상태 전이, 이벤트는 모두 delegate 가 처리하며 delegate 가
+ * 다시 CLOSED 로 돌아오면 window 를 비운다.
+ * <p>
+ * CLOSED 상태에서는 호출 단위의 success/error 이벤트를 발행하지 않고, {@code transitionOnResult} 도 평가하지 않는다.
+ */
+public class WindowedCircuitBreaker implements CircuitBreaker {
+
+    private final CircuitBreaker delegate;
+
+    private final SlidingWindow window;
+
+    private final CircuitBreakerConfig config;
+
+    private final int minimumNumberOfCalls;
+
+    private final long slowCallDurationThresholdInNanos;
+
+    private final WindowedMetrics metrics = new WindowedMetrics();
+
+    private WindowedCircuitBreaker(CircuitBreaker delegate, SlidingWindow window) {
+        this.delegate = delegate;
+        this.window = window;
+        this.config = delegate.getCircuitBreakerConfig();
+        this.minimumNumberOfCalls = config.getSlidingWindowType() == COUNT_BASED
+                ? Math.min(config.getMinimumNumberOfCalls(), config.getSlidingWindowSize())
+                : config.getMinimumNumberOfCalls();
+        this.slowCallDurationThresholdInNanos = config.getSlowCallDurationThreshold().toNanos();
+
+        delegate.getEventPublisher()
+                .onStateTransition(event -> {
+                    if (event.getStateTransition().getToState() == CLOSED) {
+                        window.reset();
+                    }
+                });
+    }
+
+    public static WindowedCircuitBreaker of(CircuitBreaker delegate, SlidingWindow window) {
+        return new WindowedCircuitBreaker(delegate, window);
+    }
+
+    @Override
+    public boolean tryAcquirePermission() {
+        return delegate.tryAcquirePermission();
+    }
+
+    @Override
+    public void releasePermission() {
+        delegate.releasePermission();
+    }
+
+    @Override
+    public void acquirePermission() {
+        delegate.acquirePermission();
+    }
+
+    @Override
+    public void onError(long duration, TimeUnit durationUnit, Throwable throwable) {
+        if (delegate.getState() != CLOSED) {
+            delegate.onError(duration, durationUnit, throwable);
+            return;
+        }
+
+        if ((throwable instanceof CompletionException || throwable instanceof ExecutionException) && throwable.getCause() != null) {
+            onError(duration, durationUnit, throwable.getCause());
+        } else if (config.getIgnoreExceptionPredicate().test(throwable)) {
+            delegate.releasePermission();
+        } else if (config.getRecordExceptionPredicate().test(throwable)) {
+            record(durationUnit.toNanos(duration), true);
+        } else {
+            record(durationUnit.toNanos(duration), false);
+        }
+    }
+
+    @Override
+    public void onSuccess(long duration, TimeUnit durationUnit) {
+        if (delegate.getState() != CLOSED) {
+            delegate.onSuccess(duration, durationUnit);
+            return;
+        }
+
+        record(durationUnit.toNanos(duration), false);
+    }
+
+    @Override
+    public void onResult(long duration, TimeUnit durationUnit, Object result) {
+        if (delegate.getState() != CLOSED) {
+            delegate.onResult(duration, durationUnit, result);
+            return;
+        }
+
+        if (result != null && config.getRecordResultPredicate().test(result)) {
+            onError(duration, durationUnit, new ResultRecordedAsFailureException(getName(), result));
+        } else {
+            onSuccess(duration, durationUnit);
+        }
+    }
+
+    private void record(long durationInNanos, boolean failed) {
+        boolean slow = durationInNanos > slowCallDurationThresholdInNanos;
+        window.record(durationInNanos, outcome(failed, slow));
+
+        // 성공한 호출은 최소 호출 수를 막 채운 경우에만 임계치를 넘길 수 있다.
+        // TIME_BASED window 에서 오래된 성공이 만료되어 넘어선 임계치는 다음 실패 또는 slow call 에서 판단한다.
+        if (failed || slow || window.getNumberOfBufferedCalls() == minimumNumberOfCalls) {
+            openIfThresholdsExceeded();
+        }
+    }
+
+    private void openIfThresholdsExceeded() {
+        int numberOfCalls = window.getNumberOfBufferedCalls();
+        if (numberOfCalls == 0 || numberOfCalls < minimumNumberOfCalls) {
+            return;
+        }
+
+        float failureRate = window.getNumberOfFailedCalls() * 100.0f / numberOfCalls;
+        float slowCallRate = window.getNumberOfSlowCalls() * 100.0f / numberOfCalls;
+        if (failureRate >= config.getFailureRateThreshold() || slowCallRate >= config.getSlowCallRateThreshold()) {
+            try {
+                if (delegate.getState() == CLOSED) {
+                    delegate.transitionToOpenState();
+                }
+            } catch (IllegalStateTransitionException ignored) {
+                // 다른 스레드가 먼저 전이시켰다
+            }
+        }
+    }
+
+    private static Outcome outcome(boolean failed, boolean slow) {
+        if (failed) {
+            return slow ? Outcome.SLOW_ERROR : Outcome.ERROR;
+        }
+        return slow ? Outcome.SLOW_SUCCESS : Outcome.SUCCESS;
+    }
+
+    @Override
+    public void reset() {
+        delegate.reset();
+        window.reset();
+    }
+
+    @Override
+    public void transitionToClosedState() {
+        delegate.transitionToClosedState();
+    }
+
+    @Override
+    public void transitionToOpenState() {
+        delegate.transitionToOpenState();
+    }
+
+    @Override
+    public void transitionToOpenStateFor(Duration waitDuration) {
+        delegate.transitionToOpenStateFor(waitDuration);
+    }
+
+    @Override
+    public void transitionToOpenStateUntil(Instant waitUntil) {
+        delegate.transitionToOpenStateUntil(waitUntil);
+    }
+
+    @Override
+    public void transitionToHalfOpenState() {
+        delegate.transitionToHalfOpenState();
+    }
+
+    @Override
+    public void transitionToDisabledState() {
+        delegate.transitionToDisabledState();
+    }
+
+    @Override
+    public void transitionToMetricsOnlyState() {
+        delegate.transitionToMetricsOnlyState();
+    }
+
+    @Override
+    public void transitionToForcedOpenState() {
+        delegate.transitionToForcedOpenState();
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public State getState() {
+        return delegate.getState();
+    }
+
+    @Override
+    public CircuitBreakerConfig getCircuitBreakerConfig() {
+        return config;
+    }
+
+    @Override
+    public Metrics getMetrics() {
+        if (delegate.getState() != CLOSED) {
+            return delegate.getMetrics();
+        }
+        return metrics;
+    }
+
+    @Override
+    public Map<String, String> getTags() {
+        return delegate.getTags();
+    }
+
+    @Override
+    public EventPublisher getEventPublisher() {
+        return delegate.getEventPublisher();
+    }
+
+    @Override
+    public long getCurrentTimestamp() {
+        return delegate.getCurrentTimestamp();
+    }
+
+    @Override
+    public TimeUnit getTimestampUnit() {
+        return delegate.getTimestampUnit();
+    }
+
+    private class WindowedMetrics implements Metrics {
+
+        @Override
+        public float getFailureRate() {
+            Snapshot snapshot = window.getSnapshot();
+            if (snapshot.getTotalNumberOfCalls() < minimumNumberOfCalls) {
+                return -1.0f;
+            }
+            return snapshot.getFailureRate();
+        }
+
+        @Override
+        public float getSlowCallRate() {
+            Snapshot snapshot = window.getSnapshot();
+            if (snapshot.getTotalNumberOfCalls() < minimumNumberOfCalls) {
+                return -1.0f;
+            }
+            return snapshot.getSlowCallRate();
+        }
+
+        @Override
+        public int getNumberOfSlowCalls() {
+            return window.getSnapshot().getTotalNumberOfSlowCalls();
+        }
+
+        @Override
+        public int getNumberOfSlowSuccessfulCalls() {
+            return window.getSnapshot().getNumberOfSlowSuccessfulCalls();
+        }
+
+        @Override
+        public int getNumberOfSlowFailedCalls() {
+            return window.getSnapshot().getNumberOfSlowFailedCalls();
+        }
+
+        @Override
+        public int getNumberOfBufferedCalls() {
+            return window.getNumberOfBufferedCalls();
+        }
+
+        @Override
+        public int getNumberOfFailedCalls() {
+            return window.getSnapshot().getNumberOfFailedCalls();
+        }
+
+        @Override
+        public long getNumberOfNotPermittedCalls() {
+            return delegate.getMetrics().getNumberOfNotPermittedCalls();
+        }
+
+        @Override
+        public int getNumberOfSuccessfulCalls() {
+            return window.getSnapshot().getNumberOfSuccessfulCalls();
+        }
+    }
+}
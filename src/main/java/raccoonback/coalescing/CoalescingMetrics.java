@@ -0,0 +1,66 @@
+package raccoonback.coalescing;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 요청 수 대비 실제 backend 호출 수와, micro batch 크기 분포를 집계한다.
+ * <p>
+ * batch 크기 histogram 의 i 번째 bucket 은 {@code (2^(i-1), 2^i]} 크기의 batch 수이며 마지막 bucket 은 그보다 큰 batch 를 모두 센다.
+ */
+public class CoalescingMetrics {
+
+    static final int BATCH_SIZE_BUCKETS = 8;
+
+    private final LongAdder requests = new LongAdder();
+
+    private final LongAdder backendCalls = new LongAdder();
+
+    private final LongAdder[] batchSizes = new LongAdder[BATCH_SIZE_BUCKETS];
+
+    CoalescingMetrics() {
+        for (int i = 0; i < BATCH_SIZE_BUCKETS; i++) {
+            batchSizes[i] = new LongAdder();
+        }
+    }
+
+    void onRequest() {
+        requests.increment();
+    }
+
+    void onBackendCall() {
+        backendCalls.increment();
+    }
+
+    void onBatch(int batchSize) {
+        backendCalls.increment();
+        int bucket = 32 - Integer.numberOfLeadingZeros(Math.max(1, batchSize) - 1);
+        batchSizes[Math.min(bucket, BATCH_SIZE_BUCKETS - 1)].increment();
+    }
+
+    public long getNumberOfRequests() {
+        return requests.sum();
+    }
+
+    public long getNumberOfBackendCalls() {
+        return backendCalls.sum();
+    }
+
+    /**
+     * backend 호출 한 번이 평균적으로 처리한 요청 수. 아직 호출이 없으면 1 이다.
+     */
+    public double getCoalesceRatio() {
+        long calls = backendCalls.sum();
+        if (calls == 0) {
+            return 1.0;
+        }
+        return (double) requests.sum() / calls;
+    }
+
+    public long[] getBatchSizeHistogram() {
+        long[] histogram = new long[BATCH_SIZE_BUCKETS];
+        for (int i = 0; i < BATCH_SIZE_BUCKETS; i++) {
+            histogram[i] = batchSizes[i].sum();
+        }
+        return histogram;
+    }
+}
@@ -0,0 +1,148 @@
+package raccoonback.coalescing;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * {@code maxWaitDuration} 동안 모인 요청을 최대 {@code maxBatchSize} 건씩 묶어 batch 호출 한 번으로 보낸다.
+ * <p>
+ * batch 함수는 받은 key 와 같은 순서로 결과를 돌려줘야 한다. 같은 batch 에 같은 key 가 다시 들어오면 하나로 합쳐서 보내고,
+ * batch 호출이 실패하거나 executor 가 batch 호출을 받지 않으면 그 batch 의 모든 요청이 같은 예외로 끝난다.
+ */
+public class MicroBatcher<K, V> implements AutoCloseable {
+
+    private final Function<List<K>, List<V>> batchFunction;
+
+    private final MicroBatcherConfig config;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final CoalescingMetrics metrics = new CoalescingMetrics();
+
+    private final Object lock = new Object();
+
+    private Map<K, CompletableFuture<V>> pendingCalls = new LinkedHashMap<>();
+
+    private ScheduledFuture<?> scheduledFlush;
+
+    private boolean closed;
+
+    private MicroBatcher(Function<List<K>, List<V>> batchFunction, MicroBatcherConfig config) {
+        this.batchFunction = batchFunction;
+        this.config = config;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "micro-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static <K, V> MicroBatcher<K, V> of(Function<List<K>, List<V>> batchFunction, MicroBatcherConfig config) {
+        return new MicroBatcher<>(batchFunction, config);
+    }
+
+    public static <K, V> Supplier<CompletionStage<V>> decorateSupplier(MicroBatcher<K, V> batcher, K key) {
+        return () -> batcher.submit(key);
+    }
+
+    /**
+     * @throws IllegalStateException batcher 가 이미 닫혔다면
+     */
+    public CompletableFuture<V> submit(K key) {
+        CompletableFuture<V> call;
+        Map<K, CompletableFuture<V>> fullBatch = null;
+        synchronized (lock) {
+            // 닫힌 뒤에는 flush 를 예약할 수 없으므로, pendingCalls 에 넣기 전에 거절해야 같은 key 로 합쳐진 호출이 남지 않는다
+            if (closed) {
+                throw new IllegalStateException("micro batcher is already closed");
+            }
+            metrics.onRequest();
+
+            call = pendingCalls.get(key);
+            if (call == null) {
+                call = new CompletableFuture<>();
+                pendingCalls.put(key, call);
+
+                if (pendingCalls.size() >= config.getMaxBatchSize()) {
+                    fullBatch = takePendingCalls();
+                } else if (pendingCalls.size() == 1) {
+                    scheduledFlush = scheduler.schedule(this::flush, config.getMaxWaitDuration().toNanos(), TimeUnit.NANOSECONDS);
+                }
+            }
+        }
+
+        if (fullBatch != null) {
+            dispatch(fullBatch);
+        }
+        return call;
+    }
+
+    public CoalescingMetrics getMetrics() {
+        return metrics;
+    }
+
+    private void flush() {
+        Map<K, CompletableFuture<V>> batch;
+        synchronized (lock) {
+            if (pendingCalls.isEmpty()) {
+                return;
+            }
+            batch = takePendingCalls();
+        }
+        dispatch(batch);
+    }
+
+    private Map<K, CompletableFuture<V>> takePendingCalls() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        Map<K, CompletableFuture<V>> batch = pendingCalls;
+        pendingCalls = new LinkedHashMap<>();
+        return batch;
+    }
+
+    private void dispatch(Map<K, CompletableFuture<V>> batch) {
+        metrics.onBatch(batch.size());
+        try {
+            config.getExecutor().execute(() -> call(batch));
+        } catch (RejectedExecutionException exception) {
+            batch.values().forEach(call -> call.completeExceptionally(exception));
+        }
+    }
+
+    private void call(Map<K, CompletableFuture<V>> batch) {
+        List<K> keys = new ArrayList<>(batch.keySet());
+        try {
+            List<V> results = batchFunction.apply(keys);
+            if (results.size() != keys.size()) {
+                throw new IllegalStateException("batch returned " + results.size() + " results for " + keys.size() + " keys");
+            }
+            for (int i = 0; i < keys.size(); i++) {
+                batch.get(keys.get(i)).complete(results.get(i));
+            }
+        } catch (Throwable throwable) {
+            batch.values().forEach(call -> call.completeExceptionally(throwable));
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+        }
+        flush();
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,87 @@
+package raccoonback.coalescing;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+public class MicroBatcherConfig {
+
+    private static final int DEFAULT_MAX_BATCH_SIZE = 64;
+
+    private static final Duration DEFAULT_MAX_WAIT_DURATION = Duration.ofMillis(2);
+
+    // 모든 config 가 같이 쓴다. 작업마다 virtual thread 를 띄우기만 하므로 닫을 것이 없다
+    private static final Executor DEFAULT_EXECUTOR = command -> Thread.ofVirtual().name("micro-batcher-call").start(command);
+
+    private final int maxBatchSize;
+
+    private final Duration maxWaitDuration;
+
+    private final Executor executor;
+
+    private MicroBatcherConfig(int maxBatchSize, Duration maxWaitDuration, Executor executor) {
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitDuration = maxWaitDuration;
+        this.executor = executor;
+    }
+
+    public static MicroBatcherConfig ofDefaults() {
+        return custom().build();
+    }
+
+    public static Builder custom() {
+        return new Builder();
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public Duration getMaxWaitDuration() {
+        return maxWaitDuration;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public static class Builder {
+
+        private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+
+        private Duration maxWaitDuration = DEFAULT_MAX_WAIT_DURATION;
+
+        private Executor executor;
+
+        public Builder maxBatchSize(int maxBatchSize) {
+            if (maxBatchSize < 1) {
+                throw new IllegalArgumentException("maxBatchSize must be greater than 0");
+            }
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        public Builder maxWaitDuration(Duration maxWaitDuration) {
+            if (maxWaitDuration.isNegative()) {
+                throw new IllegalArgumentException("maxWaitDuration must not be negative");
+            }
+            this.maxWaitDuration = maxWaitDuration;
+            return this;
+        }
+
+        /**
+         * batch 호출을 실행할 executor. 지정하지 않으면 batch 마다 virtual thread 를 하나씩 쓴다.
+         */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public MicroBatcherConfig build() {
+            return new MicroBatcherConfig(
+                    maxBatchSize,
+                    maxWaitDuration,
+                    executor != null ? executor : DEFAULT_EXECUTOR
+            );
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package raccoonback.coalescing;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * 같은 key 로 동시에 들어온 호출을 하나로 합친다(single-flight).
+ * <p>
+ * 먼저 들어온 호출만 supplier 를 실행하고, 그 호출이 끝나기 전에 같은 key 로 들어온 호출은 결과나 예외를 그대로 공유한다.
+ * 결과를 캐시하지는 않으므로 호출이 끝난 뒤 들어온 요청은 다시 supplier 를 실행한다.
+ */
+public class RequestCoalescer<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlightCalls = new ConcurrentHashMap<>();
+
+    private final CoalescingMetrics metrics = new CoalescingMetrics();
+
+    private RequestCoalescer() {
+    }
+
+    public static <K, V> RequestCoalescer<K, V> create() {
+        return new RequestCoalescer<>();
+    }
+
+    public static <K, V> Supplier<V> decorateSupplier(RequestCoalescer<K, V> coalescer, K key, Supplier<V> supplier) {
+        return () -> coalescer.execute(key, supplier);
+    }
+
+    public V execute(K key, Supplier<V> supplier) {
+        metrics.onRequest();
+
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> inFlightCall = inFlightCalls.putIfAbsent(key, call);
+        if (inFlightCall != null) {
+            return join(inFlightCall);
+        }
+
+        metrics.onBackendCall();
+        try {
+            V result = supplier.get();
+            call.complete(result);
+            return result;
+        } catch (Throwable throwable) {
+            call.completeExceptionally(throwable);
+            throw throwable;
+        } finally {
+            inFlightCalls.remove(key, call);
+        }
+    }
+
+    public CoalescingMetrics getMetrics() {
+        return metrics;
+    }
+
+    private static <V> V join(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException exception) {
+            Throwable cause = exception.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw exception;
+        }
+    }
+}
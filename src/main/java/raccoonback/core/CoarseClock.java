@@ -0,0 +1,17 @@
+package raccoonback.core;
+
+/**
+ * 호출마다 {@link System#nanoTime()} 을 부르지 않고 읽을 수 있는 단조 증가 시계.
+ * <p>
+ * {@link #system()} 은 백그라운드 daemon 스레드가 {@value TickingCoarseClock#TICK_MILLIS}ms 마다 갱신한 값을 돌려주므로
+ * 그 이하의 정밀도가 필요한 곳에는 쓰지 않는다.
+ */
+@FunctionalInterface
+public interface CoarseClock {
+
+    long nanoTime();
+
+    static CoarseClock system() {
+        return TickingCoarseClock.INSTANCE;
+    }
+}
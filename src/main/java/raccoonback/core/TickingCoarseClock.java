@@ -0,0 +1,32 @@
+package raccoonback.core;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+class TickingCoarseClock implements CoarseClock {
+
+    static final long TICK_MILLIS = 10;
+
+    static final TickingCoarseClock INSTANCE = new TickingCoarseClock();
+
+    private volatile long nanoTime = System.nanoTime();
+
+    private TickingCoarseClock() {
+        Thread ticker = new Thread(this::tick, "coarse-clock");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    private void tick() {
+        long tickNanos = TimeUnit.MILLISECONDS.toNanos(TICK_MILLIS);
+        while (true) {
+            LockSupport.parkNanos(tickNanos);
+            nanoTime = System.nanoTime();
+        }
+    }
+
+    @Override
+    public long nanoTime() {
+        return nanoTime;
+    }
+}
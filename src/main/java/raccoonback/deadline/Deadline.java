@@ -0,0 +1,90 @@
+package raccoonback.deadline;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+/**
+ * 호출자가 결과를 기다려 줄 마지막 시각.
+ * <p>
+ * {@link #decorateSupplier(Duration, Supplier)} 로 감싼 호출이 실행되는 동안 현재 스레드에 묶이고, 각 layer 는
+ * {@link #current()} 의 남은 시간을 보고 결과가 버려질 일을 시작하지 않는다. 이미 deadline 이 묶여 있으면 둘 중 이른 쪽을 쓴다.
+ * {@code ThreadPoolBulkhead} 의 스레드로 넘기려면 {@link DeadlineContextPropagator} 를 설정한다.
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineInNanos;
+
+    private Deadline(long deadlineInNanos) {
+        this.deadlineInNanos = deadlineInNanos;
+    }
+
+    public static Deadline after(Duration timeout) {
+        return new Deadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    /**
+     * 현재 스레드에 묶인 deadline. 없으면 {@code null}.
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    public static <T> Supplier<T> decorateSupplier(Duration timeout, Supplier<T> supplier) {
+        return () -> {
+            Deadline previous = CURRENT.get();
+            CURRENT.set(earlier(previous, after(timeout)));
+            try {
+                return supplier.get();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    /**
+     * supplier 가 {@link CompletionStage} 를 돌려줄 때까지만 deadline 을 묶는다. 그 안에서 다른 스레드로 넘기는 일은
+     * {@link DeadlineContextPropagator} 가 deadline 을 옮긴다.
+     */
+    public static <T> Supplier<CompletionStage<T>> decorateCompletionStage(Duration timeout, Supplier<CompletionStage<T>> supplier) {
+        return decorateSupplier(timeout, supplier);
+    }
+
+    static void bind(Deadline deadline) {
+        CURRENT.set(deadline);
+    }
+
+    static void restore(Deadline previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    private static Deadline earlier(Deadline previous, Deadline next) {
+        if (previous == null || next.deadlineInNanos - previous.deadlineInNanos < 0) {
+            return next;
+        }
+        return previous;
+    }
+
+    public long remainingNanos() {
+        return deadlineInNanos - System.nanoTime();
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, remainingNanos()));
+    }
+
+    public boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline{remaining=" + remaining() + "}";
+    }
+}
@@ -0,0 +1,125 @@
+package raccoonback.deadline;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.core.exception.AcquirePermissionCancelledException;
+import raccoonback.retry.HashedWheelTimer;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * permit 을 기다리는 시간이 남은 deadline 을 넘지 않는 {@link Bulkhead}.
+ * <p>
+ * {@link Bulkhead} 는 호출마다 기다릴 시간을 받지 않으므로, 남은 시간이 {@code maxWaitDuration} 보다 짧으면 deadline 에
+ * 기다리는 스레드를 interrupt 하도록 {@link HashedWheelTimer} 에 예약해 두고 기다린다. timer 의 tick 만큼 늦게 깨어날 수 있다.
+ */
+class DeadlineBulkhead implements Bulkhead {
+
+    private static final int WAITING = 0;
+
+    private static final int DONE = 1;
+
+    private static final int TIMED_OUT = 2;
+
+    private final Bulkhead delegate;
+
+    private final HashedWheelTimer timer;
+
+    DeadlineBulkhead(Bulkhead delegate, HashedWheelTimer timer) {
+        this.delegate = delegate;
+        this.timer = timer;
+    }
+
+    @Override
+    public void acquirePermission() {
+        if (tryAcquirePermission()) {
+            return;
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            throw new AcquirePermissionCancelledException();
+        }
+        throw BulkheadFullException.createBulkheadFullException(this);
+    }
+
+    @Override
+    public boolean tryAcquirePermission() {
+        Deadline deadline = Deadline.current();
+        if (deadline == null) {
+            return delegate.tryAcquirePermission();
+        }
+
+        long remainingInNanos = deadline.remainingNanos();
+        if (remainingInNanos <= 0) {
+            throw new DeadlineExceededException("deadline exceeded before acquiring bulkhead '" + getName() + "'");
+        }
+        if (remainingInNanos >= delegate.getBulkheadConfig().getMaxWaitDuration().toNanos()) {
+            return delegate.tryAcquirePermission();
+        }
+
+        Thread waiter = Thread.currentThread();
+        AtomicInteger state = new AtomicInteger(WAITING);
+        HashedWheelTimer.Timeout timeout = timer.schedule(() -> {
+            if (state.compareAndSet(WAITING, TIMED_OUT)) {
+                waiter.interrupt();
+            }
+        }, remainingInNanos, TimeUnit.NANOSECONDS);
+
+        boolean permitted = delegate.tryAcquirePermission();
+        if (state.compareAndSet(WAITING, DONE)) {
+            timeout.cancel();
+            return permitted;
+        }
+
+        // timer 가 interrupt 를 걸었거나 거는 중이다. 호출자에게 남기지 않도록 지운다.
+        while (!Thread.interrupted()) {
+            Thread.onSpinWait();
+        }
+        if (!permitted) {
+            throw new DeadlineExceededException("deadline exceeded while waiting for bulkhead '" + getName() + "'");
+        }
+        return true;
+    }
+
+    @Override
+    public void releasePermission() {
+        delegate.releasePermission();
+    }
+
+    @Override
+    public void onComplete() {
+        delegate.onComplete();
+    }
+
+    @Override
+    public void changeConfig(BulkheadConfig newConfig) {
+        delegate.changeConfig(newConfig);
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public BulkheadConfig getBulkheadConfig() {
+        return delegate.getBulkheadConfig();
+    }
+
+    @Override
+    public Metrics getMetrics() {
+        return delegate.getMetrics();
+    }
+
+    @Override
+    public Map<String, String> getTags() {
+        return delegate.getTags();
+    }
+
+    @Override
+    public EventPublisher getEventPublisher() {
+        return delegate.getEventPublisher();
+    }
+}
@@ -0,0 +1,33 @@
+package raccoonback.deadline;
+
+import io.github.resilience4j.core.ContextPropagator;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 작업을 넘긴 스레드의 {@link Deadline} 을 {@code ThreadPoolBulkhead} 의 스레드로 옮긴다.
+ * <pre>{@code
+ * ThreadPoolBulkheadConfig.custom()
+ *         .contextPropagator(DeadlineContextPropagator.class)
+ *         .build();
+ * }</pre>
+ */
+public class DeadlineContextPropagator implements ContextPropagator<Deadline> {
+
+    @Override
+    public Supplier<Optional<Deadline>> retrieve() {
+        return () -> Optional.ofNullable(Deadline.current());
+    }
+
+    @Override
+    public Consumer<Optional<Deadline>> copy() {
+        return (deadline) -> deadline.ifPresent(Deadline::bind);
+    }
+
+    @Override
+    public Consumer<Optional<Deadline>> clear() {
+        return (deadline) -> Deadline.restore(null);
+    }
+}
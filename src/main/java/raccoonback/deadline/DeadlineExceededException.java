@@ -0,0 +1,13 @@
+package raccoonback.deadline;
+
+/**
+ * deadline 이 지났거나 기다리는 동안 지날 것이라 일을 시작하지 않았다.
+ * <p>
+ * timeout 이 몰릴 때 한꺼번에 던져지므로 stack trace 를 채우지 않는다.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,106 @@
+package raccoonback.deadline;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * permit 을 기다리는 시간이 남은 deadline 을 넘지 않는 {@link RateLimiter}.
+ * <p>
+ * 남은 시간이 {@code timeoutDuration} 보다 짧으면 permit 을 예약해 기다릴 시간을 먼저 받고, 그 시간이 남은 시간보다 길면 기다리지 않고 실패한다.
+ * 이때 예약한 permit 은 돌려받을 수 없어 쓰지 않은 채로 사라진다.
+ */
+class DeadlineRateLimiter implements RateLimiter {
+
+    private final RateLimiter delegate;
+
+    DeadlineRateLimiter(RateLimiter delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean acquirePermission(int permits) {
+        Deadline deadline = Deadline.current();
+        if (deadline == null) {
+            return delegate.acquirePermission(permits);
+        }
+
+        long remainingInNanos = deadline.remainingNanos();
+        if (remainingInNanos <= 0) {
+            throw new DeadlineExceededException("deadline exceeded before acquiring rate limiter '" + getName() + "'");
+        }
+        if (remainingInNanos >= delegate.getRateLimiterConfig().getTimeoutDuration().toNanos()) {
+            return delegate.acquirePermission(permits);
+        }
+
+        long waitInNanos = delegate.reservePermission(permits);
+        if (waitInNanos < 0) {
+            return false;
+        }
+        if (waitInNanos > remainingInNanos) {
+            throw new DeadlineExceededException("deadline exceeded before rate limiter '" + getName() + "' permits");
+        }
+        return waitFor(waitInNanos);
+    }
+
+    private static boolean waitFor(long waitInNanos) {
+        long deadlineInNanos = System.nanoTime() + waitInNanos;
+        long remainingInNanos = waitInNanos;
+        while (remainingInNanos > 0) {
+            LockSupport.parkNanos(remainingInNanos);
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            remainingInNanos = deadlineInNanos - System.nanoTime();
+        }
+        return true;
+    }
+
+    @Override
+    public long reservePermission(int permits) {
+        return delegate.reservePermission(permits);
+    }
+
+    @Override
+    public void changeTimeoutDuration(Duration timeoutDuration) {
+        delegate.changeTimeoutDuration(timeoutDuration);
+    }
+
+    @Override
+    public void changeLimitForPeriod(int limitForPeriod) {
+        delegate.changeLimitForPeriod(limitForPeriod);
+    }
+
+    @Override
+    public void drainPermissions() {
+        delegate.drainPermissions();
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public RateLimiterConfig getRateLimiterConfig() {
+        return delegate.getRateLimiterConfig();
+    }
+
+    @Override
+    public Map<String, String> getTags() {
+        return delegate.getTags();
+    }
+
+    @Override
+    public Metrics getMetrics() {
+        return delegate.getMetrics();
+    }
+
+    @Override
+    public EventPublisher getEventPublisher() {
+        return delegate.getEventPublisher();
+    }
+}
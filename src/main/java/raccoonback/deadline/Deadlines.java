@@ -0,0 +1,79 @@
+package raccoonback.deadline;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.core.IntervalBiFunction;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import raccoonback.retry.HashedWheelTimer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * decorator chain 의 각 layer 가 {@link Deadline#current()} 의 남은 시간을 확인하도록 감싼다.
+ * deadline 이 묶여 있지 않으면 감싼 대상과 똑같이 동작한다.
+ * <pre>{@code
+ * Supplier<String> decoratedSupplier = Deadline.decorateSupplier(
+ *         Duration.ofSeconds(1),
+ *         Decorators.ofSupplier(Deadlines.decorateSupplier(supplier))
+ *                 .withBulkhead(Deadlines.bounded(bulkhead))
+ *                 .withRateLimiter(Deadlines.bounded(rateLimiter))
+ *                 .withRetry(retry)
+ *                 .decorate()
+ * );
+ * }</pre>
+ * retry 는 {@code RetryConfig} 의 interval function 을 {@link #bounded(IntervalFunction)} 로 감싼다.
+ */
+public final class Deadlines {
+
+    private Deadlines() {
+    }
+
+    /**
+     * 남은 시간이 없으면 supplier 를 호출하지 않고 실패한다.
+     */
+    public static <T> Supplier<T> decorateSupplier(Supplier<T> supplier) {
+        return () -> {
+            Deadline deadline = Deadline.current();
+            if (deadline != null && deadline.isExpired()) {
+                throw new DeadlineExceededException("deadline exceeded before call");
+            }
+            return supplier.get();
+        };
+    }
+
+    /**
+     * permit 을 기다리다 deadline 이 지나면 {@link DeadlineExceededException} 으로 실패한다.
+     */
+    public static Bulkhead bounded(Bulkhead bulkhead) {
+        return new DeadlineBulkhead(bulkhead, HashedWheelTimer.shared());
+    }
+
+    /**
+     * 기다려야 할 시간이 남은 시간보다 길면 기다리지 않고 {@link DeadlineExceededException} 으로 실패한다.
+     */
+    public static RateLimiter bounded(RateLimiter rateLimiter) {
+        return new DeadlineRateLimiter(rateLimiter);
+    }
+
+    /**
+     * 다음 시도까지 기다릴 시간이 남은 시간보다 길면 기다리지 않고 {@link DeadlineExceededException} 으로 실패한다.
+     * interval function 이 던진 예외는 재시도 조건과 관계없이 {@code Retry} 를 그대로 빠져나간다.
+     * 비동기 호출은 {@link raccoonback.retry.AsyncRetry} 로 재시도해야 이 예외로 결과가 실패한다.
+     */
+    public static IntervalFunction bounded(IntervalFunction intervalFunction) {
+        return (numOfAttempts) -> checkInterval(intervalFunction.apply(numOfAttempts));
+    }
+
+    public static <T> IntervalBiFunction<T> bounded(IntervalBiFunction<T> intervalBiFunction) {
+        return (numOfAttempts, either) -> checkInterval(intervalBiFunction.apply(numOfAttempts, either));
+    }
+
+    private static long checkInterval(long intervalInMillis) {
+        Deadline deadline = Deadline.current();
+        if (deadline != null && TimeUnit.MILLISECONDS.toNanos(intervalInMillis) >= deadline.remainingNanos()) {
+            throw new DeadlineExceededException("deadline exceeded before next retry attempt");
+        }
+        return intervalInMillis;
+    }
+}
@@ -0,0 +1,187 @@
+package raccoonback.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import static raccoonback.event.AsyncEventPipelineConfig.OverflowPolicy.SAMPLE;
+
+/**
+ * 이벤트를 호출한 스레드가 아닌 background 스레드 하나에서 batch 로 처리한다.
+ * <p>
+ * {@link #publish(Object)} 는 ring buffer 에 넣기만 하므로 logging, metrics 처럼 느린 consumer 때문에 호출이 막히지 않는다.
+ * buffer 가 차면 {@link AsyncEventPipelineConfig#getOverflowPolicy()} 에 따라 이벤트를 버리거나 sampling 한다.
+ * <pre>{@code
+ * rateLimiter.getEventPublisher()
+ *         .onSuccess(pipeline::publish)
+ *         .onFailure(pipeline::publish);
+ * }</pre>
+ */
+public class AsyncEventPipeline<E> implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncEventPipeline.class);
+
+    private final String name;
+
+    private final AsyncEventPipelineConfig config;
+
+    private final Consumer<List<E>> batchConsumer;
+
+    private final MpscRingBuffer<E> buffer;
+
+    private final int samplingSize;
+
+    private final long idleWaitInNanos;
+
+    private final Thread consumerThread;
+
+    private volatile boolean running = true;
+
+    // running 을 확인한 뒤 아직 buffer 에 넣고 있는 publish 수. close 의 마지막 drain 은 이 값이 0 이 된 뒤에 한다
+    private final AtomicInteger publishingThreads = new AtomicInteger();
+
+    private final LongAdder publishedEvents = new LongAdder();
+
+    private final LongAdder droppedEvents = new LongAdder();
+
+    private final LongAdder sampledOutEvents = new LongAdder();
+
+    private final LongAdder consumedBatches = new LongAdder();
+
+    private AsyncEventPipeline(String name, AsyncEventPipelineConfig config, Consumer<List<E>> batchConsumer) {
+        this.name = name;
+        this.config = config;
+        this.batchConsumer = batchConsumer;
+        this.buffer = new MpscRingBuffer<>(config.getBufferSize());
+        this.samplingSize = (int) (config.getBufferSize() * config.getSamplingThreshold());
+        this.idleWaitInNanos = config.getIdleWaitDuration().toNanos();
+        this.consumerThread = Thread.ofPlatform()
+                .name("event-pipeline-" + name)
+                .daemon()
+                .start(this::consume);
+    }
+
+    public static <E> AsyncEventPipeline<E> ofDefaults(String name, Consumer<List<E>> batchConsumer) {
+        return of(name, AsyncEventPipelineConfig.ofDefaults(), batchConsumer);
+    }
+
+    public static <E> AsyncEventPipeline<E> of(String name, AsyncEventPipelineConfig config, Consumer<List<E>> batchConsumer) {
+        return new AsyncEventPipeline<>(name, config, batchConsumer);
+    }
+
+    /**
+     * @return buffer 에 넣었다면 true, 버리거나 sampling 으로 걸러졌거나 이미 닫혔다면 false
+     */
+    public boolean publish(E event) {
+        publishingThreads.incrementAndGet();
+        try {
+            return offer(event);
+        } finally {
+            publishingThreads.decrementAndGet();
+        }
+    }
+
+    private boolean offer(E event) {
+        if (!running) {
+            droppedEvents.increment();
+            return false;
+        }
+
+        if (config.getOverflowPolicy() == SAMPLE
+                && buffer.size() >= samplingSize
+                && ThreadLocalRandom.current().nextInt(config.getSampleRate()) != 0) {
+            sampledOutEvents.increment();
+            return false;
+        }
+
+        if (!buffer.offer(event)) {
+            droppedEvents.increment();
+            return false;
+        }
+
+        publishedEvents.increment();
+        return true;
+    }
+
+    private void consume() {
+        List<E> batch = new ArrayList<>(config.getMaxBatchSize());
+        while (running) {
+            if (drain(batch) == 0) {
+                LockSupport.parkNanos(this, idleWaitInNanos);
+            }
+        }
+
+        // close 전에 running 을 확인한 publish 가 buffer 에 넣을 때까지 기다렸다가, 들어온 이벤트까지 처리한다
+        while (publishingThreads.get() > 0) {
+            Thread.onSpinWait();
+        }
+        int drained;
+        do {
+            drained = drain(batch);
+        } while (drained > 0);
+    }
+
+    private int drain(List<E> batch) {
+        int drained = buffer.drainTo(batch, config.getMaxBatchSize());
+        if (drained == 0) {
+            return 0;
+        }
+
+        try {
+            batchConsumer.accept(batch);
+        } catch (Throwable throwable) {
+            LOGGER.warn("event pipeline '{}' failed to consume {} events", name, drained, throwable);
+        } finally {
+            batch.clear();
+            consumedBatches.increment();
+        }
+        return drained;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getNumberOfPublishedEvents() {
+        return publishedEvents.sum();
+    }
+
+    /**
+     * buffer 가 가득 차 버린 이벤트 수.
+     */
+    public long getNumberOfDroppedEvents() {
+        return droppedEvents.sum();
+    }
+
+    /**
+     * sampling 으로 걸러낸 이벤트 수.
+     */
+    public long getNumberOfSampledOutEvents() {
+        return sampledOutEvents.sum();
+    }
+
+    public long getNumberOfConsumedBatches() {
+        return consumedBatches.sum();
+    }
+
+    public int getBufferedEvents() {
+        return buffer.size();
+    }
+
+    /**
+     * 새 이벤트를 더 받지 않고, 이미 buffer 에 들어온 이벤트를 모두 처리한 뒤 consumer 스레드를 멈춘다.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(consumerThread);
+        consumerThread.join();
+    }
+}
@@ -0,0 +1,140 @@
+package raccoonback.event;
+
+import java.time.Duration;
+
+public class AsyncEventPipelineConfig {
+
+    public enum OverflowPolicy {
+        /**
+         * buffer 가 가득 찼을 때 들어온 이벤트를 버린다.
+         */
+        DROP,
+        /**
+         * buffer 가 {@code samplingThreshold} 이상 찼을 때부터 이벤트를 {@code sampleRate} 개 중 하나만 남기고, 가득 차면 버린다.
+         */
+        SAMPLE
+    }
+
+    private final int bufferSize;
+
+    private final int maxBatchSize;
+
+    private final OverflowPolicy overflowPolicy;
+
+    private final double samplingThreshold;
+
+    private final int sampleRate;
+
+    private final Duration idleWaitDuration;
+
+    private AsyncEventPipelineConfig(Builder builder) {
+        this.bufferSize = builder.bufferSize;
+        this.maxBatchSize = builder.maxBatchSize;
+        this.overflowPolicy = builder.overflowPolicy;
+        this.samplingThreshold = builder.samplingThreshold;
+        this.sampleRate = builder.sampleRate;
+        this.idleWaitDuration = builder.idleWaitDuration;
+    }
+
+    public static AsyncEventPipelineConfig ofDefaults() {
+        return custom().build();
+    }
+
+    public static Builder custom() {
+        return new Builder();
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public double getSamplingThreshold() {
+        return samplingThreshold;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public Duration getIdleWaitDuration() {
+        return idleWaitDuration;
+    }
+
+    public static class Builder {
+
+        private int bufferSize = 8_192;
+
+        private int maxBatchSize = 256;
+
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+
+        private double samplingThreshold = 0.75;
+
+        private int sampleRate = 10;
+
+        private Duration idleWaitDuration = Duration.ofMillis(1);
+
+        /**
+         * 2 의 거듭제곱이어야 한다.
+         */
+        public Builder bufferSize(int bufferSize) {
+            if (bufferSize < 2 || Integer.bitCount(bufferSize) != 1) {
+                throw new IllegalArgumentException("bufferSize must be a power of two greater than 1");
+            }
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        public Builder maxBatchSize(int maxBatchSize) {
+            if (maxBatchSize < 1) {
+                throw new IllegalArgumentException("maxBatchSize must be greater than 0");
+            }
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        public Builder overflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+            return this;
+        }
+
+        public Builder samplingThreshold(double samplingThreshold) {
+            if (samplingThreshold <= 0 || samplingThreshold > 1) {
+                throw new IllegalArgumentException("samplingThreshold must be between 0 and 1");
+            }
+            this.samplingThreshold = samplingThreshold;
+            return this;
+        }
+
+        public Builder sampleRate(int sampleRate) {
+            if (sampleRate < 1) {
+                throw new IllegalArgumentException("sampleRate must be greater than 0");
+            }
+            this.sampleRate = sampleRate;
+            return this;
+        }
+
+        /**
+         * buffer 가 비었을 때 consumer 스레드가 쉬는 시간. 이벤트가 consumer 에 전달되기까지의 최대 지연이기도 하다.
+         */
+        public Builder idleWaitDuration(Duration idleWaitDuration) {
+            if (idleWaitDuration.isNegative() || idleWaitDuration.isZero()) {
+                throw new IllegalArgumentException("idleWaitDuration must be positive");
+            }
+            this.idleWaitDuration = idleWaitDuration;
+            return this;
+        }
+
+        public AsyncEventPipelineConfig build() {
+            return new AsyncEventPipelineConfig(this);
+        }
+    }
+}
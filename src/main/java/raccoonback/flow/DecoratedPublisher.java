@@ -0,0 +1,366 @@
+package raccoonback.flow;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import raccoonback.retry.HashedWheelTimer;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * upstream 의 요청마다 function 을 호출해 결과를 내보내는 {@link Flow.Publisher}.
+ * <p>
+ * upstream 에는 downstream 이 요청한 수에서 이미 받았거나 진행 중인 호출 수를 뺀 만큼만 요청하고,
+ * rate limiter, bulkhead 가 있으면 요청 하나마다 permit 을 먼저 받는다.
+ * 상태는 {@link CallSubscription#drain()} 을 한 스레드씩만 돌며 바꾼다. timer 에서 깨어나면 drain 을 executor 에 넘겨
+ * timer 스레드에서 function 이나 downstream 을 호출하지 않는다.
+ */
+class DecoratedPublisher<T, R> implements Flow.Publisher<R> {
+
+    private final Flow.Publisher<T> upstream;
+
+    private final Function<T, CompletionStage<R>> function;
+
+    private final Bulkhead bulkhead;
+
+    private final RateLimiter rateLimiter;
+
+    private final HashedWheelTimer timer;
+
+    private final Executor executor;
+
+    DecoratedPublisher(
+            Flow.Publisher<T> upstream,
+            Function<T, CompletionStage<R>> function,
+            Bulkhead bulkhead,
+            RateLimiter rateLimiter,
+            HashedWheelTimer timer,
+            Executor executor
+    ) {
+        this.upstream = upstream;
+        this.function = function;
+        this.bulkhead = bulkhead;
+        this.rateLimiter = rateLimiter;
+        this.timer = timer;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super R> subscriber) {
+        upstream.subscribe(new CallSubscription(subscriber));
+    }
+
+    private record Completion<R>(R value, Throwable throwable) {
+    }
+
+    private class CallSubscription implements Flow.Subscriber<T>, Flow.Subscription {
+
+        private static final int NO_PERMIT = 0;
+
+        private static final int WAITING_PERMIT = 1;
+
+        private static final int PERMIT_READY = 2;
+
+        private final Flow.Subscriber<? super R> downstream;
+
+        private final int maxConcurrency;
+
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private final AtomicLong requested = new AtomicLong();
+
+        private final Queue<T> requests = new ConcurrentLinkedQueue<>();
+
+        private final Queue<Completion<R>> completions = new ConcurrentLinkedQueue<>();
+
+        private Flow.Subscription subscription;
+
+        private volatile boolean upstreamDone;
+
+        private volatile Throwable upstreamFailure;
+
+        private volatile boolean cancelled;
+
+        private volatile int ratePermit = NO_PERMIT;
+
+        private volatile boolean wakeUpScheduled;
+
+        // 아래는 drain 안에서만 바꾼다
+        private final Queue<R> results = new ArrayDeque<>();
+
+        private long pendingRequests;
+
+        private int inFlight;
+
+        private boolean terminated;
+
+        CallSubscription(Flow.Subscriber<? super R> downstream) {
+            this.downstream = downstream;
+            this.maxConcurrency = bulkhead == null ? Integer.MAX_VALUE : bulkhead.getBulkheadConfig().getMaxConcurrentCalls();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            downstream.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(T item) {
+            requests.offer(item);
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            upstreamFailure = throwable;
+            upstreamDone = true;
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            upstreamDone = true;
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                subscription.cancel();
+                upstreamFailure = new IllegalArgumentException("n must be greater than 0");
+                upstreamDone = true;
+            } else {
+                requested.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            subscription.cancel();
+            drain();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            do {
+                Throwable failure = collectCompletions();
+                if (!terminated) {
+                    drainOnce(failure);
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private Throwable collectCompletions() {
+            Throwable failure = null;
+            Completion<R> completion;
+            while ((completion = completions.poll()) != null) {
+                inFlight--;
+                if (bulkhead != null) {
+                    bulkhead.onComplete();
+                }
+                if (completion.throwable() != null) {
+                    failure = failure == null ? completion.throwable() : failure;
+                } else if (!terminated) {
+                    results.offer(completion.value());
+                }
+            }
+            return failure;
+        }
+
+        private void drainOnce(Throwable failure) {
+            if (cancelled) {
+                terminate();
+                return;
+            }
+
+            boolean done = upstreamDone;
+            if (failure == null && done) {
+                failure = upstreamFailure;
+            }
+            if (failure != null) {
+                subscription.cancel();
+                terminate();
+                downstream.onError(failure);
+                return;
+            }
+
+            long demand = requested.get();
+            long emitted = 0;
+            while (emitted < demand && !results.isEmpty() && !cancelled) {
+                downstream.onNext(results.poll());
+                emitted++;
+            }
+            if (emitted > 0 && demand != Long.MAX_VALUE) {
+                requested.addAndGet(-emitted);
+            }
+            if (cancelled) {
+                terminate();
+                return;
+            }
+
+            T request;
+            while ((request = requests.poll()) != null) {
+                pendingRequests--;
+                call(request);
+            }
+
+            if (done) {
+                releasePendingPermits();
+                if (inFlight == 0 && results.isEmpty()) {
+                    terminate();
+                    downstream.onComplete();
+                }
+                return;
+            }
+            requestUpstream();
+        }
+
+        private void call(T request) {
+            inFlight++;
+            CompletionStage<R> stage;
+            try {
+                stage = function.apply(request);
+            } catch (Throwable throwable) {
+                stage = CompletableFuture.failedFuture(throwable);
+            }
+            stage.whenComplete((value, throwable) -> {
+                if (throwable == null && value == null) {
+                    throwable = new NullPointerException("function returned null for " + request);
+                }
+                completions.offer(new Completion<>(value, unwrap(throwable)));
+                drain();
+            });
+        }
+
+        private void requestUpstream() {
+            long outstanding = results.size() + inFlight + pendingRequests;
+            long demand = requested.get();
+            if (demand != Long.MAX_VALUE) {
+                demand -= outstanding;
+            }
+            long capacity = maxConcurrency - inFlight - pendingRequests;
+            long count = Math.min(demand, capacity);
+            if (count <= 0) {
+                return;
+            }
+
+            if (rateLimiter != null || bulkhead != null) {
+                long permitted = 0;
+                while (permitted < count && acquirePermits()) {
+                    permitted++;
+                }
+                count = permitted;
+            }
+            if (count > 0) {
+                pendingRequests += count;
+                subscription.request(count);
+            }
+        }
+
+        private boolean acquirePermits() {
+            if (rateLimiter != null && !acquireRatePermit()) {
+                return false;
+            }
+            if (bulkhead != null && !bulkhead.tryAcquirePermission()) {
+                // 다른 곳에서 permit 을 쓰고 있다. 진행 중인 호출이 없으면 끝나도 깨워 줄 호출이 없으므로 timer 로 다시 확인한다
+                if (inFlight == 0 && !wakeUpScheduled) {
+                    wakeUpScheduled = true;
+                    timer.schedule(() -> {
+                        wakeUpScheduled = false;
+                        drainOnExecutor();
+                    }, 1, TimeUnit.MILLISECONDS);
+                }
+                return false;
+            }
+            ratePermit = NO_PERMIT;
+            return true;
+        }
+
+        /**
+         * 받아 둔 permit 이 있으면 쓰고, 없으면 예약한다. 기다려야 하면 permit 이 생길 때 drain 하도록 timer 에 예약한다.
+         */
+        private boolean acquireRatePermit() {
+            int state = ratePermit;
+            if (state != NO_PERMIT) {
+                return state == PERMIT_READY;
+            }
+
+            long waitInNanos = rateLimiter.reservePermission(1);
+            if (waitInNanos == 0) {
+                ratePermit = PERMIT_READY;
+                return true;
+            }
+
+            ratePermit = WAITING_PERMIT;
+            if (waitInNanos > 0) {
+                timer.schedule(() -> {
+                    ratePermit = PERMIT_READY;
+                    drainOnExecutor();
+                }, waitInNanos, TimeUnit.NANOSECONDS);
+            } else {
+                // timeoutDuration 안에 받을 수 없어 예약하지 못했다. 다음 주기에 다시 예약한다
+                timer.schedule(() -> {
+                    ratePermit = NO_PERMIT;
+                    drainOnExecutor();
+                }, rateLimiter.getRateLimiterConfig().getLimitRefreshPeriod().toNanos(), TimeUnit.NANOSECONDS);
+            }
+            return false;
+        }
+
+        private void drainOnExecutor() {
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException exception) {
+                // 더는 요청을 받을 수 없으므로 upstream 을 취소하고 실패한다. 이 drain 은 function 을 호출하지 않는다
+                upstreamFailure = exception;
+                upstreamDone = true;
+                drain();
+            }
+        }
+
+        private void releasePendingPermits() {
+            if (bulkhead != null) {
+                for (long i = 0; i < pendingRequests; i++) {
+                    bulkhead.releasePermission();
+                }
+            }
+            pendingRequests = 0;
+        }
+
+        /**
+         * 진행 중인 호출의 bulkhead permit 은 호출이 끝날 때 {@link #collectCompletions()} 에서 돌려준다.
+         */
+        private void terminate() {
+            terminated = true;
+            requests.clear();
+            results.clear();
+            releasePendingPermits();
+        }
+
+        private Throwable unwrap(Throwable throwable) {
+            if (throwable instanceof CompletionException && throwable.getCause() != null) {
+                return throwable.getCause();
+            }
+            return throwable;
+        }
+    }
+}
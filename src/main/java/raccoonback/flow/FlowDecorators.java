@@ -0,0 +1,128 @@
+package raccoonback.flow;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.retry.Retry;
+import raccoonback.retry.AsyncRetry;
+import raccoonback.retry.HashedWheelTimer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * 요청의 {@link Flow.Publisher} 를 받아 요청마다 호출한 결과의 {@link Flow.Publisher} 로 바꾸는 operator 를 만든다.
+ * <p>
+ * {@code withCircuitBreaker}, {@code withRetry} 는 {@code Decorators} 처럼 요청 하나의 호출을 호출한 순서대로 감싼다.
+ * {@code withRateLimiter}, {@code withBulkhead} 는 호출을 감싸지 않고, permit 을 받은 만큼만 upstream 에 {@code request(n)} 한다.
+ * 그래서 permit 이 모자라도 스레드가 기다리지 않고, 아직 받지 않은 요청은 upstream 에 그대로 남아 있다.
+ * <p>
+ * 재시도, permit 대기는 {@link HashedWheelTimer#shared()} 에 예약하고, 때가 되면 timer 스레드는 다음 작업을 executor 에 넘기기만 한다.
+ * blocking function 은 {@link #ofFunction(Function, Executor)} 로 감싸 timer 스레드에서 호출되지 않게 한다.
+ * <pre>{@code
+ * Function<Flow.Publisher<BackendRequest>, Flow.Publisher<String>> operator = FlowDecorators
+ *         .ofFunction((BackendRequest request) -> backendService.doSomething(request.param1(), request.param2()), executor)
+ *         .withCircuitBreaker(circuitBreaker)
+ *         .withRetry(retry)
+ *         .withBulkhead(bulkhead)
+ *         .withRateLimiter(rateLimiter)
+ *         .decorate();
+ * operator.apply(requests).subscribe(subscriber);
+ * }</pre>
+ * 결과는 호출이 끝난 순서대로 내보내고, 호출 하나라도 실패하면 upstream 을 취소하고 그 예외로 끝난다.
+ */
+public final class FlowDecorators {
+
+    private FlowDecorators() {
+    }
+
+    /**
+     * function 을 executor 에서 호출한다. timer 에서 깨어난 다음 요청을 받는 작업도 executor 에서 한다.
+     */
+    public static <T, R> DecorateFunction<T, R> ofFunction(Function<T, R> function, Executor executor) {
+        return ofCompletionStage((request) -> CompletableFuture.supplyAsync(() -> function.apply(request), executor), executor);
+    }
+
+    /**
+     * function 은 바로 {@link CompletionStage} 를 돌려줘야 한다. timer 에서 깨어난 다음 요청을 받는 작업은 {@link ForkJoinPool#commonPool()} 에서 한다.
+     */
+    public static <T, R> DecorateFunction<T, R> ofCompletionStage(Function<T, CompletionStage<R>> function) {
+        return ofCompletionStage(function, ForkJoinPool.commonPool());
+    }
+
+    public static <T, R> DecorateFunction<T, R> ofCompletionStage(Function<T, CompletionStage<R>> function, Executor executor) {
+        return new DecorateFunction<>(function, executor);
+    }
+
+    public static class DecorateFunction<T, R> {
+
+        private Function<T, CompletionStage<R>> function;
+
+        private final Executor executor;
+
+        private Bulkhead bulkhead;
+
+        private RateLimiter rateLimiter;
+
+        private DecorateFunction(Function<T, CompletionStage<R>> function, Executor executor) {
+            this.function = function;
+            this.executor = executor;
+        }
+
+        public DecorateFunction<T, R> withCircuitBreaker(CircuitBreaker circuitBreaker) {
+            Function<T, CompletionStage<R>> decorated = function;
+            function = (request) -> circuitBreaker.executeCompletionStage(() -> decorated.apply(request));
+            return this;
+        }
+
+        /**
+         * 다음 시도는 {@link HashedWheelTimer#shared()} 에 예약한다. 다음 시도의 function 은 timer 스레드에서 호출되므로
+         * {@link #ofCompletionStage(Function)} 의 function 은 blocking 하지 않아야 한다.
+         */
+        public DecorateFunction<T, R> withRetry(Retry retry) {
+            Function<T, CompletionStage<R>> decorated = function;
+            function = (request) -> AsyncRetry.executeCompletionStage(
+                    retry,
+                    HashedWheelTimer.shared(),
+                    () -> decorated.apply(request)
+            );
+            return this;
+        }
+
+        /**
+         * 동시에 진행 중인 호출이 {@code maxConcurrentCalls} 를 넘지 않도록 요청을 받는다.
+         * {@code tryAcquirePermission} 이 {@code maxWaitDuration} 만큼 기다릴 수 있으므로 0 으로 설정해야 스레드가 기다리지 않는다.
+         */
+        public DecorateFunction<T, R> withBulkhead(Bulkhead bulkhead) {
+            this.bulkhead = bulkhead;
+            return this;
+        }
+
+        /**
+         * permit 이 생기는 속도로 요청을 받는다. permit 을 기다리는 동안에는 {@link HashedWheelTimer#shared()} 에 다음 요청을 예약한다.
+         */
+        public DecorateFunction<T, R> withRateLimiter(RateLimiter rateLimiter) {
+            this.rateLimiter = rateLimiter;
+            return this;
+        }
+
+        public Function<Flow.Publisher<T>, Flow.Publisher<R>> decorate() {
+            Function<T, CompletionStage<R>> decorated = function;
+            Bulkhead bulkhead = this.bulkhead;
+            RateLimiter rateLimiter = this.rateLimiter;
+            Executor executor = this.executor;
+            return (upstream) -> new DecoratedPublisher<>(
+                    upstream,
+                    decorated,
+                    bulkhead,
+                    rateLimiter,
+                    HashedWheelTimer.shared(),
+                    executor
+            );
+        }
+    }
+}
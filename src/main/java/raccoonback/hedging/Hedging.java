@@ -0,0 +1,284 @@
+package raccoonback.hedging;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 호출이 최근 latency 의 percentile 보다 오래 걸리면 같은 호출을 한 번 더 보내고(hedge), 먼저 성공한 결과를 쓴다.
+ * <p>
+ * 먼저 성공한 결과가 나오면 나머지 호출의 future 는 취소한다. hedge 는 감싼 supplier 를 그대로 다시 호출하므로
+ * {@code withThreadPoolBulkhead}, {@code withRateLimiter} 안쪽을 감싸면 hedge 도 같은 bulkhead, rate limiter 의 permit 을 쓰고,
+ * permit 을 받지 못한 hedge 는 실패한 것으로 보고 나머지 호출의 결과를 기다린다.
+ * 그와 별개로 hedge 는 호출 수의 {@link HedgingConfig#getMaxHedgeRatio()} 비율까지만 보낸다.
+ * <p>
+ * 모든 호출이 실패하면 원래 호출의 예외로 실패한다. 원래 호출이 hedge 전에 실패하면 hedge 하지 않는다(재시도는 Retry 의 역할이다).
+ */
+public class Hedging {
+
+    private static final long PERMIT = 1_000;
+
+    private static final long MAX_BUDGET = 10 * PERMIT;
+
+    private final String name;
+
+    private final HedgingConfig config;
+
+    private final LatencyWindow latencyWindow;
+
+    private final long minHedgeDelayInNanos;
+
+    private final long budgetPerCall;
+
+    private final AtomicLong budget = new AtomicLong();
+
+    private final HedgingMetrics metrics = new HedgingMetrics();
+
+    private Hedging(String name, HedgingConfig config) {
+        this.name = name;
+        this.config = config;
+        this.latencyWindow = new LatencyWindow(
+                config.getLatencyWindowSize(),
+                config.getHedgeDelayPercentile(),
+                config.getMinimumNumberOfCalls()
+        );
+        this.minHedgeDelayInNanos = config.getMinHedgeDelay().toNanos();
+        this.budgetPerCall = Math.round(config.getMaxHedgeRatio() * PERMIT);
+    }
+
+    public static Hedging ofDefaults(String name) {
+        return of(name, HedgingConfig.ofDefaults());
+    }
+
+    public static Hedging of(String name, HedgingConfig config) {
+        return new Hedging(name, config);
+    }
+
+    public static <T> Supplier<CompletionStage<T>> decorateCompletionStage(
+            Hedging hedging,
+            ScheduledExecutorService scheduler,
+            Supplier<CompletionStage<T>> supplier
+    ) {
+        return () -> hedging.executeCompletionStage(scheduler, supplier);
+    }
+
+    public <T> CompletionStage<T> executeCompletionStage(ScheduledExecutorService scheduler, Supplier<CompletionStage<T>> supplier) {
+        metrics.numberOfCalls.increment();
+        depositBudget();
+
+        HedgedCall<T> call = new HedgedCall<>(scheduler, supplier);
+        call.launch(0);
+        return call.result;
+    }
+
+    /**
+     * 아직 latency 가 충분히 쌓이지 않아 hedge 하지 않는 동안에는 {@code null}.
+     */
+    public Duration getHedgeDelay() {
+        long hedgeDelayInNanos = hedgeDelayInNanos();
+        return hedgeDelayInNanos < 0 ? null : Duration.ofNanos(hedgeDelayInNanos);
+    }
+
+    private long hedgeDelayInNanos() {
+        long percentileInNanos = latencyWindow.getPercentileInNanos();
+        return percentileInNanos < 0 ? -1 : Math.max(minHedgeDelayInNanos, percentileInNanos);
+    }
+
+    private void depositBudget() {
+        if (budget.get() >= MAX_BUDGET) {
+            return;
+        }
+        budget.getAndUpdate(current -> Math.min(MAX_BUDGET, current + budgetPerCall));
+    }
+
+    private boolean tryWithdrawBudget() {
+        while (true) {
+            long current = budget.get();
+            if (current < PERMIT) {
+                return false;
+            }
+            if (budget.compareAndSet(current, current - PERMIT)) {
+                return true;
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public HedgingConfig getHedgingConfig() {
+        return config;
+    }
+
+    public HedgingMetrics getMetrics() {
+        return metrics;
+    }
+
+    private class HedgedCall<T> {
+
+        private final ScheduledExecutorService scheduler;
+
+        private final Supplier<CompletionStage<T>> supplier;
+
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private final List<CompletableFuture<T>> attempts = new ArrayList<>(2);
+
+        private int outstandingAttempts;
+
+        private boolean succeeded;
+
+        private Throwable primaryFailure;
+
+        private ScheduledFuture<?> nextHedge;
+
+        HedgedCall(ScheduledExecutorService scheduler, Supplier<CompletionStage<T>> supplier) {
+            this.scheduler = scheduler;
+            this.supplier = supplier;
+        }
+
+        void launch(int attempt) {
+            long start = System.nanoTime();
+            CompletableFuture<T> future;
+            try {
+                future = supplier.get().toCompletableFuture();
+            } catch (Throwable throwable) {
+                future = CompletableFuture.failedFuture(throwable);
+            }
+
+            synchronized (this) {
+                attempts.add(future);
+                outstandingAttempts++;
+            }
+            if (result.isDone()) {
+                // hedge 를 보내는 사이에 다른 호출이 먼저 성공했다
+                future.cancel(true);
+            }
+            future.whenComplete((value, throwable) -> onAttemptComplete(attempt, start, value, throwable));
+
+            scheduleHedge(attempt + 1);
+        }
+
+        private void scheduleHedge(int attempt) {
+            long hedgeDelayInNanos = hedgeDelayInNanos();
+            if (attempt > config.getMaxHedgedAttempts() || hedgeDelayInNanos < 0) {
+                return;
+            }
+
+            synchronized (this) {
+                if (result.isDone()) {
+                    return;
+                }
+                nextHedge = scheduler.schedule(() -> hedge(attempt), hedgeDelayInNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private void hedge(int attempt) {
+            synchronized (this) {
+                nextHedge = null;
+                if (result.isDone()) {
+                    return;
+                }
+            }
+
+            if (!tryWithdrawBudget()) {
+                metrics.numberOfRejectedHedges.increment();
+                return;
+            }
+
+            metrics.numberOfHedges.increment();
+            launch(attempt);
+        }
+
+        private void onAttemptComplete(int attempt, long start, T value, Throwable throwable) {
+            if (throwable == null) {
+                latencyWindow.record(System.nanoTime() - start);
+                synchronized (this) {
+                    if (succeeded) {
+                        return;
+                    }
+                    succeeded = true;
+                }
+                // 결과를 받은 쪽이 metrics 를 바로 읽을 수 있도록 결과보다 먼저 센다
+                if (attempt > 0) {
+                    metrics.numberOfHedgeWins.increment();
+                }
+                result.complete(value);
+                cancelRest();
+                return;
+            }
+
+            boolean allFailed;
+            synchronized (this) {
+                if (attempt == 0) {
+                    primaryFailure = throwable;
+                }
+                allFailed = --outstandingAttempts == 0;
+                if (allFailed && nextHedge != null) {
+                    nextHedge.cancel(false);
+                    nextHedge = null;
+                }
+            }
+            if (allFailed) {
+                result.completeExceptionally(primaryFailure != null ? primaryFailure : throwable);
+            }
+        }
+
+        private void cancelRest() {
+            List<CompletableFuture<T>> rest;
+            synchronized (this) {
+                if (nextHedge != null) {
+                    nextHedge.cancel(false);
+                    nextHedge = null;
+                }
+                rest = new ArrayList<>(attempts);
+            }
+            rest.forEach(future -> future.cancel(true));
+        }
+    }
+
+    public static class HedgingMetrics {
+
+        private final LongAdder numberOfCalls = new LongAdder();
+
+        private final LongAdder numberOfHedges = new LongAdder();
+
+        private final LongAdder numberOfHedgeWins = new LongAdder();
+
+        private final LongAdder numberOfRejectedHedges = new LongAdder();
+
+        public long getNumberOfCalls() {
+            return numberOfCalls.sum();
+        }
+
+        /**
+         * 실제로 보낸 hedge 호출 수.
+         */
+        public long getNumberOfHedges() {
+            return numberOfHedges.sum();
+        }
+
+        /**
+         * 원래 호출보다 먼저 성공한 hedge 호출 수.
+         */
+        public long getNumberOfHedgeWins() {
+            return numberOfHedgeWins.sum();
+        }
+
+        /**
+         * hedge 비율 한도 때문에 보내지 않은 hedge 수.
+         */
+        public long getNumberOfRejectedHedges() {
+            return numberOfRejectedHedges.sum();
+        }
+    }
+}
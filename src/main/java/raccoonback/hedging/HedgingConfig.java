@@ -0,0 +1,144 @@
+package raccoonback.hedging;
+
+import java.time.Duration;
+
+public class HedgingConfig {
+
+    private final int maxHedgedAttempts;
+
+    private final double hedgeDelayPercentile;
+
+    private final Duration minHedgeDelay;
+
+    private final int minimumNumberOfCalls;
+
+    private final int latencyWindowSize;
+
+    private final double maxHedgeRatio;
+
+    private HedgingConfig(Builder builder) {
+        this.maxHedgedAttempts = builder.maxHedgedAttempts;
+        this.hedgeDelayPercentile = builder.hedgeDelayPercentile;
+        this.minHedgeDelay = builder.minHedgeDelay;
+        this.minimumNumberOfCalls = builder.minimumNumberOfCalls;
+        this.latencyWindowSize = builder.latencyWindowSize;
+        this.maxHedgeRatio = builder.maxHedgeRatio;
+    }
+
+    public static HedgingConfig ofDefaults() {
+        return custom().build();
+    }
+
+    public static Builder custom() {
+        return new Builder();
+    }
+
+    public int getMaxHedgedAttempts() {
+        return maxHedgedAttempts;
+    }
+
+    public double getHedgeDelayPercentile() {
+        return hedgeDelayPercentile;
+    }
+
+    public Duration getMinHedgeDelay() {
+        return minHedgeDelay;
+    }
+
+    public int getMinimumNumberOfCalls() {
+        return minimumNumberOfCalls;
+    }
+
+    public int getLatencyWindowSize() {
+        return latencyWindowSize;
+    }
+
+    public double getMaxHedgeRatio() {
+        return maxHedgeRatio;
+    }
+
+    public static class Builder {
+
+        private int maxHedgedAttempts = 1;
+
+        private double hedgeDelayPercentile = 0.95;
+
+        private Duration minHedgeDelay = Duration.ofMillis(1);
+
+        private int minimumNumberOfCalls = 100;
+
+        private int latencyWindowSize = 1_000;
+
+        private double maxHedgeRatio = 0.1;
+
+        /**
+         * 원래 호출 외에 추가로 보낼 수 있는 호출 수. 각 hedge 는 앞 호출을 보낸 뒤 hedge delay 만큼 지나서 보낸다.
+         */
+        public Builder maxHedgedAttempts(int maxHedgedAttempts) {
+            if (maxHedgedAttempts < 1) {
+                throw new IllegalArgumentException("maxHedgedAttempts must be greater than 0");
+            }
+            this.maxHedgedAttempts = maxHedgedAttempts;
+            return this;
+        }
+
+        /**
+         * 최근 성공한 호출의 latency 중 이 percentile 값을 hedge delay 로 쓴다.
+         */
+        public Builder hedgeDelayPercentile(double hedgeDelayPercentile) {
+            if (hedgeDelayPercentile <= 0 || hedgeDelayPercentile >= 1) {
+                throw new IllegalArgumentException("hedgeDelayPercentile must be between 0 and 1");
+            }
+            this.hedgeDelayPercentile = hedgeDelayPercentile;
+            return this;
+        }
+
+        public Builder minHedgeDelay(Duration minHedgeDelay) {
+            if (minHedgeDelay.isNegative()) {
+                throw new IllegalArgumentException("minHedgeDelay must not be negative");
+            }
+            this.minHedgeDelay = minHedgeDelay;
+            return this;
+        }
+
+        /**
+         * percentile 을 믿을 수 있을 만큼 latency 가 쌓이기 전에는 hedge 하지 않는다.
+         */
+        public Builder minimumNumberOfCalls(int minimumNumberOfCalls) {
+            if (minimumNumberOfCalls < 1) {
+                throw new IllegalArgumentException("minimumNumberOfCalls must be greater than 0");
+            }
+            this.minimumNumberOfCalls = minimumNumberOfCalls;
+            return this;
+        }
+
+        /**
+         * percentile 을 계산할 최근 latency 개수.
+         */
+        public Builder latencyWindowSize(int latencyWindowSize) {
+            if (latencyWindowSize < 1) {
+                throw new IllegalArgumentException("latencyWindowSize must be greater than 0");
+            }
+            this.latencyWindowSize = latencyWindowSize;
+            return this;
+        }
+
+        /**
+         * 호출 수 대비 hedge 로 더 보낼 수 있는 호출의 비율. backend 가 느려져 모든 호출이 hedge 되더라도 부하는 이 비율 이상 늘지 않는다.
+         */
+        public Builder maxHedgeRatio(double maxHedgeRatio) {
+            if (maxHedgeRatio < 0) {
+                throw new IllegalArgumentException("maxHedgeRatio must not be negative");
+            }
+            this.maxHedgeRatio = maxHedgeRatio;
+            return this;
+        }
+
+        public HedgingConfig build() {
+            if (minimumNumberOfCalls > latencyWindowSize) {
+                throw new IllegalArgumentException("minimumNumberOfCalls must be less than or equal to latencyWindowSize");
+            }
+            return new HedgingConfig(this);
+        }
+    }
+}
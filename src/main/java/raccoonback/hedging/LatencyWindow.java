@@ -0,0 +1,53 @@
+package raccoonback.hedging;
+
+import java.util.Arrays;
+
+/**
+ * 최근 latency 를 고정 크기 배열에 기록하고, 일정 개수가 쌓일 때마다 percentile 을 다시 계산해 둔다.
+ * 정렬은 {@code recomputeInterval} 번의 기록에 한 번만 하므로 호출마다의 비용은 배열 쓰기 한 번이다.
+ */
+class LatencyWindow {
+
+    private final long[] latencies;
+
+    private final double percentile;
+
+    private final int minimumNumberOfCalls;
+
+    private final int recomputeInterval;
+
+    private int index;
+
+    private int size;
+
+    private int recordsSinceRecompute;
+
+    private volatile long percentileInNanos = -1;
+
+    LatencyWindow(int windowSize, double percentile, int minimumNumberOfCalls) {
+        this.latencies = new long[windowSize];
+        this.percentile = percentile;
+        this.minimumNumberOfCalls = minimumNumberOfCalls;
+        this.recomputeInterval = Math.max(1, Math.min(minimumNumberOfCalls, windowSize / 10));
+    }
+
+    synchronized void record(long latencyInNanos) {
+        latencies[index] = latencyInNanos;
+        index = (index + 1) % latencies.length;
+        size = Math.min(size + 1, latencies.length);
+
+        if (size >= minimumNumberOfCalls && ++recordsSinceRecompute >= recomputeInterval) {
+            recordsSinceRecompute = 0;
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            percentileInNanos = sorted[(int) Math.min(size - 1, Math.ceil(size * percentile) - 1)];
+        }
+    }
+
+    /**
+     * 아직 {@code minimumNumberOfCalls} 만큼 기록되지 않았다면 -1.
+     */
+    long getPercentileInNanos() {
+        return percentileInNanos;
+    }
+}
@@ -0,0 +1,80 @@
+package raccoonback.metrics;
+
+import static raccoonback.metrics.LatencyHistogram.BUCKET_COUNT;
+import static raccoonback.metrics.LatencyHistogram.highestValueOf;
+import static raccoonback.metrics.LatencyHistogram.lowestValueOf;
+
+/**
+ * {@link LatencyHistogram} 의 한 시점 분포. 값은 모두 nanos 이며, bucket 안의 값은 bucket 의 가장 큰 값으로 본다.
+ */
+public class HistogramSnapshot {
+
+    private final long[] counts;
+
+    private final long totalCount;
+
+    HistogramSnapshot(long[] counts) {
+        this.counts = counts;
+        long totalCount = 0;
+        for (long count : counts) {
+            totalCount += count;
+        }
+        this.totalCount = totalCount;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * @param percentile 0 ~ 100
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+
+        long countAtPercentile = Math.max(1, (long) Math.ceil(totalCount * Math.min(100.0, percentile) / 100.0));
+        long count = 0;
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            count += counts[index];
+            if (count >= countAtPercentile) {
+                return highestValueOf(index);
+            }
+        }
+        return getMax();
+    }
+
+    public double getMean() {
+        if (totalCount == 0) {
+            return 0;
+        }
+
+        double sum = 0;
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            if (counts[index] > 0) {
+                sum += (double) counts[index] * (lowestValueOf(index) + highestValueOf(index)) / 2;
+            }
+        }
+        return sum / totalCount;
+    }
+
+    public long getMax() {
+        for (int index = BUCKET_COUNT - 1; index >= 0; index--) {
+            if (counts[index] > 0) {
+                return highestValueOf(index);
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return "HistogramSnapshot{" +
+                "count=" + totalCount +
+                ", p50=" + getValueAtPercentile(50) +
+                ", p99=" + getValueAtPercentile(99) +
+                ", max=" + getMax() +
+                '}';
+    }
+}
@@ -0,0 +1,99 @@
+package raccoonback.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * HdrHistogram 과 같은 log-linear bucket 으로 latency(nanos) 분포를 기록하는 lock-free histogram.
+ * <p>
+ * 2 의 거듭제곱 구간마다 {@value #SUB_BUCKET_COUNT} 개의 bucket 을 두므로 기록한 값과 bucket 경계의 상대 오차는 1/{@value #SUB_BUCKET_COUNT}
+ * 이하이고, 2^{@value #MAX_EXPONENT}ns(약 73분)를 넘는 값은 마지막 bucket 에 기록한다.
+ * 기록은 bucket 하나에 대한 atomic increment 한 번이며 객체를 만들지 않는다. 여러 스레드가 같은 bucket 을 두고 경합하지 않도록
+ * 스레드별로 나눈 stripe 에 기록하고 snapshot 을 만들 때 합친다.
+ */
+public class LatencyHistogram {
+
+    static final int SUB_BUCKET_BITS = 5;
+
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    static final int MAX_EXPONENT = 42;
+
+    static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+
+    private static final int MAX_STRIPES = 16;
+
+    private final int stripeMask;
+
+    private final AtomicLongArray counts;
+
+    private long[] lastIntervalCounts = new long[BUCKET_COUNT];
+
+    private LatencyHistogram(int stripes) {
+        this.stripeMask = stripes - 1;
+        this.counts = new AtomicLongArray(stripes * BUCKET_COUNT);
+    }
+
+    public static LatencyHistogram create() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        int stripes = Integer.highestOneBit(Math.min(MAX_STRIPES, Math.max(1, processors)) * 2 - 1);
+        return new LatencyHistogram(stripes);
+    }
+
+    public void record(long latencyInNanos) {
+        int stripe = (int) Thread.currentThread().threadId() & stripeMask;
+        counts.getAndIncrement(stripe * BUCKET_COUNT + indexOf(latencyInNanos));
+    }
+
+    /**
+     * 처음부터 기록한 분포.
+     */
+    public HistogramSnapshot snapshot() {
+        return new HistogramSnapshot(sumStripes());
+    }
+
+    /**
+     * 직전 {@code intervalSnapshot()} 이후에 기록한 분포. 처음 부르면 처음부터 기록한 분포를 돌려준다.
+     */
+    public synchronized HistogramSnapshot intervalSnapshot() {
+        long[] current = sumStripes();
+        long[] interval = new long[BUCKET_COUNT];
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            interval[index] = current[index] - lastIntervalCounts[index];
+        }
+        lastIntervalCounts = current;
+        return new HistogramSnapshot(interval);
+    }
+
+    private long[] sumStripes() {
+        long[] sum = new long[BUCKET_COUNT];
+        for (int offset = 0; offset < counts.length(); offset += BUCKET_COUNT) {
+            for (int index = 0; index < BUCKET_COUNT; index++) {
+                sum[index] += counts.get(offset + index);
+            }
+        }
+        return sum;
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) Math.max(0, value);
+        }
+        value = Math.min(value, MAX_VALUE);
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKET_COUNT + (int) (value >>> shift) - SUB_BUCKET_COUNT;
+    }
+
+    static long lowestValueOf(int index) {
+        if (index < SUB_BUCKET_COUNT * 2) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        return (long) (index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT) << shift;
+    }
+
+    static long highestValueOf(int index) {
+        return lowestValueOf(index + 1) - 1;
+    }
+}
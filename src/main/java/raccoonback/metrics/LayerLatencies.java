@@ -0,0 +1,114 @@
+package raccoonback.metrics;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.core.IntervalBiFunction;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * decorator 층마다 걸린 시간을 {@link LatencyHistogram} 에 나누어 기록한다.
+ * <p>
+ * 이벤트 객체를 만들지 않도록 이벤트 publisher 대신 각 resilience 객체를 감싼 객체에서 시간을 잰다.
+ * {@code timed(...)} 로 감싼 객체를 원래 객체 대신 {@code Decorators} 에 넘기면 되고, 감싼 객체는 나머지 동작을 모두 원래 객체에 맡긴다.
+ * <pre>{@code
+ * Decorators.ofSupplier(latencies.timeBackend(supplier))
+ *         .withBulkhead(latencies.timed(bulkhead))
+ *         .withRateLimiter(latencies.timed(rateLimiter))
+ *         .withRetry(Retry.of("backend", RetryConfig.custom()
+ *                 .intervalBiFunction(latencies.timed(IntervalBiFunction.ofIntervalFunction(intervalFunction)))
+ *                 .build()))
+ *         .decorate();
+ * }</pre>
+ */
+public class LayerLatencies {
+
+    public enum Layer {
+        /**
+         * {@link ThreadPoolBulkhead} 에 제출한 뒤 실행되기까지 queue 에서 기다린 시간
+         */
+        THREAD_POOL_QUEUE,
+        /**
+         * {@link Bulkhead} permit 을 기다린 시간
+         */
+        BULKHEAD_PERMIT,
+        /**
+         * {@link RateLimiter} permit 을 기다린 시간
+         */
+        RATE_LIMITER_PERMIT,
+        /**
+         * retry 사이에 쉰 시간
+         */
+        RETRY_BACKOFF,
+        /**
+         * backend 호출 자체에 걸린 시간
+         */
+        BACKEND
+    }
+
+    private final Map<Layer, LatencyHistogram> histograms = new EnumMap<>(Layer.class);
+
+    private LayerLatencies() {
+        for (Layer layer : Layer.values()) {
+            histograms.put(layer, LatencyHistogram.create());
+        }
+    }
+
+    public static LayerLatencies create() {
+        return new LayerLatencies();
+    }
+
+    public <T> Supplier<T> timeBackend(Supplier<T> supplier) {
+        LatencyHistogram histogram = histogram(Layer.BACKEND);
+        return () -> {
+            long start = System.nanoTime();
+            try {
+                return supplier.get();
+            } finally {
+                histogram.record(System.nanoTime() - start);
+            }
+        };
+    }
+
+    public Bulkhead timed(Bulkhead bulkhead) {
+        return new TimedBulkhead(bulkhead, histogram(Layer.BULKHEAD_PERMIT));
+    }
+
+    public ThreadPoolBulkhead timed(ThreadPoolBulkhead threadPoolBulkhead) {
+        return new TimedThreadPoolBulkhead(threadPoolBulkhead, histogram(Layer.THREAD_POOL_QUEUE));
+    }
+
+    public RateLimiter timed(RateLimiter rateLimiter) {
+        return new TimedRateLimiter(rateLimiter, histogram(Layer.RATE_LIMITER_PERMIT));
+    }
+
+    /**
+     * retry 가 쉴 시간을 계산하는 함수를 감싸 계산한 시간을 기록한다. Retry 는 계산한 시간만큼 그대로 쉰다.
+     */
+    public <T> IntervalBiFunction<T> timed(IntervalBiFunction<T> intervalBiFunction) {
+        LatencyHistogram histogram = histogram(Layer.RETRY_BACKOFF);
+        return (attempt, either) -> {
+            Long interval = intervalBiFunction.apply(attempt, either);
+            if (interval != null) {
+                histogram.record(interval * 1_000_000);
+            }
+            return interval;
+        };
+    }
+
+    public LatencyHistogram histogram(Layer layer) {
+        return histograms.get(layer);
+    }
+
+    /**
+     * 층마다 직전 {@code intervalSnapshot()} 이후에 기록한 분포.
+     */
+    public Map<Layer, HistogramSnapshot> intervalSnapshot() {
+        Map<Layer, HistogramSnapshot> snapshots = new EnumMap<>(Layer.class);
+        histograms.forEach((layer, histogram) -> snapshots.put(layer, histogram.intervalSnapshot()));
+        return snapshots;
+    }
+}
@@ -0,0 +1,85 @@
+package raccoonback.metrics;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+
+import java.util.Map;
+
+/**
+ * permit 을 받기까지 기다린 시간을 기록하는 {@link Bulkhead}.
+ * <p>
+ * 남은 permit 이 있으면 기다리지 않을 것이므로 시계를 읽지 않고 0 을 기록한다. 남은 permit 을 확인한 직후 다른 스레드가 permit 을
+ * 가져가 잠깐 기다린 호출도 0 으로 기록될 수 있지만, 기다림이 길어지는 포화 상태에서는 남은 permit 이 없어 항상 시간을 잰다.
+ */
+class TimedBulkhead implements Bulkhead {
+
+    private final Bulkhead delegate;
+
+    private final LatencyHistogram histogram;
+
+    TimedBulkhead(Bulkhead delegate, LatencyHistogram histogram) {
+        this.delegate = delegate;
+        this.histogram = histogram;
+    }
+
+    @Override
+    public void acquirePermission() {
+        if (delegate.getMetrics().getAvailableConcurrentCalls() > 0) {
+            delegate.acquirePermission();
+            histogram.record(0);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            delegate.acquirePermission();
+        } finally {
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public boolean tryAcquirePermission() {
+        return delegate.tryAcquirePermission();
+    }
+
+    @Override
+    public void releasePermission() {
+        delegate.releasePermission();
+    }
+
+    @Override
+    public void onComplete() {
+        delegate.onComplete();
+    }
+
+    @Override
+    public void changeConfig(BulkheadConfig newConfig) {
+        delegate.changeConfig(newConfig);
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public BulkheadConfig getBulkheadConfig() {
+        return delegate.getBulkheadConfig();
+    }
+
+    @Override
+    public Metrics getMetrics() {
+        return delegate.getMetrics();
+    }
+
+    @Override
+    public Map<String, String> getTags() {
+        return delegate.getTags();
+    }
+
+    @Override
+    public EventPublisher getEventPublisher() {
+        return delegate.getEventPublisher();
+    }
+}
@@ -0,0 +1,82 @@
+package raccoonback.metrics;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * permit 을 받기까지 기다린 시간을 기록하는 {@link RateLimiter}.
+ * 비동기 호출이 쓰는 {@link #reservePermission(int)} 은 실제로 기다리지 않으므로 기다려야 할 시간을 기록한다.
+ */
+class TimedRateLimiter implements RateLimiter {
+
+    private final RateLimiter delegate;
+
+    private final LatencyHistogram histogram;
+
+    TimedRateLimiter(RateLimiter delegate, LatencyHistogram histogram) {
+        this.delegate = delegate;
+        this.histogram = histogram;
+    }
+
+    @Override
+    public boolean acquirePermission(int permits) {
+        long start = System.nanoTime();
+        try {
+            return delegate.acquirePermission(permits);
+        } finally {
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public long reservePermission(int permits) {
+        long waitInNanos = delegate.reservePermission(permits);
+        if (waitInNanos >= 0) {
+            histogram.record(waitInNanos);
+        }
+        return waitInNanos;
+    }
+
+    @Override
+    public void changeTimeoutDuration(Duration timeoutDuration) {
+        delegate.changeTimeoutDuration(timeoutDuration);
+    }
+
+    @Override
+    public void changeLimitForPeriod(int limitForPeriod) {
+        delegate.changeLimitForPeriod(limitForPeriod);
+    }
+
+    @Override
+    public void drainPermissions() {
+        delegate.drainPermissions();
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public RateLimiterConfig getRateLimiterConfig() {
+        return delegate.getRateLimiterConfig();
+    }
+
+    @Override
+    public Map<String, String> getTags() {
+        return delegate.getTags();
+    }
+
+    @Override
+    public Metrics getMetrics() {
+        return delegate.getMetrics();
+    }
+
+    @Override
+    public EventPublisher getEventPublisher() {
+        return delegate.getEventPublisher();
+    }
+}
@@ -0,0 +1,71 @@
+package raccoonback.metrics;
+
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * 제출한 작업이 실행되기까지 queue 에서 기다린 시간을 기록하는 {@link ThreadPoolBulkhead}.
+ */
+class TimedThreadPoolBulkhead implements ThreadPoolBulkhead {
+
+    private final ThreadPoolBulkhead delegate;
+
+    private final LatencyHistogram histogram;
+
+    TimedThreadPoolBulkhead(ThreadPoolBulkhead delegate, LatencyHistogram histogram) {
+        this.delegate = delegate;
+        this.histogram = histogram;
+    }
+
+    @Override
+    public <T> CompletionStage<T> submit(Callable<T> callable) {
+        long submittedAt = System.nanoTime();
+        return delegate.submit(() -> {
+            histogram.record(System.nanoTime() - submittedAt);
+            return callable.call();
+        });
+    }
+
+    @Override
+    public CompletionStage<Void> submit(Runnable runnable) {
+        long submittedAt = System.nanoTime();
+        return delegate.submit(() -> {
+            histogram.record(System.nanoTime() - submittedAt);
+            runnable.run();
+        });
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public ThreadPoolBulkheadConfig getBulkheadConfig() {
+        return delegate.getBulkheadConfig();
+    }
+
+    @Override
+    public Metrics getMetrics() {
+        return delegate.getMetrics();
+    }
+
+    @Override
+    public Map<String, String> getTags() {
+        return delegate.getTags();
+    }
+
+    @Override
+    public ThreadPoolBulkheadEventPublisher getEventPublisher() {
+        return delegate.getEventPublisher();
+    }
+
+    @Override
+    public void close() throws Exception {
+        delegate.close();
+    }
+}
@@ -0,0 +1,379 @@
+package raccoonback.ratelimiter;
+
+import io.github.resilience4j.core.EventConsumer;
+import io.github.resilience4j.core.EventProcessor;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.event.RateLimiterEvent;
+import io.github.resilience4j.ratelimiter.event.RateLimiterOnFailureEvent;
+import io.github.resilience4j.ratelimiter.event.RateLimiterOnSuccessEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 여러 노드가 {@link PermitStore} 하나를 나누어 써서, 노드 수와 관계없이 전체 호출을 {@code limitForPeriod} 로 제한하는 {@link RateLimiter}.
+ * <p>
+ * 구간(epoch 기준 {@code limitRefreshPeriod})마다 저장소에서 permit 을 {@link LeasingConfig#getLeaseSize()} 개씩 빌려와
+ * 로컬에서 CAS 로 나누어 준다. 빌려온 permit 이 적게 남으면 다 쓰기 전에 비동기로 더 빌려오고, 구간이 끝나갈 무렵에는 다음 구간의 permit 을
+ * 미리 빌려오므로 호출 경로에서 저장소를 기다리는 일은 빌려온 permit 을 모두 쓴 경우뿐이다.
+ * <p>
+ * 저장소는 한 구간에 {@code limitForPeriod} 이상 빌려주지 않으므로 전체 호출이 제한을 넘지 않는다. 대신 노드가 빌려놓고
+ * 쓰지 못한 permit 은 구간이 끝나면 버려지므로 실제 허용량은 제한보다 조금 적을 수 있다.
+ */
+public class DistributedRateLimiter implements RateLimiter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DistributedRateLimiter.class);
+
+    private final String name;
+
+    private volatile RateLimiterConfig config;
+
+    private final LeasingConfig leasingConfig;
+
+    private final PermitStore store;
+
+    private final Map<String, String> tags;
+
+    private final Clock clock;
+
+    private final int refillLevel;
+
+    private final AtomicReference<LeasedPermits> current = new AtomicReference<>(new LeasedPermits(-1));
+
+    private final AtomicReference<LeasedPermits> prefetched = new AtomicReference<>(new LeasedPermits(-1));
+
+    private final AtomicInteger waitingThreads = new AtomicInteger();
+
+    private final DistributedRateLimiterMetrics metrics = new DistributedRateLimiterMetrics();
+
+    private final DistributedRateLimiterEventProcessor eventProcessor = new DistributedRateLimiterEventProcessor();
+
+    private DistributedRateLimiter(
+            String name,
+            RateLimiterConfig config,
+            LeasingConfig leasingConfig,
+            PermitStore store,
+            Map<String, String> tags
+    ) {
+        this.name = name;
+        this.config = config;
+        this.leasingConfig = leasingConfig;
+        this.store = store;
+        this.tags = tags;
+        this.clock = leasingConfig.getClock();
+        this.refillLevel = (int) (leasingConfig.getLeaseSize() * leasingConfig.getRefillThreshold());
+    }
+
+    public static DistributedRateLimiter of(String name, RateLimiterConfig config, PermitStore store) {
+        return of(name, config, LeasingConfig.ofDefaults(), store);
+    }
+
+    public static DistributedRateLimiter of(String name, RateLimiterConfig config, LeasingConfig leasingConfig, PermitStore store) {
+        return new DistributedRateLimiter(name, config, leasingConfig, store, Collections.emptyMap());
+    }
+
+    @Override
+    public boolean acquirePermission(int permits) {
+        long deadline = System.nanoTime() + config.getTimeoutDuration().toNanos();
+        boolean waiting = false;
+        try {
+            while (true) {
+                long periodMillis = config.getLimitRefreshPeriod().toMillis();
+                long now = clock.millis();
+                long period = now / periodMillis;
+
+                LeasedPermits leased = leasedPermits(period);
+                if (leased.tryTake(permits)) {
+                    onPermitsTaken(leased, now % periodMillis, periodMillis);
+                    publishRateLimiterEvent(new RateLimiterOnSuccessEvent(name, permits));
+                    return true;
+                }
+
+                CompletableFuture<Integer> refill = refill(leased);
+                if (refill != null && refill.isDone() && !refill.isCompletedExceptionally() && refill.join() > 0) {
+                    // 저장소가 바로 permit 을 빌려줬다
+                    continue;
+                }
+
+                long remainingNanos = deadline - System.nanoTime();
+                long untilNextPeriodNanos = TimeUnit.MILLISECONDS.toNanos((period + 1) * periodMillis - now);
+                if (remainingNanos <= 0 || (refill == null && untilNextPeriodNanos > remainingNanos)) {
+                    publishRateLimiterEvent(new RateLimiterOnFailureEvent(name, permits));
+                    return false;
+                }
+
+                if (!waiting) {
+                    waiting = true;
+                    waitingThreads.incrementAndGet();
+                }
+                if (!await(leased, refill, Math.min(remainingNanos, untilNextPeriodNanos))) {
+                    publishRateLimiterEvent(new RateLimiterOnFailureEvent(name, permits));
+                    return false;
+                }
+            }
+        } finally {
+            if (waiting) {
+                waitingThreads.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * 로컬에 빌려온 permit 이 있으면 0 을 돌려준다. 없으면 저장소에서 빌려오기 시작하고, 언제 받을 수 있을지 알 수 없으므로 -1 을 돌려준다.
+     * 저장소 호출이 실패한 뒤 {@link LeasingConfig#getLeaseRetryInterval()} 동안은 저장소를 다시 부르지 않는다.
+     */
+    @Override
+    public long reservePermission(int permits) {
+        long periodMillis = config.getLimitRefreshPeriod().toMillis();
+        long now = clock.millis();
+
+        LeasedPermits leased = leasedPermits(now / periodMillis);
+        if (leased.tryTake(permits)) {
+            onPermitsTaken(leased, now % periodMillis, periodMillis);
+            publishRateLimiterEvent(new RateLimiterOnSuccessEvent(name, permits));
+            return 0;
+        }
+
+        refill(leased);
+        publishRateLimiterEvent(new RateLimiterOnFailureEvent(name, permits));
+        return -1;
+    }
+
+    private LeasedPermits leasedPermits(long period) {
+        LeasedPermits leased = current.get();
+        if (leased.period >= period) {
+            return leased;
+        }
+
+        LeasedPermits prefetchedPermits = prefetched.get();
+        LeasedPermits fresh = prefetchedPermits.period == period ? prefetchedPermits : new LeasedPermits(period);
+        if (current.compareAndSet(leased, fresh)) {
+            return fresh;
+        }
+        return current.get();
+    }
+
+    private void onPermitsTaken(LeasedPermits leased, long elapsedMillis, long periodMillis) {
+        if (leased.remaining.get() <= refillLevel) {
+            refill(leased);
+        }
+
+        if (elapsedMillis >= periodMillis * leasingConfig.getPrefetchThreshold()) {
+            LeasedPermits prefetchedPermits = prefetched.get();
+            if (prefetchedPermits.period <= leased.period) {
+                LeasedPermits next = new LeasedPermits(leased.period + 1);
+                if (prefetched.compareAndSet(prefetchedPermits, next)) {
+                    refill(next);
+                }
+            }
+        }
+    }
+
+    /**
+     * 저장소에서 permit 을 더 빌려오고, 빌려온 permit 수로 끝나는 future 를 돌려준다. 저장소 호출이 실패하면 future 도 그 예외로 끝난다.
+     * 이미 빌려오는 중이거나 실패한 뒤 {@code leaseRetryInterval} 이 지나지 않았으면 그 호출을 돌려주고,
+     * 이번 구간의 permit 이 다 떨어졌다면 {@code null} 을 돌려준다.
+     */
+    private CompletableFuture<Integer> refill(LeasedPermits leased) {
+        if (leased.exhausted) {
+            return null;
+        }
+
+        CompletableFuture<Integer> previous = leased.refill.get();
+        if (previous != null && (!previous.isCompletedExceptionally() || System.nanoTime() - leased.nextLeaseAt < 0)) {
+            return previous;
+        }
+
+        CompletableFuture<Integer> refill = new CompletableFuture<>();
+        if (!leased.refill.compareAndSet(previous, refill)) {
+            return leased.refill.get();
+        }
+
+        int leaseSize = leasingConfig.getLeaseSize();
+        CompletionStage<Integer> lease;
+        try {
+            lease = store.lease(name, leased.period, config.getLimitForPeriod(), leaseSize);
+        } catch (Throwable throwable) {
+            lease = CompletableFuture.failedFuture(throwable);
+        }
+        lease.whenComplete((granted, throwable) -> {
+            if (throwable == null) {
+                leased.remaining.addAndGet(granted);
+                if (granted < leaseSize) {
+                    leased.exhausted = true;
+                }
+                leased.refill.set(null);
+                refill.complete(granted);
+            } else {
+                LOGGER.warn("rate limiter '{}' failed to lease permits for period {}", name, leased.period, throwable);
+                // 실패한 호출을 남겨 두어 nextLeaseAt 까지는 저장소를 다시 부르지 않는다
+                leased.nextLeaseAt = System.nanoTime() + leasingConfig.getLeaseRetryInterval().toNanos();
+                refill.completeExceptionally(throwable);
+            }
+        });
+        return refill;
+    }
+
+    private boolean await(LeasedPermits leased, CompletableFuture<Integer> refill, long timeoutNanos) {
+        if (refill == null) {
+            LockSupport.parkNanos(timeoutNanos);
+            return !Thread.currentThread().isInterrupted();
+        }
+
+        long deadline = System.nanoTime() + timeoutNanos;
+        try {
+            refill.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ignored) {
+            // 다음 반복에서 남은 permit 과 시간을 다시 확인한다
+        } catch (ExecutionException exception) {
+            // 실패한 저장소를 곧바로 다시 부르지 않는다
+            long now = System.nanoTime();
+            long backOffNanos = Math.min(deadline - now, leased.nextLeaseAt - now);
+            if (backOffNanos > 0) {
+                LockSupport.parkNanos(backOffNanos);
+            }
+            return !Thread.currentThread().isInterrupted();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return true;
+    }
+
+    private void publishRateLimiterEvent(RateLimiterEvent event) {
+        if (eventProcessor.hasConsumers()) {
+            eventProcessor.consumeEvent(event);
+        }
+    }
+
+    @Override
+    public void changeTimeoutDuration(Duration timeoutDuration) {
+        config = RateLimiterConfig.from(config)
+                .timeoutDuration(timeoutDuration)
+                .build();
+    }
+
+    @Override
+    public void changeLimitForPeriod(int limitForPeriod) {
+        config = RateLimiterConfig.from(config)
+                .limitForPeriod(limitForPeriod)
+                .build();
+    }
+
+    /**
+     * 로컬에 빌려온 permit 만 버린다. 저장소에 돌려주지는 않는다.
+     */
+    @Override
+    public void drainPermissions() {
+        current.get().remaining.set(0);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public RateLimiterConfig getRateLimiterConfig() {
+        return config;
+    }
+
+    public LeasingConfig getLeasingConfig() {
+        return leasingConfig;
+    }
+
+    @Override
+    public Map<String, String> getTags() {
+        return tags;
+    }
+
+    @Override
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public EventPublisher getEventPublisher() {
+        return eventProcessor;
+    }
+
+    private static class LeasedPermits {
+
+        private final long period;
+
+        private final AtomicInteger remaining = new AtomicInteger();
+
+        private final AtomicReference<CompletableFuture<Integer>> refill = new AtomicReference<>();
+
+        private volatile boolean exhausted;
+
+        // 저장소 호출이 실패하면 이 시각(System.nanoTime)까지 다시 부르지 않는다
+        private volatile long nextLeaseAt;
+
+        LeasedPermits(long period) {
+            this.period = period;
+        }
+
+        boolean tryTake(int permits) {
+            while (true) {
+                int current = remaining.get();
+                if (current < permits) {
+                    return false;
+                }
+                if (remaining.compareAndSet(current, current - permits)) {
+                    return true;
+                }
+            }
+        }
+    }
+
+    private class DistributedRateLimiterMetrics implements Metrics {
+
+        @Override
+        public int getNumberOfWaitingThreads() {
+            return waitingThreads.get();
+        }
+
+        /**
+         * 이 노드가 빌려와 아직 쓰지 않은 permit 수.
+         */
+        @Override
+        public int getAvailablePermissions() {
+            return current.get().remaining.get();
+        }
+    }
+
+    private class DistributedRateLimiterEventProcessor extends EventProcessor<RateLimiterEvent>
+            implements EventPublisher, EventConsumer<RateLimiterEvent> {
+
+        @Override
+        public EventPublisher onSuccess(EventConsumer<RateLimiterOnSuccessEvent> onSuccessEventConsumer) {
+            registerConsumer(RateLimiterOnSuccessEvent.class.getName(), onSuccessEventConsumer);
+            return this;
+        }
+
+        @Override
+        public EventPublisher onFailure(EventConsumer<RateLimiterOnFailureEvent> onFailureEventConsumer) {
+            registerConsumer(RateLimiterOnFailureEvent.class.getName(), onFailureEventConsumer);
+            return this;
+        }
+
+        @Override
+        public void consumeEvent(RateLimiterEvent event) {
+            super.processEvent(event);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package raccoonback.ratelimiter;
+
+import io.github.resilience4j.core.EventConsumer;
+import io.github.resilience4j.core.EventProcessor;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.event.RateLimiterEvent;
+import io.github.resilience4j.ratelimiter.event.RateLimiterOnDrainedEvent;
+import io.github.resilience4j.ratelimiter.event.RateLimiterOnFailureEvent;
+import io.github.resilience4j.ratelimiter.event.RateLimiterOnSuccessEvent;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * GCRA(Generic Cell Rate Algorithm)로 동작하는 {@link RateLimiter}.
+ * <p>
+ * {@code limitRefreshPeriod / limitForPeriod} 마다 permit 이 하나씩 생기는 것으로 보고, 다음 permit 이 생길 이론상의 시각(TAT) 하나만
+ * {@link AtomicLong} 에 둔다. 구간이 바뀔 때 {@code limitForPeriod} 만큼 한꺼번에 채우는 기본 rate limiter 와 달리 호출이 고르게 퍼지며,
+ * 쉬고 있던 동안에는 {@code burstSize} 개까지만 연달아 호출할 수 있다.
+ * <p>
+ * permit 을 받을 수 있는지 계산하고 TAT 를 옮기는 일은 CAS 한 번이고, 기다려야 하는 호출도 TAT 를 먼저 옮겨 순서를 예약한 뒤 기다린다.
+ */
+public class GcraRateLimiter implements RateLimiter {
+
+    private final String name;
+
+    private final Map<String, String> tags;
+
+    private final int burstSize;
+
+    private final long origin = System.nanoTime();
+
+    private final AtomicLong theoreticalArrivalTime = new AtomicLong();
+
+    private final AtomicInteger waitingThreads = new AtomicInteger();
+
+    private volatile Rate rate;
+
+    private final GcraRateLimiterMetrics metrics = new GcraRateLimiterMetrics();
+
+    private final GcraRateLimiterEventProcessor eventProcessor = new GcraRateLimiterEventProcessor();
+
+    private GcraRateLimiter(String name, RateLimiterConfig config, int burstSize, Map<String, String> tags) {
+        if (burstSize < 1) {
+            throw new IllegalArgumentException("burstSize must be greater than 0");
+        }
+        this.name = name;
+        this.tags = tags;
+        this.burstSize = burstSize;
+        this.rate = new Rate(config, burstSize);
+    }
+
+    public static GcraRateLimiter ofDefaults(String name) {
+        return of(name, RateLimiterConfig.ofDefaults());
+    }
+
+    /**
+     * 쉬고 있었다면 {@code limitForPeriod} 개까지 연달아 호출할 수 있다.
+     */
+    public static GcraRateLimiter of(String name, RateLimiterConfig config) {
+        return of(name, config, config.getLimitForPeriod());
+    }
+
+    public static GcraRateLimiter of(String name, RateLimiterConfig config, int burstSize) {
+        return new GcraRateLimiter(name, config, burstSize, Collections.emptyMap());
+    }
+
+    @Override
+    public boolean acquirePermission(int permits) {
+        long waitInNanos = reserve(permits, rate.config.getTimeoutDuration().toNanos());
+        boolean permitted = waitInNanos == 0 || waitInNanos > 0 && waitFor(waitInNanos);
+        publishAcquisitionEvent(permitted, permits);
+        return permitted;
+    }
+
+    /**
+     * permit 을 예약하고, 호출하기 전에 기다려야 할 시간(nanos)을 돌려준다. 기다려야 할 시간이 {@code timeoutDuration} 을 넘으면 예약하지 않고 -1 을 돌려준다.
+     */
+    @Override
+    public long reservePermission(int permits) {
+        long waitInNanos = reserve(permits, rate.config.getTimeoutDuration().toNanos());
+        publishAcquisitionEvent(waitInNanos >= 0, permits);
+        return waitInNanos;
+    }
+
+    private long reserve(int permits, long timeoutInNanos) {
+        Rate rate = this.rate;
+        long increment = rate.emissionIntervalInNanos * permits;
+        while (true) {
+            long now = System.nanoTime() - origin;
+            long tat = theoreticalArrivalTime.get();
+            long newTat = Math.max(tat, now) + increment;
+            long waitInNanos = Math.max(0, newTat - rate.burstToleranceInNanos - now);
+            if (waitInNanos > timeoutInNanos) {
+                return -1;
+            }
+            if (theoreticalArrivalTime.compareAndSet(tat, newTat)) {
+                return waitInNanos;
+            }
+        }
+    }
+
+    private boolean waitFor(long waitInNanos) {
+        waitingThreads.incrementAndGet();
+        try {
+            long deadline = System.nanoTime() + waitInNanos;
+            long remaining = waitInNanos;
+            while (remaining > 0) {
+                LockSupport.parkNanos(this, remaining);
+                if (Thread.currentThread().isInterrupted()) {
+                    return false;
+                }
+                remaining = deadline - System.nanoTime();
+            }
+            return true;
+        } finally {
+            waitingThreads.decrementAndGet();
+        }
+    }
+
+    /**
+     * 이벤트 객체는 생성 시각을 읽으므로 consumer 가 있을 때만 만든다.
+     */
+    private void publishAcquisitionEvent(boolean permitted, int permits) {
+        if (!eventProcessor.hasConsumers()) {
+            return;
+        }
+        if (permitted) {
+            eventProcessor.consumeEvent(new RateLimiterOnSuccessEvent(name, permits));
+        } else {
+            eventProcessor.consumeEvent(new RateLimiterOnFailureEvent(name, permits));
+        }
+    }
+
+    @Override
+    public void changeTimeoutDuration(Duration timeoutDuration) {
+        rate = new Rate(
+                RateLimiterConfig.from(rate.config)
+                        .timeoutDuration(timeoutDuration)
+                        .build(),
+                burstSize
+        );
+    }
+
+    @Override
+    public void changeLimitForPeriod(int limitForPeriod) {
+        rate = new Rate(
+                RateLimiterConfig.from(rate.config)
+                        .limitForPeriod(limitForPeriod)
+                        .build(),
+                burstSize
+        );
+    }
+
+    /**
+     * 남은 burst 를 모두 써버린 상태로 만든다.
+     */
+    @Override
+    public void drainPermissions() {
+        Rate rate = this.rate;
+        long drainedTat = System.nanoTime() - origin + rate.burstToleranceInNanos;
+        theoreticalArrivalTime.accumulateAndGet(drainedTat, Math::max);
+        if (eventProcessor.hasConsumers()) {
+            eventProcessor.consumeEvent(new RateLimiterOnDrainedEvent(name, burstSize));
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public RateLimiterConfig getRateLimiterConfig() {
+        return rate.config;
+    }
+
+    @Override
+    public Map<String, String> getTags() {
+        return tags;
+    }
+
+    @Override
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public EventPublisher getEventPublisher() {
+        return eventProcessor;
+    }
+
+    /**
+     * 설정에서 계산한 permit 간격. 설정을 바꾸면 새 객체로 바꿔 끼운다.
+     */
+    private static class Rate {
+
+        private final RateLimiterConfig config;
+
+        private final long emissionIntervalInNanos;
+
+        private final long burstToleranceInNanos;
+
+        Rate(RateLimiterConfig config, int burstSize) {
+            this.config = config;
+            this.emissionIntervalInNanos = Math.max(1, config.getLimitRefreshPeriod().toNanos() / config.getLimitForPeriod());
+            this.burstToleranceInNanos = emissionIntervalInNanos * burstSize;
+        }
+    }
+
+    private class GcraRateLimiterMetrics implements Metrics {
+
+        @Override
+        public int getNumberOfWaitingThreads() {
+            return waitingThreads.get();
+        }
+
+        /**
+         * 지금 기다리지 않고 받을 수 있는 permit 수. 이미 예약된 permit 이 있으면 음수이다.
+         */
+        @Override
+        public int getAvailablePermissions() {
+            Rate rate = GcraRateLimiter.this.rate;
+            long now = System.nanoTime() - origin;
+            long tat = Math.max(theoreticalArrivalTime.get(), now);
+            return (int) Math.floorDiv(now + rate.burstToleranceInNanos - tat, rate.emissionIntervalInNanos);
+        }
+    }
+
+    private class GcraRateLimiterEventProcessor extends EventProcessor<RateLimiterEvent>
+            implements EventPublisher, EventConsumer<RateLimiterEvent> {
+
+        @Override
+        public EventPublisher onSuccess(EventConsumer<RateLimiterOnSuccessEvent> onSuccessEventConsumer) {
+            registerConsumer(RateLimiterOnSuccessEvent.class.getName(), onSuccessEventConsumer);
+            return this;
+        }
+
+        @Override
+        public EventPublisher onFailure(EventConsumer<RateLimiterOnFailureEvent> onFailureEventConsumer) {
+            registerConsumer(RateLimiterOnFailureEvent.class.getName(), onFailureEventConsumer);
+            return this;
+        }
+
+        @Override
+        public void consumeEvent(RateLimiterEvent event) {
+            super.processEvent(event);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package raccoonback.ratelimiter;
+
+import java.time.Duration;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 한 JVM 안에서 여러 노드를 흉내낼 때 쓰는 {@link PermitStore}. {@code latency} 를 주면 원격 저장소처럼 그만큼 늦게 응답한다.
+ */
+public class InMemoryPermitStore implements PermitStore {
+
+    private final ConcurrentMap<String, PeriodPermits> permits = new ConcurrentHashMap<>();
+
+    private final Executor responseExecutor;
+
+    private InMemoryPermitStore(Executor responseExecutor) {
+        this.responseExecutor = responseExecutor;
+    }
+
+    public static InMemoryPermitStore create() {
+        return new InMemoryPermitStore(Runnable::run);
+    }
+
+    public static InMemoryPermitStore withLatency(Duration latency) {
+        return new InMemoryPermitStore(CompletableFuture.delayedExecutor(latency.toNanos(), TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public CompletionStage<Integer> lease(String name, long period, int limitForPeriod, int requestedPermits) {
+        return CompletableFuture.supplyAsync(
+                () -> permits.computeIfAbsent(name, unUsed -> new PeriodPermits())
+                        .lease(period, limitForPeriod, requestedPermits),
+                responseExecutor
+        );
+    }
+
+    private static class PeriodPermits {
+
+        private final TreeMap<Long, Integer> leasedPermits = new TreeMap<>();
+
+        synchronized int lease(long period, int limitForPeriod, int requestedPermits) {
+            // 다음 구간을 미리 가져가는 노드가 있으므로 바로 이전 구간까지만 남긴다
+            leasedPermits.headMap(period - 1).clear();
+
+            int leased = leasedPermits.getOrDefault(period, 0);
+            int granted = Math.max(0, Math.min(requestedPermits, limitForPeriod - leased));
+            leasedPermits.put(period, leased + granted);
+            return granted;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package raccoonback.ratelimiter;
+
+import java.time.Clock;
+import java.time.Duration;
+
+public class LeasingConfig {
+
+    private final int leaseSize;
+
+    private final double refillThreshold;
+
+    private final double prefetchThreshold;
+
+    private final Duration leaseRetryInterval;
+
+    private final Clock clock;
+
+    private LeasingConfig(Builder builder) {
+        this.leaseSize = builder.leaseSize;
+        this.refillThreshold = builder.refillThreshold;
+        this.prefetchThreshold = builder.prefetchThreshold;
+        this.leaseRetryInterval = builder.leaseRetryInterval;
+        this.clock = builder.clock;
+    }
+
+    public static LeasingConfig ofDefaults() {
+        return custom().build();
+    }
+
+    public static Builder custom() {
+        return new Builder();
+    }
+
+    public int getLeaseSize() {
+        return leaseSize;
+    }
+
+    public double getRefillThreshold() {
+        return refillThreshold;
+    }
+
+    public double getPrefetchThreshold() {
+        return prefetchThreshold;
+    }
+
+    public Duration getLeaseRetryInterval() {
+        return leaseRetryInterval;
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    public static class Builder {
+
+        private int leaseSize = 10;
+
+        private double refillThreshold = 0.5;
+
+        private double prefetchThreshold = 0.8;
+
+        private Duration leaseRetryInterval = Duration.ofMillis(100);
+
+        private Clock clock = Clock.systemUTC();
+
+        /**
+         * 저장소에서 한 번에 가져올 permit 수. 클수록 저장소 호출이 줄지만, 구간이 끝날 때 쓰지 못하고 버려지는 permit 이 늘어난다.
+         */
+        public Builder leaseSize(int leaseSize) {
+            if (leaseSize < 1) {
+                throw new IllegalArgumentException("leaseSize must be greater than 0");
+            }
+            this.leaseSize = leaseSize;
+            return this;
+        }
+
+        /**
+         * 가져온 permit 이 leaseSize 의 이 비율 아래로 남으면 다 쓰기 전에 미리 더 가져온다.
+         */
+        public Builder refillThreshold(double refillThreshold) {
+            if (refillThreshold < 0 || refillThreshold >= 1) {
+                throw new IllegalArgumentException("refillThreshold must be between 0 and 1");
+            }
+            this.refillThreshold = refillThreshold;
+            return this;
+        }
+
+        /**
+         * 구간이 이 비율만큼 지나면 다음 구간의 permit 을 미리 가져온다.
+         */
+        public Builder prefetchThreshold(double prefetchThreshold) {
+            if (prefetchThreshold <= 0 || prefetchThreshold >= 1) {
+                throw new IllegalArgumentException("prefetchThreshold must be between 0 and 1");
+            }
+            this.prefetchThreshold = prefetchThreshold;
+            return this;
+        }
+
+        /**
+         * 저장소에서 빌려오지 못했을 때, permit 을 기다리는 호출이 저장소를 다시 부르기 전에 기다리는 시간.
+         */
+        public Builder leaseRetryInterval(Duration leaseRetryInterval) {
+            if (leaseRetryInterval.isNegative() || leaseRetryInterval.isZero()) {
+                throw new IllegalArgumentException("leaseRetryInterval must be positive");
+            }
+            this.leaseRetryInterval = leaseRetryInterval;
+            return this;
+        }
+
+        /**
+         * 구간은 epoch 기준으로 나누므로 모든 노드의 시계가 맞아야 한다.
+         */
+        public Builder clock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public LeasingConfig build() {
+            return new LeasingConfig(this);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package raccoonback.ratelimiter;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * 여러 노드가 나누어 쓰는 rate limiter 의 permit 저장소. 보통 Redis 같은 원격 저장소에 구현한다.
+ */
+public interface PermitStore {
+
+    /**
+     * {@code name} 의 {@code period} 번째 구간에 남은 permit 중 최대 {@code requestedPermits} 개를 가져간다.
+     * 한 구간에 모든 노드가 가져간 permit 의 합은 {@code limitForPeriod} 를 넘지 않아야 한다.
+     *
+     * @return 가져간 permit 수. 남은 permit 이 없다면 0
+     */
+    CompletionStage<Integer> lease(String name, long period, int limitForPeriod, int requestedPermits);
+}
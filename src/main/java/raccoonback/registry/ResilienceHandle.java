@@ -0,0 +1,85 @@
+package raccoonback.registry;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.decorators.Decorators;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.retry.Retry;
+
+import java.util.function.Supplier;
+
+/**
+ * backend 하나에 쓰는 circuit breaker, bulkhead, rate limiter, retry 를 이름으로 한 번 찾아 묶어 둔 handle.
+ * <p>
+ * 만든 뒤에는 바뀌지 않으므로 필드에 들고 있으면 호출마다 registry 를 찾지 않는다. 이후 registry 에서 같은 이름을
+ * {@code replace} 하거나 {@code remove} 해도 이 handle 은 처음 찾은 인스턴스를 계속 쓴다.
+ */
+public final class ResilienceHandle {
+
+    private final int index;
+
+    private final String name;
+
+    private final CircuitBreaker circuitBreaker;
+
+    private final Bulkhead bulkhead;
+
+    private final RateLimiter rateLimiter;
+
+    private final Retry retry;
+
+    ResilienceHandle(
+            int index,
+            String name,
+            CircuitBreaker circuitBreaker,
+            Bulkhead bulkhead,
+            RateLimiter rateLimiter,
+            Retry retry
+    ) {
+        this.index = index;
+        this.name = name;
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+        this.rateLimiter = rateLimiter;
+        this.retry = retry;
+    }
+
+    /**
+     * circuit breaker, bulkhead, rate limiter, retry 순서로 감싼다. 호출마다 새로 감싸지 말고 돌려받은 supplier 를 재사용한다.
+     */
+    public <T> Supplier<T> decorateSupplier(Supplier<T> supplier) {
+        return Decorators.ofSupplier(supplier)
+                .withCircuitBreaker(circuitBreaker)
+                .withBulkhead(bulkhead)
+                .withRateLimiter(rateLimiter)
+                .withRetry(retry)
+                .decorate();
+    }
+
+    /**
+     * {@link ResilienceRegistry#handle(int)} 로 다시 찾을 때 쓰는 번호. 0 부터 찾은 순서대로 붙는다.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public Bulkhead getBulkhead() {
+        return bulkhead;
+    }
+
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    public Retry getRetry() {
+        return retry;
+    }
+}
@@ -0,0 +1,122 @@
+package raccoonback.registry;
+
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.retry.RetryRegistry;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 이름을 {@link ResilienceHandle} 로 한 번만 바꾸고, 이후에는 handle 이나 그 번호로 찾게 하는 registry.
+ * <p>
+ * {@code registry.circuitBreaker("backendService")} 는 호출마다 이름을 hash 해 {@code ConcurrentHashMap} 을 찾는다.
+ * {@link #resolve(String)} 은 처음 한 번만 네 registry 를 찾고, 같은 이름에는 같은 handle 을 돌려준다.
+ * 호출 경로에서는 handle 을 필드에 들고 쓰거나, 필드에 이름 대신 번호를 들고 있다가 {@link #handle(int)} 로 배열에서 꺼낸다.
+ * <pre>{@code
+ * private final ResilienceHandle backendService = registry.resolve("backendService");
+ * ...
+ * backendService.getCircuitBreaker().executeSupplier(supplier);
+ * }</pre>
+ */
+public class ResilienceRegistry {
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+
+    private final BulkheadRegistry bulkheadRegistry;
+
+    private final RateLimiterRegistry rateLimiterRegistry;
+
+    private final RetryRegistry retryRegistry;
+
+    private final Map<String, ResilienceHandle> handlesByName = new HashMap<>();
+
+    // resolve 할 때만 lock 을 잡고 새 배열로 바꾼다. 읽는 쪽은 volatile 읽기와 배열 접근 한 번이다
+    private volatile ResilienceHandle[] handles = new ResilienceHandle[0];
+
+    private ResilienceRegistry(
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            BulkheadRegistry bulkheadRegistry,
+            RateLimiterRegistry rateLimiterRegistry,
+            RetryRegistry retryRegistry
+    ) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.rateLimiterRegistry = rateLimiterRegistry;
+        this.retryRegistry = retryRegistry;
+    }
+
+    public static ResilienceRegistry ofDefaults() {
+        return of(
+                CircuitBreakerRegistry.ofDefaults(),
+                BulkheadRegistry.ofDefaults(),
+                RateLimiterRegistry.ofDefaults(),
+                RetryRegistry.ofDefaults()
+        );
+    }
+
+    public static ResilienceRegistry of(
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            BulkheadRegistry bulkheadRegistry,
+            RateLimiterRegistry rateLimiterRegistry,
+            RetryRegistry retryRegistry
+    ) {
+        return new ResilienceRegistry(circuitBreakerRegistry, bulkheadRegistry, rateLimiterRegistry, retryRegistry);
+    }
+
+    /**
+     * 처음 찾는 이름이면 각 registry 에서 같은 이름의 인스턴스를 찾거나 만들어 handle 로 묶는다.
+     */
+    public synchronized ResilienceHandle resolve(String name) {
+        ResilienceHandle handle = handlesByName.get(name);
+        if (handle != null) {
+            return handle;
+        }
+
+        ResilienceHandle[] current = handles;
+        handle = new ResilienceHandle(
+                current.length,
+                name,
+                circuitBreakerRegistry.circuitBreaker(name),
+                bulkheadRegistry.bulkhead(name),
+                rateLimiterRegistry.rateLimiter(name),
+                retryRegistry.retry(name)
+        );
+        ResilienceHandle[] next = Arrays.copyOf(current, current.length + 1);
+        next[handle.getIndex()] = handle;
+        handlesByName.put(name, handle);
+        handles = next;
+        return handle;
+    }
+
+    /**
+     * {@link ResilienceHandle#getIndex()} 로 handle 을 꺼낸다.
+     *
+     * @throws ArrayIndexOutOfBoundsException 이 registry 가 만든 적 없는 번호일 때
+     */
+    public ResilienceHandle handle(int index) {
+        return handles[index];
+    }
+
+    public int size() {
+        return handles.length;
+    }
+
+    public CircuitBreakerRegistry getCircuitBreakerRegistry() {
+        return circuitBreakerRegistry;
+    }
+
+    public BulkheadRegistry getBulkheadRegistry() {
+        return bulkheadRegistry;
+    }
+
+    public RateLimiterRegistry getRateLimiterRegistry() {
+        return rateLimiterRegistry;
+    }
+
+    public RetryRegistry getRetryRegistry() {
+        return retryRegistry;
+    }
+}
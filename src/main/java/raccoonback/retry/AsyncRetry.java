@@ -0,0 +1,136 @@
+package raccoonback.retry;
+
+import io.github.resilience4j.retry.Retry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * {@link Retry#decorateCompletionStage(Retry, java.util.concurrent.ScheduledExecutorService, Supplier)} 와 같게 재시도하되,
+ * 다음 시도를 {@link HashedWheelTimer} 에 예약한다.
+ * <p>
+ * 기다리는 동안 스레드를 잡고 있지 않고, 재시도마다 {@code ScheduledExecutorService} 의 heap 에 작업을 넣지도 않는다.
+ * 재시도 중인 호출이 수천 개여도 timer 스레드 하나가 모두 처리한다. 다음 시도의 supplier 는 timer 스레드에서 호출되므로
+ * {@code withThreadPoolBulkhead} 처럼 바로 {@link CompletionStage} 를 돌려주는 supplier 를 감싸야 한다.
+ * <pre>{@code
+ * Supplier<CompletionStage<String>> supplier = Decorators.ofSupplier(() -> backendService.doSomething())
+ *         .withThreadPoolBulkhead(threadPoolBulkhead)
+ *         .decorate();
+ * AsyncRetry.decorateCompletionStage(retry, supplier).get();
+ * }</pre>
+ */
+public final class AsyncRetry {
+
+    private AsyncRetry() {
+    }
+
+    /**
+     * {@link HashedWheelTimer#shared()} 에 재시도를 예약한다.
+     */
+    public static <T> Supplier<CompletionStage<T>> decorateCompletionStage(
+            Retry retry,
+            Supplier<CompletionStage<T>> supplier
+    ) {
+        return decorateCompletionStage(retry, HashedWheelTimer.shared(), supplier);
+    }
+
+    public static <T> Supplier<CompletionStage<T>> decorateCompletionStage(
+            Retry retry,
+            HashedWheelTimer timer,
+            Supplier<CompletionStage<T>> supplier
+    ) {
+        return () -> executeCompletionStage(retry, timer, supplier);
+    }
+
+    public static <T> CompletionStage<T> executeCompletionStage(
+            Retry retry,
+            HashedWheelTimer timer,
+            Supplier<CompletionStage<T>> supplier
+    ) {
+        RetryingCall<T> call = new RetryingCall<>(retry.asyncContext(), timer, supplier);
+        call.run();
+        return call.result;
+    }
+
+    private static class RetryingCall<T> implements Runnable {
+
+        private final Retry.AsyncContext<T> context;
+
+        private final HashedWheelTimer timer;
+
+        private final Supplier<CompletionStage<T>> supplier;
+
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        RetryingCall(Retry.AsyncContext<T> context, HashedWheelTimer timer, Supplier<CompletionStage<T>> supplier) {
+            this.context = context;
+            this.timer = timer;
+            this.supplier = supplier;
+        }
+
+        @Override
+        public void run() {
+            CompletionStage<T> stage;
+            try {
+                stage = supplier.get();
+            } catch (Throwable throwable) {
+                onError(throwable);
+                return;
+            }
+
+            stage.whenComplete((value, throwable) -> {
+                if (throwable != null) {
+                    onError(throwable);
+                } else {
+                    onResult(value);
+                }
+            });
+        }
+
+        private void onError(Throwable throwable) {
+            long delay;
+            try {
+                delay = context.onError(throwable);
+            } catch (RuntimeException exception) {
+                // interval function 이 던진 예외
+                result.completeExceptionally(exception);
+                return;
+            }
+            if (delay < 1) {
+                result.completeExceptionally(throwable);
+            } else {
+                retryAfter(delay);
+            }
+        }
+
+        private void onResult(T value) {
+            long delay;
+            try {
+                delay = context.onResult(value);
+            } catch (RuntimeException exception) {
+                result.completeExceptionally(exception);
+                return;
+            }
+            if (delay < 1) {
+                try {
+                    context.onComplete();
+                    result.complete(value);
+                } catch (Exception exception) {
+                    result.completeExceptionally(exception);
+                }
+            } else {
+                retryAfter(delay);
+            }
+        }
+
+        private void retryAfter(long delayInMillis) {
+            try {
+                timer.schedule(this, delayInMillis, TimeUnit.MILLISECONDS);
+            } catch (IllegalStateException exception) {
+                result.completeExceptionally(exception);
+            }
+        }
+    }
+}
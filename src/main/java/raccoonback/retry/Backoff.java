@@ -0,0 +1,96 @@
+package raccoonback.retry;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.core.IntervalFunction;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * {@link io.github.resilience4j.retry.RetryConfig.Builder#intervalFunction(IntervalFunction)} 에 넘기는 재시도 간격.
+ * <p>
+ * 같은 순간에 실패한 호출이 고정된 {@code waitDuration} 뒤에 한꺼번에 다시 몰리지 않도록 대기 시간을 무작위로 흩뜨린다.
+ * 대기 시간은 항상 1ms 이상이다. async retry 는 0 을 재시도하지 않는다는 뜻으로 쓰기 때문이다.
+ * <pre>{@code
+ * RetryConfig.custom()
+ *         .intervalFunction(Backoff.latencyAware(Backoff.fullJitter(base, cap), circuitBreaker, 4))
+ *         .build();
+ * }</pre>
+ */
+public final class Backoff {
+
+    private static final int DECORRELATED_MULTIPLIER = 3;
+
+    private Backoff() {
+    }
+
+    /**
+     * {@code [1ms, min(cap, base * 2^(attempt - 1))]} 에서 고르게 고른다.
+     */
+    public static IntervalFunction fullJitter(Duration base, Duration cap) {
+        long baseInMillis = toMillis(base, "base");
+        long capInMillis = toMillis(cap, "cap");
+        return (numOfAttempts) -> {
+            long upperInMillis = exponential(baseInMillis, numOfAttempts, capInMillis);
+            return ThreadLocalRandom.current().nextLong(1, upperInMillis + 1);
+        };
+    }
+
+    /**
+     * {@code [base, min(cap, previous * 3)]} 에서 고르게 고른다.
+     * <p>
+     * interval function 은 호출마다 상태를 가질 수 없으므로 이전 대기 시간 대신 이전 시도 구간의 중간값을 쓴다.
+     * 시도마다 구간이 대략 1.5배씩 넓어지며, 구간의 아래쪽이 {@code base} 로 고정되어 있어 같은 시도 횟수의 호출끼리도 대기 시간이 넓게 퍼진다.
+     */
+    public static IntervalFunction decorrelatedJitter(Duration base, Duration cap) {
+        long baseInMillis = toMillis(base, "base");
+        long capInMillis = toMillis(cap, "cap");
+        if (baseInMillis > capInMillis) {
+            throw new IllegalArgumentException("base must be less than or equal to cap");
+        }
+        return (numOfAttempts) -> {
+            long previousInMillis = baseInMillis;
+            long upperInMillis = Math.min(capInMillis, previousInMillis * DECORRELATED_MULTIPLIER);
+            for (int attempt = 1; attempt < numOfAttempts && upperInMillis < capInMillis; attempt++) {
+                previousInMillis = (baseInMillis + upperInMillis) / 2;
+                upperInMillis = Math.min(capInMillis, previousInMillis * DECORRELATED_MULTIPLIER);
+            }
+            return ThreadLocalRandom.current().nextLong(baseInMillis, upperInMillis + 1);
+        };
+    }
+
+    /**
+     * circuit breaker 의 slow call 비율에 비례해 {@code intervalFunction} 의 대기 시간을 최대 {@code maxMultiplier} 배까지 늘린다.
+     * <p>
+     * backend 가 느려지기 시작하면 circuit breaker 가 열리기 전부터 재시도를 늦춰 밀린 요청이 빠질 시간을 준다.
+     * 최소 호출 수가 쌓이지 않아 slow call 비율이 없으면 {@code intervalFunction} 을 그대로 쓴다.
+     */
+    public static IntervalFunction latencyAware(IntervalFunction intervalFunction, CircuitBreaker circuitBreaker, double maxMultiplier) {
+        if (maxMultiplier < 1) {
+            throw new IllegalArgumentException("maxMultiplier must be greater than or equal to 1");
+        }
+        return (numOfAttempts) -> {
+            long intervalInMillis = intervalFunction.apply(numOfAttempts);
+            float slowCallRate = circuitBreaker.getMetrics().getSlowCallRate();
+            if (slowCallRate <= 0) {
+                return intervalInMillis;
+            }
+            double multiplier = 1 + (maxMultiplier - 1) * Math.min(slowCallRate, 100) / 100;
+            return Math.max(1, Math.round(intervalInMillis * multiplier));
+        };
+    }
+
+    private static long exponential(long baseInMillis, int numOfAttempts, long capInMillis) {
+        // 부호 비트를 넘기지 않을 만큼만 민다
+        int shift = Math.max(0, Math.min(numOfAttempts - 1, Long.numberOfLeadingZeros(baseInMillis) - 1));
+        return Math.min(capInMillis, baseInMillis << shift);
+    }
+
+    private static long toMillis(Duration duration, String name) {
+        long millis = duration.toMillis();
+        if (millis < 1) {
+            throw new IllegalArgumentException(name + " must be at least 1ms");
+        }
+        return millis;
+    }
+}
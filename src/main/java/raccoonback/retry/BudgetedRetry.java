@@ -0,0 +1,151 @@
+package raccoonback.retry;
+
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 호출을 시작할 때마다 {@link RetryBudget} 에 token 을 넣는 retry.
+ * <p>
+ * 재시도 여부는 {@link RetryBudget#decorate(RetryConfig)} 로 만든 설정의 delegate 가 정한다. 이 클래스는 시도 횟수를 세어
+ * 마지막 시도의 실패에는 token 을 꺼내지 않도록 표시한다.
+ */
+class BudgetedRetry implements Retry {
+
+    private final Retry delegate;
+
+    private final RetryBudget budget;
+
+    private final int maxAttempts;
+
+    BudgetedRetry(Retry delegate, RetryBudget budget) {
+        this.delegate = delegate;
+        this.budget = budget;
+        this.maxAttempts = delegate.getRetryConfig().getMaxAttempts();
+    }
+
+    RetryBudget getBudget() {
+        return budget;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public <T> Context<T> context() {
+        budget.onFirstAttempt();
+        return new BudgetedContext<>(delegate.context());
+    }
+
+    @Override
+    public <T> AsyncContext<T> asyncContext() {
+        budget.onFirstAttempt();
+        return new BudgetedAsyncContext<>(delegate.asyncContext());
+    }
+
+    @Override
+    public RetryConfig getRetryConfig() {
+        return delegate.getRetryConfig();
+    }
+
+    @Override
+    public Map<String, String> getTags() {
+        return delegate.getTags();
+    }
+
+    @Override
+    public EventPublisher getEventPublisher() {
+        return delegate.getEventPublisher();
+    }
+
+    @Override
+    public Metrics getMetrics() {
+        return delegate.getMetrics();
+    }
+
+    private class BudgetedContext<T> implements Context<T> {
+
+        private final Context<T> context;
+
+        private final AtomicInteger attempts = new AtomicInteger();
+
+        BudgetedContext(Context<T> context) {
+            this.context = context;
+        }
+
+        @Override
+        public void onComplete() {
+            context.onComplete();
+        }
+
+        @Override
+        public boolean onResult(T result) {
+            RetryBudget.markLastAttempt(attempts.incrementAndGet() >= maxAttempts);
+            try {
+                return context.onResult(result);
+            } finally {
+                RetryBudget.markLastAttempt(false);
+            }
+        }
+
+        @Override
+        public void onError(Exception exception) throws Exception {
+            RetryBudget.markLastAttempt(attempts.incrementAndGet() >= maxAttempts);
+            try {
+                context.onError(exception);
+            } finally {
+                RetryBudget.markLastAttempt(false);
+            }
+        }
+
+        @Override
+        public void onRuntimeError(RuntimeException runtimeException) {
+            RetryBudget.markLastAttempt(attempts.incrementAndGet() >= maxAttempts);
+            try {
+                context.onRuntimeError(runtimeException);
+            } finally {
+                RetryBudget.markLastAttempt(false);
+            }
+        }
+    }
+
+    private class BudgetedAsyncContext<T> implements AsyncContext<T> {
+
+        private final AsyncContext<T> context;
+
+        private final AtomicInteger attempts = new AtomicInteger();
+
+        BudgetedAsyncContext(AsyncContext<T> context) {
+            this.context = context;
+        }
+
+        @Override
+        public void onComplete() {
+            context.onComplete();
+        }
+
+        @Override
+        public long onError(Throwable throwable) {
+            RetryBudget.markLastAttempt(attempts.incrementAndGet() >= maxAttempts);
+            try {
+                return context.onError(throwable);
+            } finally {
+                RetryBudget.markLastAttempt(false);
+            }
+        }
+
+        @Override
+        public long onResult(T result) {
+            RetryBudget.markLastAttempt(attempts.incrementAndGet() >= maxAttempts);
+            try {
+                return context.onResult(result);
+            } finally {
+                RetryBudget.markLastAttempt(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package raccoonback.retry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 스레드 하나로 많은 지연 작업을 실행하는 hashed timing wheel.
+ * <p>
+ * wheel 은 {@code tickDuration} 간격의 bucket 이 {@code ticksPerWheel} 개 있는 원형 배열이다. {@link #schedule(Runnable, long, TimeUnit)} 는
+ * 작업을 queue 에 넣기만 하고(O(1)), timer 스레드가 tick 마다 queue 의 작업을 실행할 bucket 으로 옮긴 뒤 현재 bucket 에서 만료된 작업을 실행한다.
+ * 한 바퀴보다 먼 작업은 남은 바퀴 수를 세며 bucket 에 머문다.
+ * <p>
+ * 작업은 예정 시각보다 최대 {@code tickDuration} 늦게 실행될 수 있고, timer 스레드에서 실행되므로 오래 걸리지 않아야 한다.
+ */
+public class HashedWheelTimer implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HashedWheelTimer.class);
+
+    private static final Duration DEFAULT_TICK_DURATION = Duration.ofMillis(10);
+
+    private static final int DEFAULT_TICKS_PER_WHEEL = 512;
+
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private final String name;
+
+    private final long tickInNanos;
+
+    private final Bucket[] wheel;
+
+    private final int mask;
+
+    private final long startTime = System.nanoTime();
+
+    private final Queue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong numberOfPendingTimeouts = new AtomicLong();
+
+    private final Thread workerThread;
+
+    private volatile boolean running = true;
+
+    private long tick;
+
+    private HashedWheelTimer(String name, Duration tickDuration, int ticksPerWheel) {
+        if (tickDuration.toNanos() < TimeUnit.MILLISECONDS.toNanos(1)) {
+            throw new IllegalArgumentException("tickDuration must be at least 1ms");
+        }
+        if (ticksPerWheel < 1 || Integer.bitCount(ticksPerWheel) != 1) {
+            throw new IllegalArgumentException("ticksPerWheel must be a power of two");
+        }
+        this.name = name;
+        this.tickInNanos = tickDuration.toNanos();
+        this.wheel = new Bucket[ticksPerWheel];
+        for (int i = 0; i < ticksPerWheel; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = ticksPerWheel - 1;
+        this.workerThread = Thread.ofPlatform()
+                .name("wheel-timer-" + name)
+                .daemon()
+                .start(this::work);
+    }
+
+    public static HashedWheelTimer ofDefaults(String name) {
+        return of(name, DEFAULT_TICK_DURATION, DEFAULT_TICKS_PER_WHEEL);
+    }
+
+    public static HashedWheelTimer of(String name, Duration tickDuration, int ticksPerWheel) {
+        return new HashedWheelTimer(name, tickDuration, ticksPerWheel);
+    }
+
+    /**
+     * 모든 async retry 가 함께 쓰는 timer. 처음 쓸 때 만든다.
+     */
+    public static HashedWheelTimer shared() {
+        return SharedTimerHolder.INSTANCE;
+    }
+
+    /**
+     * @throws IllegalStateException timer 가 이미 닫혔다면
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (!running) {
+            throw new IllegalStateException("timer '" + name + "' is already closed");
+        }
+        long deadline = System.nanoTime() - startTime + Math.max(0, unit.toNanos(delay));
+        Timeout timeout = new Timeout(task, deadline);
+        numberOfPendingTimeouts.incrementAndGet();
+        pendingTimeouts.add(timeout);
+        return timeout;
+    }
+
+    private void work() {
+        while (running) {
+            long tickDeadline = waitForNextTick();
+            if (tickDeadline < 0) {
+                break;
+            }
+            transferPendingTimeouts();
+            wheel[(int) (tick & mask)].expire(tickDeadline);
+            tick++;
+        }
+
+        // 닫힌 뒤에는 실행하지 않고 취소한다
+        for (Bucket bucket : wheel) {
+            bucket.cancelAll();
+        }
+        Timeout timeout;
+        while ((timeout = pendingTimeouts.poll()) != null) {
+            timeout.cancel();
+        }
+    }
+
+    /**
+     * @return 이번 tick 의 마감 시각, 기다리는 동안 timer 가 닫혔다면 -1
+     */
+    private long waitForNextTick() {
+        long tickDeadline = tickInNanos * (tick + 1);
+        while (true) {
+            long remaining = tickDeadline - (System.nanoTime() - startTime);
+            if (remaining <= 0) {
+                return tickDeadline;
+            }
+            if (!running) {
+                return -1;
+            }
+            LockSupport.parkNanos(this, remaining);
+        }
+    }
+
+    private void transferPendingTimeouts() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout timeout = pendingTimeouts.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.isCancelled()) {
+                continue;
+            }
+
+            long expirationTick = timeout.deadline / tickInNanos;
+            timeout.remainingRounds = (expirationTick - tick) >> Integer.numberOfTrailingZeros(wheel.length);
+            // 이미 지난 작업은 현재 bucket 에서 바로 실행한다
+            long ticks = Math.max(expirationTick, tick);
+            wheel[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 예약된 뒤 아직 실행되거나 취소되지 않은 작업 수.
+     */
+    public long getNumberOfPendingTimeouts() {
+        return numberOfPendingTimeouts.get();
+    }
+
+    /**
+     * timer 스레드를 멈춘다. 아직 실행하지 않은 작업은 취소한다.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(workerThread);
+        workerThread.join();
+    }
+
+    /**
+     * {@link #schedule(Runnable, long, TimeUnit)} 로 예약한 작업.
+     */
+    public final class Timeout {
+
+        private static final int INIT = 0;
+
+        private static final int CANCELLED = 1;
+
+        private static final int EXPIRED = 2;
+
+        private final Runnable task;
+
+        private final long deadline;
+
+        private final AtomicInteger state = new AtomicInteger(INIT);
+
+        // 아래 필드는 timer 스레드만 쓴다
+        private long remainingRounds;
+
+        private Timeout next;
+
+        private Timeout prev;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * @return 아직 실행되지 않은 작업을 취소했다면 true
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(INIT, CANCELLED)) {
+                return false;
+            }
+            // bucket 에서는 timer 스레드가 해당 bucket 을 지날 때 뺀다
+            numberOfPendingTimeouts.decrementAndGet();
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(INIT, EXPIRED)) {
+                return;
+            }
+            numberOfPendingTimeouts.decrementAndGet();
+            try {
+                task.run();
+            } catch (Throwable throwable) {
+                LOGGER.warn("timer '{}' failed to run a task", name, throwable);
+            }
+        }
+    }
+
+    /**
+     * 같은 tick 에 걸린 작업의 이중 연결 리스트. timer 스레드만 접근한다.
+     */
+    private static final class Bucket {
+
+        private Timeout head;
+
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void expire(long tickDeadline) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else if (timeout.remainingRounds <= 0 && timeout.deadline <= tickDeadline) {
+                    remove(timeout);
+                    timeout.expire();
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        void cancelAll() {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                remove(timeout);
+                timeout.cancel();
+                timeout = next;
+            }
+        }
+
+        private void remove(Timeout timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                head = timeout.next;
+            }
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+        }
+    }
+
+    private static final class SharedTimerHolder {
+
+        private static final HashedWheelTimer INSTANCE = HashedWheelTimer.ofDefaults("shared");
+    }
+}
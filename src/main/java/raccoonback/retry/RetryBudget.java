@@ -0,0 +1,255 @@
+package raccoonback.retry;
+
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import raccoonback.core.CoarseClock;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * 여러 {@link Retry} 가 함께 쓰는 재시도 한도.
+ * <p>
+ * 호출마다 첫 시도가 {@link RetryBudgetConfig#getRetryRatio()} 만큼의 token 을 넣고 재시도마다 token 하나를 꺼내는 token bucket 이며,
+ * token 은 {@link RetryBudgetConfig#getWindowDuration()} 이 지나면 사라진다. token 이 없으면 재시도 조건에 맞는 실패라도
+ * 재시도하지 않고 그대로 실패한다. {@code maxAttempts(3)} 은 호출 하나의 재시도만 제한하므로 backend 가 모든 호출에 실패하면 부하가
+ * 세 배가 되지만, budget 을 쓰면 전체 재시도는 첫 시도의 일정 비율을 넘지 않는다.
+ * <pre>{@code
+ * RetryBudget budget = RetryBudget.ofDefaults("backendService");
+ * budget.retry(registry, "backendService");
+ * Retry retry = registry.retry("backendService");
+ * }</pre>
+ */
+public class RetryBudget {
+
+    static final int MAX_BUCKETS = 60;
+
+    /**
+     * 마지막 시도의 실패로 재시도 조건을 평가할 때는 재시도가 일어나지 않으므로 token 을 꺼내지 않는다.
+     */
+    private static final ThreadLocal<Boolean> LAST_ATTEMPT = ThreadLocal.withInitial(() -> false);
+
+    private final String name;
+
+    private final RetryBudgetConfig config;
+
+    private final CoarseClock clock;
+
+    private final int bucketCount;
+
+    private final long bucketSpanInNanos;
+
+    private final long reservedRetries;
+
+    private final long[] deposits;
+
+    private final long[] withdrawals;
+
+    private long totalDeposits;
+
+    private long totalWithdrawals;
+
+    private volatile long headEpoch;
+
+    private final LongAdder pendingDeposits = new LongAdder();
+
+    private final LongAdder rejectedRetries = new LongAdder();
+
+    private final RetryBudgetMetrics metrics = new RetryBudgetMetrics();
+
+    private RetryBudget(String name, RetryBudgetConfig config) {
+        long windowInNanos = config.getWindowDuration().toNanos();
+        long secondInNanos = TimeUnit.SECONDS.toNanos(1);
+        this.name = name;
+        this.config = config;
+        this.clock = config.getClock();
+        // bucket 수를 먼저 정하고 길이를 나누므로 bucket 들이 덮는 시간은 window 길이와 같다
+        this.bucketCount = (int) Math.min(Math.ceilDiv(windowInNanos, secondInNanos), MAX_BUCKETS);
+        this.bucketSpanInNanos = Math.ceilDiv(windowInNanos, bucketCount);
+        this.reservedRetries = config.getMinRetriesPerSecond() * windowInNanos / secondInNanos;
+        this.deposits = new long[bucketCount];
+        this.withdrawals = new long[bucketCount];
+        this.headEpoch = currentEpoch();
+    }
+
+    public static RetryBudget ofDefaults(String name) {
+        return of(name, RetryBudgetConfig.ofDefaults());
+    }
+
+    public static RetryBudget of(String name, RetryBudgetConfig config) {
+        return new RetryBudget(name, config);
+    }
+
+    /**
+     * registry 의 기본 설정으로 budget 을 쓰는 retry 를 만든다.
+     */
+    public Retry retry(RetryRegistry registry, String retryName) {
+        return retry(registry, retryName, registry.getDefaultConfig());
+    }
+
+    /**
+     * 호출마다 budget 에 token 을 넣고 재시도마다 token 을 꺼내는 retry 를 registry 에 등록하고 돌려준다.
+     * 이후 {@code registry.retry(retryName)} 으로 꺼낸 retry 도 같은 budget 을 쓴다. registry 에 같은 이름으로 budget 을 쓰지 않는 retry 가
+     * 이미 있으면 바꿔 넣으므로, 다른 곳에서 그 이름의 retry 를 꺼내기 전에 불러야 한다.
+     */
+    public Retry retry(RetryRegistry registry, String retryName, RetryConfig retryConfig) {
+        Optional<Retry> registered = registry.find(retryName);
+        if (registered.isPresent() && registered.get() instanceof BudgetedRetry budgeted && budgeted.getBudget() == this) {
+            return budgeted;
+        }
+
+        Retry budgeted = new BudgetedRetry(Retry.of(retryName, decorate(retryConfig), registry.getTags()), this);
+        if (registered.isEmpty()) {
+            // registry 는 없는 이름을 바꿔 넣지 않으므로 먼저 자리를 만든다
+            registry.retry(retryName, retryConfig);
+        }
+        registry.replace(retryName, budgeted);
+        return budgeted;
+    }
+
+    /**
+     * 재시도 조건에 맞더라도 token 을 꺼내지 못하면 재시도하지 않는 설정.
+     */
+    RetryConfig decorate(RetryConfig retryConfig) {
+        Predicate<Throwable> exceptionPredicate = retryConfig.getExceptionPredicate();
+        RetryConfig.Builder<Object> builder = RetryConfig.from(retryConfig)
+                .retryExceptions()
+                .ignoreExceptions()
+                .retryOnException(throwable -> exceptionPredicate.test(throwable) && tryAcquireRetry());
+
+        Predicate<Object> resultPredicate = retryConfig.getResultPredicate();
+        if (resultPredicate != null) {
+            builder.retryOnResult(result -> resultPredicate.test(result) && tryAcquireRetry());
+        }
+        return builder.build();
+    }
+
+    static void markLastAttempt(boolean lastAttempt) {
+        if (lastAttempt) {
+            LAST_ATTEMPT.set(true);
+        } else {
+            LAST_ATTEMPT.remove();
+        }
+    }
+
+    /**
+     * 첫 시도마다 부른다. 같은 bucket 안에서는 lock 없이 센다.
+     */
+    void onFirstAttempt() {
+        if (currentEpoch() == headEpoch) {
+            pendingDeposits.increment();
+            return;
+        }
+        synchronized (this) {
+            int index = advance();
+            deposits[index]++;
+            totalDeposits++;
+        }
+    }
+
+    private boolean tryAcquireRetry() {
+        if (LAST_ATTEMPT.get()) {
+            return true;
+        }
+
+        synchronized (this) {
+            int index = advance();
+            if (availableRetries() >= 1) {
+                withdrawals[index]++;
+                totalWithdrawals++;
+                return true;
+            }
+        }
+        rejectedRetries.increment();
+        return false;
+    }
+
+    private long availableRetries() {
+        return (long) (totalDeposits * config.getRetryRatio()) + reservedRetries - totalWithdrawals;
+    }
+
+    private int advance() {
+        long pending = pendingDeposits.sumThenReset();
+        if (pending > 0) {
+            deposits[indexOf(headEpoch)] += pending;
+            totalDeposits += pending;
+        }
+
+        long epoch = currentEpoch();
+        if (epoch > headEpoch) {
+            long steps = Math.min(epoch - headEpoch, bucketCount);
+            for (long step = 1; step <= steps; step++) {
+                evict(indexOf(headEpoch + step));
+            }
+            headEpoch = epoch;
+        }
+        return indexOf(headEpoch);
+    }
+
+    private void evict(int index) {
+        totalDeposits -= deposits[index];
+        totalWithdrawals -= withdrawals[index];
+        deposits[index] = 0;
+        withdrawals[index] = 0;
+    }
+
+    private long currentEpoch() {
+        return Math.floorDiv(clock.nanoTime(), bucketSpanInNanos);
+    }
+
+    private int indexOf(long epoch) {
+        return (int) Math.floorMod(epoch, (long) bucketCount);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public RetryBudgetConfig getRetryBudgetConfig() {
+        return config;
+    }
+
+    public RetryBudgetMetrics getMetrics() {
+        return metrics;
+    }
+
+    public class RetryBudgetMetrics {
+
+        private RetryBudgetMetrics() {
+        }
+
+        /**
+         * 지금 꺼낼 수 있는 token 수.
+         */
+        public long getNumberOfAvailableRetries() {
+            synchronized (RetryBudget.this) {
+                advance();
+                return Math.max(0, availableRetries());
+            }
+        }
+
+        /**
+         * window 안에 쌓인 token 중 재시도로 꺼낸 비율. 1 이면 budget 을 모두 써서 재시도가 거절되고 있다.
+         */
+        public double getUtilization() {
+            synchronized (RetryBudget.this) {
+                advance();
+                double capacity = totalDeposits * config.getRetryRatio() + reservedRetries;
+                if (capacity <= 0) {
+                    return 1.0;
+                }
+                return Math.min(1.0, totalWithdrawals / capacity);
+            }
+        }
+
+        /**
+         * budget 이 없어 재시도하지 않은 실패 수.
+         */
+        public long getNumberOfRejectedRetries() {
+            return rejectedRetries.sum();
+        }
+    }
+}
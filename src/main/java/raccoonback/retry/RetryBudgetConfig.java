@@ -0,0 +1,100 @@
+package raccoonback.retry;
+
+import raccoonback.core.CoarseClock;
+
+import java.time.Duration;
+
+public class RetryBudgetConfig {
+
+    private final double retryRatio;
+
+    private final int minRetriesPerSecond;
+
+    private final Duration windowDuration;
+
+    private final CoarseClock clock;
+
+    private RetryBudgetConfig(Builder builder) {
+        this.retryRatio = builder.retryRatio;
+        this.minRetriesPerSecond = builder.minRetriesPerSecond;
+        this.windowDuration = builder.windowDuration;
+        this.clock = builder.clock;
+    }
+
+    public static RetryBudgetConfig ofDefaults() {
+        return custom().build();
+    }
+
+    public static Builder custom() {
+        return new Builder();
+    }
+
+    public double getRetryRatio() {
+        return retryRatio;
+    }
+
+    public int getMinRetriesPerSecond() {
+        return minRetriesPerSecond;
+    }
+
+    public Duration getWindowDuration() {
+        return windowDuration;
+    }
+
+    public CoarseClock getClock() {
+        return clock;
+    }
+
+    public static class Builder {
+
+        private double retryRatio = 0.1;
+
+        private int minRetriesPerSecond = 10;
+
+        private Duration windowDuration = Duration.ofSeconds(10);
+
+        private CoarseClock clock = CoarseClock.system();
+
+        /**
+         * window 안의 첫 시도 수 대비 재시도할 수 있는 비율. 모든 호출이 실패하더라도 backend 부하는 이 비율 이상 늘지 않는다.
+         */
+        public Builder retryRatio(double retryRatio) {
+            if (retryRatio < 0) {
+                throw new IllegalArgumentException("retryRatio must not be negative");
+            }
+            this.retryRatio = retryRatio;
+            return this;
+        }
+
+        /**
+         * 호출이 적을 때도 재시도할 수 있도록 호출 수와 관계없이 초마다 허용하는 재시도 수.
+         */
+        public Builder minRetriesPerSecond(int minRetriesPerSecond) {
+            if (minRetriesPerSecond < 0) {
+                throw new IllegalArgumentException("minRetriesPerSecond must not be negative");
+            }
+            this.minRetriesPerSecond = minRetriesPerSecond;
+            return this;
+        }
+
+        /**
+         * 첫 시도와 재시도를 세는 sliding window 의 길이.
+         */
+        public Builder windowDuration(Duration windowDuration) {
+            if (windowDuration.compareTo(Duration.ofSeconds(1)) < 0) {
+                throw new IllegalArgumentException("windowDuration must be at least 1 second");
+            }
+            this.windowDuration = windowDuration;
+            return this;
+        }
+
+        public Builder clock(CoarseClock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public RetryBudgetConfig build() {
+            return new RetryBudgetConfig(this);
+        }
+    }
+}
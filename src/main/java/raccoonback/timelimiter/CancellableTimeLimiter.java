@@ -0,0 +1,186 @@
+package raccoonback.timelimiter;
+
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * {@link TimeLimiter} 로 시간을 제한하면서, 결과를 기다리지 않게 된 호출을 {@link ThreadPoolBulkhead} 의 스레드에서도 멈춘다.
+ * <p>
+ * {@code withThreadPoolBulkhead(...).withTimeLimiter(...)} 는 future 를 {@code TimeoutException} 으로 끝낼 뿐,
+ * bulkhead 의 스레드는 backend 호출이 끝날 때까지 붙잡혀 있다. 여기서는 future 가 작업보다 먼저 끝나면(timeout, 호출한 쪽의 취소)
+ * 작업에 넘긴 {@link CancellationToken} 에 취소를 알리고, {@code TimeLimiterConfig#shouldCancelRunningFuture()} 이면
+ * 실행 중인 스레드도 interrupt 한다. 아직 queue 에서 기다리던 작업은 꺼내지는 즉시 backend 를 호출하지 않고 끝난다.
+ * <p>
+ * 스레드는 작업이 interrupt 나 token 에 반응해 돌아와야 풀려난다. interrupt 는 작업이 끝나면 지우므로 다음 작업에 남지 않는다.
+ * <pre>{@code
+ * CancellableTimeLimiter timeLimiter = CancellableTimeLimiter.of(TimeLimiter.of(Duration.ofSeconds(1)), scheduler);
+ * CompletableFuture<String> future = Decorators.ofCompletionStage(
+ *                 CancellableTimeLimiter.decorateSupplier(timeLimiter, threadPoolBulkhead, supplier)
+ *         )
+ *         .withCircuitBreaker(circuitBreaker)
+ *         .get()
+ *         .toCompletableFuture();
+ * }</pre>
+ */
+public class CancellableTimeLimiter {
+
+    private static final int NEW = 0;
+
+    private static final int RUNNING = 1;
+
+    private static final int DONE = 2;
+
+    private static final int CANCELLED = 3;
+
+    private static final int INTERRUPTING = 4;
+
+    private static final int INTERRUPTED = 5;
+
+    private final TimeLimiter timeLimiter;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final boolean interruptRunning;
+
+    private final CancellationMetrics metrics = new CancellationMetrics();
+
+    private CancellableTimeLimiter(TimeLimiter timeLimiter, ScheduledExecutorService scheduler) {
+        this.timeLimiter = timeLimiter;
+        this.scheduler = scheduler;
+        this.interruptRunning = timeLimiter.getTimeLimiterConfig().shouldCancelRunningFuture();
+    }
+
+    public static CancellableTimeLimiter of(TimeLimiter timeLimiter, ScheduledExecutorService scheduler) {
+        return new CancellableTimeLimiter(timeLimiter, scheduler);
+    }
+
+    public static <T> Supplier<CompletionStage<T>> decorateSupplier(
+            CancellableTimeLimiter timeLimiter,
+            ThreadPoolBulkhead bulkhead,
+            Supplier<T> supplier
+    ) {
+        return () -> timeLimiter.executeCancellableSupplier(bulkhead, (token) -> supplier.get());
+    }
+
+    /**
+     * 작업에 {@link CancellationToken} 을 넘겨 interrupt 없이도 스스로 멈출 수 있게 한다.
+     */
+    public static <T> Supplier<CompletionStage<T>> decorateCancellableSupplier(
+            CancellableTimeLimiter timeLimiter,
+            ThreadPoolBulkhead bulkhead,
+            Function<CancellationToken, T> function
+    ) {
+        return () -> timeLimiter.executeCancellableSupplier(bulkhead, function);
+    }
+
+    public <T> CompletionStage<T> executeCancellableSupplier(
+            ThreadPoolBulkhead bulkhead,
+            Function<CancellationToken, T> function
+    ) {
+        CancellableTask<T> task = new CancellableTask<>(function);
+        CompletableFuture<T> result = timeLimiter.executeCompletionStage(
+                        scheduler,
+                        ThreadPoolBulkhead.decorateSupplier(bulkhead, task)
+                )
+                .toCompletableFuture();
+        // 작업이 스스로 끝난 뒤라면 아무 일도 하지 않는다
+        result.whenComplete((value, throwable) -> task.cancel());
+        return result;
+    }
+
+    public TimeLimiter getTimeLimiter() {
+        return timeLimiter;
+    }
+
+    public CancellationMetrics getMetrics() {
+        return metrics;
+    }
+
+    private class CancellableTask<T> implements Supplier<T> {
+
+        private final Function<CancellationToken, T> function;
+
+        private final CancellationToken token = new CancellationToken();
+
+        private final AtomicInteger state = new AtomicInteger(NEW);
+
+        private Thread runner;
+
+        CancellableTask(Function<CancellationToken, T> function) {
+            this.function = function;
+        }
+
+        @Override
+        public T get() {
+            runner = Thread.currentThread();
+            if (!state.compareAndSet(NEW, RUNNING)) {
+                throw new CancellationException("call was cancelled before it started");
+            }
+
+            try {
+                return function.apply(token);
+            } finally {
+                if (!state.compareAndSet(RUNNING, DONE)) {
+                    // interrupt 를 거는 중이면 끝날 때까지 기다렸다가, 다음 작업에 남지 않도록 지운다
+                    while (state.get() == INTERRUPTING) {
+                        Thread.onSpinWait();
+                    }
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        void cancel() {
+            if (state.get() == DONE) {
+                return;
+            }
+
+            token.requestCancellation();
+            if (state.compareAndSet(NEW, CANCELLED)) {
+                metrics.numberOfCancelledQueuedCalls.increment();
+                return;
+            }
+            if (!interruptRunning) {
+                if (state.get() == RUNNING) {
+                    metrics.numberOfCancelledRunningCalls.increment();
+                }
+                return;
+            }
+            if (state.compareAndSet(RUNNING, INTERRUPTING)) {
+                runner.interrupt();
+                state.set(INTERRUPTED);
+                metrics.numberOfCancelledRunningCalls.increment();
+            }
+        }
+    }
+
+    public static class CancellationMetrics {
+
+        private final LongAdder numberOfCancelledQueuedCalls = new LongAdder();
+
+        private final LongAdder numberOfCancelledRunningCalls = new LongAdder();
+
+        /**
+         * queue 에서 기다리다 취소되어 backend 를 호출하지 않은 호출 수.
+         */
+        public long getNumberOfCancelledQueuedCalls() {
+            return numberOfCancelledQueuedCalls.sum();
+        }
+
+        /**
+         * 실행 중에 취소를 알리거나 interrupt 한 호출 수.
+         */
+        public long getNumberOfCancelledRunningCalls() {
+            return numberOfCancelledRunningCalls.sum();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package raccoonback.timelimiter;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * 호출한 쪽이 결과를 더 기다리지 않는다는 신호.
+ * <p>
+ * interrupt 에 반응하지 않는 작업(busy loop, interrupt 를 삼키는 client 등)은 중간중간 이 token 을 확인해 스스로 멈춰야
+ * {@code ThreadPoolBulkhead} 의 스레드를 돌려줄 수 있다.
+ */
+public final class CancellationToken {
+
+    private volatile boolean cancellationRequested;
+
+    CancellationToken() {
+    }
+
+    public boolean isCancellationRequested() {
+        return cancellationRequested;
+    }
+
+    public void throwIfCancellationRequested() {
+        if (cancellationRequested) {
+            throw new CancellationException("cancellation requested");
+        }
+    }
+
+    void requestCancellation() {
+        cancellationRequested = true;
+    }
+}
@@ -0,0 +1,262 @@
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import raccoonback.BackendService;
+import raccoonback.RetryableException;
+import raccoonback.bulkhead.AdaptiveBulkhead;
+import raccoonback.bulkhead.AdaptiveBulkheadConfig;
+import raccoonback.bulkhead.AdaptiveBulkheadConfig.LimitAlgorithm;
+
+import java.time.Duration;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+public class AdaptiveBulkheadTest {
+
+    private static final int BACKEND_CAPACITY = 20;
+
+    private static final long BACKEND_LATENCY = Duration.ofMillis(10).toNanos();
+
+    private AtomicLong nanoTime = new AtomicLong();
+
+    private BackendService backendService = mock(BackendService.class);
+
+    @Test
+    @DisplayName("limit 만큼 동시 호출 중이라면 나머지 호출은 기다리지 않고 거절한다")
+    void rejectOverLimit() {
+        // given
+        AdaptiveBulkhead bulkhead = AdaptiveBulkhead.of(
+                "test",
+                AdaptiveBulkheadConfig.custom()
+                        .initialLimit(2)
+                        .clock(nanoTime::get)
+                        .build()
+        );
+
+        // when
+        bulkhead.acquirePermission();
+        bulkhead.acquirePermission();
+
+        // then
+        assertThrows(BulkheadFullException.class, bulkhead::acquirePermission);
+        assertEquals(0, bulkhead.getMetrics().getAvailableConcurrentCalls());
+    }
+
+    @Test
+    @DisplayName("changeConfig 의 maxConcurrentCalls 는 limit 의 상한이 되고, maxWaitDuration 동안 반납되는 permit 을 기다린다")
+    void applyChangedConfig() throws Exception {
+        // given
+        AdaptiveBulkhead bulkhead = AdaptiveBulkhead.of(
+                "test",
+                AdaptiveBulkheadConfig.custom()
+                        .initialLimit(10)
+                        .clock(nanoTime::get)
+                        .build()
+        );
+
+        // when
+        bulkhead.changeConfig(
+                BulkheadConfig.custom()
+                        .maxConcurrentCalls(2)
+                        .maxWaitDuration(Duration.ofSeconds(5))
+                        .build()
+        );
+        bulkhead.acquirePermission();
+        bulkhead.acquirePermission();
+        CompletableFuture<Void> waiting = CompletableFuture.runAsync(bulkhead::acquirePermission);
+        Thread.sleep(100);
+        assertFalse(waiting.isDone());
+        bulkhead.onSuccess(1, TimeUnit.MILLISECONDS);
+
+        // then
+        waiting.get(1, TimeUnit.SECONDS);
+        assertEquals(2, bulkhead.getMetrics().getMaxAllowedConcurrentCalls());
+        assertEquals(Duration.ofSeconds(5), bulkhead.getBulkheadConfig().getMaxWaitDuration());
+    }
+
+    @Test
+    @DisplayName("실패가 계속되면 limit 을 min limit 까지 줄인다")
+    void decreaseLimitOnFailure() {
+        // given
+        AdaptiveBulkhead bulkhead = AdaptiveBulkhead.of(
+                "test",
+                AdaptiveBulkheadConfig.custom()
+                        .limitAlgorithm(LimitAlgorithm.AIMD)
+                        .initialLimit(20)
+                        .minLimit(2)
+                        .backoffRatio(0.5)
+                        .clock(nanoTime::get)
+                        .build()
+        );
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willThrow(RetryableException.class);
+
+        Supplier<String> decoratedSupplier = AdaptiveBulkhead.decorateSupplier(
+                bulkhead,
+                () -> backendService.doSomething("param1", "param2")
+        );
+
+        // when
+        IntStream.range(0, 100).forEach((index) -> {
+            assertThrows(RetryableException.class, decoratedSupplier::get);
+        });
+
+        // then
+        assertEquals(2, bulkhead.getMetrics().getMaxAllowedConcurrentCalls());
+    }
+
+    @Test
+    @DisplayName("GRADIENT 는 latency 가 늘기 시작하는 backend 처리량 한계 근처로 limit 을 맞춘다")
+    void convergeToBackendCapacityWithGradient() {
+        // given
+        AdaptiveBulkhead bulkhead = AdaptiveBulkhead.of(
+                "test",
+                AdaptiveBulkheadConfig.custom()
+                        .limitAlgorithm(LimitAlgorithm.GRADIENT)
+                        .initialLimit(1)
+                        .clock(nanoTime::get)
+                        .build()
+        );
+
+        // when
+        Simulation simulation = simulate(bulkhead, Duration.ofSeconds(10));
+
+        // then
+        int limit = bulkhead.getMetrics().getMaxAllowedConcurrentCalls();
+        assertTrue(limit >= BACKEND_CAPACITY / 2 && limit <= BACKEND_CAPACITY * 2, "limit: " + limit);
+        assertTrue(simulation.throughputRatio() >= 0.9, "throughput: " + simulation.throughputRatio());
+        assertTrue(simulation.meanLatencyRatio() <= 2.0, "latency: " + simulation.meanLatencyRatio());
+    }
+
+    @Test
+    @DisplayName("AIMD 는 slow call 이 생기기 직전까지 limit 을 늘린다")
+    void convergeToBackendCapacityWithAimd() {
+        // given
+        AdaptiveBulkhead bulkhead = AdaptiveBulkhead.of(
+                "test",
+                AdaptiveBulkheadConfig.custom()
+                        .limitAlgorithm(LimitAlgorithm.AIMD)
+                        .initialLimit(1)
+                        .slowCallDurationThreshold(Duration.ofMillis(15))
+                        .clock(nanoTime::get)
+                        .build()
+        );
+
+        // when
+        Simulation simulation = simulate(bulkhead, Duration.ofSeconds(10));
+
+        // then
+        int limit = bulkhead.getMetrics().getMaxAllowedConcurrentCalls();
+        assertTrue(limit >= BACKEND_CAPACITY && limit <= BACKEND_CAPACITY * 2, "limit: " + limit);
+        assertTrue(simulation.throughputRatio() >= 0.9, "throughput: " + simulation.throughputRatio());
+        assertTrue(simulation.meanLatencyRatio() <= 2.0, "latency: " + simulation.meanLatencyRatio());
+    }
+
+    /**
+     * 1ms 단위로 시간을 흘리며 bulkhead 가 허용하는 만큼 계속 호출하고, 뒤쪽 절반 구간의 처리량과 latency 를 잰다.
+     */
+    private Simulation simulate(AdaptiveBulkhead bulkhead, Duration duration) {
+        LatencyModeledBackendService backend = new LatencyModeledBackendService();
+        Supplier<CompletionStage<String>> decoratedSupplier = AdaptiveBulkhead.decorateCompletionStage(
+                bulkhead,
+                () -> backend.doSomething("param1", "param2")
+        );
+
+        long tick = Duration.ofMillis(1).toNanos();
+        long end = duration.toNanos();
+        long measureFrom = end / 2;
+        Simulation simulation = new Simulation(end - measureFrom);
+
+        while (nanoTime.get() < end) {
+            backend.completeDueCalls(nanoTime.get());
+
+            while (bulkhead.getMetrics().getAvailableConcurrentCalls() > 0) {
+                long start = nanoTime.get();
+                decoratedSupplier.get()
+                        .thenRun(() -> {
+                            if (start >= measureFrom) {
+                                simulation.record(nanoTime.get() - start);
+                            }
+                        });
+            }
+
+            nanoTime.addAndGet(tick);
+        }
+        return simulation;
+    }
+
+    /**
+     * 동시 호출이 {@link #BACKEND_CAPACITY} 개까지는 {@link #BACKEND_LATENCY} 안에 응답하고,
+     * 그보다 많으면 처리량은 그대로인 채 초과한 만큼 queue 에서 기다리는 backend.
+     */
+    private class LatencyModeledBackendService {
+
+        private final BackendService backendService = new BackendService();
+
+        private final PriorityQueue<PendingCall> pendingCalls = new PriorityQueue<>();
+
+        CompletionStage<String> doSomething(String param1, String param2) {
+            int concurrentCalls = pendingCalls.size() + 1;
+            long latency = BACKEND_LATENCY * Math.max(concurrentCalls, BACKEND_CAPACITY) / BACKEND_CAPACITY;
+
+            PendingCall call = new PendingCall(nanoTime.get() + latency, new CompletableFuture<>(), param1, param2);
+            pendingCalls.add(call);
+            return call.future();
+        }
+
+        void completeDueCalls(long now) {
+            while (!pendingCalls.isEmpty() && pendingCalls.peek().dueTime() <= now) {
+                PendingCall call = pendingCalls.poll();
+                call.future().complete(backendService.doSomething(call.param1(), call.param2()));
+            }
+        }
+    }
+
+    private record PendingCall(long dueTime, CompletableFuture<String> future, String param1, String param2)
+            implements Comparable<PendingCall> {
+
+        @Override
+        public int compareTo(PendingCall other) {
+            return Long.compare(dueTime, other.dueTime);
+        }
+    }
+
+    private static class Simulation {
+
+        private final long measuredDuration;
+
+        private long calls;
+
+        private long totalLatency;
+
+        Simulation(long measuredDuration) {
+            this.measuredDuration = measuredDuration;
+        }
+
+        void record(long latency) {
+            calls++;
+            totalLatency += latency;
+        }
+
+        double throughputRatio() {
+            double maxCalls = (double) measuredDuration / BACKEND_LATENCY * BACKEND_CAPACITY;
+            return calls / maxCalls;
+        }
+
+        double meanLatencyRatio() {
+            return (double) totalLatency / calls / BACKEND_LATENCY;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
+import io.github.resilience4j.decorators.Decorators;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import raccoonback.BackendService;
+import raccoonback.bulkhead.AdmissionController;
+import raccoonback.bulkhead.AdmissionControllerConfig;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+public class AdmissionControllerTest {
+
+    private BackendService backendService = mock(BackendService.class);
+
+    private AtomicLong nanoTime = new AtomicLong();
+
+    @Test
+    @DisplayName("GC pause 비율이 기준을 넘으면 backend 를 부르기 전에 바로 거절한다")
+    void rejectOnGcPause() {
+        // given
+        AdmissionController admissionController = AdmissionController.of(
+                "test",
+                AdmissionControllerConfig.custom()
+                        .maxGcPauseFraction(0.5)
+                        .gcPauseFraction(() -> 1.0)
+                        .cpuLoad(() -> 0.0)
+                        .clock(nanoTime::get)
+                        .build()
+        );
+
+        Supplier<String> decoratedSupplier = Decorators.ofSupplier(() -> backendService.doSomething("param1", "param2"))
+                .withBulkhead(admissionController)
+                .decorate();
+
+        // when, then
+        assertThrows(BulkheadFullException.class, decoratedSupplier::get);
+        assertEquals(1, admissionController.getMetrics().getNumberOfRejectedByGcPause());
+        verify(backendService, never())
+                .doSomething(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("CPU 사용률이 기준보다 낮으면 모든 호출을 받는다")
+    void admitUnderCpuLoad() {
+        // given
+        AdmissionController admissionController = AdmissionController.of(
+                "test",
+                AdmissionControllerConfig.custom()
+                        .maxCpuLoad(0.9)
+                        .gcPauseFraction(() -> 0.0)
+                        .cpuLoad(() -> 0.5)
+                        .clock(nanoTime::get)
+                        .build()
+        );
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willReturn("ok");
+
+        Supplier<String> decoratedSupplier = Decorators.ofSupplier(() -> backendService.doSomething("param1", "param2"))
+                .withBulkhead(admissionController)
+                .decorate();
+
+        // when, then
+        IntStream.range(0, 100).forEach((noOp) -> assertEquals("ok", decoratedSupplier.get()));
+        assertEquals(0.5, admissionController.getMetrics().getCpuLoad());
+        assertEquals(0, admissionController.getMetrics().getNumberOfRejectedByCpuLoad());
+    }
+
+    @Test
+    @DisplayName("interval 내내 queue 대기 시간이 target 을 넘으면 거절 비율을 늘리고, target 아래로 내려가면 바로 멈춘다")
+    void shedOnStandingQueue() {
+        // given
+        AdmissionController admissionController = AdmissionController.of(
+                "test",
+                AdmissionControllerConfig.custom()
+                        .targetQueueingDelay(Duration.ofMillis(5))
+                        .queueingDelayInterval(Duration.ofMillis(100))
+                        .gcPauseFraction(() -> 0.0)
+                        .cpuLoad(() -> 0.0)
+                        .clock(nanoTime::get)
+                        .build()
+        );
+
+        // when
+        for (int i = 0; i < 1_000; i++) {
+            nanoTime.addAndGet(Duration.ofMillis(10).toNanos());
+            admissionController.recordQueueingDelay(20, TimeUnit.MILLISECONDS);
+        }
+
+        // then
+        double shedProbability = admissionController.getMetrics().getQueueingDelayShedProbability();
+        assertTrue(shedProbability > 0.8);
+        long rejected = IntStream.range(0, 1_000)
+                .filter((noOp) -> !admissionController.tryAcquirePermission())
+                .count();
+        assertTrue(rejected > 700);
+
+        admissionController.recordQueueingDelay(1, TimeUnit.MILLISECONDS);
+        assertEquals(0, admissionController.getMetrics().getQueueingDelayShedProbability());
+        IntStream.range(0, 1_000).forEach((noOp) -> assertTrue(admissionController.tryAcquirePermission()));
+    }
+
+    @Test
+    @DisplayName("대기 시간을 처음 받으면 그때부터 interval 을 센다")
+    void startIntervalOnFirstQueueingDelay() {
+        // given
+        AdmissionController admissionController = AdmissionController.of(
+                "test",
+                AdmissionControllerConfig.custom()
+                        .targetQueueingDelay(Duration.ofMillis(5))
+                        .queueingDelayInterval(Duration.ofMillis(100))
+                        .gcPauseFraction(() -> 0.0)
+                        .cpuLoad(() -> 0.0)
+                        .clock(nanoTime::get)
+                        .build()
+        );
+
+        // when
+        nanoTime.addAndGet(Duration.ofMillis(500).toNanos());
+        admissionController.recordQueueingDelay(20, TimeUnit.MILLISECONDS);
+
+        // then
+        assertEquals(0, admissionController.getMetrics().getQueueingDelayShedProbability());
+
+        // when
+        nanoTime.addAndGet(Duration.ofMillis(100).toNanos());
+        admissionController.recordQueueingDelay(20, TimeUnit.MILLISECONDS);
+
+        // then
+        assertTrue(admissionController.getMetrics().getQueueingDelayShedProbability() > 0);
+    }
+
+    @Test
+    @DisplayName("changeConfig 를 불러도 예외 없이 설정을 그대로 둔다")
+    void ignoreChangeConfig() {
+        // given
+        AdmissionController admissionController = AdmissionController.of(
+                "test",
+                AdmissionControllerConfig.custom()
+                        .gcPauseFraction(() -> 0.0)
+                        .cpuLoad(() -> 0.0)
+                        .clock(nanoTime::get)
+                        .build()
+        );
+        BulkheadConfig bulkheadConfig = admissionController.getBulkheadConfig();
+
+        // when
+        admissionController.changeConfig(
+                BulkheadConfig.custom()
+                        .maxConcurrentCalls(1)
+                        .maxWaitDuration(Duration.ofSeconds(1))
+                        .build()
+        );
+
+        // then
+        assertSame(bulkheadConfig, admissionController.getBulkheadConfig());
+        IntStream.range(0, 10).forEach((noOp) -> assertTrue(admissionController.tryAcquirePermission()));
+    }
+
+    @Test
+    @DisplayName("thread pool bulkhead 의 queue 에서 기다린 시간으로 거절 비율을 정한다")
+    void measureThreadPoolQueueingDelay() throws Exception {
+        // given
+        AdmissionController admissionController = AdmissionController.of(
+                "admission",
+                AdmissionControllerConfig.custom()
+                        .targetQueueingDelay(Duration.ofMillis(20))
+                        .queueingDelayInterval(Duration.ofMillis(50))
+                        .gcPauseFraction(() -> 0.0)
+                        .cpuLoad(() -> 0.0)
+                        .build()
+        );
+        ThreadPoolBulkhead threadPoolBulkhead = ThreadPoolBulkhead.of(
+                "test",
+                ThreadPoolBulkheadConfig.custom()
+                        .coreThreadPoolSize(1)
+                        .maxThreadPoolSize(1)
+                        .queueCapacity(10)
+                        .build()
+        );
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willAnswer((unUsed) -> {
+                    Thread.sleep(200);
+                    return "ok";
+                });
+
+        Supplier<CompletionStage<String>> decoratedSupplier = Decorators.ofSupplier(() -> backendService.doSomething("param1", "param2"))
+                .withThreadPoolBulkhead(AdmissionController.decorateThreadPoolBulkhead(admissionController, threadPoolBulkhead))
+                .withBulkhead(admissionController)
+                .decorate();
+
+        // when
+        CompletableFuture<String> first = decoratedSupplier.get().toCompletableFuture();
+        CompletableFuture<String> second = decoratedSupplier.get().toCompletableFuture();
+        CompletableFuture<String> third = decoratedSupplier.get().toCompletableFuture();
+        CompletableFuture.allOf(first, second, third).get(5, TimeUnit.SECONDS);
+
+        // then
+        assertTrue(admissionController.getMetrics().getQueueingDelayShedProbability() > 0);
+        threadPoolBulkhead.close();
+    }
+}
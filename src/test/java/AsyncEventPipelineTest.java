@@ -0,0 +1,192 @@
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.event.RateLimiterEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import raccoonback.BackendService;
+import raccoonback.event.AsyncEventPipeline;
+import raccoonback.event.AsyncEventPipelineConfig;
+import raccoonback.event.AsyncEventPipelineConfig.OverflowPolicy;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+public class AsyncEventPipelineTest {
+
+    private BackendService backendService = mock(BackendService.class);
+
+    @Test
+    @DisplayName("rate limiter 이벤트를 호출한 스레드가 아닌 background 스레드에서 batch 로 처리한다")
+    void consumeEventsOnBackgroundThread() throws InterruptedException {
+        // given
+        List<RateLimiterEvent> events = new CopyOnWriteArrayList<>();
+        List<String> consumerThreads = new CopyOnWriteArrayList<>();
+
+        AsyncEventPipeline<RateLimiterEvent> pipeline = AsyncEventPipeline.ofDefaults(
+                "test",
+                batch -> {
+                    consumerThreads.add(Thread.currentThread().getName());
+                    events.addAll(batch);
+                }
+        );
+
+        RateLimiter rateLimiter = RateLimiter.of(
+                "test",
+                RateLimiterConfig.custom()
+                        .timeoutDuration(Duration.ZERO)
+                        .limitRefreshPeriod(Duration.ofSeconds(10))
+                        .limitForPeriod(2)
+                        .build()
+        );
+        rateLimiter.getEventPublisher()
+                .onSuccess(pipeline::publish)
+                .onFailure(pipeline::publish);
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willReturn("ok");
+
+        Supplier<String> decoratedSupplier = RateLimiter.decorateSupplier(
+                rateLimiter,
+                () -> backendService.doSomething("param1", "param2")
+        );
+
+        // when
+        IntStream.range(0, 3).forEach((index) -> {
+            try {
+                decoratedSupplier.get();
+            } catch (RuntimeException ignored) {
+            }
+        });
+        pipeline.close();
+
+        // then
+        assertEquals(3, events.size());
+        assertEquals(RateLimiterEvent.Type.FAILED_ACQUIRE, events.get(2).getEventType());
+        assertTrue(consumerThreads.stream().allMatch(name -> name.equals("event-pipeline-test")));
+    }
+
+    @Test
+    @DisplayName("consumer 가 느려 buffer 가 가득 차면 호출한 스레드는 기다리지 않고 이벤트를 버린다")
+    void dropEventsIfBufferIsFull() throws InterruptedException {
+        // given
+        CountDownLatch blockConsumer = new CountDownLatch(1);
+        AsyncEventPipeline<Integer> pipeline = AsyncEventPipeline.of(
+                "test",
+                AsyncEventPipelineConfig.custom()
+                        .bufferSize(16)
+                        .maxBatchSize(1)
+                        .build(),
+                batch -> {
+                    try {
+                        blockConsumer.await();
+                    } catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+        );
+
+        // when
+        assertTimeout(
+                Duration.ofMillis(100),
+                () -> IntStream.range(0, 1_000).forEach(pipeline::publish)
+        );
+        blockConsumer.countDown();
+        pipeline.close();
+
+        // then
+        assertTrue(pipeline.getNumberOfDroppedEvents() >= 1_000 - 17);
+        assertEquals(1_000, pipeline.getNumberOfPublishedEvents() + pipeline.getNumberOfDroppedEvents());
+    }
+
+    @Test
+    @DisplayName("SAMPLE 정책은 buffer 가 기준 이상 차면 일부 이벤트만 남긴다")
+    void sampleEventsOverThreshold() throws InterruptedException {
+        // given
+        CountDownLatch blockConsumer = new CountDownLatch(1);
+        AsyncEventPipeline<Integer> pipeline = AsyncEventPipeline.of(
+                "test",
+                AsyncEventPipelineConfig.custom()
+                        .bufferSize(1_024)
+                        .maxBatchSize(1)
+                        .overflowPolicy(OverflowPolicy.SAMPLE)
+                        .samplingThreshold(0.5)
+                        .sampleRate(10)
+                        .build(),
+                batch -> {
+                    try {
+                        blockConsumer.await();
+                    } catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+        );
+
+        // when
+        IntStream.range(0, 2_000).forEach(pipeline::publish);
+        blockConsumer.countDown();
+        pipeline.close();
+
+        // then
+        assertTrue(pipeline.getNumberOfSampledOutEvents() > 1_000);
+        assertTrue(pipeline.getNumberOfPublishedEvents() > 512);
+        assertTrue(pipeline.getNumberOfPublishedEvents() < 1_024);
+    }
+
+    @Test
+    @DisplayName("close 하면 이미 받은 이벤트를 모두 처리하고 새 이벤트는 받지 않는다")
+    void consumeRemainingEventsOnClose() throws InterruptedException {
+        // given
+        List<Integer> events = new CopyOnWriteArrayList<>();
+        AsyncEventPipeline<Integer> pipeline = AsyncEventPipeline.ofDefaults("test", events::addAll);
+
+        IntStream.range(0, 5_000).forEach(pipeline::publish);
+
+        // when
+        pipeline.close();
+
+        // then
+        assertEquals(5_000, events.size());
+        assertFalse(pipeline.publish(1));
+    }
+
+    @Test
+    @DisplayName("close 와 동시에 publish 해도 true 를 돌려준 이벤트는 모두 처리한다")
+    void consumeEveryAcceptedEventWhilePublishingConcurrently() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            // given
+            LongAdder consumedEvents = new LongAdder();
+            AsyncEventPipeline<Integer> pipeline = AsyncEventPipeline.ofDefaults("test", batch -> consumedEvents.add(batch.size()));
+            LongAdder acceptedEvents = new LongAdder();
+            CountDownLatch started = new CountDownLatch(4);
+            List<Thread> publishers = IntStream.range(0, 4)
+                    .mapToObj((noOp) -> Thread.ofPlatform().start(() -> {
+                        started.countDown();
+                        while (pipeline.publish(1)) {
+                            acceptedEvents.increment();
+                        }
+                    }))
+                    .toList();
+            started.await();
+
+            // when
+            pipeline.close();
+            for (Thread publisher : publishers) {
+                publisher.join();
+            }
+
+            // then
+            assertEquals(acceptedEvents.sum(), consumedEvents.sum());
+            assertEquals(acceptedEvents.sum(), pipeline.getNumberOfPublishedEvents());
+        }
+    }
+}
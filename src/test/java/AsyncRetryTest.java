@@ -0,0 +1,160 @@
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import raccoonback.BackendService;
+import raccoonback.RetryableException;
+import raccoonback.retry.AsyncRetry;
+import raccoonback.retry.HashedWheelTimer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+public class AsyncRetryTest {
+
+    private RetryConfig config = RetryConfig.custom()
+            .maxAttempts(3)
+            .waitDuration(Duration.ofMillis(100))
+            .retryExceptions(RetryableException.class)
+            .build();
+
+    private HashedWheelTimer timer = HashedWheelTimer.of("test", Duration.ofMillis(5), 64);
+
+    private BackendService backendService = mock(BackendService.class);
+
+    @AfterEach
+    void tearDown() throws Exception {
+        timer.close();
+    }
+
+    @Test
+    @DisplayName("실패하면 waitDuration 뒤에 timer 스레드에서 다시 호출한다")
+    void retryOnTimerThreadAfterWaitDuration() {
+        // given
+        Retry retry = Retry.of("test", config);
+        Set<String> threadNames = ConcurrentHashMap.newKeySet();
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willThrow(RetryableException.class)
+                .willThrow(RetryableException.class)
+                .willReturn("SUCCESS");
+
+        Supplier<CompletionStage<String>> supplier = AsyncRetry.decorateCompletionStage(retry, timer, () -> {
+            threadNames.add(Thread.currentThread().getName());
+            return CompletableFuture.completedFuture(backendService.doSomething("param1", "param2"));
+        });
+
+        // when
+        long startTime = System.nanoTime();
+        String result = supplier.get().toCompletableFuture().join();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
+        // then
+        assertEquals("SUCCESS", result);
+        verify(backendService, times(3))
+                .doSomething("param1", "param2");
+        assertTrue(elapsedMillis >= 200, "elapsed " + elapsedMillis + "ms");
+        assertEquals(Set.of(Thread.currentThread().getName(), "wheel-timer-test"), threadNames);
+        assertEquals(1, retry.getMetrics().getNumberOfSuccessfulCallsWithRetryAttempt());
+    }
+
+    @Test
+    @DisplayName("최대 시도 횟수까지 실패하면 마지막 예외로 실패한다")
+    void failAfterMaxAttempts() {
+        // given
+        Retry retry = Retry.of("test", config);
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willThrow(RetryableException.class);
+
+        Supplier<CompletionStage<String>> supplier = AsyncRetry.decorateCompletionStage(
+                retry,
+                timer,
+                () -> CompletableFuture.supplyAsync(() -> backendService.doSomething("param1", "param2"))
+        );
+
+        // when
+        CompletionException exception = assertThrows(
+                CompletionException.class,
+                () -> supplier.get().toCompletableFuture().join()
+        );
+
+        // then
+        assertInstanceOf(RetryableException.class, exception.getCause());
+        verify(backendService, times(3))
+                .doSomething("param1", "param2");
+        assertEquals(1, retry.getMetrics().getNumberOfFailedCallsWithRetryAttempt());
+    }
+
+    @Test
+    @DisplayName("동시에 재시도하는 호출이 많아도 timer 스레드 하나가 모두 다시 호출한다")
+    void retryManyCallsWithSingleTimerThread() {
+        // given
+        Retry retry = Retry.of("test", config);
+        Set<String> retryThreadNames = ConcurrentHashMap.newKeySet();
+        int numberOfCalls = 5_000;
+
+        Supplier<CompletionStage<String>> supplier = () -> {
+            AtomicInteger attempts = new AtomicInteger();
+            return AsyncRetry.executeCompletionStage(retry, timer, () -> {
+                if (attempts.incrementAndGet() == 1) {
+                    return CompletableFuture.failedFuture(new RetryableException());
+                }
+                retryThreadNames.add(Thread.currentThread().getName());
+                return CompletableFuture.completedFuture("SUCCESS");
+            });
+        };
+
+        // when
+        List<CompletableFuture<String>> results = IntStream.range(0, numberOfCalls)
+                .mapToObj((index) -> supplier.get().toCompletableFuture())
+                .toList();
+
+        // then
+        results.forEach((result) -> assertEquals("SUCCESS", result.join()));
+        assertEquals(Set.of("wheel-timer-test"), retryThreadNames);
+        assertEquals(0, timer.getNumberOfPendingTimeouts());
+        assertEquals(numberOfCalls, retry.getMetrics().getNumberOfSuccessfulCallsWithRetryAttempt());
+    }
+
+    @Test
+    @DisplayName("취소한 작업은 실행하지 않고, 한 바퀴보다 먼 작업은 예정 시각에 실행한다")
+    void skipCancelledTimeoutAndRunAfterWheelRounds() throws Exception {
+        // given
+        AtomicInteger cancelledRuns = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(1);
+
+        // when
+        HashedWheelTimer.Timeout cancelled = timer.schedule(cancelledRuns::incrementAndGet, 50, TimeUnit.MILLISECONDS);
+        cancelled.cancel();
+
+        long startTime = System.nanoTime();
+        // wheel 한 바퀴는 5ms * 64 = 320ms
+        HashedWheelTimer.Timeout timeout = timer.schedule(latch::countDown, 500, TimeUnit.MILLISECONDS);
+
+        // then
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        assertTrue(elapsedMillis >= 500, "elapsed " + elapsedMillis + "ms");
+        assertTrue(timeout.isExpired());
+        assertTrue(cancelled.isCancelled());
+        assertEquals(0, cancelledRuns.get());
+        assertEquals(0, timer.getNumberOfPendingTimeouts());
+    }
+}
@@ -0,0 +1,133 @@
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import raccoonback.BackendService;
+import raccoonback.RetryableException;
+import raccoonback.retry.Backoff;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+public class BackoffTest {
+
+    private BackendService backendService = mock(BackendService.class);
+
+    @Test
+    @DisplayName("full jitter 는 0 부터 지수적으로 늘어나는 상한까지 대기 시간을 흩뜨린다")
+    void spreadFullJitterUpToExponentialCap() {
+        // given
+        IntervalFunction intervalFunction = Backoff.fullJitter(Duration.ofMillis(100), Duration.ofMillis(1_000));
+
+        // when, then
+        assertWithin(intervalFunction, 1, 1, 100);
+        assertWithin(intervalFunction, 2, 1, 200);
+        assertWithin(intervalFunction, 3, 1, 400);
+        assertWithin(intervalFunction, 10, 1, 1_000);
+        assertWithin(intervalFunction, Integer.MAX_VALUE, 1, 1_000);
+    }
+
+    @Test
+    @DisplayName("decorrelated jitter 는 base 부터 이전 구간의 세 배까지 대기 시간을 흩뜨린다")
+    void spreadDecorrelatedJitterFromBase() {
+        // given
+        IntervalFunction intervalFunction = Backoff.decorrelatedJitter(Duration.ofMillis(100), Duration.ofMillis(1_000));
+
+        // when, then
+        assertWithin(intervalFunction, 1, 100, 300);
+        assertWithin(intervalFunction, 2, 100, 600);
+        assertWithin(intervalFunction, 3, 100, 1_000);
+        assertWithin(intervalFunction, 100, 100, 1_000);
+    }
+
+    @Test
+    @DisplayName("latency-aware backoff 는 circuit breaker 의 slow call 비율만큼 대기 시간을 늘린다")
+    void scaleIntervalBySlowCallRate() {
+        // given
+        CircuitBreaker circuitBreaker = CircuitBreaker.of(
+                "test",
+                CircuitBreakerConfig.custom()
+                        .slidingWindowSize(4)
+                        .minimumNumberOfCalls(4)
+                        .slowCallDurationThreshold(Duration.ofMillis(100))
+                        .build()
+        );
+        IntervalFunction intervalFunction = Backoff.latencyAware(IntervalFunction.of(Duration.ofMillis(100)), circuitBreaker, 4);
+
+        // when
+        long beforeMinimumNumberOfCalls = intervalFunction.apply(1);
+
+        circuitBreaker.onSuccess(10, TimeUnit.MILLISECONDS);
+        circuitBreaker.onSuccess(10, TimeUnit.MILLISECONDS);
+        circuitBreaker.onSuccess(500, TimeUnit.MILLISECONDS);
+        circuitBreaker.onSuccess(500, TimeUnit.MILLISECONDS);
+        long halfSlow = intervalFunction.apply(1);
+
+        circuitBreaker.onSuccess(500, TimeUnit.MILLISECONDS);
+        circuitBreaker.onSuccess(500, TimeUnit.MILLISECONDS);
+        long allSlow = intervalFunction.apply(1);
+
+        // then
+        assertEquals(100, beforeMinimumNumberOfCalls);
+        assertEquals(250, halfSlow);
+        assertEquals(400, allSlow);
+    }
+
+    @Test
+    @DisplayName("RetryConfig 의 intervalFunction 으로 넘기면 재시도마다 흩뜨린 대기 시간을 쓴다")
+    void useBackoffFromRetryConfig() {
+        // given
+        Retry retry = Retry.of(
+                "test",
+                RetryConfig.custom()
+                        .maxAttempts(3)
+                        .intervalFunction(Backoff.decorrelatedJitter(Duration.ofMillis(10), Duration.ofMillis(50)))
+                        .retryExceptions(RetryableException.class)
+                        .build()
+        );
+        List<Duration> waitIntervals = new ArrayList<>();
+        retry.getEventPublisher()
+                .onRetry(event -> waitIntervals.add(event.getWaitInterval()));
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willThrow(RetryableException.class)
+                .willThrow(RetryableException.class)
+                .willReturn("SUCCESS");
+
+        Supplier<String> supplier = Retry.decorateSupplier(retry, () -> backendService.doSomething("param1", "param2"));
+
+        // when
+        String result = supplier.get();
+
+        // then
+        assertEquals("SUCCESS", result);
+        assertEquals(2, waitIntervals.size());
+        assertTrue(waitIntervals.stream().allMatch(wait -> wait.toMillis() >= 10 && wait.toMillis() <= 50), waitIntervals.toString());
+    }
+
+    private void assertWithin(IntervalFunction intervalFunction, int numOfAttempts, long minInMillis, long maxInMillis) {
+        Set<Long> intervals = new HashSet<>();
+        IntStream.range(0, 1_000).forEach((index) -> {
+            long interval = intervalFunction.apply(numOfAttempts);
+            assertTrue(interval >= minInMillis && interval <= maxInMillis, "attempt " + numOfAttempts + ": " + interval);
+            intervals.add(interval);
+        });
+        // 같은 시도 횟수라도 대기 시간이 한 값에 몰리지 않는다
+        assertTrue(intervals.size() > (maxInMillis - minInMillis) / 2, "attempt " + numOfAttempts + ": " + intervals.size());
+    }
+}
@@ -0,0 +1,228 @@
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
+import io.github.resilience4j.decorators.Decorators;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import raccoonback.BackendService;
+import raccoonback.timelimiter.CancellableTimeLimiter;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+public class CancellableTimeLimiterTest {
+
+    private ThreadPoolBulkheadConfig config = ThreadPoolBulkheadConfig.custom()
+            .maxThreadPoolSize(1)
+            .coreThreadPoolSize(1)
+            .queueCapacity(1)
+            .build();
+
+    private ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    private BackendService backendService = mock(BackendService.class);
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("TimeLimiter 만 쓰면 timeout 된 호출이 bulkhead 의 스레드를 계속 잡고 있다")
+    void timedOutCallsKeepHoldingThreadPool() {
+        // given
+        ThreadPoolBulkhead bulkhead = ThreadPoolBulkhead.of("test", config);
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willAnswer((unUsed) -> {
+                    Thread.sleep(1_000);
+                    return "slow";
+                });
+
+        Supplier<CompletionStage<String>> decoratedSupplier = Decorators.ofSupplier(
+                        () -> backendService.doSomething("param1", "param2")
+                )
+                .withThreadPoolBulkhead(bulkhead)
+                .withTimeLimiter(TimeLimiter.of(Duration.ofMillis(100)), scheduler)
+                .decorate();
+
+        // when
+        for (int i = 0; i < 2; i++) {
+            assertTimedOut(decoratedSupplier.get().toCompletableFuture());
+        }
+
+        // then
+        CompletionException exception = assertThrows(
+                CompletionException.class,
+                () -> decoratedSupplier.get().toCompletableFuture().join()
+        );
+        assertInstanceOf(BulkheadFullException.class, exception.getCause());
+    }
+
+    @Test
+    @DisplayName("timeout 된 호출은 interrupt 되어 bulkhead 의 스레드를 바로 돌려준다")
+    void reclaimThreadPoolFromTimedOutCalls() {
+        // given
+        ThreadPoolBulkhead bulkhead = ThreadPoolBulkhead.of("test", config);
+        CancellableTimeLimiter timeLimiter = CancellableTimeLimiter.of(TimeLimiter.of(Duration.ofMillis(100)), scheduler);
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willAnswer((invocation) -> {
+                    if (invocation.getArgument(0).equals("fast")) {
+                        return Thread.currentThread().isInterrupted() ? "interrupted" : "fast";
+                    }
+                    Thread.sleep(10_000);
+                    return "slow";
+                });
+
+        Supplier<CompletionStage<String>> slowCall = CancellableTimeLimiter.decorateSupplier(
+                timeLimiter,
+                bulkhead,
+                () -> backendService.doSomething("slow", "call")
+        );
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            assertTimedOut(slowCall.get().toCompletableFuture());
+        }
+        awaitIdle(bulkhead);
+        String result = CancellableTimeLimiter.decorateSupplier(
+                        timeLimiter,
+                        bulkhead,
+                        () -> backendService.doSomething("fast", "call")
+                )
+                .get()
+                .toCompletableFuture()
+                .join();
+
+        // then
+        assertEquals("fast", result);
+        assertEquals(10, timeLimiter.getMetrics().getNumberOfCancelledRunningCalls()
+                + timeLimiter.getMetrics().getNumberOfCancelledQueuedCalls());
+    }
+
+    @Test
+    @DisplayName("interrupt 하지 않도록 설정하면 cancellation token 으로 작업에 취소를 알린다")
+    void notifyCancellationTokenWithoutInterrupt() throws Exception {
+        // given
+        ThreadPoolBulkhead bulkhead = ThreadPoolBulkhead.of("test", config);
+        CancellableTimeLimiter timeLimiter = CancellableTimeLimiter.of(
+                TimeLimiter.of(
+                        TimeLimiterConfig.custom()
+                                .timeoutDuration(Duration.ofMillis(100))
+                                .cancelRunningFuture(false)
+                                .build()
+                ),
+                scheduler
+        );
+        CountDownLatch stopped = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+
+        // when
+        CompletableFuture<String> future = CancellableTimeLimiter.<String>decorateCancellableSupplier(
+                        timeLimiter,
+                        bulkhead,
+                        (token) -> {
+                            while (!token.isCancellationRequested()) {
+                                Thread.onSpinWait();
+                            }
+                            interrupted.set(Thread.currentThread().isInterrupted());
+                            stopped.countDown();
+                            return "stopped";
+                        }
+                )
+                .get()
+                .toCompletableFuture();
+
+        // then
+        assertTimedOut(future);
+        assertTrue(stopped.await(1, TimeUnit.SECONDS));
+        assertFalse(interrupted.get());
+        assertEquals(1, timeLimiter.getMetrics().getNumberOfCancelledRunningCalls());
+    }
+
+    @Test
+    @DisplayName("queue 에서 기다리다 timeout 된 호출은 backend 를 호출하지 않는다")
+    void skipQueuedCallAfterTimeout() {
+        // given
+        ThreadPoolBulkhead bulkhead = ThreadPoolBulkhead.of(
+                "test",
+                ThreadPoolBulkheadConfig.custom()
+                        .maxThreadPoolSize(1)
+                        .coreThreadPoolSize(1)
+                        .queueCapacity(1)
+                        .build()
+        );
+        CancellableTimeLimiter timeLimiter = CancellableTimeLimiter.of(
+                TimeLimiter.of(
+                        TimeLimiterConfig.custom()
+                                .timeoutDuration(Duration.ofMillis(100))
+                                .cancelRunningFuture(false)
+                                .build()
+                ),
+                scheduler
+        );
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willAnswer((unUsed) -> {
+                    Thread.sleep(300);
+                    return "slow";
+                });
+
+        // when
+        CompletableFuture<String> running = CancellableTimeLimiter.decorateSupplier(
+                        timeLimiter,
+                        bulkhead,
+                        () -> backendService.doSomething("running", "call")
+                )
+                .get()
+                .toCompletableFuture();
+        CompletableFuture<String> queued = CancellableTimeLimiter.decorateSupplier(
+                        timeLimiter,
+                        bulkhead,
+                        () -> backendService.doSomething("queued", "call")
+                )
+                .get()
+                .toCompletableFuture();
+
+        // then
+        assertTimedOut(running);
+        assertTimedOut(queued);
+        awaitIdle(bulkhead);
+        verify(backendService, never())
+                .doSomething("queued", "call");
+        assertEquals(1, timeLimiter.getMetrics().getNumberOfCancelledQueuedCalls());
+    }
+
+    private static void assertTimedOut(CompletableFuture<String> future) {
+        CompletionException exception = assertThrows(CompletionException.class, future::join);
+        assertInstanceOf(TimeoutException.class, exception.getCause());
+    }
+
+    private static void awaitIdle(ThreadPoolBulkhead bulkhead) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (bulkhead.getMetrics().getActiveThreadCount() > 0 || bulkhead.getMetrics().getQueueDepth() > 0) {
+            if (System.nanoTime() > deadline) {
+                fail("bulkhead is still busy");
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
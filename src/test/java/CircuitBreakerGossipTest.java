@@ -0,0 +1,240 @@
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import raccoonback.BackendService;
+import raccoonback.BusinessException;
+import raccoonback.OtherBusinessException;
+import raccoonback.circuitbreaker.CircuitBreakerGossip;
+import raccoonback.circuitbreaker.CircuitBreakerGossipConfig;
+import raccoonback.circuitbreaker.LoopbackGossipTransport;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static io.github.resilience4j.circuitbreaker.CircuitBreaker.State.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+public class CircuitBreakerGossipTest {
+
+    private CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom()
+            .failureRateThreshold(40)
+            .automaticTransitionFromOpenToHalfOpenEnabled(true)
+            .waitDurationInOpenState(Duration.ofSeconds(1))
+            .permittedNumberOfCallsInHalfOpenState(4)
+            .slidingWindowSize(10)
+            .minimumNumberOfCalls(10)
+            .recordExceptions(IOException.class, TimeoutException.class)
+            .ignoreExceptions(BusinessException.class, OtherBusinessException.class)
+            .build();
+
+    private BackendService backendService = mock(BackendService.class);
+
+    private AtomicLong nanoTime = new AtomicLong();
+
+    private CircuitBreakerGossipConfig gossipConfig = CircuitBreakerGossipConfig.custom()
+            .summaryTimeToLive(Duration.ofSeconds(10))
+            .clock(nanoTime::get)
+            .build();
+
+    @Test
+    @DisplayName("노드마다 minimum number of calls 에 못 미쳐도 클러스터 합계가 기준을 넘으면 모두 open 된다")
+    void openWhenClusterAggregateExceedsThreshold() {
+        // given
+        given(backendService.doSomething(anyString(), anyString()))
+                .willAnswer((invocation) -> {
+                    throw new IOException();
+                });
+
+        LoopbackGossipTransport.Network network = LoopbackGossipTransport.network();
+        List<CircuitBreakerRegistry> registries = List.of(
+                CircuitBreakerRegistry.of(circuitBreakerConfig),
+                CircuitBreakerRegistry.of(circuitBreakerConfig),
+                CircuitBreakerRegistry.of(circuitBreakerConfig)
+        );
+        List<CircuitBreakerGossip> gossips = IntStream.range(0, registries.size())
+                .mapToObj(i -> CircuitBreakerGossip.of("node-" + i, registries.get(i), network.join(), gossipConfig))
+                .toList();
+
+        for (CircuitBreakerRegistry registry : registries) {
+            Supplier<String> decoratedSupplier = decorate(registry.circuitBreaker("test"));
+            IntStream.range(0, 4).forEach((noOp) -> assertThrows(IOException.class, decoratedSupplier::get));
+            assertEquals(CLOSED, registry.circuitBreaker("test").getState());
+        }
+
+        // when
+        gossips.forEach(CircuitBreakerGossip::gossip);
+
+        // then
+        registries.forEach(registry -> assertEquals(OPEN, registry.circuitBreaker("test").getState()));
+        assertEquals(2, gossips.get(0).getMetrics().getNumberOfLiveNodes());
+    }
+
+    @Test
+    @DisplayName("클러스터 실패율이 기준보다 낮으면 close 상태를 유지한다")
+    void stayClosedWhenClusterFailureRateIsLow() {
+        // given
+        given(backendService.doSomething(anyString(), anyString()))
+                .willReturn("ok");
+
+        LoopbackGossipTransport.Network network = LoopbackGossipTransport.network();
+        CircuitBreakerRegistry failingRegistry = CircuitBreakerRegistry.of(circuitBreakerConfig);
+        CircuitBreakerRegistry healthyRegistry = CircuitBreakerRegistry.of(circuitBreakerConfig);
+        CircuitBreakerGossip failingNode = CircuitBreakerGossip.of("node-a", failingRegistry, network.join(), gossipConfig);
+        CircuitBreakerGossip healthyNode = CircuitBreakerGossip.of("node-b", healthyRegistry, network.join(), gossipConfig);
+
+        CircuitBreaker failing = failingRegistry.circuitBreaker("test");
+        IntStream.range(0, 3).forEach((noOp) -> failing.onError(0, TimeUnit.NANOSECONDS, new IOException()));
+        Supplier<String> healthySupplier = decorate(healthyRegistry.circuitBreaker("test"));
+        IntStream.range(0, 9).forEach((noOp) -> assertEquals("ok", healthySupplier.get()));
+
+        // when
+        failingNode.gossip();
+        healthyNode.gossip();
+
+        // then
+        assertEquals(CLOSED, failing.getState());
+        assertEquals(CLOSED, healthyRegistry.circuitBreaker("test").getState());
+        assertEquals(0, failingNode.getMetrics().getNumberOfClusterOpenedBreakers());
+        assertEquals(0, healthyNode.getMetrics().getNumberOfClusterOpenedBreakers());
+    }
+
+    @Test
+    @DisplayName("summary 를 받은 뒤 이 노드의 실패로 클러스터 합계가 기준을 넘으면 open 된다")
+    void openOnLocalFailureWithRemoteSummaries() {
+        // given
+        given(backendService.doSomething(anyString(), anyString()))
+                .willAnswer((invocation) -> {
+                    throw new IOException();
+                });
+
+        LoopbackGossipTransport.Network network = LoopbackGossipTransport.network();
+        CircuitBreakerRegistry remoteRegistry = CircuitBreakerRegistry.of(circuitBreakerConfig);
+        CircuitBreakerRegistry localRegistry = CircuitBreakerRegistry.of(circuitBreakerConfig);
+        CircuitBreakerGossip remoteNode = CircuitBreakerGossip.of("node-a", remoteRegistry, network.join(), gossipConfig);
+        CircuitBreakerGossip localNode = CircuitBreakerGossip.of("node-b", localRegistry, network.join(), gossipConfig);
+
+        Supplier<String> remoteSupplier = decorate(remoteRegistry.circuitBreaker("test"));
+        IntStream.range(0, 6).forEach((noOp) -> assertThrows(IOException.class, remoteSupplier::get));
+        remoteNode.gossip();
+
+        Supplier<String> localSupplier = decorate(localRegistry.circuitBreaker("test"));
+        IntStream.range(0, 3).forEach((noOp) -> assertThrows(IOException.class, localSupplier::get));
+        assertEquals(CLOSED, localRegistry.circuitBreaker("test").getState());
+
+        // when
+        assertThrows(IOException.class, localSupplier::get);
+
+        // then
+        assertEquals(OPEN, localRegistry.circuitBreaker("test").getState());
+        assertEquals(1, localNode.getMetrics().getNumberOfClusterOpenedBreakers());
+    }
+
+    @Test
+    @DisplayName("summaryTimeToLive 가 지난 summary 는 합치지 않는다")
+    void ignoreExpiredSummaries() {
+        // given
+        given(backendService.doSomething(anyString(), anyString()))
+                .willAnswer((invocation) -> {
+                    throw new IOException();
+                });
+
+        LoopbackGossipTransport.Network network = LoopbackGossipTransport.network();
+        CircuitBreakerRegistry remoteRegistry = CircuitBreakerRegistry.of(circuitBreakerConfig);
+        CircuitBreakerRegistry localRegistry = CircuitBreakerRegistry.of(circuitBreakerConfig);
+        CircuitBreakerGossip remoteNode = CircuitBreakerGossip.of("node-a", remoteRegistry, network.join(), gossipConfig);
+        CircuitBreakerGossip localNode = CircuitBreakerGossip.of("node-b", localRegistry, network.join(), gossipConfig);
+
+        Supplier<String> remoteSupplier = decorate(remoteRegistry.circuitBreaker("test"));
+        IntStream.range(0, 6).forEach((noOp) -> assertThrows(IOException.class, remoteSupplier::get));
+        remoteNode.gossip();
+
+        // when
+        nanoTime.addAndGet(Duration.ofSeconds(11).toNanos());
+        Supplier<String> localSupplier = decorate(localRegistry.circuitBreaker("test"));
+        IntStream.range(0, 4).forEach((noOp) -> assertThrows(IOException.class, localSupplier::get));
+
+        // then
+        assertEquals(CLOSED, localRegistry.circuitBreaker("test").getState());
+        assertEquals(0, localNode.getMetrics().getNumberOfLiveNodes());
+    }
+
+    @Test
+    @DisplayName("시험 호출을 통과해 닫힌 노드는 아직 OPEN 인 노드의 오래된 window 로 다시 열리지 않는다")
+    void ignoreStaleOpenWindowAfterRecovery() {
+        // given
+        LoopbackGossipTransport.Network network = LoopbackGossipTransport.network();
+        CircuitBreakerRegistry openRegistry = CircuitBreakerRegistry.of(circuitBreakerConfig);
+        CircuitBreakerRegistry recoveringRegistry = CircuitBreakerRegistry.of(circuitBreakerConfig);
+        CircuitBreakerGossip openNode = CircuitBreakerGossip.of("node-a", openRegistry, network.join(), gossipConfig);
+        CircuitBreakerGossip recoveringNode = CircuitBreakerGossip.of("node-b", recoveringRegistry, network.join(), gossipConfig);
+
+        CircuitBreaker open = openRegistry.circuitBreaker("test");
+        CircuitBreaker recovering = recoveringRegistry.circuitBreaker("test");
+        IntStream.range(0, 10).forEach((noOp) -> open.onError(0, TimeUnit.NANOSECONDS, new IOException()));
+        assertEquals(OPEN, open.getState());
+
+        openNode.gossip();
+        assertEquals(OPEN, recovering.getState());
+
+        nanoTime.addAndGet(Duration.ofSeconds(1).toNanos());
+        recovering.transitionToHalfOpenState();
+        IntStream.range(0, 4).forEach((noOp) -> recovering.onSuccess(0, TimeUnit.NANOSECONDS));
+        assertEquals(CLOSED, recovering.getState());
+
+        // when
+        nanoTime.addAndGet(Duration.ofMillis(100).toNanos());
+        openNode.gossip();
+        recovering.onError(0, TimeUnit.NANOSECONDS, new IOException());
+
+        // then
+        assertEquals(OPEN, open.getState());
+        assertEquals(CLOSED, recovering.getState());
+        assertEquals(1, recoveringNode.getMetrics().getNumberOfClusterOpenedBreakers());
+    }
+
+    @Test
+    @DisplayName("close 한 노드는 summary 를 받지 않고 breaker 를 열지 않는다")
+    void ignoreSummariesAfterClose() {
+        // given
+        given(backendService.doSomething(anyString(), anyString()))
+                .willAnswer((invocation) -> {
+                    throw new IOException();
+                });
+
+        LoopbackGossipTransport.Network network = LoopbackGossipTransport.network();
+        CircuitBreakerRegistry remoteRegistry = CircuitBreakerRegistry.of(circuitBreakerConfig);
+        CircuitBreakerRegistry localRegistry = CircuitBreakerRegistry.of(circuitBreakerConfig);
+        CircuitBreakerGossip remoteNode = CircuitBreakerGossip.of("node-a", remoteRegistry, network.join(), gossipConfig);
+        CircuitBreakerGossip localNode = CircuitBreakerGossip.of("node-b", localRegistry, network.join(), gossipConfig);
+
+        Supplier<String> remoteSupplier = decorate(remoteRegistry.circuitBreaker("test"));
+        IntStream.range(0, 6).forEach((noOp) -> assertThrows(IOException.class, remoteSupplier::get));
+        remoteNode.gossip();
+
+        // when
+        localNode.close();
+        remoteNode.gossip();
+        Supplier<String> localSupplier = decorate(localRegistry.circuitBreaker("test"));
+        IntStream.range(0, 4).forEach((noOp) -> assertThrows(IOException.class, localSupplier::get));
+
+        // then
+        assertEquals(CLOSED, localRegistry.circuitBreaker("test").getState());
+        assertEquals(0, localNode.getMetrics().getNumberOfClusterOpenedBreakers());
+        assertEquals(0, localNode.getMetrics().getNumberOfLiveNodes());
+    }
+
+    private Supplier<String> decorate(CircuitBreaker circuitBreaker) {
+        return CircuitBreaker.decorateSupplier(circuitBreaker, () -> backendService.doSomething("param1", "param2"));
+    }
+}
@@ -0,0 +1,185 @@
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import raccoonback.RetryableException;
+import raccoonback.circuitbreaker.CircuitBreakerSnapshotConfig;
+import raccoonback.circuitbreaker.CircuitBreakerSnapshotStore;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CircuitBreakerSnapshotStoreTest {
+
+    private CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom()
+            .slidingWindowSize(10)
+            .minimumNumberOfCalls(4)
+            .failureRateThreshold(50)
+            .waitDurationInOpenState(Duration.ofMinutes(1))
+            .build();
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    @DisplayName("열려 있던 circuit breaker 는 재시작 후에도 열린 채로 시작한다")
+    void restoreOpenState() {
+        // given
+        Path path = directory.resolve("circuit-breaker.snapshot");
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(circuitBreakerConfig);
+        registry.circuitBreaker("backendA").transitionToOpenState();
+        registry.circuitBreaker("backendB");
+        CircuitBreakerSnapshotStore.ofDefaults(registry, path).close();
+
+        // when
+        CircuitBreakerRegistry restartedRegistry = CircuitBreakerRegistry.of(circuitBreakerConfig);
+        CircuitBreakerSnapshotStore store = CircuitBreakerSnapshotStore.ofDefaults(restartedRegistry, path);
+        int restored = store.restore();
+
+        // then
+        assertEquals(2, restored);
+        CircuitBreaker circuitBreaker = restartedRegistry.circuitBreaker("backendA");
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertThrows(CallNotPermittedException.class, () -> circuitBreaker.executeSupplier(() -> "SUCCESS"));
+        assertEquals(CircuitBreaker.State.CLOSED, restartedRegistry.circuitBreaker("backendB").getState());
+        store.close();
+    }
+
+    @Test
+    @DisplayName("닫혀 있던 circuit breaker 는 window 의 호출 수를 이어받아 적은 실패로도 열린다")
+    void restoreClosedWindow() {
+        // given
+        Path path = directory.resolve("circuit-breaker.snapshot");
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(circuitBreakerConfig);
+        CircuitBreaker circuitBreaker = registry.circuitBreaker("backendA");
+        for (int i = 0; i < 3; i++) {
+            circuitBreaker.onSuccess(0, TimeUnit.NANOSECONDS);
+        }
+        for (int i = 0; i < 2; i++) {
+            circuitBreaker.onError(0, TimeUnit.NANOSECONDS, new RetryableException());
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        CircuitBreakerSnapshotStore.ofDefaults(registry, path).close();
+
+        // when
+        CircuitBreakerRegistry restartedRegistry = CircuitBreakerRegistry.of(circuitBreakerConfig);
+        CircuitBreakerSnapshotStore store = CircuitBreakerSnapshotStore.ofDefaults(restartedRegistry, path);
+        store.restore();
+
+        // then
+        CircuitBreaker restored = restartedRegistry.circuitBreaker("backendA");
+        assertEquals(CircuitBreaker.State.CLOSED, restored.getState());
+        assertEquals(5, restored.getMetrics().getNumberOfBufferedCalls());
+        assertEquals(2, restored.getMetrics().getNumberOfFailedCalls());
+
+        restored.onError(0, TimeUnit.NANOSECONDS, new RetryableException());
+        assertEquals(CircuitBreaker.State.OPEN, restored.getState());
+        store.close();
+    }
+
+    @Test
+    @DisplayName("window 를 다시 기록하는 도중에도 slow call 비율이 기준을 넘지 않아 닫힌 채로 복원된다")
+    void restoreClosedWindowBelowSlowCallRateThreshold() {
+        // given
+        CircuitBreakerConfig slowCallConfig = CircuitBreakerConfig.custom()
+                .slidingWindowSize(100)
+                .minimumNumberOfCalls(10)
+                .failureRateThreshold(50)
+                .slowCallRateThreshold(80)
+                .slowCallDurationThreshold(Duration.ofSeconds(1))
+                .build();
+        Path path = directory.resolve("circuit-breaker.snapshot");
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(slowCallConfig);
+        CircuitBreaker circuitBreaker = registry.circuitBreaker("backendA");
+        // 빠른 성공 15, 느린 성공 70, 빠른 실패 15 를 고르게 섞어 기록하는 동안에는 열리지 않는다
+        for (int i = 0; i < 100; i++) {
+            if (i % 20 < 3) {
+                circuitBreaker.onSuccess(0, TimeUnit.NANOSECONDS);
+            } else if (i % 20 < 6) {
+                circuitBreaker.onError(0, TimeUnit.NANOSECONDS, new RetryableException());
+            } else {
+                circuitBreaker.onSuccess(2, TimeUnit.SECONDS);
+            }
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        CircuitBreakerSnapshotStore.ofDefaults(registry, path).close();
+
+        // when
+        CircuitBreakerRegistry restartedRegistry = CircuitBreakerRegistry.of(slowCallConfig);
+        CircuitBreakerSnapshotStore store = CircuitBreakerSnapshotStore.ofDefaults(restartedRegistry, path);
+        store.restore();
+
+        // then
+        CircuitBreaker restored = restartedRegistry.circuitBreaker("backendA");
+        assertEquals(CircuitBreaker.State.CLOSED, restored.getState());
+        assertEquals(100, restored.getMetrics().getNumberOfBufferedCalls());
+        assertEquals(15, restored.getMetrics().getNumberOfFailedCalls());
+        assertEquals(70, restored.getMetrics().getNumberOfSlowCalls());
+        store.close();
+    }
+
+    @Test
+    @DisplayName("maxStaleness 보다 오래된 snapshot 은 복원하지 않는다")
+    void ignoreStaleSnapshot() {
+        // given
+        Path path = directory.resolve("circuit-breaker.snapshot");
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(circuitBreakerConfig);
+        registry.circuitBreaker("backendA").transitionToOpenState();
+        CircuitBreakerSnapshotStore.ofDefaults(registry, path).close();
+
+        // when
+        CircuitBreakerRegistry restartedRegistry = CircuitBreakerRegistry.of(circuitBreakerConfig);
+        CircuitBreakerSnapshotStore store = CircuitBreakerSnapshotStore.of(
+                restartedRegistry,
+                path,
+                CircuitBreakerSnapshotConfig.custom()
+                        .maxStaleness(Duration.ofMinutes(2))
+                        .clock(Clock.offset(Clock.systemUTC(), Duration.ofMinutes(3)))
+                        .build()
+        );
+        int restored = store.restore();
+
+        // then
+        assertEquals(0, restored);
+        assertEquals(1, store.getMetrics().getNumberOfStaleRecords());
+        assertEquals(CircuitBreaker.State.CLOSED, restartedRegistry.circuitBreaker("backendA").getState());
+        store.close();
+    }
+
+    @Test
+    @DisplayName("파일이 차면 마지막 snapshot 만 남기고 compaction 한다")
+    void compactWhenFileIsFull() {
+        // given
+        Path path = directory.resolve("circuit-breaker.snapshot");
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(circuitBreakerConfig);
+        CircuitBreaker circuitBreaker = registry.circuitBreaker("backendA");
+        CircuitBreakerSnapshotConfig config = CircuitBreakerSnapshotConfig.custom()
+                .initialFileSize(1024)
+                .build();
+        CircuitBreakerSnapshotStore store = CircuitBreakerSnapshotStore.of(registry, path, config);
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            store.snapshot();
+        }
+        circuitBreaker.transitionToForcedOpenState();
+        store.close();
+
+        // then
+        assertTrue(store.getMetrics().getNumberOfCompactions() > 0);
+        assertEquals(1024, path.toFile().length());
+
+        CircuitBreakerRegistry restartedRegistry = CircuitBreakerRegistry.of(circuitBreakerConfig);
+        CircuitBreakerSnapshotStore restartedStore = CircuitBreakerSnapshotStore.of(restartedRegistry, path, config);
+        restartedStore.restore();
+        assertEquals(CircuitBreaker.State.FORCED_OPEN, restartedRegistry.circuitBreaker("backendA").getState());
+        restartedStore.close();
+    }
+}
@@ -0,0 +1,241 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import raccoonback.BackendRequest;
+import raccoonback.BackendService;
+import raccoonback.RetryableException;
+import raccoonback.coalescing.MicroBatcher;
+import raccoonback.coalescing.MicroBatcherConfig;
+import raccoonback.coalescing.RequestCoalescer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+public class CoalescingTest {
+
+    private BackendService backendService = mock(BackendService.class);
+
+    @Test
+    @DisplayName("같은 인자로 동시에 들어온 호출은 backend 를 한 번만 호출한다")
+    void coalesceConcurrentCallsWithSameArguments() {
+        // given
+        RequestCoalescer<BackendRequest, String> coalescer = RequestCoalescer.create();
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willAnswer((unUsed) -> {
+                    Thread.sleep(300);
+                    return "ok";
+                });
+
+        Supplier<String> decoratedSupplier = RequestCoalescer.decorateSupplier(
+                coalescer,
+                new BackendRequest("param1", "param2"),
+                () -> backendService.doSomething("param1", "param2")
+        );
+
+        // when
+        List<CompletableFuture<String>> futures = IntStream.range(0, 5)
+                .mapToObj((noOp) -> CompletableFuture.supplyAsync(decoratedSupplier, command -> Thread.ofVirtual().start(command)))
+                .toList();
+
+        // then
+        futures.forEach(future -> assertEquals("ok", future.join()));
+        verify(backendService, only())
+                .doSomething("param1", "param2");
+        assertEquals(5, coalescer.getMetrics().getNumberOfRequests());
+        assertEquals(5.0, coalescer.getMetrics().getCoalesceRatio());
+    }
+
+    @Test
+    @DisplayName("먼저 들어온 호출의 예외는 합쳐진 호출에도 그대로 전달된다")
+    void shareExceptionWithCoalescedCalls() {
+        // given
+        RequestCoalescer<BackendRequest, String> coalescer = RequestCoalescer.create();
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willAnswer((unUsed) -> {
+                    Thread.sleep(300);
+                    throw new RetryableException();
+                });
+
+        Supplier<String> decoratedSupplier = RequestCoalescer.decorateSupplier(
+                coalescer,
+                new BackendRequest("param1", "param2"),
+                () -> backendService.doSomething("param1", "param2")
+        );
+
+        // when
+        List<CompletableFuture<String>> futures = IntStream.range(0, 3)
+                .mapToObj((noOp) -> CompletableFuture.supplyAsync(decoratedSupplier, command -> Thread.ofVirtual().start(command)))
+                .toList();
+
+        // then
+        futures.forEach(future -> {
+            Exception exception = assertThrows(Exception.class, future::join);
+            assertInstanceOf(RetryableException.class, exception.getCause());
+        });
+        verify(backendService, only())
+                .doSomething("param1", "param2");
+    }
+
+    @Test
+    @DisplayName("끝난 호출의 결과는 재사용하지 않는다")
+    void doesNotReuseFinishedCall() {
+        // given
+        RequestCoalescer<BackendRequest, String> coalescer = RequestCoalescer.create();
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willReturn("first")
+                .willReturn("second");
+
+        Supplier<String> decoratedSupplier = RequestCoalescer.decorateSupplier(
+                coalescer,
+                new BackendRequest("param1", "param2"),
+                () -> backendService.doSomething("param1", "param2")
+        );
+
+        // when, then
+        assertEquals("first", decoratedSupplier.get());
+        assertEquals("second", decoratedSupplier.get());
+    }
+
+    @Test
+    @DisplayName("max wait duration 안에 들어온 요청은 하나의 batch 로 보낸다")
+    void batchCallsWithinMaxWaitDuration() {
+        // given
+        List<List<BackendRequest>> batches = new CopyOnWriteArrayList<>();
+        MicroBatcher<BackendRequest, String> batcher = MicroBatcher.of(
+                requests -> {
+                    batches.add(requests);
+                    return requests.stream()
+                            .map(request -> request.param1() + " / " + request.param2())
+                            .toList();
+                },
+                MicroBatcherConfig.custom()
+                        .maxBatchSize(64)
+                        .maxWaitDuration(Duration.ofMillis(50))
+                        .build()
+        );
+
+        // when
+        List<CompletableFuture<String>> futures = List.of(
+                batcher.submit(new BackendRequest("a", "1")),
+                batcher.submit(new BackendRequest("b", "2")),
+                batcher.submit(new BackendRequest("a", "1"))
+        );
+
+        // then
+        assertEquals("a / 1", futures.get(0).join());
+        assertEquals("b / 2", futures.get(1).join());
+        assertEquals("a / 1", futures.get(2).join());
+        assertEquals(1, batches.size());
+        assertEquals(2, batches.get(0).size());
+        assertEquals(3.0, batcher.getMetrics().getCoalesceRatio());
+    }
+
+    @Test
+    @DisplayName("max batch size 가 차면 기다리지 않고 바로 보낸다")
+    void dispatchImmediatelyWhenBatchIsFull() {
+        // given
+        MicroBatcher<Integer, Integer> batcher = MicroBatcher.of(
+                numbers -> numbers,
+                MicroBatcherConfig.custom()
+                        .maxBatchSize(4)
+                        .maxWaitDuration(Duration.ofSeconds(10))
+                        .build()
+        );
+
+        // when
+        List<CompletableFuture<Integer>> futures = IntStream.range(0, 8)
+                .mapToObj(batcher::submit)
+                .toList();
+
+        // then
+        assertTimeout(
+                Duration.ofSeconds(1),
+                () -> CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join()
+        );
+        assertEquals(2, batcher.getMetrics().getNumberOfBackendCalls());
+        assertEquals(2, batcher.getMetrics().getBatchSizeHistogram()[2]);
+    }
+
+    @Test
+    @DisplayName("batch 호출이 실패하면 batch 의 모든 요청이 실패한다")
+    void failAllCallsInFailedBatch() {
+        // given
+        MicroBatcher<Integer, Integer> batcher = MicroBatcher.of(
+                numbers -> {
+                    throw new RetryableException();
+                },
+                MicroBatcherConfig.custom()
+                        .maxBatchSize(2)
+                        .build()
+        );
+
+        // when
+        CompletableFuture<Integer> first = batcher.submit(1);
+        CompletableFuture<Integer> second = batcher.submit(2);
+
+        // then
+        assertInstanceOf(RetryableException.class, assertThrows(Exception.class, first::join).getCause());
+        assertInstanceOf(RetryableException.class, assertThrows(Exception.class, second::join).getCause());
+    }
+
+    @Test
+    @DisplayName("닫힌 batcher 는 요청을 받지 않고, 닫기 전에 모인 요청은 보낸다")
+    void rejectSubmitAfterClose() {
+        // given
+        MicroBatcher<Integer, Integer> batcher = MicroBatcher.of(
+                numbers -> numbers,
+                MicroBatcherConfig.custom()
+                        .maxBatchSize(64)
+                        .maxWaitDuration(Duration.ofSeconds(10))
+                        .build()
+        );
+        CompletableFuture<Integer> pending = batcher.submit(1);
+
+        // when
+        batcher.close();
+
+        // then
+        assertEquals(1, pending.join());
+        assertThrows(IllegalStateException.class, () -> batcher.submit(2));
+        assertThrows(IllegalStateException.class, () -> batcher.submit(2));
+    }
+
+    @Test
+    @DisplayName("executor 가 batch 호출을 받지 않으면 그 batch 의 요청은 모두 같은 예외로 끝난다")
+    void failBatchRejectedByExecutor() {
+        // given
+        MicroBatcher<Integer, Integer> batcher = MicroBatcher.of(
+                numbers -> numbers,
+                MicroBatcherConfig.custom()
+                        .maxBatchSize(2)
+                        .maxWaitDuration(Duration.ofSeconds(10))
+                        .executor(command -> {
+                            throw new RejectedExecutionException("executor is shut down");
+                        })
+                        .build()
+        );
+
+        // when
+        CompletableFuture<Integer> first = batcher.submit(1);
+        CompletableFuture<Integer> second = batcher.submit(2);
+
+        // then
+        CompletionException exception = assertThrows(CompletionException.class, first::join);
+        assertInstanceOf(RejectedExecutionException.class, exception.getCause());
+        assertSame(exception.getCause(), assertThrows(CompletionException.class, second::join).getCause());
+        batcher.close();
+    }
+}
@@ -0,0 +1,197 @@
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.decorators.Decorators;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import raccoonback.BackendService;
+import raccoonback.RetryableException;
+import raccoonback.deadline.Deadline;
+import raccoonback.deadline.DeadlineContextPropagator;
+import raccoonback.deadline.DeadlineExceededException;
+import raccoonback.deadline.Deadlines;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+public class DeadlineTest {
+
+    private BackendService backendService = mock(BackendService.class);
+
+    @Test
+    @DisplayName("다음 재시도까지 기다릴 시간이 남은 시간보다 길면 기다리지 않고 실패한다")
+    void failFastIfRetryBackoffExceedsDeadline() {
+        // given
+        Retry retry = Retry.of(
+                "test",
+                RetryConfig.custom()
+                        .maxAttempts(3)
+                        .intervalFunction(Deadlines.bounded(IntervalFunction.of(Duration.ofMillis(500))))
+                        .retryExceptions(RetryableException.class)
+                        .build()
+        );
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willThrow(RetryableException.class);
+
+        Supplier<String> supplier = Deadline.decorateSupplier(
+                Duration.ofMillis(300),
+                Decorators.ofSupplier(Deadlines.decorateSupplier(() -> backendService.doSomething("param1", "param2")))
+                        .withRetry(retry)
+                        .decorate()
+        );
+
+        // when
+        long startTime = System.nanoTime();
+        assertThrows(DeadlineExceededException.class, supplier::get);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
+        // then
+        verify(backendService, times(1))
+                .doSomething("param1", "param2");
+        assertTrue(elapsedMillis < 300, "elapsed " + elapsedMillis + "ms");
+        assertNull(Deadline.current());
+    }
+
+    @Test
+    @DisplayName("bulkhead 의 maxWaitDuration 보다 deadline 이 먼저 오면 deadline 에 기다림을 멈춘다")
+    void stopWaitingForBulkheadAtDeadline() throws Exception {
+        // given
+        Bulkhead bulkhead = Deadlines.bounded(Bulkhead.of(
+                "test",
+                BulkheadConfig.custom()
+                        .maxConcurrentCalls(1)
+                        .maxWaitDuration(Duration.ofSeconds(5))
+                        .build()
+        ));
+        CountDownLatch acquired = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = Thread.ofPlatform().start(() -> bulkhead.executeSupplier(() -> {
+            acquired.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "holder";
+        }));
+        acquired.await();
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willReturn("SUCCESS");
+
+        Supplier<String> supplier = Deadline.decorateSupplier(
+                Duration.ofMillis(200),
+                Bulkhead.decorateSupplier(bulkhead, () -> backendService.doSomething("param1", "param2"))
+        );
+
+        // when
+        long startTime = System.nanoTime();
+        assertThrows(DeadlineExceededException.class, supplier::get);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
+        // then
+        assertTrue(elapsedMillis >= 190 && elapsedMillis < 1_000, "elapsed " + elapsedMillis + "ms");
+        assertFalse(Thread.currentThread().isInterrupted());
+        verify(backendService, never())
+                .doSomething("param1", "param2");
+
+        release.countDown();
+        holder.join();
+        assertEquals(1, bulkhead.getMetrics().getAvailableConcurrentCalls());
+    }
+
+    @Test
+    @DisplayName("rate limiter 가 허용할 때까지 기다릴 시간이 남은 시간보다 길면 기다리지 않고 실패한다")
+    void failFastIfRateLimiterWaitExceedsDeadline() {
+        // given
+        RateLimiter rateLimiter = Deadlines.bounded(RateLimiter.of(
+                "test",
+                RateLimiterConfig.custom()
+                        .limitForPeriod(1)
+                        .limitRefreshPeriod(Duration.ofSeconds(2))
+                        .timeoutDuration(Duration.ofSeconds(5))
+                        .build()
+        ));
+        rateLimiter.acquirePermission();
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willReturn("SUCCESS");
+
+        Supplier<String> supplier = Deadline.decorateSupplier(
+                Duration.ofMillis(300),
+                RateLimiter.decorateSupplier(rateLimiter, () -> backendService.doSomething("param1", "param2"))
+        );
+
+        // when
+        long startTime = System.nanoTime();
+        assertThrows(DeadlineExceededException.class, supplier::get);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
+        // then
+        assertTrue(elapsedMillis < 300, "elapsed " + elapsedMillis + "ms");
+        verify(backendService, never())
+                .doSomething("param1", "param2");
+    }
+
+    @Test
+    @DisplayName("thread pool bulkhead 의 queue 에서 기다리다 deadline 이 지난 호출은 backend 를 호출하지 않는다")
+    void skipQueuedCallAfterDeadline() {
+        // given
+        ThreadPoolBulkhead threadPoolBulkhead = ThreadPoolBulkhead.of(
+                "test",
+                ThreadPoolBulkheadConfig.custom()
+                        .maxThreadPoolSize(1)
+                        .coreThreadPoolSize(1)
+                        .queueCapacity(10)
+                        .contextPropagator(new DeadlineContextPropagator())
+                        .build()
+        );
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willAnswer((unUsed) -> {
+                    Thread.sleep(300);
+                    return "slow";
+                });
+
+        Supplier<CompletionStage<String>> slowCall = Decorators.ofSupplier(
+                        Deadlines.decorateSupplier(() -> backendService.doSomething("slow", "call"))
+                )
+                .withThreadPoolBulkhead(threadPoolBulkhead)
+                .decorate();
+        Supplier<CompletionStage<String>> queuedCall = Deadline.decorateCompletionStage(
+                Duration.ofMillis(100),
+                Decorators.ofSupplier(Deadlines.decorateSupplier(() -> backendService.doSomething("queued", "call")))
+                        .withThreadPoolBulkhead(threadPoolBulkhead)
+                        .decorate()
+        );
+
+        // when
+        CompletableFuture<String> slow = slowCall.get().toCompletableFuture();
+        CompletableFuture<String> queued = queuedCall.get().toCompletableFuture();
+
+        // then
+        assertEquals("slow", slow.join());
+        CompletionException exception = assertThrows(CompletionException.class, queued::join);
+        assertInstanceOf(DeadlineExceededException.class, exception.getCause());
+        verify(backendService, never())
+                .doSomething("queued", "call");
+        assertNull(Deadline.current());
+    }
+}
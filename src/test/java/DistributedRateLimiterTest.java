@@ -0,0 +1,276 @@
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import raccoonback.BackendService;
+import raccoonback.ratelimiter.DistributedRateLimiter;
+import raccoonback.ratelimiter.InMemoryPermitStore;
+import raccoonback.ratelimiter.LeasingConfig;
+import raccoonback.ratelimiter.PermitStore;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+public class DistributedRateLimiterTest {
+
+    private RateLimiterConfig config = RateLimiterConfig.custom()
+            .timeoutDuration(Duration.ZERO)
+            .limitRefreshPeriod(Duration.ofMillis(500))
+            .limitForPeriod(30)
+            .build();
+
+    private MutableClock clock = new MutableClock();
+
+    private BackendService backendService = mock(BackendService.class);
+
+    @Test
+    @DisplayName("여러 노드가 같은 저장소를 쓰면 refresh period 동안 전체 노드에서 limit count 까지만 호출할 수 있다")
+    void callsUntilLimitCountAcrossNodes() {
+        // given
+        PermitStore store = InMemoryPermitStore.create();
+        LeasingConfig leasingConfig = LeasingConfig.custom()
+                .leaseSize(4)
+                .clock(clock)
+                .build();
+
+        List<Supplier<String>> nodes = IntStream.range(0, 3)
+                .mapToObj((index) -> RateLimiter.decorateSupplier(
+                        DistributedRateLimiter.of("test", config, leasingConfig, store),
+                        () -> backendService.doSomething("param1", "param2")
+                ))
+                .toList();
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willReturn("ok");
+
+        // when
+        int permittedCalls = callRoundRobin(nodes, 60);
+        clock.advance(Duration.ofMillis(500));
+        int permittedCallsInNextPeriod = callRoundRobin(nodes, 60);
+
+        // then
+        assertEquals(30, permittedCalls);
+        assertEquals(30, permittedCallsInNextPeriod);
+    }
+
+    @Test
+    @DisplayName("빌려온 permit 이 떨어지기 전에 미리 더 빌려오므로 호출이 저장소 응답을 기다리지 않는다")
+    void notWaitForStoreOnHotPath() {
+        // given
+        DistributedRateLimiter rateLimiter = DistributedRateLimiter.of(
+                "test",
+                RateLimiterConfig.custom()
+                        .timeoutDuration(Duration.ofSeconds(1))
+                        .limitRefreshPeriod(Duration.ofSeconds(10))
+                        .limitForPeriod(10_000)
+                        .build(),
+                LeasingConfig.custom()
+                        .leaseSize(100)
+                        .refillThreshold(0.8)
+                        .clock(clock)
+                        .build(),
+                InMemoryPermitStore.withLatency(Duration.ofMillis(50))
+        );
+
+        Supplier<String> decoratedSupplier = RateLimiter.decorateSupplier(
+                rateLimiter,
+                () -> backendService.doSomething("param1", "param2")
+        );
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willReturn("ok");
+
+        // 처음에는 빌려온 permit 이 없으므로 저장소 응답을 기다린다
+        decoratedSupplier.get();
+
+        // when, then
+        IntStream.range(0, 250).forEach((index) -> {
+            assertTimeout(Duration.ofMillis(20), decoratedSupplier::get);
+            sleep(1);
+        });
+    }
+
+    @Test
+    @DisplayName("저장소의 permit 이 모두 떨어지면 저장소를 다시 부르지 않고 바로 거절한다")
+    void rejectWithoutStoreCallAfterExhausted() {
+        // given
+        AtomicInteger leaseCalls = new AtomicInteger();
+        PermitStore store = InMemoryPermitStore.create();
+        PermitStore countingStore = (name, period, limitForPeriod, requestedPermits) -> {
+            leaseCalls.incrementAndGet();
+            return store.lease(name, period, limitForPeriod, requestedPermits);
+        };
+
+        RateLimiter rateLimiter = DistributedRateLimiter.of(
+                "test",
+                config,
+                LeasingConfig.custom()
+                        .leaseSize(10)
+                        .clock(clock)
+                        .build(),
+                countingStore
+        );
+
+        Supplier<String> decoratedSupplier = RateLimiter.decorateSupplier(
+                rateLimiter,
+                () -> backendService.doSomething("param1", "param2")
+        );
+
+        IntStream.range(0, 30).forEach((index) -> decoratedSupplier.get());
+        int leaseCallsUntilExhausted = leaseCalls.get();
+
+        // when, then
+        IntStream.range(0, 10).forEach((index) -> {
+            assertThrows(RequestNotPermitted.class, decoratedSupplier::get);
+        });
+        assertEquals(leaseCallsUntilExhausted, leaseCalls.get());
+    }
+
+    @Test
+    @DisplayName("저장소 호출이 실패하면 retry interval 만큼 쉬었다가 다시 부르고, timeout 이 지나면 거절한다")
+    void backOffAndTimeOutWhenStoreFails() {
+        // given
+        AtomicInteger leaseCalls = new AtomicInteger();
+        PermitStore failingStore = (name, period, limitForPeriod, requestedPermits) -> {
+            if (leaseCalls.incrementAndGet() % 2 == 0) {
+                throw new IllegalStateException("store is down");
+            }
+            return CompletableFuture.failedFuture(new IllegalStateException("store is down"));
+        };
+
+        RateLimiter rateLimiter = DistributedRateLimiter.of(
+                "test",
+                RateLimiterConfig.from(config)
+                        .timeoutDuration(Duration.ofMillis(300))
+                        .build(),
+                LeasingConfig.custom()
+                        .leaseRetryInterval(Duration.ofMillis(100))
+                        .clock(clock)
+                        .build(),
+                failingStore
+        );
+
+        // when
+        long start = System.nanoTime();
+        boolean permitted = rateLimiter.acquirePermission();
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        // then
+        assertFalse(permitted);
+        assertTrue(elapsed.compareTo(Duration.ofMillis(250)) >= 0, "elapsed " + elapsed);
+        assertTrue(elapsed.compareTo(Duration.ofSeconds(2)) < 0, "elapsed " + elapsed);
+        assertTrue(leaseCalls.get() <= 5, "lease calls " + leaseCalls.get());
+    }
+
+    @Test
+    @DisplayName("저장소 호출이 나중에 실패해도 retry interval 동안은 저장소를 다시 부르지 않는다")
+    void backOffWhenStoreFailsAsynchronously() {
+        // given
+        AtomicInteger leaseCalls = new AtomicInteger();
+        PermitStore failingStore = (name, period, limitForPeriod, requestedPermits) -> {
+            leaseCalls.incrementAndGet();
+            return CompletableFuture.supplyAsync(
+                    () -> {
+                        throw new IllegalStateException("store is down");
+                    },
+                    CompletableFuture.delayedExecutor(1, TimeUnit.MILLISECONDS)
+            );
+        };
+        LeasingConfig leasingConfig = LeasingConfig.custom()
+                .leaseRetryInterval(Duration.ofMillis(100))
+                .clock(clock)
+                .build();
+
+        RateLimiter waitingRateLimiter = DistributedRateLimiter.of(
+                "test",
+                RateLimiterConfig.from(config)
+                        .timeoutDuration(Duration.ofMillis(500))
+                        .build(),
+                leasingConfig,
+                failingStore
+        );
+        RateLimiter reservingRateLimiter = DistributedRateLimiter.of("test", config, leasingConfig, failingStore);
+
+        // when
+        boolean permitted = waitingRateLimiter.acquirePermission();
+
+        // then
+        assertFalse(permitted);
+        assertTrue(leaseCalls.get() <= 7, "lease calls " + leaseCalls.get());
+
+        // when
+        leaseCalls.set(0);
+        long start = System.nanoTime();
+        IntStream.range(0, 1_000).forEach((noOp) -> assertEquals(-1, reservingRateLimiter.reservePermission(1)));
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        // then
+        long retryWindows = elapsed.toMillis() / 100 + 1;
+        assertTrue(leaseCalls.get() <= retryWindows + 1, "lease calls " + leaseCalls.get() + " in " + elapsed);
+    }
+
+    private static int callRoundRobin(List<Supplier<String>> nodes, int calls) {
+        int permittedCalls = 0;
+        for (int index = 0; index < calls; index++) {
+            try {
+                nodes.get(index % nodes.size()).get();
+                permittedCalls++;
+            } catch (RequestNotPermitted ignored) {
+            }
+        }
+        return permittedCalls;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class MutableClock extends Clock {
+
+        private final AtomicLong millis = new AtomicLong(1_000_000);
+
+        void advance(Duration duration) {
+            millis.addAndGet(duration.toMillis());
+        }
+
+        @Override
+        public long millis() {
+            return millis.get();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis());
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,348 @@
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import raccoonback.BackendRequest;
+import raccoonback.BackendService;
+import raccoonback.RetryableException;
+import raccoonback.flow.FlowDecorators;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+public class FlowDecoratorsTest {
+
+    private BackendService backendService = mock(BackendService.class);
+
+    private ExecutorService executor = Executors.newFixedThreadPool(4, Thread.ofPlatform().name("flow-", 0).factory());
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("downstream 이 요청한 만큼만 upstream 에서 요청을 받아 호출한다")
+    void callOnlyAsManyAsRequested() throws Exception {
+        // given
+        given(backendService.doSomething(anyString(), anyString()))
+                .willAnswer((invocation) -> invocation.getArgument(0));
+
+        RequestPublisher requests = new RequestPublisher(100);
+        Function<Flow.Publisher<BackendRequest>, Flow.Publisher<String>> operator = FlowDecorators
+                .ofFunction((BackendRequest request) -> backendService.doSomething(request.param1(), request.param2()), executor)
+                .decorate();
+        ResultSubscriber subscriber = new ResultSubscriber(3);
+
+        // when
+        operator.apply(requests).subscribe(subscriber);
+
+        // then
+        assertTrue(subscriber.received(3, Duration.ofSeconds(1)));
+        assertEquals(Set.of("0", "1", "2"), Set.copyOf(subscriber.results));
+        assertEquals(3, requests.requested.get());
+
+        // when
+        subscriber.request(2);
+
+        // then
+        assertTrue(subscriber.received(5, Duration.ofSeconds(1)));
+        assertEquals(Set.of("0", "1", "2", "3", "4"), Set.copyOf(subscriber.results));
+        assertEquals(5, requests.requested.get());
+        verify(backendService, times(5))
+                .doSomething(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("rate limiter 의 permit 이 생기는 만큼만 upstream 에 요청하고 스레드는 기다리지 않는다")
+    void requestUpstreamAsPermitsRefresh() throws Exception {
+        // given
+        given(backendService.doSomething(anyString(), anyString()))
+                .willAnswer((invocation) -> invocation.getArgument(0));
+
+        RateLimiter rateLimiter = RateLimiter.of(
+                "test",
+                RateLimiterConfig.custom()
+                        .limitForPeriod(5)
+                        .limitRefreshPeriod(Duration.ofMillis(200))
+                        .timeoutDuration(Duration.ofSeconds(5))
+                        .build()
+        );
+        RequestPublisher requests = new RequestPublisher(15);
+        Function<Flow.Publisher<BackendRequest>, Flow.Publisher<String>> operator = FlowDecorators
+                .ofFunction((BackendRequest request) -> backendService.doSomething(request.param1(), request.param2()), executor)
+                .withRateLimiter(rateLimiter)
+                .decorate();
+        ResultSubscriber subscriber = new ResultSubscriber(Long.MAX_VALUE);
+
+        // when
+        long startTime = System.nanoTime();
+        operator.apply(requests).subscribe(subscriber);
+        long subscribeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        long requestedOnSubscribe = requests.requested.get();
+
+        // then
+        assertTrue(subscriber.completed.await(2, TimeUnit.SECONDS));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
+        assertTrue(subscribeMillis < 100, "subscribe took " + subscribeMillis + "ms");
+        assertTrue(requestedOnSubscribe <= 5, "requested " + requestedOnSubscribe + " on subscribe");
+        assertTrue(elapsedMillis >= 300, "elapsed " + elapsedMillis + "ms");
+        assertEquals(15, subscriber.results.size());
+        assertEquals(15, requests.requested.get());
+    }
+
+    @Test
+    @DisplayName("bulkhead 의 maxConcurrentCalls 보다 많은 호출을 동시에 보내지 않는다")
+    void limitConcurrentCallsWithBulkhead() throws Exception {
+        // given
+        Bulkhead bulkhead = Bulkhead.of(
+                "test",
+                BulkheadConfig.custom()
+                        .maxConcurrentCalls(2)
+                        .maxWaitDuration(Duration.ZERO)
+                        .build()
+        );
+        AtomicInteger concurrentCalls = new AtomicInteger();
+        AtomicInteger maxConcurrentCalls = new AtomicInteger();
+
+        RequestPublisher requests = new RequestPublisher(8);
+        Function<Flow.Publisher<BackendRequest>, Flow.Publisher<String>> operator = FlowDecorators
+                .ofCompletionStage((BackendRequest request) -> {
+                    maxConcurrentCalls.accumulateAndGet(concurrentCalls.incrementAndGet(), Math::max);
+                    return CompletableFuture.supplyAsync(
+                            () -> {
+                                concurrentCalls.decrementAndGet();
+                                return request.param1();
+                            },
+                            CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS)
+                    );
+                })
+                .withBulkhead(bulkhead)
+                .decorate();
+        ResultSubscriber subscriber = new ResultSubscriber(Long.MAX_VALUE);
+
+        // when
+        operator.apply(requests).subscribe(subscriber);
+
+        // then
+        assertTrue(subscriber.completed.await(2, TimeUnit.SECONDS));
+        assertEquals(8, subscriber.results.size());
+        assertEquals(2, maxConcurrentCalls.get());
+        assertEquals(2, bulkhead.getMetrics().getAvailableConcurrentCalls());
+    }
+
+    @Test
+    @DisplayName("실패한 호출은 재시도하고, circuit breaker 가 열리면 upstream 을 취소하고 실패한다")
+    void retryFailedCallAndFailOnOpenCircuit() throws Exception {
+        // given
+        CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("test");
+        Retry retry = Retry.of(
+                "test",
+                RetryConfig.custom()
+                        .maxAttempts(3)
+                        .waitDuration(Duration.ofMillis(10))
+                        .retryExceptions(RetryableException.class)
+                        .build()
+        );
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willThrow(RetryableException.class)
+                .willAnswer((invocation) -> invocation.getArgument(0));
+
+        RequestPublisher requests = new RequestPublisher(100);
+        Function<Flow.Publisher<BackendRequest>, Flow.Publisher<String>> operator = FlowDecorators
+                .ofFunction((BackendRequest request) -> backendService.doSomething(request.param1(), request.param2()), executor)
+                .withCircuitBreaker(circuitBreaker)
+                .withRetry(retry)
+                .decorate();
+        ResultSubscriber subscriber = new ResultSubscriber(3);
+
+        // when
+        operator.apply(requests).subscribe(subscriber);
+
+        // then
+        assertTrue(subscriber.received(3, Duration.ofSeconds(1)));
+        // 재시도한 호출은 늦게 끝나므로 결과의 순서는 요청 순서와 다르다
+        assertEquals(Set.of("0", "1", "2"), Set.copyOf(subscriber.results));
+        verify(backendService, times(4))
+                .doSomething(anyString(), anyString());
+
+        // when
+        circuitBreaker.transitionToForcedOpenState();
+        subscriber.request(10);
+
+        // then
+        assertTrue(subscriber.completed.await(1, TimeUnit.SECONDS));
+        assertInstanceOf(CallNotPermittedException.class, subscriber.failure);
+        assertTrue(requests.cancelled);
+    }
+
+    @Test
+    @DisplayName("재시도와 permit 대기로 timer 에서 깨어나도 function 은 executor 에서만 호출한다")
+    void neverCallFunctionOnTimerThread() throws Exception {
+        // given
+        RateLimiter rateLimiter = RateLimiter.of(
+                "test",
+                RateLimiterConfig.custom()
+                        .limitForPeriod(2)
+                        .limitRefreshPeriod(Duration.ofMillis(50))
+                        .timeoutDuration(Duration.ofSeconds(5))
+                        .build()
+        );
+        Retry retry = Retry.of(
+                "test",
+                RetryConfig.custom()
+                        .maxAttempts(2)
+                        .waitDuration(Duration.ofMillis(10))
+                        .retryExceptions(RetryableException.class)
+                        .build()
+        );
+        Set<String> attempted = ConcurrentHashMap.newKeySet();
+        List<String> callingThreads = new CopyOnWriteArrayList<>();
+
+        RequestPublisher requests = new RequestPublisher(6);
+        Function<Flow.Publisher<BackendRequest>, Flow.Publisher<String>> operator = FlowDecorators
+                .ofFunction((BackendRequest request) -> {
+                    callingThreads.add(Thread.currentThread().getName());
+                    if (attempted.add(request.param1())) {
+                        throw new RetryableException();
+                    }
+                    return request.param1();
+                }, executor)
+                .withRetry(retry)
+                .withRateLimiter(rateLimiter)
+                .decorate();
+        ResultSubscriber subscriber = new ResultSubscriber(Long.MAX_VALUE);
+
+        // when
+        operator.apply(requests).subscribe(subscriber);
+
+        // then
+        assertTrue(subscriber.completed.await(2, TimeUnit.SECONDS));
+        assertNull(subscriber.failure);
+        assertEquals(6, subscriber.results.size());
+        assertEquals(12, callingThreads.size());
+        callingThreads.forEach(threadName -> assertTrue(threadName.startsWith("flow-"), threadName));
+    }
+
+    private static class RequestPublisher implements Flow.Publisher<BackendRequest> {
+
+        private final int size;
+
+        private final AtomicLong requested = new AtomicLong();
+
+        private volatile boolean cancelled;
+
+        RequestPublisher(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super BackendRequest> subscriber) {
+            AtomicInteger wip = new AtomicInteger();
+            AtomicLong emitted = new AtomicLong();
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    requested.addAndGet(n);
+                    if (wip.getAndIncrement() != 0) {
+                        return;
+                    }
+                    do {
+                        while (!cancelled && emitted.get() < Math.min(requested.get(), size)) {
+                            subscriber.onNext(new BackendRequest(String.valueOf(emitted.getAndIncrement()), "param2"));
+                        }
+                        if (!cancelled && emitted.get() == size) {
+                            cancelled = true;
+                            subscriber.onComplete();
+                        }
+                    } while (wip.decrementAndGet() != 0);
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled = true;
+                }
+            });
+        }
+    }
+
+    private static class ResultSubscriber implements Flow.Subscriber<String> {
+
+        private final long initialRequest;
+
+        private final List<String> results = new CopyOnWriteArrayList<>();
+
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        private volatile Throwable failure;
+
+        private Flow.Subscription subscription;
+
+        ResultSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        void request(long n) {
+            subscription.request(n);
+        }
+
+        boolean received(int count, Duration timeout) throws InterruptedException {
+            long deadline = System.nanoTime() + timeout.toNanos();
+            while (results.size() < count) {
+                if (System.nanoTime() > deadline) {
+                    return false;
+                }
+                Thread.sleep(5);
+            }
+            return true;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(initialRequest);
+        }
+
+        @Override
+        public void onNext(String item) {
+            results.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            failure = throwable;
+            completed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+    }
+}
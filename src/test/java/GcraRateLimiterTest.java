@@ -0,0 +1,125 @@
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import raccoonback.BackendService;
+import raccoonback.ratelimiter.GcraRateLimiter;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+public class GcraRateLimiterTest {
+
+    private RateLimiterConfig config = RateLimiterConfig.custom()
+            .timeoutDuration(Duration.ZERO)
+            .limitRefreshPeriod(Duration.ofMillis(500))
+            .limitForPeriod(2)
+            .build();
+
+    private BackendService backendService = mock(BackendService.class);
+
+    @Test
+    @DisplayName("쉬고 있었다면 burst size 만큼 연달아 호출할 수 있고, 그 뒤로는 거절한다")
+    void callsUntilBurstSize() {
+        // given
+        RateLimiter rateLimiter = GcraRateLimiter.of("test", config);
+
+        Supplier<String> decorateSupplier = RateLimiter.decorateSupplier(
+                rateLimiter,
+                () -> backendService.doSomething("param1", "param2")
+        );
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willReturn("ok");
+
+        // when, then
+        decorateSupplier.get();
+        decorateSupplier.get();
+        assertThrows(RequestNotPermitted.class, decorateSupplier::get);
+    }
+
+    @Test
+    @DisplayName("permit 은 refresh period 가 끝날 때 한꺼번에가 아니라 limit count 로 나눈 간격마다 하나씩 생긴다")
+    void refillOnePermitPerEmissionInterval() throws InterruptedException {
+        // given
+        RateLimiter rateLimiter = GcraRateLimiter.of("test", config);
+
+        Supplier<String> decorateSupplier = RateLimiter.decorateSupplier(
+                rateLimiter,
+                () -> backendService.doSomething("param1", "param2")
+        );
+
+        decorateSupplier.get();
+        decorateSupplier.get();
+
+        // when
+        Thread.sleep(300);
+
+        // then
+        decorateSupplier.get();
+        assertThrows(RequestNotPermitted.class, decorateSupplier::get);
+    }
+
+    @Test
+    @DisplayName("timeout duration 안에 permit 이 생긴다면 그만큼 기다렸다가 호출한다")
+    void waitForPermissionWithinTimeout() {
+        // given
+        RateLimiter rateLimiter = GcraRateLimiter.of(
+                "test",
+                RateLimiterConfig.from(config)
+                        .timeoutDuration(Duration.ofMillis(300))
+                        .build()
+        );
+
+        Supplier<String> decorateSupplier = RateLimiter.decorateSupplier(
+                rateLimiter,
+                () -> backendService.doSomething("param1", "param2")
+        );
+
+        decorateSupplier.get();
+        decorateSupplier.get();
+
+        // when
+        long start = System.nanoTime();
+        decorateSupplier.get();
+        long elapsed = System.nanoTime() - start;
+
+        // then
+        assertTrue(elapsed >= Duration.ofMillis(240).toNanos(), "elapsed: " + elapsed);
+
+        // 다음 permit 을 예약해두면 그 다음 permit 은 timeout duration 보다 오래 기다려야 한다
+        rateLimiter.reservePermission();
+        assertThrows(RequestNotPermitted.class, decorateSupplier::get);
+    }
+
+    @Test
+    @DisplayName("reservePermission 은 기다리지 않고 기다려야 할 시간을 돌려준다")
+    void reservePermissionReturnsDelay() {
+        // given
+        RateLimiter rateLimiter = GcraRateLimiter.of(
+                "test",
+                RateLimiterConfig.from(config)
+                        .timeoutDuration(Duration.ofSeconds(1))
+                        .build()
+        );
+
+        // when
+        long first = rateLimiter.reservePermission();
+        long second = rateLimiter.reservePermission();
+        long third = rateLimiter.reservePermission();
+        long fourth = rateLimiter.reservePermission();
+
+        // then
+        assertEquals(0, first);
+        assertEquals(0, second);
+        assertEquals(Duration.ofMillis(250).toNanos(), third, Duration.ofMillis(20).toNanos());
+        assertEquals(Duration.ofMillis(500).toNanos(), fourth, Duration.ofMillis(20).toNanos());
+        assertEquals(-2, rateLimiter.getMetrics().getAvailablePermissions());
+    }
+}
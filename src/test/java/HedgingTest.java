@@ -0,0 +1,215 @@
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
+import io.github.resilience4j.decorators.Decorators;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import raccoonback.BackendService;
+import raccoonback.RetryableException;
+import raccoonback.bulkhead.VirtualThreadBulkhead;
+import raccoonback.hedging.Hedging;
+import raccoonback.hedging.HedgingConfig;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+public class HedgingTest {
+
+    private HedgingConfig config = HedgingConfig.custom()
+            .minimumNumberOfCalls(5)
+            .latencyWindowSize(10)
+            .maxHedgeRatio(1.0)
+            .build();
+
+    private ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+
+    private ThreadPoolBulkhead threadPoolBulkhead = VirtualThreadBulkhead.of(
+            "test",
+            ThreadPoolBulkheadConfig.custom()
+                    .maxThreadPoolSize(4)
+                    .coreThreadPoolSize(1)
+                    .build()
+    );
+
+    private BackendService backendService = mock(BackendService.class);
+
+    @AfterEach
+    void tearDown() throws Exception {
+        scheduler.shutdownNow();
+        threadPoolBulkhead.close();
+    }
+
+    @Test
+    @DisplayName("원래 호출이 p95 latency 보다 오래 걸리면 hedge 호출의 결과를 먼저 돌려준다")
+    void returnHedgedResultIfPrimaryIsSlow() {
+        // given
+        Hedging hedging = Hedging.of("test", config);
+        Supplier<CompletionStage<String>> decoratedSupplier = hedgedSupplier(hedging, threadPoolBulkhead);
+        warmUp(hedging);
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willAnswer((unUsed) -> {
+                    Thread.sleep(2_000);
+                    return "slow";
+                })
+                .willReturn("fast");
+
+        // when
+        String result = assertTimeout(
+                Duration.ofMillis(1_000),
+                () -> decoratedSupplier.get().toCompletableFuture().join()
+        );
+
+        // then
+        assertEquals("fast", result);
+        assertEquals(1, hedging.getMetrics().getNumberOfHedges());
+        assertEquals(1, hedging.getMetrics().getNumberOfHedgeWins());
+    }
+
+    @Test
+    @DisplayName("latency 가 충분히 쌓이기 전이나 원래 호출이 빠르면 hedge 하지 않는다")
+    void notHedgeIfPrimaryIsFast() {
+        // given
+        Hedging hedging = Hedging.of(
+                "test",
+                HedgingConfig.custom()
+                        .minimumNumberOfCalls(5)
+                        .latencyWindowSize(10)
+                        .minHedgeDelay(Duration.ofMillis(500))
+                        .maxHedgeRatio(1.0)
+                        .build()
+        );
+        Supplier<CompletionStage<String>> decoratedSupplier = hedgedSupplier(hedging, threadPoolBulkhead);
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willReturn("ok");
+
+        // when
+        IntStream.range(0, 20).forEach((index) -> {
+            decoratedSupplier.get().toCompletableFuture().join();
+        });
+
+        // then
+        verify(backendService, times(20))
+                .doSomething("param1", "param2");
+        assertEquals(0, hedging.getMetrics().getNumberOfHedges());
+    }
+
+    @Test
+    @DisplayName("hedge 비율 한도를 넘으면 hedge 하지 않고 원래 호출을 기다린다")
+    void notHedgeOverMaxHedgeRatio() {
+        // given
+        Hedging hedging = Hedging.of(
+                "test",
+                HedgingConfig.custom()
+                        .minimumNumberOfCalls(5)
+                        .latencyWindowSize(10)
+                        .maxHedgeRatio(0)
+                        .build()
+        );
+        Supplier<CompletionStage<String>> decoratedSupplier = hedgedSupplier(hedging, threadPoolBulkhead);
+        warmUp(hedging);
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willAnswer((unUsed) -> {
+                    Thread.sleep(300);
+                    return "slow";
+                });
+
+        // when
+        String result = decoratedSupplier.get().toCompletableFuture().join();
+
+        // then
+        assertEquals("slow", result);
+        assertEquals(0, hedging.getMetrics().getNumberOfHedges());
+        assertEquals(1, hedging.getMetrics().getNumberOfRejectedHedges());
+    }
+
+    @Test
+    @DisplayName("bulkhead 가 가득 차 hedge 가 거절되더라도 원래 호출의 결과를 돌려준다")
+    void returnPrimaryResultIfHedgeIsRejectedByBulkhead() throws Exception {
+        // given
+        Hedging hedging = Hedging.of("test", config);
+        try (ThreadPoolBulkhead bulkhead = VirtualThreadBulkhead.of(
+                "single",
+                ThreadPoolBulkheadConfig.custom()
+                        .maxThreadPoolSize(1)
+                        .coreThreadPoolSize(1)
+                        .queueCapacity(0)
+                        .build()
+        )) {
+            Supplier<CompletionStage<String>> decoratedSupplier = hedgedSupplier(hedging, bulkhead);
+            warmUp(hedging);
+
+            given(backendService.doSomething(anyString(), anyString()))
+                    .willAnswer((unUsed) -> {
+                        Thread.sleep(300);
+                        return "slow";
+                    });
+
+            // when
+            String result = decoratedSupplier.get().toCompletableFuture().join();
+
+            // then
+            assertEquals("slow", result);
+            assertEquals(1, hedging.getMetrics().getNumberOfHedges());
+            verify(backendService, times(6))
+                    .doSomething("param1", "param2");
+        }
+    }
+
+    @Test
+    @DisplayName("모든 호출이 실패하면 원래 호출의 예외로 실패한다")
+    void failIfAllAttemptsFailed() {
+        // given
+        Hedging hedging = Hedging.of("test", config);
+        Supplier<CompletionStage<String>> decoratedSupplier = hedgedSupplier(hedging, threadPoolBulkhead);
+        warmUp(hedging);
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willThrow(RetryableException.class);
+
+        // when
+        CompletionException exception = assertThrows(
+                CompletionException.class,
+                () -> decoratedSupplier.get().toCompletableFuture().join()
+        );
+
+        // then
+        assertInstanceOf(RetryableException.class, exception.getCause());
+    }
+
+    private Supplier<CompletionStage<String>> hedgedSupplier(Hedging hedging, ThreadPoolBulkhead bulkhead) {
+        return Hedging.decorateCompletionStage(
+                hedging,
+                scheduler,
+                Decorators.ofSupplier(() -> backendService.doSomething("param1", "param2"))
+                        .withThreadPoolBulkhead(bulkhead)
+                        .decorate()
+        );
+    }
+
+    private void warmUp(Hedging hedging) {
+        Supplier<CompletionStage<String>> decoratedSupplier = hedgedSupplier(hedging, threadPoolBulkhead);
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willAnswer((unUsed) -> {
+                    Thread.sleep(10);
+                    return "ok";
+                });
+
+        IntStream.range(0, 5).forEach((index) -> {
+            decoratedSupplier.get().toCompletableFuture().join();
+        });
+    }
+}
@@ -0,0 +1,163 @@
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import raccoonback.BackendService;
+import raccoonback.RetryableException;
+import raccoonback.circuitbreaker.KeyedCircuitBreaker;
+import raccoonback.circuitbreaker.KeyedCircuitBreakerConfig;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+public class KeyedCircuitBreakerTest {
+
+    private CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom()
+            .slidingWindowSize(10)
+            .minimumNumberOfCalls(4)
+            .failureRateThreshold(50)
+            .waitDurationInOpenState(Duration.ofMillis(100))
+            .permittedNumberOfCallsInHalfOpenState(1)
+            .build();
+
+    private BackendService backendService = mock(BackendService.class);
+
+    @Test
+    @DisplayName("실패율이 기준을 넘은 key 만 열리고 다른 key 는 계속 호출한다")
+    void openOnlyFailingKey() {
+        // given
+        KeyedCircuitBreaker<String> circuitBreaker = KeyedCircuitBreaker.of(
+                "test",
+                KeyedCircuitBreakerConfig.custom()
+                        .circuitBreakerConfig(circuitBreakerConfig)
+                        .build()
+        );
+
+        given(backendService.doSomething(eq("tenant-a"), anyString()))
+                .willThrow(RetryableException.class);
+        given(backendService.doSomething(eq("tenant-b"), anyString()))
+                .willReturn("SUCCESS");
+
+        // when
+        for (int i = 0; i < 4; i++) {
+            assertThrows(
+                    RetryableException.class,
+                    () -> circuitBreaker.executeSupplier("tenant-a", () -> backendService.doSomething("tenant-a", "param2"))
+            );
+        }
+
+        // then
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState("tenant-a"));
+        assertThrows(
+                CallNotPermittedException.class,
+                () -> circuitBreaker.executeSupplier("tenant-a", () -> backendService.doSomething("tenant-a", "param2"))
+        );
+        assertEquals("SUCCESS", circuitBreaker.executeSupplier("tenant-b", () -> backendService.doSomething("tenant-b", "param2")));
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState("tenant-b"));
+        assertEquals(1, circuitBreaker.getMetrics().getNumberOfMaterializedBreakers());
+        verify(backendService, times(4))
+                .doSomething("tenant-a", "param2");
+    }
+
+    @Test
+    @DisplayName("열렸던 key 가 다시 닫히면 만들어 둔 circuit breaker 를 버린다")
+    void dropCircuitBreakerWhenKeyCloses() throws Exception {
+        // given
+        KeyedCircuitBreaker<String> circuitBreaker = KeyedCircuitBreaker.of(
+                "test",
+                KeyedCircuitBreakerConfig.custom()
+                        .circuitBreakerConfig(circuitBreakerConfig)
+                        .build()
+        );
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willThrow(RetryableException.class)
+                .willThrow(RetryableException.class)
+                .willThrow(RetryableException.class)
+                .willThrow(RetryableException.class)
+                .willReturn("SUCCESS");
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(
+                    RetryableException.class,
+                    () -> circuitBreaker.executeSupplier("tenant-a", () -> backendService.doSomething("tenant-a", "param2"))
+            );
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState("tenant-a"));
+
+        // when
+        Thread.sleep(150);
+        String result = circuitBreaker.executeSupplier("tenant-a", () -> backendService.doSomething("tenant-a", "param2"));
+
+        // then
+        assertEquals("SUCCESS", result);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState("tenant-a"));
+        assertTrue(circuitBreaker.findCircuitBreaker("tenant-a").isEmpty());
+        assertEquals(0, circuitBreaker.getMetrics().getNumberOfMaterializedBreakers());
+        assertEquals(1, circuitBreaker.getMetrics().getNumberOfOpenedKeys());
+    }
+
+    @Test
+    @DisplayName("key 수가 maximumKeys 를 넘으면 오래 쓰지 않은 key 부터 버린다")
+    void boundNumberOfKeys() {
+        // given
+        KeyedCircuitBreaker<Integer> circuitBreaker = KeyedCircuitBreaker.of(
+                "test",
+                KeyedCircuitBreakerConfig.custom()
+                        .circuitBreakerConfig(circuitBreakerConfig)
+                        .maximumKeys(100)
+                        .maximumMaterializedBreakers(10)
+                        .build()
+        );
+
+        // when
+        for (int key = 0; key < 10_000; key++) {
+            circuitBreaker.executeSupplier(key, () -> "SUCCESS");
+        }
+
+        // then
+        assertTrue(circuitBreaker.getMetrics().getNumberOfKeys() <= 100);
+    }
+
+    @Test
+    @DisplayName("expireAfterIdle 동안 호출이 없던 key 의 상태와 circuit breaker 를 버린다")
+    void evictIdleKeys() {
+        // given
+        AtomicLong nanoTime = new AtomicLong();
+        KeyedCircuitBreaker<String> circuitBreaker = KeyedCircuitBreaker.of(
+                "test",
+                KeyedCircuitBreakerConfig.custom()
+                        .circuitBreakerConfig(circuitBreakerConfig)
+                        .expireAfterIdle(Duration.ofMinutes(1))
+                        .clock(nanoTime::get)
+                        .build()
+        );
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willThrow(RetryableException.class);
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(
+                    RetryableException.class,
+                    () -> circuitBreaker.executeSupplier("tenant-a", () -> backendService.doSomething("tenant-a", "param2"))
+            );
+        }
+        circuitBreaker.executeSupplier("tenant-b", () -> "SUCCESS");
+        assertEquals(2, circuitBreaker.getMetrics().getNumberOfKeys());
+        assertEquals(1, circuitBreaker.getMetrics().getNumberOfMaterializedBreakers());
+
+        // when
+        nanoTime.addAndGet(Duration.ofMinutes(2).toNanos());
+
+        // then
+        assertEquals(0, circuitBreaker.getMetrics().getNumberOfKeys());
+        assertEquals(0, circuitBreaker.getMetrics().getNumberOfMaterializedBreakers());
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState("tenant-a"));
+    }
+}
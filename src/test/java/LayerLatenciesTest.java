@@ -0,0 +1,122 @@
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.core.IntervalBiFunction;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.decorators.Decorators;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import raccoonback.BackendService;
+import raccoonback.RetryableException;
+import raccoonback.metrics.HistogramSnapshot;
+import raccoonback.metrics.LatencyHistogram;
+import raccoonback.metrics.LayerLatencies;
+import raccoonback.metrics.LayerLatencies.Layer;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+public class LayerLatenciesTest {
+
+    private BackendService backendService = mock(BackendService.class);
+
+    @Test
+    @DisplayName("histogram 의 percentile 은 기록한 값과 1/32 이내로 차이난다")
+    void percentileWithinRelativeError() {
+        // given
+        LatencyHistogram histogram = LatencyHistogram.create();
+
+        // when
+        LongStream.rangeClosed(1, 10_000).forEach((value) -> histogram.record(value * 1_000));
+
+        // then
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(10_000, snapshot.getTotalCount());
+        assertEquals(5_000_000, snapshot.getValueAtPercentile(50), 5_000_000 / 32.0);
+        assertEquals(9_900_000, snapshot.getValueAtPercentile(99), 9_900_000 / 32.0);
+        assertEquals(10_000_000, snapshot.getMax(), 10_000_000 / 32.0);
+        assertEquals(5_000_500, snapshot.getMean(), 5_000_500 / 32.0);
+    }
+
+    @Test
+    @DisplayName("interval snapshot 은 직전 interval snapshot 이후에 기록한 값만 담는다")
+    void intervalSnapshotContainsOnlyNewValues() {
+        // given
+        LatencyHistogram histogram = LatencyHistogram.create();
+        LongStream.range(0, 100).forEach((value) -> histogram.record(1_000));
+        histogram.intervalSnapshot();
+
+        // when
+        LongStream.range(0, 10).forEach((value) -> histogram.record(1_000_000));
+        HistogramSnapshot interval = histogram.intervalSnapshot();
+
+        // then
+        assertEquals(10, interval.getTotalCount());
+        assertEquals(1_000_000, interval.getValueAtPercentile(50), 1_000_000 / 32.0);
+        assertEquals(110, histogram.snapshot().getTotalCount());
+    }
+
+    @Test
+    @DisplayName("decorator 층마다 걸린 시간을 나누어 기록한다")
+    void recordLatencyPerLayer() {
+        // given
+        LayerLatencies latencies = LayerLatencies.create();
+
+        Retry retry = Retry.of(
+                "test",
+                RetryConfig.<String>custom()
+                        .maxAttempts(2)
+                        .intervalBiFunction(latencies.timed(IntervalBiFunction.ofIntervalFunction(IntervalFunction.of(Duration.ofMillis(50)))))
+                        .build()
+        );
+
+        RateLimiter rateLimiter = RateLimiter.of(
+                "test",
+                RateLimiterConfig.custom()
+                        .limitForPeriod(1)
+                        .limitRefreshPeriod(Duration.ofMillis(100))
+                        .timeoutDuration(Duration.ofSeconds(1))
+                        .build()
+        );
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willAnswer((unUsed) -> {
+                    Thread.sleep(20);
+                    throw new RetryableException();
+                })
+                .willAnswer((unUsed) -> {
+                    Thread.sleep(20);
+                    return "ok";
+                });
+
+        Supplier<String> decoratedSupplier = Decorators.ofSupplier(latencies.timeBackend(() -> backendService.doSomething("param1", "param2")))
+                .withBulkhead(latencies.timed(Bulkhead.ofDefaults("test")))
+                .withRateLimiter(latencies.timed(rateLimiter))
+                .withRetry(retry)
+                .decorate();
+
+        // when
+        String result = decoratedSupplier.get();
+
+        // then
+        assertEquals("ok", result);
+
+        Map<Layer, HistogramSnapshot> snapshots = latencies.intervalSnapshot();
+        assertEquals(2, snapshots.get(Layer.BACKEND).getTotalCount());
+        assertTrue(snapshots.get(Layer.BACKEND).getValueAtPercentile(50) >= Duration.ofMillis(20).toNanos());
+        assertEquals(2, snapshots.get(Layer.BULKHEAD_PERMIT).getTotalCount());
+        assertEquals(2, snapshots.get(Layer.RATE_LIMITER_PERMIT).getTotalCount());
+        assertEquals(1, snapshots.get(Layer.RETRY_BACKOFF).getTotalCount());
+        assertEquals(Duration.ofMillis(50).toNanos(), snapshots.get(Layer.RETRY_BACKOFF).getMax(), Duration.ofMillis(50).toNanos() / 32.0);
+        assertEquals(0, snapshots.get(Layer.THREAD_POOL_QUEUE).getTotalCount());
+    }
+}
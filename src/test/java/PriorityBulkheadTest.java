@@ -0,0 +1,247 @@
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import raccoonback.BackendService;
+import raccoonback.bulkhead.PriorityBulkhead;
+import raccoonback.bulkhead.PriorityBulkhead.Priority;
+import raccoonback.bulkhead.PriorityBulkheadConfig;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+public class PriorityBulkheadTest {
+
+    private BackendService backendService = mock(BackendService.class);
+
+    @Test
+    @DisplayName("best-effort 호출은 critical 호출 몫으로 남겨 둔 permit 을 쓰지 못한다")
+    void reservePermitsForCriticalCalls() throws Exception {
+        // given
+        PriorityBulkhead bulkhead = PriorityBulkhead.of(
+                "test",
+                PriorityBulkheadConfig.custom()
+                        .maxConcurrentCalls(4)
+                        .reservedCriticalCalls(2)
+                        .build()
+        );
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<Void>> holders = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            holders.add(hold(bulkhead.bestEffort(), release));
+        }
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willReturn("SUCCESS");
+
+        Supplier<String> bestEffortCall = Bulkhead.decorateSupplier(
+                bulkhead.bestEffort(),
+                () -> backendService.doSomething("batch", "call")
+        );
+        Supplier<String> criticalCall = Bulkhead.decorateSupplier(
+                bulkhead.critical(),
+                () -> backendService.doSomething("interactive", "call")
+        );
+
+        // when, then
+        assertThrows(BulkheadFullException.class, bestEffortCall::get);
+        assertEquals("SUCCESS", criticalCall.get());
+        assertEquals(2, bulkhead.getMetrics(Priority.BEST_EFFORT).getNumberOfInFlightCalls());
+        assertEquals(1, bulkhead.getMetrics(Priority.BEST_EFFORT).getNumberOfRejectedCalls());
+        assertEquals(2, bulkhead.critical().getMetrics().getAvailableConcurrentCalls());
+
+        release.countDown();
+        CompletableFuture.allOf(holders.toArray(CompletableFuture[]::new)).join();
+        assertEquals(2, bulkhead.bestEffort().getMetrics().getAvailableConcurrentCalls());
+        assertEquals(4, bulkhead.critical().getMetrics().getAvailableConcurrentCalls());
+    }
+
+    @Test
+    @DisplayName("critical 호출이 기다리기 시작하면 기다리던 best-effort 호출은 바로 거절된다")
+    void shedWaitingBestEffortCallsWhenCriticalCallWaits() throws Exception {
+        // given
+        PriorityBulkhead bulkhead = PriorityBulkhead.of(
+                "test",
+                PriorityBulkheadConfig.custom()
+                        .maxConcurrentCalls(2)
+                        .reservedCriticalCalls(1)
+                        .criticalMaxWaitDuration(Duration.ofSeconds(2))
+                        .bestEffortMaxWaitDuration(Duration.ofSeconds(2))
+                        .build()
+        );
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> first = hold(bulkhead.critical(), release);
+        CompletableFuture<Void> second = hold(bulkhead.critical(), release);
+
+        // when
+        long startTime = System.nanoTime();
+        CompletableFuture<Boolean> bestEffortCall = CompletableFuture.supplyAsync(
+                () -> bulkhead.bestEffort().tryAcquirePermission()
+        );
+        Thread.sleep(100);
+        CompletableFuture<Boolean> criticalCall = CompletableFuture.supplyAsync(
+                () -> bulkhead.critical().tryAcquirePermission()
+        );
+
+        // then
+        assertFalse(bestEffortCall.get(1, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) < 1_000);
+        assertFalse(criticalCall.isDone());
+
+        // when
+        release.countDown();
+
+        // then
+        assertTrue(criticalCall.get(1, TimeUnit.SECONDS));
+        first.join();
+        second.join();
+        bulkhead.critical().onComplete();
+    }
+
+    @Test
+    @DisplayName("best-effort 호출이 몰려도 critical 호출은 기다리지 않고 들어간다")
+    void keepCriticalLatencyFlatUnderBestEffortFlood() throws Exception {
+        // given
+        PriorityBulkhead bulkhead = PriorityBulkhead.of(
+                "test",
+                PriorityBulkheadConfig.custom()
+                        .maxConcurrentCalls(4)
+                        .reservedCriticalCalls(2)
+                        .criticalMaxWaitDuration(Duration.ofMillis(500))
+                        .bestEffortMaxWaitDuration(Duration.ofMillis(500))
+                        .build()
+        );
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willAnswer((unUsed) -> {
+                    Thread.sleep(20);
+                    return "SUCCESS";
+                });
+
+        Supplier<String> bestEffortCall = Bulkhead.decorateSupplier(
+                bulkhead.bestEffort(),
+                () -> backendService.doSomething("batch", "call")
+        );
+        AtomicBoolean flooding = new AtomicBoolean(true);
+        List<Thread> batchThreads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            batchThreads.add(Thread.ofPlatform().daemon().start(() -> {
+                while (flooding.get()) {
+                    try {
+                        bestEffortCall.get();
+                    } catch (BulkheadFullException e) {
+                        // batch 는 거절되어도 다시 보낸다
+                    }
+                }
+            }));
+        }
+        Thread.sleep(100);
+
+        // when
+        AtomicLong maxWaitInNanos = new AtomicLong();
+        for (int i = 0; i < 20; i++) {
+            long start = System.nanoTime();
+            bulkhead.critical().acquirePermission();
+            maxWaitInNanos.accumulateAndGet(System.nanoTime() - start, Math::max);
+            try {
+                backendService.doSomething("interactive", "call");
+            } finally {
+                bulkhead.critical().onComplete();
+            }
+        }
+        flooding.set(false);
+        for (Thread batchThread : batchThreads) {
+            batchThread.join();
+        }
+
+        // then
+        assertEquals(0, bulkhead.getMetrics(Priority.CRITICAL).getNumberOfRejectedCalls());
+        assertTrue(
+                maxWaitInNanos.get() < TimeUnit.MILLISECONDS.toNanos(20),
+                "max wait " + TimeUnit.NANOSECONDS.toMillis(maxWaitInNanos.get()) + "ms"
+        );
+        assertEquals(4, bulkhead.critical().getMetrics().getAvailableConcurrentCalls());
+    }
+
+    @Test
+    @DisplayName("critical 호출 몫이 전체 permit 보다 적지 않으면 설정할 수 없다")
+    void rejectReservationCoveringAllPermits() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> PriorityBulkheadConfig.custom()
+                        .maxConcurrentCalls(2)
+                        .reservedCriticalCalls(2)
+                        .build()
+        );
+    }
+
+    @Test
+    @DisplayName("우선순위별로 설정을 바꾸면 나눠 쓰는 permit 수와 기다리는 시간이 함께 바뀐다")
+    void changeLaneConfig() {
+        // given
+        PriorityBulkhead bulkhead = PriorityBulkhead.of(
+                "test",
+                PriorityBulkheadConfig.custom()
+                        .maxConcurrentCalls(4)
+                        .reservedCriticalCalls(2)
+                        .build()
+        );
+
+        // when
+        bulkhead.critical().changeConfig(
+                BulkheadConfig.custom()
+                        .maxConcurrentCalls(6)
+                        .maxWaitDuration(Duration.ofMillis(100))
+                        .build()
+        );
+        bulkhead.bestEffort().changeConfig(
+                BulkheadConfig.custom()
+                        .maxConcurrentCalls(5)
+                        .build()
+        );
+
+        // then
+        assertEquals(6, bulkhead.getPriorityBulkheadConfig().getMaxConcurrentCalls());
+        assertEquals(1, bulkhead.getPriorityBulkheadConfig().getReservedCriticalCalls());
+        assertEquals(Duration.ofMillis(100), bulkhead.critical().getBulkheadConfig().getMaxWaitDuration());
+        assertEquals(5, bulkhead.bestEffort().getMetrics().getMaxAllowedConcurrentCalls());
+        for (int i = 0; i < 5; i++) {
+            assertTrue(bulkhead.bestEffort().tryAcquirePermission());
+        }
+        assertFalse(bulkhead.bestEffort().tryAcquirePermission());
+        assertTrue(bulkhead.critical().tryAcquirePermission());
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> bulkhead.bestEffort().changeConfig(BulkheadConfig.custom().maxConcurrentCalls(7).build())
+        );
+    }
+
+    private static CompletableFuture<Void> hold(Bulkhead bulkhead, CountDownLatch release) throws InterruptedException {
+        CountDownLatch acquired = new CountDownLatch(1);
+        CompletableFuture<Void> future = CompletableFuture.runAsync(
+                () -> bulkhead.executeRunnable(() -> {
+                    acquired.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                })
+        );
+        acquired.await();
+        return future;
+    }
+}
@@ -0,0 +1,94 @@
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import raccoonback.BackendService;
+import raccoonback.RetryableException;
+import raccoonback.registry.ResilienceHandle;
+import raccoonback.registry.ResilienceRegistry;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+public class ResilienceRegistryTest {
+
+    private BackendService backendService = mock(BackendService.class);
+
+    @Test
+    @DisplayName("같은 이름은 같은 handle 을 돌려주고 번호로도 같은 handle 을 찾는다")
+    void resolveSameHandle() {
+        // given
+        ResilienceRegistry registry = ResilienceRegistry.ofDefaults();
+
+        // when
+        ResilienceHandle first = registry.resolve("backendA");
+        ResilienceHandle second = registry.resolve("backendB");
+
+        // then
+        assertSame(first, registry.resolve("backendA"));
+        assertEquals(0, first.getIndex());
+        assertEquals(1, second.getIndex());
+        assertSame(first, registry.handle(first.getIndex()));
+        assertSame(second, registry.handle(second.getIndex()));
+        assertEquals(2, registry.size());
+    }
+
+    @Test
+    @DisplayName("handle 은 각 registry 에 등록된 인스턴스를 그대로 묶는다")
+    void shareInstancesWithRegistries() {
+        // given
+        ResilienceRegistry registry = ResilienceRegistry.ofDefaults();
+        CircuitBreaker circuitBreaker = registry.getCircuitBreakerRegistry().circuitBreaker("backendA");
+
+        // when
+        ResilienceHandle handle = registry.resolve("backendA");
+
+        // then
+        assertSame(circuitBreaker, handle.getCircuitBreaker());
+        assertSame(registry.getBulkheadRegistry().bulkhead("backendA"), handle.getBulkhead());
+        assertSame(registry.getRateLimiterRegistry().rateLimiter("backendA"), handle.getRateLimiter());
+        assertSame(registry.getRetryRegistry().retry("backendA"), handle.getRetry());
+    }
+
+    @Test
+    @DisplayName("handle 로 감싼 호출은 실패하면 retry 하고 circuit breaker 에 기록한다")
+    void decorateSupplier() {
+        // given
+        ResilienceRegistry registry = ResilienceRegistry.of(
+                CircuitBreakerRegistry.ofDefaults(),
+                BulkheadRegistry.ofDefaults(),
+                RateLimiterRegistry.ofDefaults(),
+                RetryRegistry.of(
+                        RetryConfig.custom()
+                                .maxAttempts(3)
+                                .waitDuration(Duration.ofMillis(10))
+                                .build()
+                )
+        );
+        ResilienceHandle handle = registry.resolve("backendA");
+
+        given(backendService.doSomething("param1", "param2"))
+                .willThrow(RetryableException.class)
+                .willReturn("SUCCESS");
+
+        Supplier<String> supplier = handle.decorateSupplier(() -> backendService.doSomething("param1", "param2"));
+
+        // when
+        String result = supplier.get();
+
+        // then
+        assertEquals("SUCCESS", result);
+        assertEquals(1, handle.getCircuitBreaker().getMetrics().getNumberOfFailedCalls());
+        assertEquals(1, handle.getCircuitBreaker().getMetrics().getNumberOfSuccessfulCalls());
+        verify(backendService, times(2))
+                .doSomething("param1", "param2");
+    }
+}
@@ -0,0 +1,161 @@
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.retry.MaxRetriesExceededException;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import raccoonback.BackendService;
+import raccoonback.ResilientCall;
+import raccoonback.RetryableException;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+import static io.github.resilience4j.circuitbreaker.CircuitBreaker.State.OPEN;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+public class ResilientCallTest {
+
+    private CircuitBreaker circuitBreaker = CircuitBreaker.of(
+            "test",
+            CircuitBreakerConfig.custom()
+                    .failureRateThreshold(50)
+                    .slidingWindowSize(4)
+                    .minimumNumberOfCalls(4)
+                    .build()
+    );
+
+    private Bulkhead bulkhead = Bulkhead.of(
+            "test",
+            BulkheadConfig.custom()
+                    .maxConcurrentCalls(1)
+                    .maxWaitDuration(Duration.ZERO)
+                    .build()
+    );
+
+    private Retry retry = Retry.of(
+            "test",
+            RetryConfig.<String>custom()
+                    .maxAttempts(3)
+                    .waitDuration(Duration.ofMillis(10))
+                    .retryOnResult(response -> response == "FAILED")
+                    .retryOnException(exception -> exception instanceof RetryableException)
+                    .failAfterMaxAttempts(true)
+                    .build()
+    );
+
+    private BackendService backendService = mock(BackendService.class);
+
+    private ResilientCall resilientCall = ResilientCall.of(backendService, circuitBreaker, bulkhead, retry);
+
+    @DisplayName("첫 시도가 성공하면 재시도하지 않는다")
+    @Test
+    void doesNotRetryIfFirstAttemptSucceeded() {
+        // given
+        given(backendService.doSomething(anyString(), anyString()))
+                .willReturn("SUCCESS");
+
+        // when
+        String result = resilientCall.call("param1", "param2");
+
+        // then
+        assertEquals("SUCCESS", result);
+        verify(backendService, only())
+                .doSomething("param1", "param2");
+        assertEquals(1, circuitBreaker.getMetrics().getNumberOfSuccessfulCalls());
+    }
+
+    @DisplayName("결과값이 재시도 조건에 부합하면 재시도한다")
+    @Test
+    void retryIfSatisfiedReturnValue() {
+        // given
+        given(backendService.doSomething(anyString(), anyString()))
+                .willReturn("FAILED")
+                .willReturn("SUCCESS");
+
+        // when
+        String result = resilientCall.call("param1", "param2");
+
+        // then
+        assertEquals("SUCCESS", result);
+        verify(backendService, times(2))
+                .doSomething("param1", "param2");
+        assertEquals(1, retry.getMetrics().getNumberOfSuccessfulCallsWithRetryAttempt());
+    }
+
+    @DisplayName("재시도 예외가 계속 발생하면 max attempts 까지만 호출하고 circuit 에 실패로 기록한다")
+    @Test
+    void retryUntilMaxAttempts() {
+        // given
+        given(backendService.doSomething(anyString(), anyString()))
+                .willThrow(RetryableException.class);
+
+        // when
+        assertThrows(
+                RetryableException.class,
+                () -> resilientCall.call("param1", "param2")
+        );
+
+        // then
+        verify(backendService, times(3))
+                .doSomething("param1", "param2");
+        assertEquals(3, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+    }
+
+    @DisplayName("결과값이 끝까지 재시도 조건에 부합하면 예외가 발생한다")
+    @Test
+    void raiseExceptionIfResultRetriesExhausted() {
+        // given
+        given(backendService.doSomething(anyString(), anyString()))
+                .willReturn("FAILED");
+
+        // when, then
+        assertThrows(
+                MaxRetriesExceededException.class,
+                () -> resilientCall.call("param1", "param2")
+        );
+    }
+
+    @DisplayName("circuit 이 open 이면 backend 를 호출하지 않는다")
+    @Test
+    void doesNotCallBackendIfCircuitOpened() {
+        // given
+        IntStream.range(0, 4).forEach((noOp) -> {
+            circuitBreaker.onError(0, circuitBreaker.getTimestampUnit(), new RuntimeException());
+        });
+        assertEquals(OPEN, circuitBreaker.getState());
+
+        // when, then
+        assertThrows(
+                CallNotPermittedException.class,
+                () -> resilientCall.call("param1", "param2")
+        );
+        verify(backendService, never())
+                .doSomething(anyString(), anyString());
+        assertEquals(1, bulkhead.getMetrics().getAvailableConcurrentCalls());
+    }
+
+    @DisplayName("bulkhead 가 가득 차면 예외가 발생한다")
+    @Test
+    void raiseExceptionIfBulkheadFull() {
+        // given
+        bulkhead.acquirePermission();
+
+        // when, then
+        assertThrows(
+                BulkheadFullException.class,
+                () -> resilientCall.call("param1", "param2")
+        );
+        verify(backendService, never())
+                .doSomething(anyString(), anyString());
+    }
+}
@@ -0,0 +1,196 @@
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import raccoonback.BackendRequest;
+import raccoonback.BackendService;
+import raccoonback.RetryableException;
+import raccoonback.cache.ResultCache;
+import raccoonback.cache.ResultCacheConfig;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+public class ResultCacheTest {
+
+    private AtomicLong nanoTime = new AtomicLong();
+
+    private BackendService backendService = mock(BackendService.class);
+
+    private BackendRequest request = new BackendRequest("param1", "param2");
+
+    @Test
+    @DisplayName("TTL 이내의 호출은 backend 를 다시 호출하지 않는다")
+    void returnCachedValueWithinTimeToLive() {
+        // given
+        ResultCache<BackendRequest, String> cache = ResultCache.of(
+                ResultCacheConfig.custom()
+                        .timeToLive(Duration.ofSeconds(10))
+                        .clock(nanoTime::get)
+                        .build()
+        );
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willReturn("ok");
+
+        Supplier<String> decoratedSupplier = ResultCache.decorateSupplier(cache, request, () -> backendService.doSomething("param1", "param2"));
+
+        // when
+        decoratedSupplier.get();
+        nanoTime.addAndGet(Duration.ofSeconds(9).toNanos());
+        String result = decoratedSupplier.get();
+
+        // then
+        assertEquals("ok", result);
+        verify(backendService, only())
+                .doSomething("param1", "param2");
+        assertEquals(1, cache.getMetrics().getNumberOfHits());
+    }
+
+    @Test
+    @DisplayName("TTL 이 지나면 backend 를 다시 호출한다")
+    void callBackendAfterTimeToLive() {
+        // given
+        ResultCache<BackendRequest, String> cache = ResultCache.of(
+                ResultCacheConfig.custom()
+                        .timeToLive(Duration.ofSeconds(10))
+                        .staleIfError(Duration.ZERO)
+                        .clock(nanoTime::get)
+                        .build()
+        );
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willReturn("first")
+                .willReturn("second");
+
+        Supplier<String> decoratedSupplier = ResultCache.decorateSupplier(cache, request, () -> backendService.doSomething("param1", "param2"));
+
+        // when
+        decoratedSupplier.get();
+        nanoTime.addAndGet(Duration.ofSeconds(11).toNanos());
+
+        // then
+        assertEquals("second", decoratedSupplier.get());
+    }
+
+    @Test
+    @DisplayName("stale-while-revalidate 동안은 이전 값을 돌려주고 백그라운드에서 갱신한다")
+    void returnStaleValueWhileRevalidating() {
+        // given
+        ResultCache<BackendRequest, String> cache = ResultCache.of(
+                ResultCacheConfig.custom()
+                        .timeToLive(Duration.ofSeconds(10))
+                        .staleWhileRevalidate(Duration.ofSeconds(10))
+                        .clock(nanoTime::get)
+                        .revalidationExecutor(Runnable::run)
+                        .build()
+        );
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willReturn("first")
+                .willReturn("second");
+
+        Supplier<String> decoratedSupplier = ResultCache.decorateSupplier(cache, request, () -> backendService.doSomething("param1", "param2"));
+
+        // when
+        decoratedSupplier.get();
+        nanoTime.addAndGet(Duration.ofSeconds(15).toNanos());
+
+        // then
+        assertEquals("first", decoratedSupplier.get());
+        assertEquals("second", decoratedSupplier.get());
+        assertEquals(1, cache.getMetrics().getNumberOfStaleHits());
+    }
+
+    @Test
+    @DisplayName("circuit 이 open 되어 호출이 거절되면 stale 값을 fallback 으로 돌려준다")
+    void returnStaleValueIfCircuitOpened() {
+        // given
+        ResultCache<BackendRequest, String> cache = ResultCache.of(
+                ResultCacheConfig.custom()
+                        .timeToLive(Duration.ofSeconds(10))
+                        .staleIfError(Duration.ofMinutes(1))
+                        .clock(nanoTime::get)
+                        .build()
+        );
+
+        CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("test");
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willReturn("ok");
+
+        Supplier<String> decoratedSupplier = ResultCache.decorateSupplier(
+                cache,
+                request,
+                CircuitBreaker.decorateSupplier(circuitBreaker, () -> backendService.doSomething("param1", "param2"))
+        );
+
+        decoratedSupplier.get();
+        nanoTime.addAndGet(Duration.ofSeconds(30).toNanos());
+
+        // when
+        circuitBreaker.transitionToOpenState();
+
+        // then
+        assertEquals("ok", decoratedSupplier.get());
+        assertEquals(1, cache.getMetrics().getNumberOfStaleIfErrorHits());
+    }
+
+    @Test
+    @DisplayName("stale-if-error 대상이 아닌 예외나 기간이 지난 값은 fallback 하지 않는다")
+    void raiseExceptionIfNotStaleIfError() {
+        // given
+        ResultCache<BackendRequest, String> cache = ResultCache.of(
+                ResultCacheConfig.custom()
+                        .timeToLive(Duration.ofSeconds(10))
+                        .staleIfError(Duration.ofMinutes(1))
+                        .clock(nanoTime::get)
+                        .build()
+        );
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willReturn("ok")
+                .willThrow(RetryableException.class);
+
+        Supplier<String> decoratedSupplier = ResultCache.decorateSupplier(cache, request, () -> backendService.doSomething("param1", "param2"));
+
+        decoratedSupplier.get();
+        nanoTime.addAndGet(Duration.ofSeconds(30).toNanos());
+
+        // when, then
+        assertThrows(RetryableException.class, decoratedSupplier::get);
+
+        nanoTime.addAndGet(Duration.ofMinutes(1).toNanos());
+        Supplier<String> rejectedSupplier = ResultCache.decorateSupplier(cache, request, () -> {
+            throw CallNotPermittedException.createCallNotPermittedException(CircuitBreaker.ofDefaults("test"));
+        });
+        assertThrows(CallNotPermittedException.class, rejectedSupplier::get);
+    }
+
+    @Test
+    @DisplayName("maximum size 를 넘으면 오래 쓰이지 않은 항목부터 내보낸다")
+    void evictEntriesOverMaximumSize() {
+        // given
+        ResultCache<BackendRequest, String> cache = ResultCache.of(
+                ResultCacheConfig.custom()
+                        .maximumSize(100)
+                        .clock(nanoTime::get)
+                        .build()
+        );
+
+        // when
+        IntStream.range(0, 1_000).forEach((index) -> {
+            cache.execute(new BackendRequest("param" + index, "param2"), () -> "ok");
+        });
+
+        // then
+        assertTrue(cache.estimatedSize() <= 100);
+    }
+}
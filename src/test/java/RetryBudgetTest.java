@@ -0,0 +1,195 @@
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import raccoonback.BackendService;
+import raccoonback.RetryableException;
+import raccoonback.retry.RetryBudget;
+import raccoonback.retry.RetryBudgetConfig;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+public class RetryBudgetTest {
+
+    RetryConfig config = RetryConfig.custom()
+            .maxAttempts(3)
+            .waitDuration(Duration.ofMillis(1))
+            .retryOnResult(response -> response == "FAILED")
+            .retryExceptions(RetryableException.class)
+            .build();
+
+    RetryRegistry registry = RetryRegistry.of(config);
+
+    private AtomicLong nanoTime = new AtomicLong();
+
+    private BackendService backendService = mock(BackendService.class);
+
+    @DisplayName("backend 가 모든 호출에 실패해도 재시도는 첫 시도의 retryRatio 비율까지만 한다")
+    @Test
+    void limitRetriesToRetryRatio() {
+        // given
+        RetryBudget budget = RetryBudget.of("test", budgetConfig(0.1, 0));
+        Retry retry = budget.retry(registry, "test");
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willThrow(RetryableException.class);
+
+        Supplier<String> supplier = Retry.decorateSupplier(retry, () -> backendService.doSomething("param1", "param2"));
+
+        // when
+        IntStream.range(0, 100).forEach((index) -> assertThrows(RetryableException.class, supplier::get));
+
+        // then
+        verify(backendService, times(110))
+                .doSomething("param1", "param2");
+        assertEquals(100, budget.getMetrics().getNumberOfRejectedRetries());
+        assertEquals(0, budget.getMetrics().getNumberOfAvailableRetries());
+        assertEquals(1.0, budget.getMetrics().getUtilization());
+    }
+
+    @DisplayName("같은 budget 으로 만든 retry 는 registry 안에서 token 을 함께 쓴다")
+    @Test
+    void shareBudgetAcrossRetries() {
+        // given
+        RetryBudget budget = RetryBudget.of("test", budgetConfig(0, 1));
+        Retry first = budget.retry(registry, "first");
+        Retry second = budget.retry(registry, "second");
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willReturn("FAILED");
+
+        // when
+        Retry.decorateSupplier(first, () -> backendService.doSomething("first", "call")).get();
+        Retry.decorateSupplier(first, () -> backendService.doSomething("first", "call")).get();
+        Retry.decorateSupplier(second, () -> backendService.doSomething("second", "call")).get();
+
+        // then
+        // window 10초 동안 minRetriesPerSecond 1 만큼 쌓인 10 개 중 세 호출이 재시도 2 번씩 썼다
+        verify(backendService, times(6))
+                .doSomething("first", "call");
+        verify(backendService, times(3))
+                .doSomething("second", "call");
+        assertEquals(4, budget.getMetrics().getNumberOfAvailableRetries());
+        assertEquals(0.6, budget.getMetrics().getUtilization(), 0.001);
+    }
+
+    @DisplayName("마지막 시도의 실패에는 token 을 쓰지 않는다")
+    @Test
+    void notWithdrawOnLastAttempt() {
+        // given
+        RetryBudget budget = RetryBudget.of("test", budgetConfig(0, 1));
+        Retry retry = budget.retry(registry, "test");
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willThrow(RetryableException.class);
+
+        Supplier<String> supplier = Retry.decorateSupplier(retry, () -> backendService.doSomething("param1", "param2"));
+
+        // when
+        assertThrows(RetryableException.class, supplier::get);
+
+        // then
+        verify(backendService, times(3))
+                .doSomething("param1", "param2");
+        assertEquals(8, budget.getMetrics().getNumberOfAvailableRetries());
+        assertEquals(0, budget.getMetrics().getNumberOfRejectedRetries());
+    }
+
+    @DisplayName("window 가 지나면 쌓였던 token 과 꺼낸 token 이 모두 사라진다")
+    @Test
+    void expireTokensAfterWindow() {
+        // given
+        RetryBudget budget = RetryBudget.of("test", budgetConfig(0.5, 0));
+        Retry retry = budget.retry(registry, "test");
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willReturn("SUCCESS");
+
+        Supplier<String> supplier = Retry.decorateSupplier(retry, () -> backendService.doSomething("param1", "param2"));
+        IntStream.range(0, 20).forEach((index) -> supplier.get());
+
+        // when
+        long availableInWindow = budget.getMetrics().getNumberOfAvailableRetries();
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        long availableAfterWindow = budget.getMetrics().getNumberOfAvailableRetries();
+
+        // then
+        assertEquals(10, availableInWindow);
+        assertEquals(0, availableAfterWindow);
+    }
+
+    @DisplayName("budget 으로 등록한 retry 는 registry 에서 이름으로 꺼내도 같은 budget 을 쓴다")
+    @Test
+    void useBudgetThroughRegistryLookup() {
+        // given
+        registry.retry("test");
+        RetryBudget budget = RetryBudget.of("test", budgetConfig(0.5, 0));
+        Retry registered = budget.retry(registry, "test");
+        Retry retry = registry.retry("test");
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willReturn("SUCCESS");
+
+        Supplier<String> supplier = Retry.decorateSupplier(retry, () -> backendService.doSomething("param1", "param2"));
+
+        // when
+        IntStream.range(0, 20).forEach((index) -> supplier.get());
+
+        // then
+        assertSame(registered, retry);
+        assertSame(registered, budget.retry(registry, "test"));
+        assertEquals(10, budget.getMetrics().getNumberOfAvailableRetries());
+    }
+
+    @DisplayName("60초로 나누어떨어지지 않는 window 도 설정한 길이가 지나면 token 이 사라진다")
+    @Test
+    void expireTokensAfterUnevenWindow() {
+        // given
+        RetryBudget budget = RetryBudget.of(
+                "test",
+                RetryBudgetConfig.custom()
+                        .retryRatio(1)
+                        .minRetriesPerSecond(0)
+                        .windowDuration(Duration.ofSeconds(90))
+                        .clock(nanoTime::get)
+                        .build()
+        );
+        Retry retry = budget.retry(registry, "test");
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willReturn("SUCCESS");
+
+        Retry.decorateSupplier(retry, () -> backendService.doSomething("param1", "param2")).get();
+
+        // when
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(89));
+        long availableInWindow = budget.getMetrics().getNumberOfAvailableRetries();
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        long availableAfterWindow = budget.getMetrics().getNumberOfAvailableRetries();
+
+        // then
+        assertEquals(1, availableInWindow);
+        assertEquals(0, availableAfterWindow);
+    }
+
+    private RetryBudgetConfig budgetConfig(double retryRatio, int minRetriesPerSecond) {
+        return RetryBudgetConfig.custom()
+                .retryRatio(retryRatio)
+                .minRetriesPerSecond(minRetriesPerSecond)
+                .windowDuration(Duration.ofSeconds(10))
+                .clock(nanoTime::get)
+                .build();
+    }
+}
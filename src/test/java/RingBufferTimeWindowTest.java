@@ -0,0 +1,268 @@
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.core.metrics.Metrics;
+import io.github.resilience4j.core.metrics.Snapshot;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import raccoonback.BackendService;
+import raccoonback.BusinessException;
+import raccoonback.OtherBusinessException;
+import raccoonback.circuitbreaker.RingBufferTimeWindow;
+import raccoonback.circuitbreaker.WindowedCircuitBreaker;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static io.github.resilience4j.circuitbreaker.CircuitBreaker.State.*;
+import static io.github.resilience4j.circuitbreaker.CircuitBreakerConfig.SlidingWindowType.TIME_BASED;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class RingBufferTimeWindowTest {
+
+    private CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom()
+            .slidingWindowType(TIME_BASED)
+            .failureRateThreshold(60)
+            .slowCallRateThreshold(30)
+            .slowCallDurationThreshold(Duration.ofMillis(100))
+            .automaticTransitionFromOpenToHalfOpenEnabled(true)
+            .waitDurationInOpenState(Duration.ofSeconds(1))
+            .permittedNumberOfCallsInHalfOpenState(4)
+            .slidingWindowSize(10)
+            .minimumNumberOfCalls(10)
+            .recordExceptions(IOException.class, TimeoutException.class)
+            .ignoreExceptions(BusinessException.class, OtherBusinessException.class)
+            .build();
+
+    private CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.of(circuitBreakerConfig);
+
+    private BackendService backendService = mock(BackendService.class);
+
+    private CircuitBreaker circuitBreaker = WindowedCircuitBreaker.of(
+            circuitBreakerRegistry.circuitBreaker("test"),
+            RingBufferTimeWindow.of(Duration.ofSeconds(10))
+    );
+
+    private Supplier<String> decoratedSupplier = CircuitBreaker.decorateSupplier(circuitBreaker, () -> backendService.doSomething("param1", "param2"));
+
+    @DisplayName("slow call rate가 임계치를 넘기면 circuit 상태는 open 이다.")
+    @Test
+    void openCircuitIfExceedsSlowCallRateThreshold() {
+        // given
+        given(backendService.doSomething(anyString(), anyString()))
+                .willAnswer(new Answer<String>() {
+                    private int count = 0;
+
+                    @Override
+                    public String answer(InvocationOnMock invocationOnMock) throws Throwable {
+                        if (count++ >= 7) {
+                            Thread.sleep(101);
+                        }
+
+                        return "ok";
+                    }
+                });
+
+        // when, then
+        IntStream.range(0, 6).forEach((noOp) -> {
+            decoratedSupplier.get();
+        });
+
+        IntStream.range(6, 10).forEach((noOp) -> {
+            decoratedSupplier.get();
+        });
+
+        assertEquals(OPEN, circuitBreaker.getState());
+    }
+
+    @DisplayName("circuit close -> open -> half-open -> close 전이 확인")
+    @TestFactory
+    Collection<DynamicTest> verifyReturnToCircuitClosedStateTransition() {
+        // given
+        given(backendService.doSomething(anyString(), anyString()))
+                .willAnswer(new Answer<String>() {
+                    private int count = 0;
+
+                    @Override
+                    public String answer(InvocationOnMock invocationOnMock) throws Throwable {
+                        count++;
+                        if (count > 7) {
+                            Thread.sleep(101);
+                        }
+
+                        return "ok";
+                    }
+                });
+
+        return List.of(
+                DynamicTest.dynamicTest("circuit 상태가 open", () -> {
+                    // when, then
+                    IntStream.range(0, 10).forEach((noOp) -> {
+                        decoratedSupplier.get();
+                    });
+
+                    assertEquals(OPEN, circuitBreaker.getState());
+                }),
+                DynamicTest.dynamicTest("open 상태로 1초 대기", () -> {
+                    Thread.sleep(1000);
+                }),
+                DynamicTest.dynamicTest("half-open 상태로 변경", () -> {
+                    assertEquals(HALF_OPEN, circuitBreaker.getState());
+                }),
+                DynamicTest.dynamicTest("half-open 상태에서 네 번 까지는 호출 가능", () -> {
+                    IntStream.range(10, 14).forEach((noOp) -> {
+                        decoratedSupplier.get();
+                    });
+                }),
+                DynamicTest.dynamicTest("다시 open 상태로 변경", () -> {
+                    assertEquals(OPEN, circuitBreaker.getState());
+                })
+        );
+    }
+
+    @DisplayName("circuit close -> open -> half-open -> close 전이 확인")
+    @TestFactory
+    Collection<DynamicTest> verifyReopenCircuitC() {
+        // given
+        given(backendService.doSomething(anyString(), anyString()))
+                .willAnswer(new Answer<String>() {
+                    private int count = 0;
+
+                    @Override
+                    public String answer(InvocationOnMock invocationOnMock) throws Throwable {
+                        count++;
+                        if (count > 10) {
+                            return "ok";
+                        }
+
+                        if (count > 6) {
+                            Thread.sleep(101);
+                        }
+
+                        return "ok";
+                    }
+                });
+
+        return List.of(
+                DynamicTest.dynamicTest("circuit 상태가 open", () -> {
+                    // when, then
+                    IntStream.range(0, 6).forEach((noOp) -> {
+                        assertDoesNotThrow(
+                                () -> decoratedSupplier.get()
+                        );
+                    });
+
+                    IntStream.range(6, 10).forEach((noOp) -> {
+                        decoratedSupplier.get();
+                    });
+
+                    assertEquals(OPEN, circuitBreaker.getState());
+                }),
+                DynamicTest.dynamicTest("open 상태로 1초 대기", () -> {
+                    Thread.sleep(1000);
+                }),
+                DynamicTest.dynamicTest("half-open 상태로 변경", () -> {
+                    assertEquals(HALF_OPEN, circuitBreaker.getState());
+                }),
+                DynamicTest.dynamicTest("half-open 상태에서 네 번 까지는 호출 가능", () -> {
+                    IntStream.range(10, 14).forEach((noOp) -> {
+                        decoratedSupplier.get();
+                    });
+                }),
+                DynamicTest.dynamicTest("close 상태로 변경", () -> {
+                    assertEquals(CLOSED, circuitBreaker.getState());
+                })
+        );
+    }
+
+    @DisplayName("window 길이가 지난 호출 결과는 집계에서 빠진다")
+    @Test
+    void evictCallsOlderThanWindow() {
+        // given
+        AtomicLong nanoTime = new AtomicLong();
+        RingBufferTimeWindow window = RingBufferTimeWindow.of(Duration.ofSeconds(10), nanoTime::get);
+
+        // when
+        window.record(10, Metrics.Outcome.ERROR);
+        nanoTime.addAndGet(Duration.ofSeconds(5).toNanos());
+        window.record(20, Metrics.Outcome.SLOW_SUCCESS);
+        nanoTime.addAndGet(Duration.ofSeconds(6).toNanos());
+
+        // then
+        Snapshot snapshot = window.getSnapshot();
+        assertEquals(1, snapshot.getTotalNumberOfCalls());
+        assertEquals(0, snapshot.getNumberOfFailedCalls());
+        assertEquals(1, snapshot.getTotalNumberOfSlowCalls());
+        assertEquals(Duration.ofNanos(20), snapshot.getTotalDuration());
+    }
+
+    @DisplayName("긴 window 는 bucket 하나가 여러 초를 맡고, 오래 비어 있던 window 는 한 번에 비워진다")
+    @Test
+    void coverLongWindowWithBoundedBuckets() {
+        // given
+        AtomicLong nanoTime = new AtomicLong();
+        RingBufferTimeWindow window = RingBufferTimeWindow.of(Duration.ofSeconds(300), nanoTime::get);
+
+        // when
+        IntStream.range(0, 300).forEach((second) -> {
+            window.record(1, Metrics.Outcome.SUCCESS);
+            nanoTime.addAndGet(Duration.ofSeconds(1).toNanos());
+        });
+
+        // then
+        assertEquals(295, window.getNumberOfBufferedCalls());
+
+        nanoTime.addAndGet(Duration.ofDays(1).toNanos());
+        assertEquals(0, window.getNumberOfBufferedCalls());
+    }
+
+    @DisplayName("bucket 수로 나누어떨어지지 않는 window 도 설정한 길이가 지나면 집계에서 빠진다")
+    @Test
+    void evictCallsOlderThanUnevenWindow() {
+        // given
+        AtomicLong nanoTime = new AtomicLong();
+        RingBufferTimeWindow window = RingBufferTimeWindow.of(Duration.ofSeconds(90), nanoTime::get);
+
+        // when
+        window.record(1, Metrics.Outcome.ERROR);
+        nanoTime.addAndGet(Duration.ofSeconds(89).toNanos());
+
+        // then
+        assertEquals(1, window.getNumberOfBufferedCalls());
+
+        nanoTime.addAndGet(Duration.ofSeconds(2).toNanos());
+        assertEquals(0, window.getNumberOfBufferedCalls());
+    }
+
+    @DisplayName("1초 단위로 떨어지지 않는 window 길이도 버리지 않고 반영한다")
+    @Test
+    void keepSubSecondWindowLength() {
+        // given
+        AtomicLong nanoTime = new AtomicLong();
+        RingBufferTimeWindow window = RingBufferTimeWindow.of(Duration.ofMillis(1_500), nanoTime::get);
+
+        // when
+        window.record(1, Metrics.Outcome.ERROR);
+        nanoTime.addAndGet(Duration.ofMillis(1_400).toNanos());
+
+        // then
+        assertEquals(1, window.getNumberOfBufferedCalls());
+
+        nanoTime.addAndGet(Duration.ofMillis(200).toNanos());
+        assertEquals(0, window.getNumberOfBufferedCalls());
+    }
+}
@@ -0,0 +1,313 @@
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.core.metrics.Metrics;
+import io.github.resilience4j.core.metrics.Snapshot;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import raccoonback.BackendService;
+import raccoonback.BusinessException;
+import raccoonback.OtherBusinessException;
+import raccoonback.circuitbreaker.StripedSlidingWindow;
+import raccoonback.circuitbreaker.WindowedCircuitBreaker;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static io.github.resilience4j.circuitbreaker.CircuitBreaker.State.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class StripedSlidingWindowTest {
+
+    private CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom()
+            .failureRateThreshold(40)
+            .automaticTransitionFromOpenToHalfOpenEnabled(true)
+            .waitDurationInOpenState(Duration.ofSeconds(1))
+            .permittedNumberOfCallsInHalfOpenState(4)
+            .slidingWindowSize(10)
+            .minimumNumberOfCalls(10)
+            .recordExceptions(IOException.class, TimeoutException.class)
+            .ignoreExceptions(BusinessException.class, OtherBusinessException.class)
+            .build();
+
+    private CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.of(circuitBreakerConfig);
+
+    private BackendService backendService = mock(BackendService.class);
+
+    private CircuitBreaker circuitBreaker = WindowedCircuitBreaker.of(
+            circuitBreakerRegistry.circuitBreaker("test"),
+            StripedSlidingWindow.of(10)
+    );
+
+    private Supplier<String> decoratedSupplier = CircuitBreaker.decorateSupplier(circuitBreaker, () -> backendService.doSomething("param1", "param2"));
+
+    @DisplayName("minimum number of calls 만큼 메서드 호출하지 않았다면 circuit은 close 상태이다.")
+    @Test
+    void closedCircuitEvenIfAlreadyExceedsFailureThresholdWithoutSatisfyingMinimumNumberOfCalls() {
+        // given
+        given(backendService.doSomething(anyString(), anyString()))
+                .willAnswer((invocation) -> {
+                    throw new IOException();
+                });
+
+        // when, then
+        IntStream.range(0, 9).forEach((noOp) -> {
+            assertThrows(
+                    IOException.class,
+                    () -> decoratedSupplier.get()
+            );
+        });
+        assertEquals(CLOSED, circuitBreaker.getState());
+        assertEquals(-1.0f, circuitBreaker.getMetrics().getFailureRate());
+    }
+
+    @DisplayName("실패율 임계치를 넘기지 않으면 circuit 상태는 close 이다.")
+    @Test
+    void closedCircuitIfDoesNotExceedsFailureThreshold() {
+        // given
+        given(backendService.doSomething(anyString(), anyString()))
+                .willAnswer(failAfter(7));
+
+        // when, then
+        IntStream.range(0, 7).forEach((noOp) -> {
+            assertDoesNotThrow(
+                    () -> decoratedSupplier.get()
+            );
+        });
+
+        IntStream.range(7, 10).forEach((noOp) -> {
+            assertThrows(
+                    IOException.class,
+                    () -> decoratedSupplier.get()
+            );
+        });
+
+        assertEquals(CLOSED, circuitBreaker.getState());
+        assertEquals(30.0f, circuitBreaker.getMetrics().getFailureRate());
+    }
+
+    @DisplayName("실패율 임계치를 넘기면 circuit 상태는 open 이다.")
+    @Test
+    void openCircuitIfExceedsFailureThreshold() {
+        // given
+        given(backendService.doSomething(anyString(), anyString()))
+                .willAnswer(failAfter(6));
+
+        // when, then
+        IntStream.range(0, 6).forEach((noOp) -> {
+            assertDoesNotThrow(
+                    () -> decoratedSupplier.get()
+            );
+        });
+
+        IntStream.range(6, 10).forEach((noOp) -> {
+            assertThrows(
+                    IOException.class,
+                    () -> decoratedSupplier.get()
+            );
+        });
+
+        assertEquals(OPEN, circuitBreaker.getState());
+    }
+
+    @DisplayName("window 크기를 넘긴 오래된 호출 결과는 실패율에서 빠진다.")
+    @Test
+    void evictOldestCallsOutOfWindow() {
+        // given
+        given(backendService.doSomething(anyString(), anyString()))
+                .willAnswer(new Answer<String>() {
+                    private int count = 0;
+
+                    @Override
+                    public String answer(InvocationOnMock invocationOnMock) throws Throwable {
+                        if (count++ < 3) {
+                            throw new IOException();
+                        }
+
+                        return "ok";
+                    }
+                });
+
+        // when
+        IntStream.range(0, 3).forEach((noOp) -> {
+            assertThrows(
+                    IOException.class,
+                    () -> decoratedSupplier.get()
+            );
+        });
+        IntStream.range(3, 13).forEach((noOp) -> {
+            assertDoesNotThrow(
+                    () -> decoratedSupplier.get()
+            );
+        });
+
+        // then
+        assertEquals(CLOSED, circuitBreaker.getState());
+        assertEquals(10, circuitBreaker.getMetrics().getNumberOfBufferedCalls());
+        assertEquals(0, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+    }
+
+    @DisplayName("ignoreExceptions에 포함되는 예외가 발생하면 failure 카운트로 집계하지 않는다.")
+    @Test
+    void doesNotCountFailureIfSatisfyingIgnoreExceptions() {
+        // given
+        given(backendService.doSomething(anyString(), anyString()))
+                .willAnswer((invocation) -> {
+                    throw new BusinessException();
+                });
+
+        // when, then
+        IntStream.range(0, 10).forEach((noOp) -> {
+            assertThrows(
+                    BusinessException.class,
+                    () -> decoratedSupplier.get()
+            );
+        });
+
+        assertEquals(CLOSED, circuitBreaker.getState());
+        assertEquals(0, circuitBreaker.getMetrics().getNumberOfBufferedCalls());
+    }
+
+    @DisplayName("circuit close -> open -> half-open -> close 전이 후 window 는 비워진다")
+    @TestFactory
+    Collection<DynamicTest> verifyReturnToCircuitClosedStateTransition() {
+        // given
+        given(backendService.doSomething(anyString(), anyString()))
+                .willAnswer(new Answer<String>() {
+                    private int count = 0;
+
+                    @Override
+                    public String answer(InvocationOnMock invocationOnMock) throws Throwable {
+                        count++;
+                        if (count > 10) {
+                            return "ok";
+                        }
+
+                        if (count > 6) {
+                            throw new IOException();
+                        }
+
+                        return "ok";
+                    }
+                });
+
+        return List.of(
+                DynamicTest.dynamicTest("circuit 상태가 open", () -> {
+                    // when, then
+                    IntStream.range(0, 6).forEach((noOp) -> {
+                        assertDoesNotThrow(
+                                () -> decoratedSupplier.get()
+                        );
+                    });
+
+                    IntStream.range(6, 10).forEach((noOp) -> {
+                        assertThrows(
+                                IOException.class,
+                                () -> decoratedSupplier.get()
+                        );
+                    });
+
+                    assertEquals(OPEN, circuitBreaker.getState());
+                }),
+                DynamicTest.dynamicTest("open 상태로 1초 대기", () -> {
+                    Thread.sleep(1000);
+                }),
+                DynamicTest.dynamicTest("half-open 상태로 변경", () -> {
+                    assertEquals(HALF_OPEN, circuitBreaker.getState());
+                }),
+                DynamicTest.dynamicTest("half-open 상태에서 네 번 까지는 호출 가능", () -> {
+                    IntStream.range(10, 14).forEach((noOp) -> {
+                        assertDoesNotThrow(
+                                () -> decoratedSupplier.get()
+                        );
+                    });
+                }),
+                DynamicTest.dynamicTest("close 상태로 변경되고 window 가 비워진다", () -> {
+                    assertEquals(CLOSED, circuitBreaker.getState());
+                    assertEquals(0, circuitBreaker.getMetrics().getNumberOfBufferedCalls());
+                })
+        );
+    }
+
+    @DisplayName("여러 스레드가 동시에 기록해도 window 크기만큼의 결과만 남는다")
+    @Test
+    void keepWindowSizeUnderConcurrentRecords() {
+        // given
+        StripedSlidingWindow window = StripedSlidingWindow.of(100);
+
+        // when
+        CompletableFuture.allOf(
+                        IntStream.range(0, 8)
+                                .mapToObj((noOp) -> CompletableFuture.runAsync(() -> {
+                                    IntStream.range(0, 10_000).forEach((count) -> {
+                                        window.record(1, Metrics.Outcome.ERROR);
+                                    });
+                                }))
+                                .toArray(CompletableFuture[]::new)
+                )
+                .join();
+
+        // then
+        Snapshot snapshot = window.getSnapshot();
+        assertEquals(100, snapshot.getTotalNumberOfCalls());
+        assertEquals(100, snapshot.getNumberOfFailedCalls());
+        assertEquals(Duration.ofNanos(100), snapshot.getTotalDuration());
+    }
+
+    @DisplayName("기록 중에 reset 해도 이후 카운터가 어긋나지 않는다")
+    @Test
+    void keepCountersConsistentUnderConcurrentReset() {
+        // given
+        StripedSlidingWindow window = StripedSlidingWindow.of(10);
+
+        // when
+        CompletableFuture<Void> records = CompletableFuture.allOf(
+                IntStream.range(0, 4)
+                        .mapToObj((noOp) -> CompletableFuture.runAsync(() -> {
+                            IntStream.range(0, 100_000).forEach((count) -> {
+                                window.record(1, count % 2 == 0 ? Metrics.Outcome.ERROR : Metrics.Outcome.SLOW_SUCCESS);
+                            });
+                        }))
+                        .toArray(CompletableFuture[]::new)
+        );
+        while (!records.isDone()) {
+            window.reset();
+        }
+        records.join();
+        IntStream.range(0, 10).forEach((count) -> window.record(1, Metrics.Outcome.SUCCESS));
+
+        // then
+        Snapshot snapshot = window.getSnapshot();
+        assertEquals(10, snapshot.getTotalNumberOfCalls());
+        assertEquals(0, snapshot.getNumberOfFailedCalls());
+        assertEquals(0, snapshot.getTotalNumberOfSlowCalls());
+    }
+
+    private Answer<String> failAfter(int successfulCalls) {
+        return new Answer<>() {
+            private int count = 0;
+
+            @Override
+            public String answer(InvocationOnMock invocationOnMock) throws Throwable {
+                if (count++ >= successfulCalls) {
+                    throw new IOException();
+                }
+
+                return "ok";
+            }
+        };
+    }
+}
@@ -0,0 +1,166 @@
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import raccoonback.BackendService;
+import raccoonback.bulkhead.VirtualThreadBulkhead;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+public class VirtualThreadBulkheadTest {
+
+    private ThreadPoolBulkheadConfig config = ThreadPoolBulkheadConfig.custom()
+            .maxThreadPoolSize(2)
+            .coreThreadPoolSize(1)
+            .queueCapacity(1)
+            .build();
+
+    private BackendService backendService = mock(BackendService.class);
+
+    @Test
+    @DisplayName("max thread pool size 만큼 동시 호출해야 한다")
+    void callConcurrentlyMaxPoolSize() {
+        // given
+        ThreadPoolBulkhead bulkhead = VirtualThreadBulkhead.of("test", config);
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willAnswer((unUsed) -> {
+                    Thread.sleep(400);
+                    return "ok";
+                });
+
+        Supplier<CompletionStage<String>> decoratedSupplier = ThreadPoolBulkhead.decorateSupplier(
+                bulkhead,
+                () -> backendService.doSomething("param1", "param2")
+        );
+
+        // when, then
+        assertTimeout(
+                Duration.ofMillis(500),
+                () -> {
+                    CompletableFuture.allOf(
+                                    decoratedSupplier.get().toCompletableFuture(),
+                                    decoratedSupplier.get().toCompletableFuture()
+                            )
+                            .join();
+                }
+        );
+    }
+
+    @Test
+    @DisplayName("queue capacity를 넘어서는 요청은 예외를 발생한다")
+    void raiseExceptionIfExceededCapacity() {
+        // given
+        ThreadPoolBulkhead bulkhead = VirtualThreadBulkhead.of("test", config);
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willAnswer((unUsed) -> {
+                    Thread.sleep(400);
+                    return "ok";
+                });
+
+        Supplier<CompletionStage<String>> decoratedSupplier = ThreadPoolBulkhead.decorateSupplier(
+                bulkhead,
+                () -> backendService.doSomething("param1", "param2")
+        );
+
+        // when
+        List<CompletableFuture<String>> admitted = IntStream.range(0, 3)
+                .mapToObj((noOp) -> decoratedSupplier.get().toCompletableFuture())
+                .toList();
+
+        // then
+        assertThrows(
+                BulkheadFullException.class,
+                () -> decoratedSupplier.get()
+        );
+
+        CompletableFuture.allOf(admitted.toArray(CompletableFuture[]::new)).join();
+        assertEquals(0, bulkhead.getMetrics().getQueueDepth());
+        assertEquals(2, bulkhead.getMetrics().getAvailableThreadCount());
+    }
+
+    @Test
+    @DisplayName("queue에 들어간 요청은 실행중인 호출이 끝난 뒤 실행된다")
+    void runQueuedCallAfterRunningCallFinished() {
+        // given
+        ThreadPoolBulkhead bulkhead = VirtualThreadBulkhead.of("test", config);
+
+        AtomicInteger concurrentCalls = new AtomicInteger();
+        AtomicInteger maxConcurrentCalls = new AtomicInteger();
+        given(backendService.doSomething(anyString(), anyString()))
+                .willAnswer((unUsed) -> {
+                    maxConcurrentCalls.accumulateAndGet(concurrentCalls.incrementAndGet(), Math::max);
+                    Thread.sleep(200);
+                    concurrentCalls.decrementAndGet();
+                    return "ok";
+                });
+
+        Supplier<CompletionStage<String>> decoratedSupplier = ThreadPoolBulkhead.decorateSupplier(
+                bulkhead,
+                () -> backendService.doSomething("param1", "param2")
+        );
+
+        // when
+        CompletableFuture.allOf(
+                        decoratedSupplier.get().toCompletableFuture(),
+                        decoratedSupplier.get().toCompletableFuture(),
+                        decoratedSupplier.get().toCompletableFuture()
+                )
+                .join();
+
+        // then
+        assertEquals(2, maxConcurrentCalls.get());
+    }
+
+    @Test
+    @DisplayName("수만 건의 blocking 호출도 platform thread 를 늘리지 않고 동시에 처리한다")
+    void callTensOfThousandsConcurrentlyWithoutPlatformThreads() {
+        // given
+        int calls = 20_000;
+        ThreadPoolBulkhead bulkhead = VirtualThreadBulkhead.of(
+                "test",
+                ThreadPoolBulkheadConfig.custom()
+                        .maxThreadPoolSize(calls)
+                        .coreThreadPoolSize(1)
+                        .queueCapacity(0)
+                        .build()
+        );
+
+        given(backendService.doSomething(anyString(), anyString()))
+                .willAnswer((unUsed) -> {
+                    Thread.sleep(1000);
+                    return "ok";
+                });
+
+        Supplier<CompletionStage<String>> decoratedSupplier = ThreadPoolBulkhead.decorateSupplier(
+                bulkhead,
+                () -> backendService.doSomething("param1", "param2")
+        );
+
+        // when
+        List<CompletableFuture<String>> futures = IntStream.range(0, calls)
+                .mapToObj((noOp) -> decoratedSupplier.get().toCompletableFuture())
+                .toList();
+
+        // then
+        assertTrue(ManagementFactory.getThreadMXBean().getThreadCount() < 1_000);
+        assertTimeout(
+                Duration.ofSeconds(10),
+                () -> CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join()
+        );
+    }
+}